@@ -3,6 +3,9 @@ import EffectCanvas from './components/EffectCanvas'
 import ConfigPanel from './components/ConfigPanel'
 import './App.css'
 
+// 桌面端参数推送服务（Java 程序只监听本机回环地址，端口见 cursorflow.params.port）
+const OVERLAY_PARAMS_URL = import.meta.env.VITE_CURSORFLOW_PARAMS_URL || 'http://127.0.0.1:7731/params'
+
 // 默认特效配置
 const defaultConfig = `// 粒子特效配置
 export default {
@@ -35,8 +38,9 @@ function App() {
   const [parsedConfig, setParsedConfig] = useState(null)
   const [error, setError] = useState(null)
   const [showPanel, setShowPanel] = useState(true)
+  const [pushStatus, setPushStatus] = useState(null)
 
-  // 解析用户配置
+  // 解析用户配置，失败时返回 null
   const parseConfig = (code) => {
     try {
       // 移除 export default 并执行配置代码
@@ -46,10 +50,10 @@ function App() {
       
       setParsedConfig(result)
       setError(null)
-      return true
+      return result
     } catch (e) {
       setError(`配置解析错误: ${e.message}`)
-      return false
+      return null
     }
   }
 
@@ -64,6 +68,36 @@ function App() {
     parseConfig(newConfig)
   }
 
+  // 推送到桌面上正在运行的特效（type 与函数不能在运行中替换，推送前剔除）
+  const handlePushConfig = async (newConfig, persist) => {
+    setConfig(newConfig)
+    const parsed = parseConfig(newConfig)
+    if (!parsed) return
+
+    const params = {}
+    for (const [key, value] of Object.entries(parsed)) {
+      if (key !== 'type' && typeof value !== 'function') params[key] = value
+    }
+    setPushStatus({ ok: true, message: '推送中…' })
+    try {
+      const response = await fetch(OVERLAY_PARAMS_URL, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ params, persist })
+      })
+      const result = await response.json()
+      if (!response.ok) {
+        setPushStatus({ ok: false, message: result.error || `推送失败 (${response.status})` })
+      } else if (persist && !result.persisted) {
+        setPushStatus({ ok: false, message: `已生效，但未写回配置文件：${result.message}` })
+      } else {
+        setPushStatus({ ok: true, message: `已应用到 ${result.effect}${result.persisted ? '，并写回配置文件' : ''}` })
+      }
+    } catch (e) {
+      setPushStatus({ ok: false, message: '无法连接桌面程序，请确认 CursorFlow 正在运行' })
+    }
+  }
+
   return (
     <div className="app">
       {/* 全屏特效画布 */}
@@ -73,6 +107,8 @@ function App() {
       <ConfigPanel
         config={config}
         onApply={handleApplyConfig}
+        onPush={handlePushConfig}
+        pushStatus={pushStatus}
         error={error}
         visible={showPanel}
         onToggle={() => setShowPanel(!showPanel)}
@@ -64,9 +64,10 @@ export default {
 }`
 }
 
-function ConfigPanel({ config, onApply, error, visible, onToggle }) {
+function ConfigPanel({ config, onApply, onPush, pushStatus, error, visible, onToggle }) {
   const [code, setCode] = useState(config)
   const [selectedTemplate, setSelectedTemplate] = useState('default')
+  const [persist, setPersist] = useState(false)
 
   useEffect(() => {
     setCode(config)
@@ -76,6 +77,10 @@ function ConfigPanel({ config, onApply, error, visible, onToggle }) {
     onApply(code)
   }
 
+  const handlePush = () => {
+    onPush(code, persist)
+  }
+
   const handleLoadTemplate = (templateName) => {
     setSelectedTemplate(templateName)
     setCode(templates[templateName])
@@ -133,6 +138,26 @@ function ConfigPanel({ config, onApply, error, visible, onToggle }) {
           ✨ 应用特效
         </button>
 
+        {/* 推送到桌面：参数在下一帧生效，可选写回用户配置文件 */}
+        <div className="push-section">
+          <label className="persist-option">
+            <input
+              type="checkbox"
+              checked={persist}
+              onChange={(e) => setPersist(e.target.checked)}
+            />
+            同时写回配置文件
+          </label>
+          <button className="push-button" onClick={handlePush}>
+            🖥️ 推送到桌面
+          </button>
+        </div>
+        {pushStatus && (
+          <div className={pushStatus.ok ? 'push-status' : 'error-message'}>
+            {pushStatus.message}
+          </div>
+        )}
+
         {/* 使用说明 */}
         <div className="help-section">
           <h3>📖 参数说明</h3>
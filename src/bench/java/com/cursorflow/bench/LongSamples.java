@@ -0,0 +1,56 @@
+package com.cursorflow.bench;
+
+import java.util.Arrays;
+
+/**
+ * 可增长的 long 样本序列（单线程写入），用于统计百分位
+ */
+final class LongSamples {
+    private long[] values = new long[4096];
+    private int size = 0;
+
+    void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    /**
+     * 复制一份排好序的样本
+     */
+    long[] sortedCopy() {
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * @param sorted     sortedCopy() 的结果
+     * @param percentile 0 ~ 100
+     */
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * 大于 threshold 的样本数
+     */
+    static int countAbove(long[] sorted, long threshold) {
+        int idx = Arrays.binarySearch(sorted, threshold + 1);
+        if (idx < 0) idx = -idx - 1;
+        // binarySearch 命中重复值时位置不确定，向前修正到第一个 > threshold 的位置
+        while (idx > 0 && sorted[idx - 1] > threshold) idx--;
+        return sorted.length - idx;
+    }
+}
@@ -0,0 +1,55 @@
+package com.cursorflow.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 进程级资源读取：本进程 RSS（Linux /proc）与所有子进程（Python）的累计 CPU 时间
+ */
+final class ProcessStats {
+    private static final Path STATUS = Path.of("/proc/self/status");
+
+    private ProcessStats() {
+    }
+
+    /**
+     * 本进程常驻内存（字节），非 Linux 或读取失败时返回 -1
+     */
+    static long residentSetBytes() {
+        if (!Files.isReadable(STATUS)) return -1;
+        try {
+            List<String> lines = Files.readAllLines(STATUS);
+            for (String line : lines) {
+                if (line.startsWith("VmRSS:")) {
+                    // 格式："VmRSS:	  123456 kB"
+                    String[] parts = line.substring(6).trim().split("\\s+");
+                    return Long.parseLong(parts[0]) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException ignored) {
+            // 读取失败按不支持处理
+        }
+        return -1;
+    }
+
+    /**
+     * 当前存活的子孙进程累计 CPU 时间（纳秒）
+     * 已退出的进程（如看门狗重启前的旧进程）不计入，因此只适合看区间增量。
+     */
+    static long descendantsCpuNanos() {
+        return ProcessHandle.current().descendants()
+                .map(p -> p.info().totalCpuDuration().orElse(Duration.ZERO))
+                .mapToLong(Duration::toNanos)
+                .sum();
+    }
+
+    /**
+     * 当前存活的子孙进程数
+     */
+    static long descendantsCount() {
+        return ProcessHandle.current().descendants().count();
+    }
+}
@@ -0,0 +1,547 @@
+package com.cursorflow.bench;
+
+import com.cursorflow.core.OverlayManager;
+import com.cursorflow.effect.EffectFactory;
+import com.cursorflow.effect.ITrailEffect;
+import com.cursorflow.input.EmitterParams;
+import com.cursorflow.input.PointerSources;
+import com.cursorflow.input.SyntheticPointerSource;
+import com.cursorflow.jfr.FrameEvent;
+import com.cursorflow.jfr.JfrSupport;
+import com.cursorflow.util.Metrics;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import javafx.application.Platform;
+import javafx.geometry.Rectangle2D;
+import javafx.stage.Screen;
+import jdk.jfr.Name;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 无头长时间压测：在 Monocle 无头平台上运行完整的 OverlayManager + 特效 + Python 链路，
+ * 用合成光标轨迹（或录制的轨迹）驱动若干分钟，输出可在不同构建之间 diff 的 JSON 报告。
+ *
+ * 报告内容：帧间隔与渲染耗时百分位、堆与 RSS 增长、GC 停顿、FX 队列延迟、IPC 延迟、Python CPU。
+ * 帧数据来自 JFR 帧事件（进程内 RecordingStream 订阅），图层本身不为压测留任何回调。
+ *
+ * 用法（Linux）：mvn -Psoak compile exec:exec -Dsoak.args="--duration 600 --effect python"
+ * Monocle 21 需要 Java 21 运行时：默认 JDK 不是 21 时加 -Dsoak.java=/path/to/jdk-21/bin/java
+ * 参数：
+ *   --duration 秒     压测时长（默认 300）
+ *   --warmup 秒       预热时长，之前的数据不计入（默认 10）
+ *   --effect 名称     python / native / snake / particle / flow / ink / java（默认 python）
+ *   --config 路径     Python 配置文件（python / native 使用）
+ *   --script 路径     Java 脚本特效的源文件（java 使用）
+ *   --workers N       Python worker 数（默认 1）
+ *   --pointers N      指针流总数，主指针之外再加 N-1 条不同轨迹的合成指针流（默认 1）
+ *   --trace 路径      回放录制的轨迹（循环），默认使用 1 kHz 合成轨迹
+ *   --report 路径     报告输出（默认 target/soak-report.json）
+ */
+public final class SoakBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(SoakBenchmark.class);
+
+    private static final String DEFAULT_CONFIG = "src/main/python/user_configs/my_particle_effect.py";
+    private static final String DEFAULT_SCRIPT = "src/main/python/user_configs/MyTrailEffect.java";
+    // 超过该帧间隔视为掉帧（两个 60 Hz 周期）
+    private static final long JANK_NANOS = 33_333_333L;
+    private static final long SAMPLE_PERIOD_MS = 1000;
+    private static final long FX_PROBE_PERIOD_MS = 100;
+
+    private static final String FRAME_EVENT = FrameEvent.class.getAnnotation(Name.class).value();
+    // 停止计数后等待事件流送达计数窗口之后的第一帧的上限（事件流约每秒刷新一次）
+    private static final long FRAME_DRAIN_TIMEOUT_SEC = 10;
+
+    // 以下样本只在 JFR 事件流线程写入，停止计数后由 framesDrained 发布给主线程
+    private final LongSamples frameIntervals = new LongSamples();
+    private final LongSamples renderTimes = new LongSamples();
+    private Instant lastFrameStart;
+    private long sampleCountTotal = 0;
+    private volatile Instant measureStart;
+    private volatile Instant measureEnd;
+    private final CountDownLatch framesDrained = new CountDownLatch(1);
+
+    // FX 线程写入
+    private final LongSamples fxQueueLag = new LongSamples();
+
+    // GC 通知线程写入
+    private final LongSamples gcPauses = new LongSamples();
+    private final LongSamples heapAfterGc = new LongSamples();
+    private final LongSamples heapAfterGcTime = new LongSamples();
+
+    // 采样线程写入
+    private final JsonArray timeline = new JsonArray();
+    private long pythonCpuNanos = 0;
+    private long lastPythonCpu = 0;
+    private long rssStart = -1;
+    private long rssEnd = -1;
+    private long rssPeak = -1;
+
+    private volatile boolean measuring = false;
+    private long measureStartNanos;
+    private long measureEndNanos;
+
+    private final Map<String, String> options;
+
+    private SoakBenchmark(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        configureHeadless(options);
+        // -Dcursorflow.jfr=soak.jfr 时同时录制 JFR，和报告里的慢帧对照
+        JfrSupport.startFromSystemProperties();
+
+        SoakBenchmark benchmark = new SoakBenchmark(options);
+        int exitCode = benchmark.run();
+        System.exit(exitCode);
+    }
+
+    private int run() throws Exception {
+        long durationSec = Long.parseLong(options.getOrDefault("duration", "300"));
+        long warmupSec = Long.parseLong(options.getOrDefault("warmup", "10"));
+        Path reportPath = Path.of(options.getOrDefault("report", "target/soak-report.json"));
+
+        // 1. 启动 FX 平台与图层
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.setImplicitExit(false);
+        RuntimeException[] startError = new RuntimeException[1];
+        Platform.startup(() -> {
+            try {
+                // 图层在这里创建：回放轨迹打不开等输入源错误直接结束压测
+                OverlayManager.getInstance();
+            } catch (RuntimeException e) {
+                startError[0] = e;
+            } finally {
+                started.countDown();
+            }
+        });
+        if (!started.await(30, TimeUnit.SECONDS)) {
+            LOG.error("JavaFX 平台启动超时");
+            return 2;
+        }
+        if (startError[0] != null) {
+            LOG.error("图层创建失败", startError[0]);
+            Platform.exit();
+            return 2;
+        }
+        RecordingStream frameStream = new RecordingStream();
+        frameStream.enable(FRAME_EVENT);
+        frameStream.onEvent(FRAME_EVENT, this::onFrame);
+        frameStream.startAsync();
+
+        // 2. 创建特效（可能要等 Python 检查配置，放在 FX 线程之外）
+        ITrailEffect effect = createEffect();
+        Platform.runLater(() -> OverlayManager.getInstance().switchEffect(effect));
+        addExtraPointers(Integer.parseInt(options.getOrDefault("pointers", "1")) - 1);
+        LOG.info("压测开始：特效 {}，预热 {} s，时长 {} s", effect.getClass().getSimpleName(), warmupSec, durationSec);
+
+        installGcListener();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SoakSampler");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // 3. 预热后开始计数
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSec));
+        runOnFxAndWait(() -> {
+            measureStartNanos = System.nanoTime();
+            measureStart = Instant.now();
+            measuring = true;
+        });
+        rssStart = ProcessStats.residentSetBytes();
+        lastPythonCpu = ProcessStats.descendantsCpuNanos();
+        sampler.scheduleAtFixedRate(this::sampleResources, SAMPLE_PERIOD_MS, SAMPLE_PERIOD_MS, TimeUnit.MILLISECONDS);
+        sampler.scheduleAtFixedRate(this::probeFxQueue, FX_PROBE_PERIOD_MS, FX_PROBE_PERIOD_MS, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSec));
+
+        // 4. 停止计数，收集报告后再释放特效（Python 进程的指标在 shutdown 时注销）
+        sampler.shutdownNow();
+        sampler.awaitTermination(5, TimeUnit.SECONDS);
+        Map<String, Number> metrics = Metrics.snapshot();
+        runOnFxAndWait(() -> {
+            measuring = false;
+            measureEndNanos = System.nanoTime();
+            measureEnd = Instant.now();
+        });
+        // 事件流落后于渲染：等它送达计数窗口之后的帧，窗口内的帧才算收齐
+        if (!framesDrained.await(FRAME_DRAIN_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+            LOG.warn("{} s 内未收到计数窗口之后的帧事件，帧统计可能不完整", FRAME_DRAIN_TIMEOUT_SEC);
+        }
+        frameStream.close();
+        JsonObject[] report = new JsonObject[1];
+        runOnFxAndWait(() -> {
+            report[0] = buildReport(metrics);
+            OverlayManager.getInstance().shutdown();
+        });
+
+        writeReport(report[0], reportPath);
+        Platform.exit();
+        return 0;
+    }
+
+    private ITrailEffect createEffect() {
+        String effect = options.getOrDefault("effect", "python");
+        Map<String, Object> config = new HashMap<>();
+        config.put("configFilePath", Path.of(options.getOrDefault("config", DEFAULT_CONFIG)).toAbsolutePath().toString());
+        config.put("workers", Integer.parseInt(options.getOrDefault("workers", "1")));
+
+        return switch (effect) {
+            case "snake" -> EffectFactory.createEffect("snake_line", config);
+            case "particle" -> EffectFactory.createEffect("particle", config);
+            case "flow" -> EffectFactory.createEffect("flow_field", config);
+            case "ink" -> EffectFactory.createEffect("persistent_ink", config);
+            case "java" -> {
+                config.put("scriptPath", Path.of(options.getOrDefault("script", DEFAULT_SCRIPT)).toAbsolutePath().toString());
+                yield EffectFactory.createEffect("java_source", config);
+            }
+            case "native" -> EffectFactory.createEffect("python_driven", config);
+            default -> {
+                // 强制走 Python 进程，压测完整的 IPC 链路
+                config.put("preferNative", false);
+                yield EffectFactory.createEffect("python_driven", config);
+            }
+        };
+    }
+
+    /**
+     * 附加合成指针流：轨迹中心和幅度各不相同，频率与主指针一致
+     */
+    private static void addExtraPointers(int count) {
+        Rectangle2D bounds = Screen.getPrimary().getVisualBounds();
+        for (int i = 1; i <= count; i++) {
+            double fraction = (double) i / (count + 1);
+            SyntheticPointerSource source = new SyntheticPointerSource(1000,
+                    bounds.getWidth() * fraction, bounds.getHeight() * (1 - fraction),
+                    bounds.getWidth() / 4, bounds.getHeight() / 5);
+            OverlayManager.getInstance().addPointerStream(source, EmitterParams.DEFAULT);
+        }
+    }
+
+    // --- 数据采集 ---
+
+    /**
+     * JFR 事件流线程：每帧一个帧事件，只统计开始时刻落在计数窗口内的帧
+     */
+    private void onFrame(RecordedEvent event) {
+        Instant start = event.getStartTime();
+        Instant from = measureStart;
+        if (from == null || start.isBefore(from)) return;
+        Instant to = measureEnd;
+        if (to != null && start.isAfter(to)) {
+            framesDrained.countDown();
+            return;
+        }
+
+        if (lastFrameStart != null) {
+            frameIntervals.add(Duration.between(lastFrameStart, start).toNanos());
+        }
+        lastFrameStart = start;
+        // 取采样 + 预测 + 特效渲染的耗时，与质量调节器看到的一致
+        renderTimes.add(event.getLong("pollTime") + event.getLong("drawTime"));
+        sampleCountTotal += event.getInt("sampleCount");
+    }
+
+    /**
+     * 采样线程：投递一个空任务，测量它在 FX 队列中等待的时间
+     */
+    private void probeFxQueue() {
+        long posted = System.nanoTime();
+        Platform.runLater(() -> {
+            if (measuring) fxQueueLag.add(System.nanoTime() - posted);
+        });
+    }
+
+    /**
+     * 采样线程：每秒记录一次内存与 Python CPU
+     */
+    private void sampleResources() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long rss = ProcessStats.residentSetBytes();
+        rssEnd = rss;
+        rssPeak = Math.max(rssPeak, rss);
+
+        // 子进程重启后累计值会变小，这时把新进程的全部 CPU 时间算作增量
+        long cpu = ProcessStats.descendantsCpuNanos();
+        long delta = cpu >= lastPythonCpu ? cpu - lastPythonCpu : cpu;
+        lastPythonCpu = cpu;
+        pythonCpuNanos += delta;
+
+        JsonObject point = new JsonObject();
+        point.addProperty("t_s", (System.nanoTime() - measureStartNanos) / 1_000_000_000L);
+        point.addProperty("heap_used_mb", mb(heap.getUsed()));
+        point.addProperty("rss_mb", mb(rss));
+        point.addProperty("python_cpu_pct", round(delta * 100.0 / TimeUnit.MILLISECONDS.toNanos(SAMPLE_PERIOD_MS)));
+        point.addProperty("python_processes", ProcessStats.descendantsCount());
+        synchronized (timeline) {
+            timeline.add(point);
+        }
+    }
+
+    private void installGcListener() {
+        NotificationListener listener = (notification, handback) -> {
+            if (!measuring) return;
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long used = info.getGcInfo().getMemoryUsageAfterGc().values().stream()
+                    .mapToLong(MemoryUsage::getUsed).sum();
+            synchronized (gcPauses) {
+                gcPauses.add(TimeUnit.MILLISECONDS.toNanos(info.getGcInfo().getDuration()));
+                heapAfterGc.add(used);
+                heapAfterGcTime.add(System.nanoTime() - measureStartNanos);
+            }
+        };
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(listener, null, null);
+            }
+        }
+    }
+
+    // --- 报告 ---
+
+    private JsonObject buildReport(Map<String, Number> metrics) {
+        double measuredSec = (measureEndNanos - measureStartNanos) / 1e9;
+
+        JsonObject report = new JsonObject();
+        JsonObject run = new JsonObject();
+        run.addProperty("started_at", measureStart.toString());
+        run.addProperty("measured_s", round(measuredSec));
+        run.addProperty("effect", options.getOrDefault("effect", "python"));
+        run.addProperty("config", options.getOrDefault("config", DEFAULT_CONFIG));
+        run.addProperty("workers", Integer.parseInt(options.getOrDefault("workers", "1")));
+        run.addProperty("pointers", Integer.parseInt(options.getOrDefault("pointers", "1")));
+        run.addProperty("pointer", options.containsKey("trace") ? "replay:" + options.get("trace") : "synthetic");
+        run.addProperty("java", System.getProperty("java.version"));
+        run.addProperty("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        run.addProperty("cpus", Runtime.getRuntime().availableProcessors());
+        report.add("run", run);
+
+        long[] intervals = frameIntervals.sortedCopy();
+        JsonObject frames = new JsonObject();
+        frames.addProperty("count", renderTimes.size());
+        frames.addProperty("fps", round(renderTimes.size() / measuredSec));
+        frames.add("interval_ms", percentiles(intervals));
+        frames.add("render_ms", percentiles(renderTimes.sortedCopy()));
+        frames.addProperty("janks_over_33ms", LongSamples.countAbove(intervals, JANK_NANOS));
+        frames.addProperty("samples_per_frame", round(renderTimes.size() == 0 ? 0 : (double) sampleCountTotal / renderTimes.size()));
+        report.add("frames", frames);
+
+        JsonObject memory = new JsonObject();
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        memory.addProperty("heap_used_end_mb", mb(heap.getUsed()));
+        memory.addProperty("rss_start_mb", mb(rssStart));
+        memory.addProperty("rss_end_mb", mb(rssEnd));
+        memory.addProperty("rss_peak_mb", mb(rssPeak));
+        JsonObject gc = new JsonObject();
+        synchronized (gcPauses) {
+            // GC 后的堆占用去掉了锯齿，斜率能反映真实的内存蠕变
+            memory.addProperty("heap_after_gc_growth_mb_per_min", round(slopePerMinute(heapAfterGcTime, heapAfterGc) / (1024 * 1024)));
+            long[] pauses = gcPauses.sortedCopy();
+            long total = 0;
+            for (long p : pauses) total += p;
+            gc.addProperty("count", pauses.length);
+            gc.addProperty("total_pause_ms", round(total / 1e6));
+            gc.add("pause_ms", percentiles(pauses));
+        }
+        synchronized (timeline) {
+            memory.addProperty("rss_growth_mb_per_min", round(rssSlopePerMinute()));
+        }
+        report.add("memory", memory);
+        report.add("gc", gc);
+
+        JsonObject fxQueue = new JsonObject();
+        fxQueue.addProperty("probes", fxQueueLag.size());
+        fxQueue.add("lag_ms", percentiles(fxQueueLag.sortedCopy()));
+        report.add("fx_queue", fxQueue);
+
+        JsonObject ipc = new JsonObject();
+        ipc.addProperty("transport_p95_ms", nanosMetric(metrics, "python.ipc.transport_p95_ns"));
+        ipc.addProperty("python_compute_p95_ms", nanosMetric(metrics, "python.compute_p95_ns"));
+        ipc.addProperty("input_to_draw_p95_ms", nanosMetric(metrics, "python.input_to_draw_p95_ns"));
+        ipc.addProperty("frames_in_flight", metrics.getOrDefault("python.frames_in_flight", 0));
+        ipc.addProperty("paced_skips", metrics.getOrDefault("python.pacer.skipped", 0));
+        report.add("ipc", ipc);
+
+        JsonObject python = new JsonObject();
+        python.addProperty("cpu_s", round(pythonCpuNanos / 1e9));
+        python.addProperty("cpu_pct_avg", round(pythonCpuNanos / 1e9 * 100 / measuredSec));
+        python.addProperty("watchdog_restarts", metrics.getOrDefault("python.watchdog.restarts", 0));
+        report.add("python", python);
+
+        JsonObject metricsJson = new JsonObject();
+        metrics.forEach(metricsJson::addProperty);
+        report.add("metrics", metricsJson);
+        synchronized (timeline) {
+            report.add("timeline", timeline.deepCopy());
+        }
+        return report;
+    }
+
+    private void writeReport(JsonObject report, Path path) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, gson.toJson(report), StandardCharsets.UTF_8);
+
+        JsonObject frames = report.getAsJsonObject("frames");
+        LOG.info("压测完成：{} 帧，{} fps，帧间隔 p99 {} ms，掉帧 {}，报告: {}",
+                frames.get("count"), frames.get("fps"),
+                frames.getAsJsonObject("interval_ms").get("p99"), frames.get("janks_over_33ms"), path.toAbsolutePath());
+    }
+
+    private static JsonObject percentiles(long[] sortedNanos) {
+        JsonObject json = new JsonObject();
+        json.addProperty("p50", round(LongSamples.percentile(sortedNanos, 50) / 1e6));
+        json.addProperty("p95", round(LongSamples.percentile(sortedNanos, 95) / 1e6));
+        json.addProperty("p99", round(LongSamples.percentile(sortedNanos, 99) / 1e6));
+        json.addProperty("max", round(LongSamples.percentile(sortedNanos, 100) / 1e6));
+        return json;
+    }
+
+    /**
+     * 最小二乘斜率（y 单位 / 分钟），样本不足时返回 0
+     */
+    private static double slopePerMinute(LongSamples xsNanos, LongSamples ys) {
+        long[] xs = copy(xsNanos);
+        long[] vs = copy(ys);
+        double[] x = new double[xs.length];
+        double[] y = new double[vs.length];
+        for (int i = 0; i < xs.length; i++) {
+            x[i] = xs[i] / 60e9;
+            y[i] = vs[i];
+        }
+        return slope(x, y);
+    }
+
+    private double rssSlopePerMinute() {
+        int n = timeline.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            JsonObject point = timeline.get(i).getAsJsonObject();
+            x[i] = point.get("t_s").getAsDouble() / 60;
+            y[i] = point.get("rss_mb").getAsDouble();
+        }
+        return slope(x, y);
+    }
+
+    private static double slope(double[] x, double[] y) {
+        int n = x.length;
+        if (n < 2) return 0;
+        double mx = 0, my = 0;
+        for (int i = 0; i < n; i++) {
+            mx += x[i];
+            my += y[i];
+        }
+        mx /= n;
+        my /= n;
+        double num = 0, den = 0;
+        for (int i = 0; i < n; i++) {
+            num += (x[i] - mx) * (y[i] - my);
+            den += (x[i] - mx) * (x[i] - mx);
+        }
+        return den == 0 ? 0 : num / den;
+    }
+
+    private static long[] copy(LongSamples samples) {
+        // 保持插入顺序（不能用 sortedCopy）
+        long[] out = new long[samples.size()];
+        for (int i = 0; i < out.length; i++) out[i] = samples.get(i);
+        return out;
+    }
+
+    private static double nanosMetric(Map<String, Number> metrics, String name) {
+        Number value = metrics.get(name);
+        return value == null ? 0 : round(value.doubleValue() / 1e6);
+    }
+
+    private static double mb(long bytes) {
+        return bytes < 0 ? -1 : round(bytes / (1024.0 * 1024.0));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    // --- 启动辅助 ---
+
+    private static void runOnFxAndWait(Runnable task) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                task.run();
+            } finally {
+                done.countDown();
+            }
+        });
+        done.await(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 无头运行所需的系统属性（命令行已指定的不覆盖）
+     */
+    private static void configureHeadless(Map<String, String> options) {
+        setIfAbsent("glass.platform", "Monocle");
+        setIfAbsent("monocle.platform", "Headless");
+        setIfAbsent("prism.order", "sw");
+
+        if (options.containsKey("trace")) {
+            setIfAbsent(PointerSources.PROPERTY_REPLAY, options.get("trace"));
+            setIfAbsent(PointerSources.PROPERTY_REPLAY_LOOP, "true");
+        } else {
+            setIfAbsent(PointerSources.PROPERTY, "synthetic");
+        }
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("参数缺少取值: " + arg);
+            }
+            options.put(arg.substring(2), args[++i]);
+        }
+        return options;
+    }
+}
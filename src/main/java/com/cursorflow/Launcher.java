@@ -0,0 +1,11 @@
+package com.cursorflow;
+
+/**
+ * 类路径启动入口：主类直接继承 Application 时，java -jar / -cp 启动会因为
+ * JavaFX 不在模块路径上而拒绝运行，通过这个普通类转一手即可（AppCDS 归档也要求类路径启动）。
+ */
+public class Launcher {
+    public static void main(String[] args) {
+        Main.main(args);
+    }
+}
@@ -3,27 +3,35 @@ package com.cursorflow;
 import com.cursorflow.core.OverlayManager;
 import com.cursorflow.core.TrayIconManager;
 import com.cursorflow.effect.EffectFactory;
+import com.cursorflow.effect.ITrailEffect;
+import com.cursorflow.jfr.JfrSupport;
+import com.cursorflow.util.StartupTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.control.Alert;
 import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 程序入口
+ *
+ * 启动顺序：Python 特效（解释器定位、配置检查、进程启动）在后台线程创建，
+ * 与图层窗口、系统托盘的构建并行进行，特效就绪后再切换到图层上。
+ * 加 -Dcursorflow.startup.exitAfterFirstTrail=true 时画出第一帧轨迹即退出（AppCDS 训练运行使用）。
  */
 public class Main extends Application {
+    private static final Logger LOG = LoggerFactory.getLogger(Main.class);
+
     @Override
     public void start(Stage primaryStage) {
+        StartupTimer.mark("JavaFX 启动");
         try {
-            // 初始化全局图层管理器
-            OverlayManager overlayManager = OverlayManager.getInstance();
-
-            // 初始化系统托盘
-            new TrayIconManager(primaryStage);
-
             // 配置 Python 驱动特效（使用绝对路径，避免错误）
             String userConfigPath = System.getProperty("user.dir")
                     + File.separator + "src"
@@ -34,25 +42,59 @@ public class Main extends Application {
             Map<String, Object> pythonConfig = new HashMap<>();
             pythonConfig.put("configFilePath", userConfigPath);
 
-            // 尝试创建 Python 特效（增加容错）
-            var pythonEffect = EffectFactory.createEffect("python_driven", pythonConfig);
-            overlayManager.switchEffect(pythonEffect);
+            // 1. 先在后台开始创建 Python 特效（最慢的一步），不阻塞 FX 线程
+            CompletableFuture<ITrailEffect> effectFuture = CompletableFuture.supplyAsync(() -> {
+                ITrailEffect effect = EffectFactory.createEffect("python_driven", pythonConfig);
+                StartupTimer.mark("特效创建（后台）");
+                return effect;
+            });
+
+            // 2. 同时初始化全局图层管理器
+            OverlayManager overlayManager = OverlayManager.getInstance();
+
+            // 3. 系统托盘是 AWT 组件，和 FX 线程无关，同样放到后台构建
+            CompletableFuture.runAsync(() -> {
+                new TrayIconManager(primaryStage);
+                StartupTimer.mark("系统托盘（后台）");
+            }).whenComplete((v, e) -> {
+                if (e != null) LOG.error("系统托盘创建失败", e);
+            });
+
+            if (Boolean.getBoolean("cursorflow.startup.exitAfterFirstTrail")) {
+                StartupTimer.onFirstTrail(() -> Platform.runLater(overlayManager::exit));
+            }
+
+            // 4. 特效就绪后切换到图层上（EffectFactory 内部已兜底，失败时返回默认特效）
+            effectFuture.whenComplete((effect, error) -> Platform.runLater(() -> {
+                if (error != null) {
+                    showStartupError(error);
+                    return;
+                }
+                // 以类型为 key，托盘切到别的特效再切回时直接从预热缓存取回
+                overlayManager.switchEffect("python_driven", effect);
+            }));
 
             // 隐藏主窗口
             primaryStage.hide();
         } catch (Exception e) {
-            // 初始化失败时显示弹窗提示
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("初始化失败");
-            alert.setHeaderText("J-CursorFlow 启动失败");
-            alert.setContentText("原因：" + e.getMessage() + "\n请检查 Python 环境和配置文件路径");
-            alert.showAndWait();
-            e.printStackTrace();
-            System.exit(1);
+            showStartupError(e);
         }
     }
 
+    private static void showStartupError(Throwable e) {
+        // 初始化失败时显示弹窗提示
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("初始化失败");
+        alert.setHeaderText("J-CursorFlow 启动失败");
+        alert.setContentText("原因：" + e.getMessage() + "\n请检查 Python 环境和配置文件路径");
+        alert.showAndWait();
+        e.printStackTrace();
+        System.exit(1);
+    }
+
     public static void main(String[] args) {
+        StartupTimer.mark("main");
+        JfrSupport.startFromSystemProperties();
         launch(args);
     }
-}
\ No newline at end of file
+}
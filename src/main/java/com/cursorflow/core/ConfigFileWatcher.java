@@ -0,0 +1,137 @@
+package com.cursorflow.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+/**
+ * 配置文件监听器：监听单个文件的修改，并对连续的保存事件做防抖
+ * 编辑器保存一次往往会触发多次 MODIFY/CREATE（部分编辑器是 删旧建新），
+ * 这里只在最后一次事件之后静默 debounceMillis 毫秒才回调一次。
+ */
+public class ConfigFileWatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigFileWatcher.class);
+
+    private final File configFile;
+    private final long debounceMillis;
+    private final Runnable onChange;
+
+    private final ScheduledExecutorService debounceExecutor;
+    private ScheduledFuture<?> pendingCallback;
+    private Thread watcherThread;
+    private volatile WatchService watchService;
+
+    public ConfigFileWatcher(String configFilePath, long debounceMillis, Runnable onChange) {
+        this.configFile = new File(configFilePath);
+        this.debounceMillis = debounceMillis;
+        this.onChange = onChange;
+        this.debounceExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ConfigDebounce");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 启动监听线程（守护线程，主程序退出时自动结束）
+     */
+    public synchronized void start() {
+        if (watcherThread != null) return;
+
+        watcherThread = new Thread(this::watchLoop, "ConfigWatcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    /**
+     * 停止监听，并丢弃尚未触发的回调
+     */
+    public synchronized void stop() {
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+            watcherThread = null;
+        }
+        WatchService service = watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException ignored) {}
+        }
+        debounceExecutor.shutdownNow();
+    }
+
+    private void watchLoop() {
+        // 1. 获取要监听的目录
+        File parentDir = configFile.getParentFile();
+
+        // 2. 校验目录是否存在
+        if (parentDir == null || !parentDir.exists()) {
+            LOG.warn("配置文件的父目录不存在，跳过文件监听: {}", configFile);
+            return;
+        }
+
+        // 3. 注册 WatchService
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            watchService = service;
+            Path path = parentDir.toPath();
+            // 监听 修改(MODIFY) 和 创建(CREATE，部分编辑器保存机制是 删旧建新)
+            path.register(service, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+
+            LOG.info("配置文件监听器已启动: {}", configFile);
+
+            // 4. 循环等待事件
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key;
+                try {
+                    key = service.take(); // 阻塞等待直到有事件发生
+                } catch (InterruptedException | ClosedWatchServiceException x) {
+                    return; // 线程中断或监听被关闭则退出
+                }
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+
+                    // 判断变动的文件是否是我们关注的配置文件
+                    Path changedPath = (Path) event.context();
+                    if (changedPath.toString().equals(configFile.getName())) {
+                        LOG.debug("检测到配置文件变化: {}", changedPath);
+                        scheduleCallback();
+                    }
+                }
+
+                // 重置 Key，若失效则退出循环
+                if (!key.reset()) {
+                    LOG.warn("监听 Key 失效 (目录可能被删除)，停止监听");
+                    break;
+                }
+            }
+        } catch (ClosedWatchServiceException ignored) {
+            // stop() 关闭了 WatchService，属于正常退出
+        } catch (IOException e) {
+            LOG.error("配置文件监听异常", e);
+        }
+    }
+
+    /**
+     * 防抖：每来一个事件就把回调往后推迟，直到事件停止 debounceMillis 毫秒
+     */
+    private synchronized void scheduleCallback() {
+        if (debounceExecutor.isShutdown()) return;
+
+        if (pendingCallback != null) {
+            pendingCallback.cancel(false);
+        }
+        pendingCallback = debounceExecutor.schedule(() -> {
+            LOG.info("配置文件已更新: {}", configFile);
+            try {
+                onChange.run();
+            } catch (Exception e) {
+                LOG.error("处理配置文件变化失败", e);
+            }
+        }, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+}
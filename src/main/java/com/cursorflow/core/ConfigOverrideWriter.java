@@ -0,0 +1,116 @@
+package com.cursorflow.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 把参数补丁写回 Python 用户配置文件
+ *
+ * 在文件末尾维护一段由标记行包围的覆盖块，每个键一行 config["key"] = 值；再次写入同一个键时替换原行，
+ * 块外的内容原样保留。覆盖块在 config 定义之后执行，main.py 与 --dump-config 都照常加载，删除整段即恢复原配置。
+ * 写入先落到临时文件再整体替换，配置监听只会看到一次完整的变化。
+ */
+final class ConfigOverrideWriter {
+    // 标记行只用 ASCII：不受编译与文件编码差异影响，下次写入总能找到同一段
+    static final String BEGIN = "# >>> cursorflow live params (written by the config panel; delete this block to restore)";
+    static final String END = "# <<< cursorflow live params";
+
+    // 覆盖行：config["key"] = value，分组 1 为带引号的键
+    private static final Pattern ENTRY = Pattern.compile("^config\\[(\"(?:[^\"\\\\]|\\\\.)*\")] = ");
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private ConfigOverrideWriter() {
+    }
+
+    /**
+     * 合并补丁到文件的覆盖块（不存在时追加到末尾）
+     * @param patch 值为 Gson 解析出的 Number / String / Boolean / List / Map
+     */
+    static void write(Path file, Map<String, Object> patch) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        int begin = lines.indexOf(BEGIN);
+        int end = begin >= 0 ? lines.subList(begin, lines.size()).indexOf(END) + begin : -1;
+
+        List<String> head;
+        List<String> tail;
+        // 带引号的键 -> 整行
+        Map<String, String> entries = new LinkedHashMap<>();
+        if (begin >= 0 && end > begin) {
+            head = new ArrayList<>(lines.subList(0, begin));
+            tail = lines.subList(end + 1, lines.size());
+            for (String line : lines.subList(begin + 1, end)) {
+                Matcher m = ENTRY.matcher(line);
+                entries.put(m.find() ? m.group(1) : line, line);
+            }
+        } else {
+            head = new ArrayList<>(lines);
+            tail = List.of();
+        }
+        for (Map.Entry<String, Object> entry : patch.entrySet()) {
+            String key = GSON.toJson(entry.getKey());
+            entries.put(key, "config[" + key + "] = " + pythonLiteral(entry.getValue()));
+        }
+
+        while (!head.isEmpty() && head.get(head.size() - 1).isBlank()) {
+            head.remove(head.size() - 1);
+        }
+        List<String> out = new ArrayList<>(head);
+        out.add("");
+        out.add(BEGIN);
+        out.addAll(entries.values());
+        out.add(END);
+        out.addAll(tail);
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, out, StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * JSON 值转为 Python 字面量（JSON 字符串的转义规则 Python 同样接受）
+     */
+    static String pythonLiteral(Object value) {
+        if (value == null) return "None";
+        if (value instanceof Boolean b) return b ? "True" : "False";
+        if (value instanceof Number n) {
+            double d = n.doubleValue();
+            // Gson 把所有数字解析为 double：整数值写成整数，保持 particle_count 等参数的类型
+            if (d == Math.rint(d) && Math.abs(d) < 1e15) return Long.toString((long) d);
+            return Double.toString(d);
+        }
+        if (value instanceof List<?> list) {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(pythonLiteral(list.get(i)));
+            }
+            return sb.append(']').toString();
+        }
+        if (value instanceof Map<?, ?> map) {
+            StringBuilder sb = new StringBuilder("{");
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append(GSON.toJson(String.valueOf(entry.getKey()))).append(": ").append(pythonLiteral(entry.getValue()));
+            }
+            return sb.append('}').toString();
+        }
+        return GSON.toJson(String.valueOf(value));
+    }
+}
@@ -0,0 +1,82 @@
+package com.cursorflow.core;
+
+import com.cursorflow.effect.EffectFactory;
+import com.cursorflow.effect.ITrailEffect;
+import com.cursorflow.util.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 特效的创建与销毁放到后台线程：Python 特效创建时要探测解释器、启动进程，销毁时要等进程退出（最长约 1 秒），
+ * 都不能在 FX 线程上做，否则切换特效时整个图层会卡住。
+ * 线程按需创建、空闲后回收（守护线程）；销毁互不阻塞，慢的 Python 进程不会拖住后面的创建。
+ */
+class EffectLifecycle {
+    private static final Logger LOG = LoggerFactory.getLogger(EffectLifecycle.class);
+    // 退出时等待后台销毁完成的最长时间
+    private static final long SHUTDOWN_TIMEOUT_MS = 3000;
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "EffectLifecycle-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 在后台按类型创建特效（EffectFactory 内部已兜底，失败时得到默认特效）
+     */
+    CompletableFuture<ITrailEffect> create(String type, Map<String, Object> config) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            ITrailEffect effect = EffectFactory.createEffect(type, config);
+            LOG.info("特效已在后台创建: {} ({} ms)", type, (System.nanoTime() - start) / 1_000_000);
+            return effect;
+        }, executor);
+    }
+
+    /**
+     * 在后台销毁特效；已关闭时在调用线程上直接销毁
+     */
+    void dispose(ITrailEffect effect) {
+        if (effect == null) return;
+        Metrics.increment("effect.dispose.async");
+        try {
+            executor.execute(() -> disposeQuietly(effect));
+        } catch (RejectedExecutionException e) {
+            disposeQuietly(effect);
+        }
+    }
+
+    private static void disposeQuietly(ITrailEffect effect) {
+        try {
+            effect.dispose();
+        } catch (RuntimeException e) {
+            LOG.warn("销毁特效失败: {}", effect.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * 不再接受新任务，并等待已提交的销毁完成（确保退出前 Python 进程都已停止）
+     */
+    void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("后台销毁特效超时，强制结束");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.cursorflow.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端延迟统计：按帧记录 输入 → 绘制 的延迟与 Python 计算耗时
+ * 每条坐标消息携带序号和 System.nanoTime() 时间戳，Python 原样回传，
+ * 因此这里不需要维护“在途消息表”，直接用回传的时间戳计算即可。
+ * 只保留最近 WINDOW 个样本，定期以 debug 级别输出百分位。
+ */
+public class FrameLatencyTracker {
+    private static final Logger LOG = LoggerFactory.getLogger(FrameLatencyTracker.class);
+
+    // 滑动窗口大小（样本数）
+    private static final int WINDOW = 512;
+    // debug 日志输出间隔
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    // 输入 → 绘制（FX 线程真正画出该帧）
+    private final long[] inputToDraw = new long[WINDOW];
+    // Python 单帧计算耗时（Python 端自测）
+    private final long[] pythonCompute = new long[WINDOW];
+    // 管道往返开销：输入 → Java 收到帧，再扣除 Python 计算耗时
+    private final long[] transport = new long[WINDOW];
+
+    private long drawCount = 0;
+    private long receiveCount = 0;
+    private long lastReportNanos = System.nanoTime();
+
+    /**
+     * Java 读线程收到一帧
+     * @param sentNanos     Python 回传的输入时间戳
+     * @param pythonNanos   Python 计算该帧的耗时
+     * @param receivedNanos 收到该帧的时刻
+     */
+    public synchronized void recordFrameReceived(long sentNanos, long pythonNanos, long receivedNanos) {
+        int slot = (int) (receiveCount++ % WINDOW);
+        pythonCompute[slot] = pythonNanos;
+        transport[slot] = Math.max(0, receivedNanos - sentNanos - pythonNanos);
+    }
+
+    /**
+     * FX 线程第一次绘制某帧
+     * @param sentNanos  该帧对应输入的时间戳
+     * @param drawnNanos 绘制时刻
+     */
+    public synchronized void recordFrameDrawn(long sentNanos, long drawnNanos) {
+        inputToDraw[(int) (drawCount++ % WINDOW)] = drawnNanos - sentNanos;
+
+        if (drawnNanos - lastReportNanos >= REPORT_INTERVAL_NANOS) {
+            lastReportNanos = drawnNanos;
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("帧延迟 | 输入→绘制 {} | Python 计算 {} | 管道 {}",
+                        format(inputToDraw, drawCount), format(pythonCompute, receiveCount), format(transport, receiveCount));
+            }
+        }
+    }
+
+    /**
+     * 输入 → 绘制延迟的百分位（纳秒），没有样本时返回 0
+     * @param percentile 0 ~ 100
+     */
+    public synchronized long inputToDrawPercentile(double percentile) {
+        return percentile(inputToDraw, drawCount, percentile);
+    }
+
+    /**
+     * Python 单帧计算耗时的百分位（纳秒），没有样本时返回 0
+     * @param percentile 0 ~ 100
+     */
+    public synchronized long pythonComputePercentile(double percentile) {
+        return percentile(pythonCompute, receiveCount, percentile);
+    }
+
+    /**
+     * 管道往返开销（扣除 Python 计算后）的百分位（纳秒），没有样本时返回 0
+     * @param percentile 0 ~ 100
+     */
+    public synchronized long transportPercentile(double percentile) {
+        return percentile(transport, receiveCount, percentile);
+    }
+
+    private static long percentile(long[] samples, long total, double percentile) {
+        int n = (int) Math.min(total, WINDOW);
+        if (n == 0) return 0;
+
+        long[] sorted = Arrays.copyOf(samples, n);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * n) - 1;
+        return sorted[Math.max(0, Math.min(n - 1, index))];
+    }
+
+    private static String format(long[] samples, long total) {
+        return String.format("p50=%.2fms p95=%.2fms max=%.2fms",
+                percentile(samples, total, 50) / 1e6,
+                percentile(samples, total, 95) / 1e6,
+                percentile(samples, total, 100) / 1e6);
+    }
+}
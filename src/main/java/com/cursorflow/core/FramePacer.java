@@ -0,0 +1,67 @@
+package com.cursorflow.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 帧节流控制：最多允许 maxFramesInFlight 条坐标消息在途（已发送、未收到回传帧）
+ * 超出时跳过发送，下一帧直接发送最新坐标，避免管道缓冲区越积越长、延迟越来越大。
+ *
+ * 线程约定：acquire 只在发送线程（FX 线程）调用，onEcho 在读线程调用；
+ * framesInFlight、skippedCount 供指标读取，可在任意线程调用（计数只有发送线程写，volatile 即可）。
+ */
+class FramePacer {
+    // 长时间没有回传时放行一次，防止丢帧后永久卡死
+    private static final long STALL_RESYNC_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final int maxFramesInFlight;
+
+    private volatile long lastSentSeq = 0;
+    private volatile long lastEchoSeq = 0;
+    private volatile long lastEchoNanos = 0;
+    // 旧版脚本不回传序号，此时不做节流
+    private volatile boolean echoSupported = false;
+    private volatile long skippedCount = 0;
+
+    FramePacer(int maxFramesInFlight) {
+        this.maxFramesInFlight = Math.max(1, maxFramesInFlight);
+    }
+
+    /**
+     * 申请发送一条坐标消息
+     * @return 本条消息的序号；返回 -1 表示在途帧已满，应跳过本次发送
+     */
+    long acquire(long nowNanos) {
+        if (echoSupported
+                && lastSentSeq - lastEchoSeq >= maxFramesInFlight
+                && nowNanos - lastEchoNanos < STALL_RESYNC_NANOS) {
+            skippedCount++;
+            return -1;
+        }
+        return ++lastSentSeq;
+    }
+
+    /**
+     * 收到 Python 回传的帧
+     */
+    void onEcho(long seq, long nowNanos) {
+        if (seq > lastEchoSeq) {
+            lastEchoSeq = seq;
+        }
+        lastEchoNanos = nowNanos;
+        echoSupported = true;
+    }
+
+    /**
+     * 当前在途帧数
+     */
+    int framesInFlight() {
+        return (int) Math.max(0, lastSentSeq - lastEchoSeq);
+    }
+
+    /**
+     * 因节流而跳过的发送次数
+     */
+    long skippedCount() {
+        return skippedCount;
+    }
+}
@@ -11,6 +11,9 @@ import com.sun.jna.platform.win32.WinUser.HHOOK;
 import com.sun.jna.platform.win32.WinUser.LowLevelMouseProc;
 import com.sun.jna.platform.win32.WinUser.MSLLHOOKSTRUCT;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 /**
  * 全局鼠标钩子：通过WH_MOUSE_LL获取全局鼠标坐标
  */
@@ -21,9 +24,13 @@ public class MouseHook {
     private static final int WM_MOUSEMOVE = 0x0200;
 
     // 钩子句柄
-    private HHOOK hookHandle;
+    private volatile HHOOK hookHandle;
     // 鼠标坐标回调
-    private MousePositionListener listener;
+    private volatile MousePositionListener listener;
+    // 钩子线程（安装钩子并运行消息循环）
+    private Thread hookThread;
+    private volatile int hookThreadId = 0;
+    private volatile int installError = 0;
 
     // 钩子回调接口（显式实现以确保参数类型正确）
     private final LowLevelMouseProc mouseProc = new LowLevelMouseProc() {
@@ -54,39 +61,65 @@ public class MouseHook {
 
     /**
      * 启动鼠标钩子
+     * 低级别钩子的回调只会派发到安装它的线程的消息循环，因此安装与消息循环必须在同一线程
      */
     public void start(MousePositionListener listener) {
         this.listener = listener;
-        // 安装低级别鼠标钩子
-        hookHandle = User32.INSTANCE.SetWindowsHookEx(
-                WH_MOUSE_LL,
-                mouseProc,
-                Kernel32.INSTANCE.GetModuleHandle(null),
-                0 // 全局钩子（所有线程）
-        );
 
-        if (hookHandle == null) {
-            throw new RuntimeException("安装鼠标钩子失败：" + Kernel32.INSTANCE.GetLastError());
-        }
+        CountDownLatch installed = new CountDownLatch(1);
+        hookThread = new Thread(() -> {
+            hookThreadId = Kernel32.INSTANCE.GetCurrentThreadId();
+            // 安装低级别鼠标钩子
+            hookHandle = User32.INSTANCE.SetWindowsHookEx(
+                    WH_MOUSE_LL,
+                    mouseProc,
+                    Kernel32.INSTANCE.GetModuleHandle(null),
+                    0 // 全局钩子（所有线程）
+            );
+            if (hookHandle == null) {
+                installError = Kernel32.INSTANCE.GetLastError();
+                installed.countDown();
+                return;
+            }
+            installed.countDown();
+
+            // 启动消息循环（必须，否则钩子不生效），收到 WM_QUIT 时退出
+            try {
+                WinUser.MSG msg = new WinUser.MSG();
+                while (User32.INSTANCE.GetMessage(msg, null, 0, 0) > 0) {
+                    User32.INSTANCE.TranslateMessage(msg);
+                    User32.INSTANCE.DispatchMessage(msg);
+                }
+            } finally {
+                User32.INSTANCE.UnhookWindowsHookEx(hookHandle);
+                hookHandle = null;
+            }
+        }, "MouseHookThread");
+        hookThread.setDaemon(true);
+        hookThread.start();
 
-        // 启动消息循环（必须，否则钩子不生效）
-        new Thread(() -> {
-            WinUser.MSG msg = new WinUser.MSG();
-            while (User32.INSTANCE.GetMessage(msg, null, 0, 0) > 0) {
-                User32.INSTANCE.TranslateMessage(msg);
-                User32.INSTANCE.DispatchMessage(msg);
+        try {
+            if (!installed.await(2, TimeUnit.SECONDS)) {
+                throw new RuntimeException("安装鼠标钩子超时");
             }
-        }).start();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("安装鼠标钩子被中断", e);
+        }
+        if (hookHandle == null) {
+            throw new RuntimeException("安装鼠标钩子失败：" + installError);
+        }
     }
 
     /**
-     * 停止鼠标钩子
+     * 停止鼠标钩子：通知消息循环退出，由钩子线程自己卸载钩子
      */
     public void stop() {
-        if (hookHandle != null) {
-            User32.INSTANCE.UnhookWindowsHookEx(hookHandle);
-            hookHandle = null;
+        if (hookThreadId != 0) {
+            User32.INSTANCE.PostThreadMessage(hookThreadId, WinUser.WM_QUIT, new WPARAM(0), new LPARAM(0));
+            hookThreadId = 0;
         }
+        hookThread = null;
     }
 
     /**
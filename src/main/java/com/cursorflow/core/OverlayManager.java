@@ -1,7 +1,20 @@
 package com.cursorflow.core;
 
+import com.cursorflow.effect.EffectFactory;
 import com.cursorflow.effect.ITrailEffect;
+import com.cursorflow.effect.SimulatedTrailEffect;
+import com.cursorflow.input.EmitterParams;
+import com.cursorflow.input.PointerSamples;
+import com.cursorflow.jfr.EffectSwitchEvent;
+import com.cursorflow.jfr.FrameEvent;
+import com.cursorflow.input.PointerSource;
+import com.cursorflow.input.PointerSources;
+import com.cursorflow.input.PointerStreamHub;
+import com.cursorflow.input.PointerStreams;
+import com.cursorflow.input.PredictionStage;
+import com.cursorflow.util.Metrics;
 import com.cursorflow.util.ScreenUtil;
+import com.cursorflow.util.StartupTimer;
 import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.scene.Scene;
@@ -11,18 +24,32 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.awt.MouseInfo;
-import java.awt.Point;
+import java.util.function.Supplier;
 
 /**
  * 全局图层管理器（单例）：管理全屏穿透图层、渲染循环、特效切换
  *
  * 修正点：
- * 1. 移除了 MouseHook，改用原生 MouseInfo 轮询，确保坐标绝对能获取到。
+ * 1. 指针输入改为可插拔的 PointerSource：默认使用 MouseHook 事件驱动采样，失败时回退到 MouseInfo 轮询。
  * 2. 移除了 gc.clearRect，将清空控制权交给 Effect，避免闪烁或残影丢失。
+ * 3. 特效能提供内容包围盒时，图层窗口缩小到内容附近（OverlayRegion），减少合成器每帧混合的面积；
+ *    -Dcursorflow.overlay.fit=false 关闭，cursorflow.overlay.margin 设置边距（默认 64 像素）。
+ * 4. 模拟与绘制分离的特效（SimulatedTrailEffect）在独立的模拟线程推进，FX 线程只画最新快照，从不等待模拟；
+ *    -Dcursorflow.simulation.thread=false 时仍在 FX 线程内依次模拟和绘制。
+ * 5. 按类型切换的特效切走时进入预热缓存（WarmEffectCache），切回时不必重新创建。
+ * 6. 回环地址上的参数推送服务（ParamServer）把 Web 配置面板的参数补丁应用到当前特效；
+ *    -Dcursorflow.params.port=0 关闭。
+ * 7. 特效的创建与销毁在后台线程进行（EffectLifecycle），FX 线程不再等 Python 进程启动或退出；
+ *    新特效就绪（isReady）之前旧特效继续绘制，超过 cursorflow.effect.readyTimeout 毫秒（默认 3000）仍未就绪时照常切换。
  */
 public class OverlayManager {
+    private static final Logger LOG = LoggerFactory.getLogger(OverlayManager.class);
+    // 窗口跟随内容时的默认边距（像素）
+    private static final double DEFAULT_OVERLAY_MARGIN = 64;
+
     // 单例实例
     private static OverlayManager INSTANCE;
 
@@ -30,16 +57,75 @@ public class OverlayManager {
     private Canvas canvas;
     private GraphicsContext gc;
     private ITrailEffect currentEffect;
+    // 当前特效在预热缓存中的 key（为 null 表示切走时直接销毁）
+    private String currentEffectKey;
+    // 特效的后台创建与销毁（切走的特效、预热缓存淘汰的特效都在这里销毁）
+    private final EffectLifecycle lifecycle = new EffectLifecycle();
+    private final WarmEffectCache warmCache = WarmEffectCache.fromSystemProperties(lifecycle::dispose);
+
+    // 切换过渡：已创建、等待就绪的新特效（为 null 表示没有进行中的切换），就绪前旧特效继续绘制
+    private final long readyTimeoutNanos = Long.getLong("cursorflow.effect.readyTimeout", 3000) * 1_000_000;
+    private ITrailEffect pendingEffect;
+    private String pendingEffectKey;
+    private EffectSwitchEvent pendingEvent;
+    private boolean pendingCacheHit;
+    private long pendingSinceNanos;
+    // 正在后台创建的特效类型（为 null 表示没有）；每次选择都递增代数，过期的创建结果放进预热缓存
+    private String creatingType;
+    private int createGeneration;
+    // shutdown 之后迟到的创建结果直接销毁
+    private boolean closed = false;
     private AnimationTimer renderTimer;
 
+    // 指针输入源与每帧复用的采样批次（主指针 + 附加指针流）
+    private PointerSource pointerSource;
+    private final PointerStreamHub pointerStreamHub = new PointerStreamHub();
+    private final PointerStreams frameStreams = new PointerStreams();
+    private final Supplier<Integer> streamsGauge = () -> 1 + pointerStreamHub.size();
+    // 光标预测（为 null 表示关闭）
+    private PredictionStage predictionStage;
+    private int lastMouseX = 0;
+    private int lastMouseY = 0;
+
+    // 模拟线程（当前特效支持且未关闭时存在；运行期间由它消费指针输入源）
+    private final boolean simulationThreadEnabled =
+            !"false".equalsIgnoreCase(System.getProperty("cursorflow.simulation.thread"));
+    private SimulationLoop<?> simulationLoop;
+    // 停止时没能按时退出的模拟线程：它可能仍在读输入源，退出之前 FX 线程与新的模拟线程都不读输入源
+    private SimulationLoop<?> detachedLoop;
+
+    // 窗口取景区域（为 null 表示始终整屏）与复用的包围盒数组
+    private OverlayRegion region;
+    private final double[] contentBounds = new double[4];
+    private final Supplier<Double> widthGauge = () -> region.getWidth();
+    private final Supplier<Double> heightGauge = () -> region.getHeight();
+
+    // 自适应质量调节（为 null 表示关闭）
+    private QualityGovernor qualityGovernor;
+    // 参数推送服务（为 null 表示关闭或启动失败）
+    private ParamServer paramServer;
+
+    // 本帧各阶段的统计（写入 JFR 帧事件）
+    private long framePollNanos;
+    private long frameSimulateNanos;
+    private int frameLiveCount;
+
+    private boolean firstTrailDrawn = false;
+
     // 分辨率缩放因子 (处理 Windows 125%/150% 缩放)
     private double scaleX = 1.0;
     private double scaleY = 1.0;
 
     private OverlayManager() {
         initOverlayStage();
+        StartupTimer.mark("图层窗口");
+        pointerSource = PointerSources.createDefault();
+        Metrics.registerGauge("pointer.streams", streamsGauge);
+        predictionStage = PredictionStage.fromSystemProperties();
+        qualityGovernor = QualityGovernor.fromSystemProperties();
+        paramServer = ParamServer.fromSystemProperties(this);
         initRenderTimer();
-        // 废弃 initMouseHook()，改在 renderTimer 中轮询
+        StartupTimer.mark("输入源与渲染循环");
     }
 
     public static synchronized OverlayManager getInstance() {
@@ -66,6 +152,12 @@ public class OverlayManager {
         canvas = new Canvas(bounds.getWidth(), bounds.getHeight());
         gc = canvas.getGraphicsContext2D();
 
+        if (!"false".equalsIgnoreCase(System.getProperty("cursorflow.overlay.fit"))) {
+            region = new OverlayRegion(0, 0, bounds.getWidth(), bounds.getHeight(), overlayMargin());
+            Metrics.registerGauge("overlay.width", widthGauge);
+            Metrics.registerGauge("overlay.height", heightGauge);
+        }
+
         // 简单的屏幕缩放计算 (JavaFX 会自动处理 DPI，但 AWT MouseInfo 是物理像素)
         // 通常不需要手动除 scale，但在多屏异构缩放时可能需要微调
         // 这里暂时保持 1:1，因为 JavaFX 自动映射逻辑通常够用
@@ -85,35 +177,342 @@ public class OverlayManager {
         WindowsApi.enableMousePassthrough(overlayStage);
     }
 
+    /**
+     * 窗口跟随内容时四周留出的边距（像素），属性无效时使用默认值
+     */
+    private static double overlayMargin() {
+        String value = System.getProperty("cursorflow.overlay.margin");
+        if (value != null) {
+            try {
+                double margin = Double.parseDouble(value);
+                if (margin >= 0) return margin;
+            } catch (NumberFormatException e) {
+                // 按无效值处理
+            }
+            LOG.warn("无效的图层边距: {}，使用默认值 {}", value, DEFAULT_OVERLAY_MARGIN);
+        }
+        return DEFAULT_OVERLAY_MARGIN;
+    }
+
     private void initRenderTimer() {
         renderTimer = new AnimationTimer() {
             @Override
             public void handle(long now) {
+                if (pendingEffect != null) {
+                    promotePending();
+                }
                 // 如果没有特效，不消耗资源
                 if (currentEffect == null) return;
+                if (detachedLoop != null && detachedLoop.isStopped()) {
+                    detachedLoop = null;
+                    LOG.info("超时的模拟线程已退出，输入源交还");
+                    startSimulation(currentEffect);
+                }
 
-                // --- 修正 1: 主动轮询获取鼠标位置 (比 MouseHook 更稳定) ---
-                Point p = MouseInfo.getPointerInfo().getLocation();
-                int rawX = (int) p.getX();
-                int rawY = (int) p.getY();
+                FrameEvent frameEvent = new FrameEvent();
+                frameEvent.begin();
+                long frameNanos = System.nanoTime();
+                int sampleCount;
+                if (simulationLoop != null) {
+                    // 模拟在独立线程进行，这里只画最新快照
+                    sampleCount = drawSimulated(simulationLoop);
+                } else {
+                    renderFrame(frameNanos);
+                    sampleCount = frameStreams.totalSamples();
+                }
 
-                // --- 修正 2: 移除 clearRect，让 Effect 自己决定是否清空 ---
-                // gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+                long renderNanos = System.nanoTime() - frameNanos;
+                // 渲染耗时持续超出目标时逐档降低特效质量，余量恢复后再逐档升回
+                if (qualityGovernor != null) {
+                    qualityGovernor.onFrame(renderNanos);
+                }
+                if (!firstTrailDrawn && currentEffect.isReady()) {
+                    firstTrailDrawn = true;
+                    StartupTimer.firstTrail();
+                }
 
-                // 渲染：将坐标传给 Python
-                // 对于 JavaFX Canvas，坐标系通常已自动缩放，无需手动除 DPI
-                // 如果发现鼠标错位，这里可以除以 screenScale
-                currentEffect.render(gc, rawX, rawY);
+                frameEvent.end();
+                if (frameEvent.shouldCommit()) {
+                    frameEvent.effect = currentEffect.getClass().getSimpleName();
+                    frameEvent.pollTime = framePollNanos;
+                    frameEvent.simulateTime = frameSimulateNanos;
+                    frameEvent.drawTime = renderNanos - framePollNanos;
+                    frameEvent.sampleCount = sampleCount;
+                    frameEvent.liveCount = frameLiveCount;
+                    frameEvent.simulationThread = simulationLoop != null;
+                    frameEvent.commit();
+                }
             }
         };
         renderTimer.start();
     }
 
+    /**
+     * 在 FX 线程内取采样并渲染一帧
+     */
+    private void renderFrame(long frameNanos) {
+        // --- 修正 1: 取出上一帧以来的全部指针采样；鼠标静止时没有新采样，沿用最后位置 ---
+        frameStreams.clear();
+        PointerSamples frameSamples = frameStreams.add(PointerStreams.PRIMARY, EmitterParams.DEFAULT);
+        // 输入源仍被超时的模拟线程占用时不读取，沿用最后位置
+        if (detachedLoop == null) {
+            pointerSource.drainTo(frameSamples);
+        }
+        if (frameSamples.isEmpty()) {
+            frameSamples.add(frameNanos, lastMouseX, lastMouseY);
+        } else {
+            lastMouseX = frameSamples.lastX();
+            lastMouseY = frameSamples.lastY();
+        }
+
+        // 外推到预计上屏时刻，抵消管线延迟（预测点追加为批次最后一个采样）
+        // 预测器与模拟线程共用，超时的模拟线程还没退出时同样不碰
+        if (predictionStage != null && detachedLoop == null) {
+            predictionStage.apply(frameSamples, frameNanos);
+        }
+        // 附加指针流（笔、触摸、回放光标）不做预测
+        if (detachedLoop == null) {
+            pointerStreamHub.drainTo(frameStreams, frameNanos);
+        }
+        framePollNanos = System.nanoTime() - frameNanos;
+
+        // --- 修正 2: 移除 clearRect，让 Effect 自己决定是否清空 ---
+        // gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        // --- 修正 3: 窗口跟随内容；能提供包围盒的特效每帧完整重绘，由这里清空并平移坐标系 ---
+        if (region != null && fitRegion(currentEffect.bounds(contentBounds), frameStreams)) {
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            gc.setTransform(1, 0, 0, 1, -region.getX(), -region.getY());
+        }
+
+        // 渲染：将坐标传给 Python
+        // 对于 JavaFX Canvas，坐标系通常已自动缩放，无需手动除 DPI
+        // 如果发现鼠标错位，这里可以除以 screenScale
+        currentEffect.render(gc, frameStreams);
+        if (region != null) {
+            gc.setTransform(1, 0, 0, 1, 0, 0);
+        }
+        frameSimulateNanos = 0;
+        frameLiveCount = currentEffect.liveCount();
+    }
+
+    /**
+     * 画模拟线程最新发布的快照（无等待：还没有新快照时重画上一份）
+     * @return 快照对应的采样数
+     */
+    private <F> int drawSimulated(SimulationLoop<F> loop) {
+        SimulatedTrailEffect<F> effect = loop.effect();
+        F frame = loop.latest();
+        if (region != null && fitRegion(effect.bounds(frame, contentBounds), null)) {
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            gc.setTransform(1, 0, 0, 1, -region.getX(), -region.getY());
+        }
+        effect.draw(gc, frame);
+        if (region != null) {
+            gc.setTransform(1, 0, 0, 1, 0, 0);
+        }
+        framePollNanos = 0;
+        frameSimulateNanos = loop.lastStepNanos();
+        frameLiveCount = effect.liveCount(frame);
+        return loop.lastSampleCount();
+    }
+
+    /**
+     * 按特效上一帧的包围盒（已写入 contentBounds）加上本帧采样调整窗口（新内容从采样位置产生）
+     * @param hasBounds 特效是否提供了包围盒
+     * @param streams   本帧各指针流的采样，为 null 时只看包围盒
+     * @return hasBounds
+     */
+    private boolean fitRegion(boolean hasBounds, PointerStreams streams) {
+        boolean changed;
+        if (!hasBounds) {
+            changed = region.setFullScreen();
+        } else {
+            double minX = contentBounds[0], minY = contentBounds[1];
+            double maxX = contentBounds[2], maxY = contentBounds[3];
+            if (minX > maxX) {
+                minX = minY = Double.POSITIVE_INFINITY;
+                maxX = maxY = Double.NEGATIVE_INFINITY;
+            }
+            int streamCount = streams != null ? streams.size() : 0;
+            for (int s = 0; s < streamCount; s++) {
+                PointerSamples samples = streams.samples(s);
+                for (int i = 0; i < samples.size(); i++) {
+                    minX = Math.min(minX, samples.x(i));
+                    minY = Math.min(minY, samples.y(i));
+                    maxX = Math.max(maxX, samples.x(i));
+                    maxY = Math.max(maxY, samples.y(i));
+                }
+            }
+            // 既没有内容也没有采样：保持窗口不动
+            changed = minX <= maxX && region.fit(minX, minY, maxX, maxY, System.nanoTime());
+        }
+        if (changed) applyRegion();
+        return hasBounds;
+    }
+
+    private void applyRegion() {
+        double w = region.getWidth();
+        double h = region.getHeight();
+        if (canvas.getWidth() != w || canvas.getHeight() != h) {
+            canvas.setWidth(w);
+            canvas.setHeight(h);
+            overlayStage.setWidth(w);
+            overlayStage.setHeight(h);
+            Metrics.increment("overlay.resize");
+        }
+        overlayStage.setX(region.getX());
+        overlayStage.setY(region.getY());
+        Metrics.increment("overlay.move");
+    }
+
+    /**
+     * 按类型切换特效：优先从预热缓存取回，未命中时在后台用默认配置创建，就绪后再换上
+     */
+    public void selectEffect(String type) {
+        if (type.equals(creatingType) || type.equals(pendingEffectKey)) return;
+        int generation = ++createGeneration;
+        creatingType = null;
+        if (type.equals(currentEffectKey)) {
+            // 过渡期间又选回了当前特效：放弃进行中的切换
+            cancelPending();
+            return;
+        }
+
+        EffectSwitchEvent event = new EffectSwitchEvent();
+        event.begin();
+        ITrailEffect cached = warmCache.take(type);
+        if (cached != null) {
+            stageEffect(type, cached, event, true);
+            return;
+        }
+        creatingType = type;
+        lifecycle.create(type, null).whenComplete((effect, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                LOG.error("创建特效失败: {}", type, error);
+                if (generation == createGeneration) creatingType = null;
+                return;
+            }
+            if (closed) {
+                lifecycle.dispose(effect);
+                return;
+            }
+            if (generation != createGeneration) {
+                // 创建期间又选了别的特效：结果留在预热缓存里，切回时直接可用
+                retire(type, effect);
+                return;
+            }
+            creatingType = null;
+            stageEffect(type, effect, event, false);
+        }));
+    }
+
+    /**
+     * 切换到外部创建的特效（切走时销毁，不进入预热缓存）
+     */
     public void switchEffect(ITrailEffect effect) {
+        switchEffect(null, effect);
+    }
+
+    /**
+     * 切换特效：新特效就绪后才换上，之前旧特效继续绘制
+     * @param key 预热缓存 key（通常为特效类型），非 null 时该特效切走后进入缓存
+     */
+    public void switchEffect(String key, ITrailEffect effect) {
+        // 外部指定的特效优先于进行中的后台创建
+        createGeneration++;
+        creatingType = null;
+        EffectSwitchEvent event = new EffectSwitchEvent();
+        event.begin();
+        stageEffect(key, effect, event, false);
+    }
+
+    /**
+     * 已就绪（或当前没有特效可继续绘制）时立即换上，否则进入过渡，由渲染循环每帧检查
+     * @param event 已 begin 的 JFR 事件（从创建或取回新特效时开始计时）
+     */
+    private void stageEffect(String key, ITrailEffect effect, EffectSwitchEvent event, boolean cacheHit) {
+        cancelPending();
+        if (currentEffect == null || effect == null || effect.isReady()) {
+            commitSwitch(key, effect, event, cacheHit, false);
+            return;
+        }
+        pendingEffect = effect;
+        pendingEffectKey = key;
+        pendingEvent = event;
+        pendingCacheHit = cacheHit;
+        pendingSinceNanos = System.nanoTime();
+    }
+
+    /**
+     * 渲染循环每帧调用：新特效就绪或等待超时后换上，否则把指针位置交给它预热
+     */
+    private void promotePending() {
+        boolean timedOut = System.nanoTime() - pendingSinceNanos > readyTimeoutNanos;
+        if (!timedOut && !pendingEffect.isReady()) {
+            if (simulationLoop != null) {
+                pendingEffect.warmUp(simulationLoop.lastX(), simulationLoop.lastY());
+            } else {
+                pendingEffect.warmUp(lastMouseX, lastMouseY);
+            }
+            return;
+        }
+        if (timedOut) {
+            Metrics.increment("effect.switch.timeout");
+            LOG.warn("新特效 {} ms 内未就绪，直接切换: {}", readyTimeoutNanos / 1_000_000,
+                    pendingEffect.getClass().getSimpleName());
+        }
+        ITrailEffect effect = pendingEffect;
+        String key = pendingEffectKey;
+        EffectSwitchEvent event = pendingEvent;
+        boolean cacheHit = pendingCacheHit;
+        clearPending();
+        commitSwitch(key, effect, event, cacheHit, timedOut);
+    }
+
+    /**
+     * 放弃等待中的新特效（有 key 的进入预热缓存，否则在后台销毁）
+     */
+    private void cancelPending() {
+        if (pendingEffect == null) return;
+        ITrailEffect effect = pendingEffect;
+        String key = pendingEffectKey;
+        clearPending();
+        retire(key, effect);
+    }
+
+    private void clearPending() {
+        pendingEffect = null;
+        pendingEffectKey = null;
+        pendingEvent = null;
+        pendingCacheHit = false;
+    }
+
+    /**
+     * 切走的特效：有 key 的进入预热缓存，否则在后台销毁
+     */
+    private void retire(String key, ITrailEffect effect) {
+        if (key != null) {
+            warmCache.put(key, effect);
+        } else {
+            lifecycle.dispose(effect);
+        }
+    }
+
+    private void commitSwitch(String key, ITrailEffect effect, EffectSwitchEvent event, boolean cacheHit,
+                              boolean readyTimedOut) {
+        ITrailEffect previous = currentEffect;
+        // 先停模拟线程（交还输入源），再缓存旧特效或交给后台销毁
+        stopSimulation();
         if (currentEffect != null) {
-            currentEffect.dispose();
+            retire(currentEffectKey, currentEffect);
         }
         currentEffect = effect;
+        currentEffectKey = key;
+        startSimulation(effect);
+        if (qualityGovernor != null) {
+            qualityGovernor.setLevers(effect != null ? effect.qualityLevers() : null);
+        }
 
         // 切换特效时，如果不清空可能会残留上一特效的画面
         if (gc != null && canvas != null) {
@@ -124,6 +523,65 @@ public class OverlayManager {
         if (!overlayStage.isShowing()) {
             show();
         }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.from = previous != null ? previous.getClass().getSimpleName() : null;
+            event.to = effect != null ? effect.getClass().getSimpleName() : null;
+            event.key = key;
+            event.cacheHit = cacheHit;
+            event.readyTimedOut = readyTimedOut;
+            event.commit();
+        }
+    }
+
+    private void startSimulation(ITrailEffect effect) {
+        // 旧的模拟线程还没退出：先在 FX 线程内模拟，等它退出后再启动
+        if (detachedLoop != null) return;
+        if (simulationThreadEnabled && effect instanceof SimulatedTrailEffect<?> simulated) {
+            simulationLoop = createSimulationLoop(simulated);
+            simulationLoop.start();
+        }
+    }
+
+    private <F> SimulationLoop<F> createSimulationLoop(SimulatedTrailEffect<F> effect) {
+        return new SimulationLoop<>(effect, pointerSource, pointerStreamHub, predictionStage, lastMouseX, lastMouseY);
+    }
+
+    private void stopSimulation() {
+        if (simulationLoop == null) return;
+        if (!simulationLoop.stop()) {
+            Metrics.increment("simulation.detached");
+            detachedLoop = simulationLoop;
+        }
+        lastMouseX = simulationLoop.lastX();
+        lastMouseY = simulationLoop.lastY();
+        simulationLoop = null;
+    }
+
+    /**
+     * 当前特效（只在 FX 线程调用），没有时返回 null
+     */
+    ITrailEffect currentEffect() {
+        return currentEffect;
+    }
+
+    /**
+     * 添加一个附加指针流（笔、触摸点、屏幕共享回放的光标等），与主指针共用当前特效的粒子配额
+     * 只有支持多指针的特效（原生粒子、流场）会为它生成粒子
+     * @param source  输入源（由这里启动，移除时停止）
+     * @param emitter 该流的发射参数，为 null 时使用默认值
+     * @return 流 id；启动失败或已达上限时返回 -1
+     */
+    public int addPointerStream(PointerSource source, EmitterParams emitter) {
+        return pointerStreamHub.register(source, emitter);
+    }
+
+    /**
+     * 移除附加指针流（该流已有的粒子照常演化直到消失）
+     */
+    public void removePointerStream(int id) {
+        pointerStreamHub.unregister(id);
     }
 
     public void show() {
@@ -140,13 +598,41 @@ public class OverlayManager {
         }
     }
 
-    public void exit() {
+    /**
+     * 停止渲染并释放输入源、特效与窗口（不退出 JVM）
+     */
+    public void shutdown() {
         if (renderTimer != null) renderTimer.stop();
+        stopSimulation();
+        if (pointerSource != null) pointerSource.stop();
+        pointerStreamHub.clear();
+        Metrics.unregisterGauge("pointer.streams", streamsGauge);
+        Metrics.unregisterGauge("overlay.width", widthGauge);
+        Metrics.unregisterGauge("overlay.height", heightGauge);
+        // 还在后台创建的特效完成后直接销毁（执行器关闭后退回到调用线程上销毁）
+        closed = true;
+        createGeneration++;
+        creatingType = null;
+        if (pendingEffect != null) {
+            lifecycle.dispose(pendingEffect);
+            clearPending();
+        }
         if (currentEffect != null) {
-            currentEffect.dispose();
+            lifecycle.dispose(currentEffect);
+            currentEffect = null;
+            currentEffectKey = null;
         }
+        warmCache.clear();
+        // 等后台销毁完成，保证退出前 Python 进程都已停止
+        lifecycle.shutdown();
+        if (qualityGovernor != null) qualityGovernor.shutdown();
+        if (paramServer != null) paramServer.stop();
         overlayStage.close();
+    }
+
+    public void exit() {
+        shutdown();
         Platform.exit();
         System.exit(0);
     }
-}
\ No newline at end of file
+}
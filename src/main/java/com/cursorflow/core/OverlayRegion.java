@@ -0,0 +1,137 @@
+package com.cursorflow.core;
+
+/**
+ * 图层窗口的取景区域：根据特效内容的包围盒决定窗口的位置与尺寸
+ *
+ * 尺寸取固定阶梯（256、384、512、768…，不超过屏幕），同一档位内只移动窗口、不重建画布；
+ * 内容超出窗口时立即扩大或移动，内容缩小后要持续 SHRINK_DELAY 才缩小，且两次缩小至少间隔 MIN_RESIZE_INTERVAL，
+ * 避免光标来回移动时反复重建画布。只在 FX 线程使用。
+ */
+class OverlayRegion {
+    private static final long SHRINK_DELAY_NANOS = 500_000_000L;
+    private static final long MIN_RESIZE_INTERVAL_NANOS = 250_000_000L;
+    private static final int MIN_SIZE = 256;
+
+    private final double screenX, screenY, screenW, screenH;
+    private final double margin;
+
+    private double x, y, w, h;
+    private long shrinkSinceNanos = -1;
+    private long lastResizeNanos = Long.MIN_VALUE / 2;
+
+    /**
+     * @param margin 内容包围盒四周额外保留的边距（像素）
+     */
+    OverlayRegion(double screenX, double screenY, double screenW, double screenH, double margin) {
+        this.screenX = screenX;
+        this.screenY = screenY;
+        this.screenW = screenW;
+        this.screenH = screenH;
+        this.margin = margin;
+        setFullScreen();
+    }
+
+    double getX() {
+        return x;
+    }
+
+    double getY() {
+        return y;
+    }
+
+    double getWidth() {
+        return w;
+    }
+
+    double getHeight() {
+        return h;
+    }
+
+    boolean isFullScreen() {
+        return w == screenW && h == screenH;
+    }
+
+    /**
+     * 回到整屏（特效不提供包围盒时使用）
+     * @return 区域是否变化
+     */
+    boolean setFullScreen() {
+        shrinkSinceNanos = -1;
+        if (x == screenX && y == screenY && w == screenW && h == screenH) return false;
+        x = screenX;
+        y = screenY;
+        w = screenW;
+        h = screenH;
+        return true;
+    }
+
+    /**
+     * 让区域覆盖给定内容
+     * @return 区域是否变化（位置或尺寸）
+     */
+    boolean fit(double minX, double minY, double maxX, double maxY, long nowNanos) {
+        minX -= margin;
+        minY -= margin;
+        maxX += margin;
+        maxY += margin;
+
+        double needW = pooledSize(maxX - minX, screenW);
+        double needH = pooledSize(maxY - minY, screenH);
+
+        boolean grow = needW > w || needH > h;
+        boolean shrink = !grow && (needW < w || needH < h);
+        boolean outside = minX < x || minY < y || maxX > x + w || maxY > y + h;
+
+        double newW = w, newH = h;
+        if (grow) {
+            // 扩大不能等，否则内容会被裁掉；另一维不需要缩小时保持不变
+            newW = Math.max(needW, w);
+            newH = Math.max(needH, h);
+            shrinkSinceNanos = -1;
+            lastResizeNanos = nowNanos;
+        } else if (shrink) {
+            if (shrinkSinceNanos < 0) shrinkSinceNanos = nowNanos;
+            if (nowNanos - shrinkSinceNanos >= SHRINK_DELAY_NANOS
+                    && nowNanos - lastResizeNanos >= MIN_RESIZE_INTERVAL_NANOS) {
+                newW = needW;
+                newH = needH;
+                shrinkSinceNanos = -1;
+                lastResizeNanos = nowNanos;
+            }
+        } else {
+            shrinkSinceNanos = -1;
+        }
+
+        if (newW == w && newH == h && !outside) return false;
+
+        // 以内容为中心放置，并限制在屏幕内
+        double centerX = (minX + maxX) / 2;
+        double centerY = (minY + maxY) / 2;
+        double newX = clamp(centerX - newW / 2, screenX, screenX + screenW - newW);
+        double newY = clamp(centerY - newH / 2, screenY, screenY + screenH - newH);
+        if (newX == x && newY == y && newW == w && newH == h) return false;
+
+        x = newX;
+        y = newY;
+        w = newW;
+        h = newH;
+        return true;
+    }
+
+    /**
+     * 尺寸阶梯：256、384、512、768、1024、1536…，交替乘 1.5 与 4/3，超过屏幕时取屏幕尺寸
+     */
+    static double pooledSize(double required, double limit) {
+        double size = MIN_SIZE;
+        boolean half = true;
+        while (size < required && size < limit) {
+            size = half ? size * 3 / 2 : size * 4 / 3;
+            half = !half;
+        }
+        return Math.min(size, limit);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
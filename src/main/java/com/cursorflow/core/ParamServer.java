@@ -0,0 +1,294 @@
+package com.cursorflow.core;
+
+import com.cursorflow.effect.ITrailEffect;
+import com.cursorflow.util.Metrics;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 参数推送服务：只监听回环地址的 HTTP 端点，接收 Web 配置面板（cursorflow-web）推送的参数补丁，
+ * 应用到正在运行的特效上（原生特效直接替换参数快照，Python 特效经控制通道下发），可选写回配置文件
+ *
+ * POST /params  请求体 {"params": {...}, "persist": false}
+ *               200 {"applied": true, "persisted": false, "effect": "..."}；409 当前特效不支持运行中改参数
+ * GET  /params  当前特效及是否有配置文件（面板据此显示连接状态）
+ *
+ * 浏览器里的任意网页都能向回环地址发请求，因此只接受没有 Origin（命令行工具）或来自本机页面的请求，
+ * 且 POST 必须是 application/json（跨域时必然先发预检）。
+ * 端口由 cursorflow.params.port 设置（默认 7731，0 表示关闭）。
+ */
+final class ParamServer {
+    private static final Logger LOG = LoggerFactory.getLogger(ParamServer.class);
+
+    public static final String PROPERTY_PORT = "cursorflow.params.port";
+    private static final int DEFAULT_PORT = 7731;
+
+    private static final String PATH = "/params";
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    // 等待 FX 线程应用补丁的最长时间
+    private static final long APPLY_TIMEOUT_MS = 1000;
+
+    private final OverlayManager overlay;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Gson gson = new Gson();
+
+    ParamServer(OverlayManager overlay, int port) throws IOException {
+        this.overlay = overlay;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ParamServer");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+    }
+
+    /**
+     * 按系统属性创建并启动
+     * @return 关闭或端口被占用时返回 null
+     */
+    static ParamServer fromSystemProperties(OverlayManager overlay) {
+        int port = Integer.getInteger(PROPERTY_PORT, DEFAULT_PORT);
+        if (port <= 0) return null;
+        try {
+            ParamServer paramServer = new ParamServer(overlay, port);
+            paramServer.server.start();
+            LOG.info("参数推送服务已启动: http://127.0.0.1:{}{}", port, PATH);
+            return paramServer;
+        } catch (IOException e) {
+            LOG.warn("参数推送服务启动失败（端口 {}）: {}", port, e.getMessage());
+            return null;
+        }
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Headers responseHeaders = exchange.getResponseHeaders();
+            String origin = exchange.getRequestHeaders().getFirst("Origin");
+            if (origin != null) {
+                if (!isLocalOrigin(origin)) {
+                    Metrics.increment("params.rejected");
+                    respond(exchange, 403, error("不接受来自 " + origin + " 的请求"));
+                    return;
+                }
+                responseHeaders.set("Access-Control-Allow-Origin", origin);
+                responseHeaders.set("Vary", "Origin");
+            }
+
+            switch (exchange.getRequestMethod()) {
+                case "OPTIONS":
+                    responseHeaders.set("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
+                    responseHeaders.set("Access-Control-Allow-Headers", "Content-Type");
+                    exchange.sendResponseHeaders(204, -1);
+                    break;
+                case "GET":
+                    respond(exchange, 200, status());
+                    break;
+                case "POST":
+                    post(exchange);
+                    break;
+                default:
+                    responseHeaders.set("Allow", "GET, POST, OPTIONS");
+                    respond(exchange, 405, error("不支持的方法"));
+                    break;
+            }
+        }
+    }
+
+    private void post(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.toLowerCase().startsWith("application/json")) {
+            respond(exchange, 415, error("请求体必须是 application/json"));
+            return;
+        }
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (body.length > MAX_BODY_BYTES) {
+            respond(exchange, 413, error("请求体过大"));
+            return;
+        }
+
+        JsonObject params;
+        boolean persist;
+        try {
+            JsonElement root = JsonParser.parseString(new String(body, StandardCharsets.UTF_8));
+            if (!root.isJsonObject() || !root.getAsJsonObject().has("params")
+                    || !root.getAsJsonObject().get("params").isJsonObject()) {
+                respond(exchange, 400, error("缺少 params 对象"));
+                return;
+            }
+            params = root.getAsJsonObject().getAsJsonObject("params");
+            persist = root.getAsJsonObject().has("persist") && root.getAsJsonObject().get("persist").getAsBoolean();
+        } catch (JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+            respond(exchange, 400, error("无法解析请求体: " + e.getMessage()));
+            return;
+        }
+        if (params.has("type")) {
+            respond(exchange, 400, error("不能在运行中修改 type，请通过托盘菜单切换特效"));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> patch = gson.fromJson(params, Map.class);
+        Applied applied;
+        try {
+            applied = applyOnFxThread(patch);
+        } catch (TimeoutException e) {
+            respond(exchange, 503, error("渲染线程无响应"));
+            return;
+        }
+        if (!applied.ok()) {
+            Metrics.increment("params.rejected");
+            respond(exchange, 409, error(applied.effect() == null ? "当前没有运行中的特效"
+                    : "特效 " + applied.effect() + " 不支持运行中修改参数"));
+            return;
+        }
+        Metrics.increment("params.applied");
+        LOG.info("已应用参数补丁 {} -> {}", patch.keySet(), applied.effect());
+
+        JsonObject response = new JsonObject();
+        response.addProperty("applied", true);
+        response.addProperty("effect", applied.effect());
+        response.addProperty("persisted", persist && persist(applied.configFile(), patch, response));
+        respond(exchange, 200, response);
+    }
+
+    /**
+     * 写回配置文件；失败时在应答里附上原因（补丁已经生效，不算请求失败）
+     */
+    private boolean persist(String configFile, Map<String, Object> patch, JsonObject response) {
+        if (configFile == null) {
+            response.addProperty("message", "当前特效没有配置文件，参数只在本次运行中生效");
+            return false;
+        }
+        try {
+            ConfigOverrideWriter.write(Path.of(configFile), patch);
+            Metrics.increment("params.persisted");
+            LOG.info("参数补丁已写回配置文件: {}", configFile);
+            return true;
+        } catch (IOException e) {
+            LOG.warn("参数补丁写回失败: {}", configFile, e);
+            response.addProperty("message", "写回配置文件失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 当前特效只在 FX 线程读写，补丁在 FX 线程上应用（特效内部只是替换参数快照或发一条控制消息）
+     */
+    private Applied applyOnFxThread(Map<String, Object> patch) throws TimeoutException {
+        CompletableFuture<Applied> future = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                ITrailEffect effect = overlay.currentEffect();
+                if (effect == null) {
+                    future.complete(new Applied(null, false, null));
+                } else {
+                    boolean ok = effect.applyParams(patch);
+                    future.complete(new Applied(effect.getClass().getSimpleName(), ok, effect.configFilePath()));
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        try {
+            return future.get(APPLY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("interrupted");
+        } catch (ExecutionException e) {
+            LOG.warn("应用参数补丁失败", e.getCause());
+            return new Applied(null, false, null);
+        }
+    }
+
+    private JsonObject status() {
+        JsonObject status = new JsonObject();
+        try {
+            CompletableFuture<JsonObject> future = new CompletableFuture<>();
+            Platform.runLater(() -> {
+                ITrailEffect effect = overlay.currentEffect();
+                JsonObject s = new JsonObject();
+                s.addProperty("effect", effect != null ? effect.getClass().getSimpleName() : null);
+                s.addProperty("configFile", effect != null ? effect.configFilePath() : null);
+                future.complete(s);
+            });
+            return future.get(APPLY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOG.debug("读取当前特效失败: {}", e.toString());
+        }
+        return status;
+    }
+
+    /**
+     * 只接受本机页面（如 Vite 开发服务器 http://localhost:5173）
+     */
+    private static boolean isLocalOrigin(String origin) {
+        try {
+            String host = new URI(origin).getHost();
+            return "localhost".equalsIgnoreCase(host) || "127.0.0.1".equals(host) || "[::1]".equals(host);
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private static JsonObject error(String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        return error;
+    }
+
+    private static void respond(HttpExchange exchange, int status, JsonObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * FX 线程上应用补丁的结果
+     * @param effect     当前特效的类名，没有特效时为 null
+     * @param configFile 当前特效的配置文件，没有时为 null
+     */
+    private record Applied(String effect, boolean ok, String configFile) {
+    }
+}
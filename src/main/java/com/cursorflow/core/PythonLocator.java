@@ -0,0 +1,164 @@
+package com.cursorflow.core;
+
+import com.cursorflow.util.StartupTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Python 解释器定位：结果缓存在进程内和磁盘上（~/.cursorflow/python.properties）
+ * 磁盘缓存以可执行文件的真实路径 + 修改时间 + 大小作为校验，解释器升级或删除后自动重新探测；
+ * 命中缓存时不需要再逐个启动 "python --version" 子进程。
+ */
+final class PythonLocator {
+    private static final Logger LOG = LoggerFactory.getLogger(PythonLocator.class);
+
+    private static final Path CACHE_FILE = Path.of(System.getProperty("user.home"), ".cursorflow", "python.properties");
+
+    private static volatile String cached;
+
+    private PythonLocator() {
+    }
+
+    /**
+     * 获取可用的 Python 命令（优先返回绝对路径）
+     * @return 未找到时返回 null
+     */
+    static String find() {
+        String command = cached;
+        if (command != null) return command;
+
+        synchronized (PythonLocator.class) {
+            if (cached != null) return cached;
+
+            command = readDiskCache();
+            if (command != null) {
+                StartupTimer.mark("Python 解释器（缓存命中）");
+            } else {
+                command = probe();
+                StartupTimer.mark("Python 解释器（探测）");
+            }
+            cached = command;
+            return command;
+        }
+    }
+
+    /**
+     * 缓存的命令启动失败时调用：清空缓存，下次重新探测
+     */
+    static synchronized void invalidate() {
+        cached = null;
+        try {
+            Files.deleteIfExists(CACHE_FILE);
+        } catch (IOException e) {
+            LOG.debug("删除解释器缓存失败: {}", e.getMessage());
+        }
+    }
+
+    private static String probe() {
+        String[] commands;
+        if (System.getProperty("os.name").toLowerCase().contains("win")) {
+            commands = new String[]{"python.exe", "python"};
+        } else {
+            commands = new String[]{"python3", "python"};
+        }
+
+        for (String cmd : commands) {
+            if (!checkCommand(cmd)) continue;
+
+            // 解析成绝对路径再缓存；解析不到（如 shell 别名）就只在进程内缓存
+            Path executable = resolveOnPath(cmd);
+            if (executable != null) {
+                writeDiskCache(executable);
+                return executable.toString();
+            }
+            return cmd;
+        }
+        return null;
+    }
+
+    private static boolean checkCommand(String cmd) {
+        try {
+            Process p = new ProcessBuilder(cmd, "--version").start();
+            return p.waitFor() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static Path resolveOnPath(String cmd) {
+        String pathEnv = System.getenv("PATH");
+        if (pathEnv == null) return null;
+
+        boolean windows = File.separatorChar == '\\';
+        for (String dir : pathEnv.split(File.pathSeparator)) {
+            if (dir.isBlank()) continue;
+            try {
+                Path candidate = Path.of(dir.trim(), cmd);
+                if (Files.isRegularFile(candidate) && Files.isExecutable(candidate)) return candidate;
+                if (windows && !cmd.endsWith(".exe")) {
+                    Path exe = Path.of(dir.trim(), cmd + ".exe");
+                    if (Files.isRegularFile(exe)) return exe;
+                }
+            } catch (RuntimeException ignored) {
+                // PATH 中的非法条目
+            }
+        }
+        return null;
+    }
+
+    private static String readDiskCache() {
+        if (!Files.isRegularFile(CACHE_FILE)) return null;
+
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(CACHE_FILE)) {
+            props.load(in);
+        } catch (IOException e) {
+            return null;
+        }
+
+        String path = props.getProperty("path");
+        if (path == null) return null;
+        try {
+            Path executable = Path.of(path);
+            String fingerprint = fingerprint(executable);
+            if (fingerprint.equals(props.getProperty("fingerprint"))) {
+                LOG.debug("使用缓存的 Python 解释器: {}", path);
+                return path;
+            }
+            LOG.info("Python 解释器已变化，重新探测: {}", path);
+        } catch (IOException | RuntimeException e) {
+            LOG.info("缓存的 Python 解释器不可用，重新探测: {}", path);
+        }
+        return null;
+    }
+
+    private static void writeDiskCache(Path executable) {
+        try {
+            Properties props = new Properties();
+            props.setProperty("path", executable.toString());
+            props.setProperty("fingerprint", fingerprint(executable));
+            Files.createDirectories(CACHE_FILE.getParent());
+            try (OutputStream out = Files.newOutputStream(CACHE_FILE)) {
+                props.store(out, "CursorFlow Python interpreter cache");
+            }
+        } catch (IOException e) {
+            LOG.debug("写入解释器缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 校验指纹：跟随符号链接后的真实路径 + 修改时间 + 大小
+     */
+    private static String fingerprint(Path executable) throws IOException {
+        Path real = executable.toRealPath();
+        return real + "|" + Files.getLastModifiedTime(real).toMillis() + "|" + Files.size(real);
+    }
+}
@@ -1,14 +1,32 @@
 package com.cursorflow.core;
 
+import com.cursorflow.jfr.PythonMessageEvent;
+import com.cursorflow.jfr.PythonProcessEvent;
+import com.cursorflow.util.Metrics;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 import javafx.application.Platform;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
-import java.util.concurrent.TimeUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Python 进程管理器 (Final Version)
@@ -17,6 +35,11 @@ import java.util.function.Consumer;
  * 2. 智能路径解析 (支持 IDE 调试模式与 EXE 打包模式)
  * 3. 崩溃自动重启保护 (带频率限制)
  * 4. 解决 JavaFX 关闭时的 IO 报错与僵尸进程问题
+ * 5. 配置热重载：后台启动并校验备用进程，产出首帧后再原子切换，旧进程渲染不中断
+ * 6. 延迟追踪：坐标消息携带序号与时间戳，Python 在帧中回传，用于统计延迟并限制在途帧数
+ * 7. 多进程 worker：可启动 N 个进程运行同一配置，各自负责一部分粒子，帧在 Java 端合并
+ * 8. 卡顿看门狗：进程卡死或帧率过低时逐级重启，仍无效则通知渲染端改用 Java 兜底特效
+ * 9. 套接字传输：数据、控制、日志走三条 Unix 域套接字，stdout 只剩诊断输出；Python 无法连接时退回 stdin/stdout
  */
 public class PythonProcessManager {
     private static final Logger LOG = LoggerFactory.getLogger(PythonProcessManager.class);
@@ -26,38 +49,151 @@ public class PythonProcessManager {
 
     // 最小重启间隔 (毫秒)
     private static final long MIN_RESTART_INTERVAL = 3000;
+    // 配置保存事件的防抖时间 (毫秒)
+    private static final long RELOAD_DEBOUNCE_MS = 300;
+    // 热重载时等待备用进程首帧的最长时间 (毫秒)
+    private static final long STANDBY_FIRST_FRAME_TIMEOUT = 5000;
+    // 解析配置 (--dump-config) 的最长等待时间 (毫秒)
+    private static final long INSPECT_TIMEOUT = 5000;
+    // 默认最多在途帧数
+    private static final int DEFAULT_MAX_FRAMES_IN_FLIGHT = 2;
+    // 传输方式：socket（默认，Unix 域套接字，失败时自动退回管道）或 stdio
+    private static final boolean SOCKET_TRANSPORT =
+            !"stdio".equalsIgnoreCase(System.getProperty("cursorflow.python.transport", "socket"));
 
-    private Process pythonProcess;
-    private BufferedReader pythonInput;
-    private BufferedWriter pythonOutput;
+    // 当前负责渲染的进程，以及热重载期间正在预热的备用进程
+    private volatile PythonSession activeSession;
+    private volatile PythonSession standbySession;
 
     private final String configFilePath;
-    private WatchService watchService;
-    private Consumer<String> renderListener; // 使用标准 Consumer 接口
+    private final int workerCount;
+    private final ConfigFileWatcher configWatcher;
+    private final ExecutorService reloadExecutor;
+    private final AtomicInteger reloadGeneration = new AtomicInteger();
+    private Consumer<JsonObject> renderListener; // 使用标准 Consumer 接口
+
+    private final FrameLatencyTracker latencyTracker = new FrameLatencyTracker();
+    private final FramePacer pacer;
+    private final PythonWatchdog watchdog = new PythonWatchdog(this::restartNow);
+
+    // 导出到 Metrics 的仪表（shutdown 时按同一实例注销）
+    private final Supplier<Long> ipcLagGauge = () -> latencyTracker.transportPercentile(95);
+    private final Supplier<Long> computeGauge = () -> latencyTracker.pythonComputePercentile(95);
+    private final Supplier<Long> inputToDrawGauge = () -> latencyTracker.inputToDrawPercentile(95);
+    private final Supplier<Integer> inFlightGauge = this::getFramesInFlight;
+    private final Supplier<Long> skippedGauge = this::getSkippedFrames;
 
     // 状态标志位
     private volatile boolean isStarting = false;
     private volatile boolean isManualStop = false; // 关键：标记是否为人为停止
+    private volatile boolean isShutdown = false;
     private long lastRestartTime = 0;
 
+    // 最近一次发送的鼠标坐标 (高 32 位 X，低 32 位 Y)，热重载时交给备用进程
+    private volatile long lastMousePosition;
+    private volatile boolean hasMousePosition = false;
+
+    // 通过控制通道下发的状态，新进程连上后立即补发
+    private volatile boolean paused = false;
+    private volatile double spawnScale = 1.0;
+    // 配置面板推送的参数补丁（累积，写时复制的不可变快照），配置文件重新加载后以文件为准而清空
+    private final AtomicReference<Map<String, Object>> paramOverrides = new AtomicReference<>(Map.of());
+
     public PythonProcessManager(String configFilePath) {
+        this(configFilePath, 1);
+    }
+
+    /**
+     * @param workerCount 并行运行同一配置的 Python 进程数，每个进程负责一部分粒子
+     */
+    public PythonProcessManager(String configFilePath, int workerCount) {
+        this(configFilePath, workerCount, DEFAULT_MAX_FRAMES_IN_FLIGHT);
+    }
+
+    /**
+     * @param workerCount       并行运行同一配置的 Python 进程数，每个进程负责一部分粒子
+     * @param maxFramesInFlight 最多允许多少条坐标消息尚未收到回传帧
+     */
+    public PythonProcessManager(String configFilePath, int workerCount, int maxFramesInFlight) {
+        this.workerCount = Math.max(1, workerCount);
+        this.pacer = new FramePacer(maxFramesInFlight);
         // 标准化路径，确保 Windows 下也能正确读取
         this.configFilePath = standardizeFilePath(configFilePath);
-        LOG.info("初始化 Python 管理器 | 脚本: {} | 配置: {}", PYTHON_SCRIPT_ABSOLUTE_PATH, this.configFilePath);
-        initConfigFileWatcher();
+        LOG.info("初始化 Python 管理器 | 脚本: {} | 配置: {} | worker: {}",
+                PYTHON_SCRIPT_ABSOLUTE_PATH, this.configFilePath, this.workerCount);
+
+        this.reloadExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "PyHotReload");
+            t.setDaemon(true);
+            return t;
+        });
+        this.configWatcher = new ConfigFileWatcher(this.configFilePath, RELOAD_DEBOUNCE_MS, this::requestHotReload);
+        this.configWatcher.start();
+        // 看门狗随管理器启动：即使首次启动失败（如未安装 Python），也能最终切到兜底特效
+        this.watchdog.start();
+
+        Metrics.registerGauge("python.ipc.transport_p95_ns", ipcLagGauge);
+        Metrics.registerGauge("python.compute_p95_ns", computeGauge);
+        Metrics.registerGauge("python.input_to_draw_p95_ns", inputToDrawGauge);
+        Metrics.registerGauge("python.frames_in_flight", inFlightGauge);
+        Metrics.registerGauge("python.pacer.skipped", skippedGauge);
     }
 
     /**
-     * 设置渲染指令回调
+     * 设置渲染指令回调（指令已在读线程解析为 JSON，回调在 JavaFX 线程执行）
      */
-    public void setRenderListener(Consumer<String> listener) {
+    public void setRenderListener(Consumer<JsonObject> listener) {
         this.renderListener = listener;
     }
 
     /**
-     * 启动 Python 进程 (线程安全)
+     * 端到端延迟统计
+     */
+    public FrameLatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
+    /**
+     * 当前在途帧数（已发送坐标、尚未收到回传帧）
+     */
+    public int getFramesInFlight() {
+        return pacer.framesInFlight();
+    }
+
+    /**
+     * 因在途帧过多而跳过发送的坐标数
+     */
+    public long getSkippedFrames() {
+        return pacer.skippedCount();
+    }
+
+    /**
+     * 卡顿看门狗（可注册状态监听以切换兜底特效）
+     */
+    public PythonWatchdog getWatchdog() {
+        return watchdog;
+    }
+
+    /**
+     * 由渲染端在某帧第一次绘制时调用，用于统计 输入 → 绘制 延迟
+     */
+    public void markFrameDrawn(JsonObject frame) {
+        if (frame.has("t")) {
+            latencyTracker.recordFrameDrawn(frame.get("t").getAsLong(), System.nanoTime());
+        }
+    }
+
+    /**
+     * 启动 Python 进程 (线程安全，冷启动：会先停止现有进程)
      */
     public synchronized boolean startProcess() {
+        return startProcess(PythonProcessEvent.START);
+    }
+
+    /**
+     * @param action JFR 事件中记录的操作（首次启动或重启）
+     */
+    private synchronized boolean startProcess(String action) {
         if (isStarting) {
             LOG.warn("进程正在启动中，忽略重复请求");
             return false;
@@ -76,71 +212,48 @@ public class PythonProcessManager {
         isStarting = true;
         isManualStop = false; // 重置停止标记
 
+        PythonProcessEvent event = new PythonProcessEvent();
+        event.begin();
+        PythonSession session = null;
         try {
-            // 1. 获取 Python 命令
-            String pythonCmd = getPythonCommand();
-            if (pythonCmd == null) {
-                LOG.error("错误：系统未找到 python 或 python3 命令，请配置环境变量！");
-                isStarting = false;
-                return false;
-            }
-
-            // 2. 校验文件存在性
-            if (!new File(PYTHON_SCRIPT_ABSOLUTE_PATH).exists()) {
-                LOG.error("严重错误：Python 脚本不存在 -> {}", PYTHON_SCRIPT_ABSOLUTE_PATH);
-                isStarting = false;
-                return false;
-            }
-
-            // 3. 构建进程
-            ProcessBuilder pb = new ProcessBuilder(pythonCmd, PYTHON_SCRIPT_ABSOLUTE_PATH, configFilePath);
-            pb.environment().put("PYTHONIOENCODING", "utf-8");
-            pb.environment().put("PYTHONUTF8", "1");
-            pb.redirectErrorStream(true); // 将错误输出合并到标准输出，防止缓冲区死锁
-
-            // 设置工作目录为脚本所在目录
-            File scriptFile = new File(PYTHON_SCRIPT_ABSOLUTE_PATH);
-            pb.directory(scriptFile.getParentFile());
-
-            LOG.info("执行命令: {}", String.join(" ", pb.command()));
-            pythonProcess = pb.start();
-
-            // 4. 初始化流 (使用 UTF-8 防止中文乱码)
-            pythonInput = new BufferedReader(new InputStreamReader(pythonProcess.getInputStream(), StandardCharsets.UTF_8));
-            pythonOutput = new BufferedWriter(new OutputStreamWriter(pythonProcess.getOutputStream(), StandardCharsets.UTF_8));
-
-            // 5. 启动后台线程
-            startReadPythonOutputThread();
-            startProcessMonitorThread();
+            session = launchSession(false);
+            if (session == null) return false;
 
+            activeSession = session;
             lastRestartTime = System.currentTimeMillis();
-            LOG.info("Python 进程启动成功 (PID: {})", pythonProcess.pid());
-            isStarting = false;
+            watchdog.onProcessStarted(System.nanoTime());
+            LOG.info("Python 进程启动成功 (PID: {})", session.pids());
             return true;
-
-        } catch (IOException e) {
-            LOG.error("启动失败: ", e);
+        } finally {
             isStarting = false;
-            return false;
+            commitProcessEvent(event, action, session, session != null);
         }
     }
 
     /**
      * 发送鼠标位置 (高频调用优化)
+     * 热重载期间同时发给备用进程，让它在切换前就积累好粒子状态
+     * 在途帧已满时跳过本次发送，下一帧直接发送最新坐标
      */
     public void sendMousePosition(int x, int y) {
-        if (!isProcessAlive() || pythonOutput == null) return;
+        lastMousePosition = ((long) x << 32) | (y & 0xFFFFFFFFL);
+        hasMousePosition = true;
 
-        try {
-            // 直接拼接 JSON 字符串，性能略高于 Gson 序列化
-            String json = "{\"x\":" + x + ",\"y\":" + y + "}\n";
-            pythonOutput.write(json);
-            pythonOutput.flush();
-        } catch (IOException e) {
-            // 这是一个预期内的异常（如进程突然崩溃），只需记录 debug 级别
-            LOG.debug("发送坐标失败，等待监控线程重启进程");
-            closeStreams();
-        }
+        long now = System.nanoTime();
+        // 即使进程已不在也要告知看门狗：有输入却没有帧，正是它要发现的情况
+        watchdog.onInput(now);
+
+        PythonSession active = activeSession;
+        PythonSession standby = standbySession;
+        if (active == null && standby == null) return;
+
+        long seq = pacer.acquire(now);
+        if (seq < 0) return;
+
+        // 直接拼接 JSON 字符串，性能略高于 Gson 序列化
+        String json = "{\"x\":" + x + ",\"y\":" + y + ",\"seq\":" + seq + ",\"t\":" + now + "}\n";
+        if (active != null) active.send(json);
+        if (standby != null) standby.send(json);
     }
 
     /**
@@ -160,70 +273,498 @@ public class PythonProcessManager {
 
         if (printLog) LOG.info("正在停止 Python 进程...");
 
-        closeStreams();
+        discardStandby();
+        PythonSession session = activeSession;
+        activeSession = null;
+        if (session != null) {
+            PythonProcessEvent event = new PythonProcessEvent();
+            event.begin();
+            session.destroy();
+            commitProcessEvent(event, PythonProcessEvent.STOP, session, true);
+        }
+    }
 
-        if (pythonProcess != null && pythonProcess.isAlive()) {
-            try {
-                // 优雅关闭：先 destroy，等待 1秒，不行则强杀
-                pythonProcess.destroy();
-                if (!pythonProcess.waitFor(1000, TimeUnit.MILLISECONDS)) {
-                    pythonProcess.destroyForcibly();
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                pythonProcess.destroyForcibly();
+    private void commitProcessEvent(PythonProcessEvent event, String action, PythonSession session, boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.pids = session != null ? session.pids() : null;
+            event.workers = workerCount;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    /**
+     * 暂停：保留进程与粒子状态（没有输入时 Python 只是阻塞在读取上），停止看门狗，避免把空闲误判为卡死
+     * 套接字传输下同时通知 Python 暂停计算
+     */
+    public void suspend() {
+        if (isShutdown) return;
+        watchdog.stop();
+        paused = true;
+        sendControl("{\"cmd\":\"pause\"}\n");
+        LOG.info("Python 特效已暂停（进程保留）");
+    }
+
+    /**
+     * 从暂停中恢复：重新计时并启动看门狗
+     */
+    public void resume() {
+        if (isShutdown) return;
+        paused = false;
+        sendControl("{\"cmd\":\"resume\"}\n");
+        watchdog.onResumed(System.nanoTime());
+        watchdog.start();
+        LOG.info("Python 特效已恢复");
+    }
+
+    /**
+     * 质量档位：按比例缩减 Python 端每帧生成的粒子数（1 = 配置值）
+     * 只在套接字传输下生效；管道模式没有独立的控制通道
+     */
+    public void setSpawnScale(double scale) {
+        spawnScale = scale;
+        sendControl(qualityMessage(scale));
+    }
+
+    private static String qualityMessage(double scale) {
+        return "{\"cmd\":\"quality\",\"spawn_scale\":" + scale + "}\n";
+    }
+
+    /**
+     * 运行中覆盖 Python config 中的纯数据参数，Python 处理下一条坐标时生效
+     * 只在套接字传输下生效；补丁会保留，进程重启后重新下发
+     * 不持有管理器的锁（启停进程时会长时间持有），可以在 FX 线程上调用
+     * @return false 表示当前进程没有控制通道（管道模式或尚未连上）
+     */
+    public boolean applyParams(Map<String, Object> patch) {
+        paramOverrides.updateAndGet(current -> {
+            Map<String, Object> merged = new HashMap<>(current);
+            merged.putAll(patch);
+            return Collections.unmodifiableMap(merged);
+        });
+        sendControl(paramsMessage(patch));
+        PythonSession active = activeSession;
+        return active != null && active.isSocketConnected();
+    }
+
+    private static String paramsMessage(Map<String, Object> params) {
+        JsonObject message = new JsonObject();
+        message.addProperty("cmd", "params");
+        message.add("params", new Gson().toJsonTree(params));
+        return message + "\n";
+    }
+
+    /**
+     * 发给当前进程与备用进程的控制通道
+     */
+    private void sendControl(String line) {
+        PythonSession active = activeSession;
+        PythonSession standby = standbySession;
+        if (active != null) active.sendControl(line);
+        if (standby != null) standby.sendControl(line);
+    }
+
+    /**
+     * 彻底关闭：停止配置监听、取消进行中的热重载并停止进程
+     */
+    public void shutdown() {
+        isShutdown = true;
+        Metrics.unregisterGauge("python.ipc.transport_p95_ns", ipcLagGauge);
+        Metrics.unregisterGauge("python.compute_p95_ns", computeGauge);
+        Metrics.unregisterGauge("python.input_to_draw_p95_ns", inputToDrawGauge);
+        Metrics.unregisterGauge("python.frames_in_flight", inFlightGauge);
+        Metrics.unregisterGauge("python.pacer.skipped", skippedGauge);
+        watchdog.stop();
+        configWatcher.stop();
+        reloadGeneration.incrementAndGet();
+        reloadExecutor.shutdownNow();
+        stopProcess(true);
+    }
+
+    // --- 热重载 ---
+
+    /**
+     * 配置文件变化（已防抖）：取消尚未完成的备用进程，排队一次新的热重载
+     */
+    private void requestHotReload() {
+        if (isShutdown) return;
+
+        int generation = reloadGeneration.incrementAndGet();
+        paramOverrides.set(Map.of());
+        // 旧的备用进程已经过期，杀掉它让等待首帧的线程立即返回
+        discardStandby();
+        try {
+            reloadExecutor.execute(() -> performHotReload(generation));
+        } catch (RejectedExecutionException ignored) {
+            // 已 shutdown
+        }
+    }
+
+    /**
+     * 启动备用进程，等待它产出首帧后再替换当前进程
+     * 任何一步失败都保留旧进程继续渲染
+     */
+    private void performHotReload(int generation) {
+        if (isShutdown || generation != reloadGeneration.get()) return;
+
+        LOG.info("开始热重载：启动备用 Python 进程...");
+        PythonProcessEvent event = new PythonProcessEvent();
+        event.begin();
+        PythonSession standby = launchSession(true);
+        if (standby == null) {
+            LOG.warn("备用进程启动失败，保留当前进程");
+            commitProcessEvent(event, PythonProcessEvent.HOT_RELOAD, null, false);
+            return;
+        }
+        standbySession = standby;
+
+        // 把最新的光标状态交给备用进程，促使它尽快产出首帧
+        if (hasMousePosition) {
+            long pos = lastMousePosition;
+            standby.send("{\"x\":" + (int) (pos >> 32) + ",\"y\":" + (int) pos + "}\n");
+        }
+
+        boolean ready;
+        try {
+            ready = standby.firstFrameLatch.await(STANDBY_FIRST_FRAME_TIMEOUT, TimeUnit.MILLISECONDS)
+                    && standby.hasAllFrames();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ready = false;
+        }
+
+        PythonSession old = null;
+        boolean swapped = false;
+        synchronized (this) {
+            if (ready && !isShutdown && generation == reloadGeneration.get() && standbySession == standby) {
+                // 原子切换：此后读线程只转发新进程的帧
+                old = activeSession;
+                activeSession = standby;
+                isManualStop = false;
+                lastRestartTime = System.currentTimeMillis();
+                watchdog.onProcessStarted(System.nanoTime());
+                swapped = true;
+            }
+            if (standbySession == standby) standbySession = null;
+        }
+
+        commitProcessEvent(event, PythonProcessEvent.HOT_RELOAD, standby, swapped);
+        if (!swapped) {
+            standby.destroy();
+            if (!ready) LOG.warn("备用进程校验失败（{}ms 内未产出有效帧），保留当前进程", STANDBY_FIRST_FRAME_TIMEOUT);
+            return;
+        }
+
+        deliverFrame(standby);
+        LOG.info("热重载完成，已切换到新进程 (PID: {})", standby.pids());
+
+        // 旧进程在后台线程上回收，不阻塞渲染
+        if (old != null) old.destroy();
+    }
+
+    /**
+     * 看门狗使用：立即杀掉并重启当前进程
+     * 不受 MIN_RESTART_INTERVAL 限制，重启频率由看门狗自己控制
+     */
+    private synchronized void restartNow() {
+        if (isShutdown) return;
+        lastRestartTime = 0;
+        startProcess(PythonProcessEvent.RESTART);
+    }
+
+    private synchronized void discardStandby() {
+        PythonSession standby = standbySession;
+        standbySession = null;
+        if (standby != null) standby.destroy();
+    }
+
+    // --- 进程启动与 IO ---
+
+    /**
+     * 启动一组新的 Python 进程（不影响当前进程）
+     * @param strictConfig 为 true 时要求 Python 端配置加载失败立即退出，用于热重载校验
+     * @return 启动失败返回 null
+     */
+    private PythonSession launchSession(boolean strictConfig) {
+        // 1. 获取 Python 命令
+        String pythonCmd = getPythonCommand();
+        if (pythonCmd == null) {
+            LOG.error("错误：系统未找到 python 或 python3 命令，请配置环境变量！");
+            return null;
+        }
+
+        // 2. 校验文件存在性
+        if (!new File(PYTHON_SCRIPT_ABSOLUTE_PATH).exists()) {
+            LOG.error("严重错误：Python 脚本不存在 -> {}", PYTHON_SCRIPT_ABSOLUTE_PATH);
+            return null;
+        }
+
+        // 同一组 worker 共用一个基础种子：帧级随机（如每帧颜色）保持一致，粒子级随机各自独立
+        long seed = ThreadLocalRandom.current().nextLong(Integer.MAX_VALUE);
+        PythonWorker[] workers = new PythonWorker[workerCount];
+        PythonSocketTransport transport = null;
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                transport = openSocketTransport(i);
+                workers[i] = new PythonWorker(i, startWorkerProcess(pythonCmd, i, seed, strictConfig, transport), transport);
+                transport = null;
+            }
+        } catch (IOException e) {
+            LOG.error("启动失败: ", e);
+            // 缓存的解释器可能已被卸载或移动，下次重新探测
+            PythonLocator.invalidate();
+            if (transport != null) transport.close();
+            for (PythonWorker worker : workers) {
+                if (worker != null) worker.destroy();
+            }
+            return null;
+        }
+
+        PythonSession session = new PythonSession(workers);
+        // 3. 启动后台线程
+        for (PythonWorker worker : workers) {
+            startReadPythonOutputThread(session, worker);
+            startProcessMonitorThread(session, worker);
+            if (worker.socket != null) startSocketTransport(session, worker);
+        }
+        return session;
+    }
+
+    /**
+     * 为一个 worker 创建套接字监听；平台不支持时返回 null，该 worker 使用管道
+     */
+    private static PythonSocketTransport openSocketTransport(int workerIndex) {
+        if (!SOCKET_TRANSPORT) return null;
+        try {
+            return new PythonSocketTransport("w" + workerIndex);
+        } catch (IOException e) {
+            LOG.warn("无法创建 Unix 域套接字，改用标准输入输出: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void startSocketTransport(PythonSession session, PythonWorker worker) {
+        worker.socket.start(new PythonSocketTransport.Listener() {
+            @Override
+            public void onConnected() {
+                LOG.info("[Py{}] 已通过 Unix 域套接字连接", worker.index);
+                // 补发当前的控制状态（重启或热重载后的新进程）
+                if (spawnScale != 1.0) worker.sendControl(qualityMessage(spawnScale));
+                if (paused) worker.sendControl("{\"cmd\":\"pause\"}\n");
+                Map<String, Object> overrides = paramOverrides.get();
+                if (!overrides.isEmpty()) worker.sendControl(paramsMessage(overrides));
+            }
+
+            @Override
+            public void onData(String line) {
+                onFrame(session, worker, line);
+            }
+
+            @Override
+            public void onControl(String line) {
+                LOG.debug("[Py{}] 控制应答: {}", worker.index, line);
+            }
+
+            @Override
+            public void onLog(String line) {
+                LOG.info("[Py{}]: {}", worker.index, line);
             }
+        });
+    }
+
+    private Process startWorkerProcess(String pythonCmd, int workerIndex, long seed, boolean strictConfig,
+                                       PythonSocketTransport transport) throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(pythonCmd, PYTHON_SCRIPT_ABSOLUTE_PATH, configFilePath);
+        if (workerCount > 1) {
+            pb.command().addAll(List.of(
+                    "--worker-index", String.valueOf(workerIndex),
+                    "--worker-count", String.valueOf(workerCount),
+                    "--seed", String.valueOf(seed)));
+        }
+        pb.environment().put("PYTHONIOENCODING", "utf-8");
+        pb.environment().put("PYTHONUTF8", "1");
+        if (strictConfig) {
+            pb.environment().put("CURSORFLOW_STRICT_CONFIG", "1");
         }
-        pythonProcess = null;
+        if (transport != null) {
+            pb.environment().put("CURSORFLOW_SOCKET", transport.socketPath().toString());
+        }
+        // 将错误输出合并到标准输出，防止缓冲区死锁；套接字传输下 stdout 只剩诊断输出
+        pb.redirectErrorStream(true);
+
+        // 设置工作目录为脚本所在目录
+        File scriptFile = new File(PYTHON_SCRIPT_ABSOLUTE_PATH);
+        pb.directory(scriptFile.getParentFile());
+
+        LOG.info("执行命令: {}", String.join(" ", pb.command()));
+        return pb.start();
     }
 
     /**
      * 读取 Python 输出 (日志与指令分离)
+     * 套接字已连接时渲染帧走数据通道，stdout 上的内容（print、异常栈）一律视为日志
      */
-    private void startReadPythonOutputThread() {
+    private void startReadPythonOutputThread(PythonSession session, PythonWorker worker) {
         Thread thread = new Thread(() -> {
             String line;
             try {
-                while (pythonInput != null && (line = pythonInput.readLine()) != null) {
-                    // 如果是以 "{" 开头，大概率是 JSON 渲染指令
-                    if (line.trim().startsWith("{")) {
-                        if (renderListener != null) {
-                            String finalLine = line;
-                            // 确保渲染在 JavaFX 线程
-                            Platform.runLater(() -> renderListener.accept(finalLine));
-                        }
+                while ((line = worker.input.readLine()) != null) {
+                    // 管道模式下以 "{" 开头的行大概率是 JSON 渲染指令
+                    if (!worker.isSocketConnected() && line.trim().startsWith("{")) {
+                        onFrame(session, worker, line);
                     } else {
                         // 否则视为 Python 脚本的 print() 日志
-                        LOG.info("[Py]: {}", line);
+                        LOG.info("[Py{}]: {}", worker.index, line);
                     }
                 }
             } catch (IOException e) {
                 // 流被关闭属于正常现象
+            } finally {
+                try {
+                    worker.input.close();
+                } catch (IOException ignored) {}
+                // 进程退出时也要唤醒等待首帧的热重载线程
+                session.firstFrameLatch.countDown();
             }
-        }, "PyReaderThread");
+        }, "PyReaderThread-" + worker.index);
         thread.setDaemon(true); // 设置为守护线程，随主程序退出
         thread.start();
     }
 
+    /**
+     * 在读线程解析渲染指令：只有当前进程的帧会被渲染；备用进程只记录首帧用于校验
+     */
+    private void onFrame(PythonSession session, PythonWorker worker, String line) {
+        PythonMessageEvent event = new PythonMessageEvent();
+        event.begin();
+        long parseStart = System.nanoTime();
+        JsonObject frame = parseFrame(line);
+        long parseNanos = System.nanoTime() - parseStart;
+        if (frame == null) {
+            // 恰好以 "{" 开头的普通 print() 日志
+            LOG.info("[Py{}]: {}", worker.index, line);
+            return;
+        }
+        recordMessageEvent(event, session, worker, line, frame, parseNanos, parseStart + parseNanos);
+
+        JsonObject previous = session.latestFrames.getAndSet(worker.index, frame);
+        if (session != activeSession) {
+            // 备用进程：每个 worker 的首帧到达时计数一次
+            if (previous == null) session.firstFrameLatch.countDown();
+            return;
+        }
+        watchdog.onFrame(System.nanoTime());
+
+        if (frame.has("seq")) {
+            long now = System.nanoTime();
+            long seq = frame.get("seq").getAsLong();
+            worker.lastEchoSeq = seq;
+            // 最慢的 worker 决定在途帧数
+            long minSeq = session.minEchoSeq();
+            pacer.onEcho(minSeq, now);
+            long pythonNanos = frame.has("py_ns") ? frame.get("py_ns").getAsLong() : 0;
+            latencyTracker.recordFrameReceived(frame.get("t").getAsLong(), pythonNanos, now);
+
+            // 等所有 worker 都交回这一输入的帧后再合并，每条输入只产生一条渲染指令
+            if (minSeq < seq) return;
+        }
+        deliverFrame(session);
+    }
+
+    private void recordMessageEvent(PythonMessageEvent event, PythonSession session, PythonWorker worker,
+                                    String line, JsonObject frame, long parseNanos, long now) {
+        event.end();
+        if (!event.shouldCommit()) return;
+
+        event.worker = worker.index;
+        event.bytes = line.length();
+        event.parseTime = parseNanos;
+        event.standby = session != activeSession;
+        if (frame.has("seq")) event.seq = frame.get("seq").getAsLong();
+        if (frame.has("py_ns")) event.pythonTime = frame.get("py_ns").getAsLong();
+        if (frame.has("t")) {
+            // 读线程收到整行时已包含管道排队；解析耗时单独记录，不计入排队
+            event.queueDelay = Math.max(0, now - parseNanos - frame.get("t").getAsLong() - event.pythonTime);
+        }
+        event.commit();
+    }
+
+    /**
+     * 把各 worker 的最新帧合并为一条渲染指令交给 JavaFX 线程
+     * 同一时间最多排队一个合并任务，渲染线程跟不上时自然合并掉中间帧
+     */
+    private void deliverFrame(PythonSession session) {
+        Consumer<JsonObject> listener = renderListener;
+        if (listener == null || !session.mergePending.compareAndSet(false, true)) return;
+
+        // 确保渲染在 JavaFX 线程
+        Platform.runLater(() -> {
+            session.mergePending.set(false);
+            if (session != activeSession) return;
+
+            JsonObject merged = session.mergeLatest();
+            if (merged != null) listener.accept(merged);
+        });
+    }
+
+    /**
+     * 解析一行渲染指令，必须是带 type 字段的 JSON 对象，否则返回 null
+     */
+    private static JsonObject parseFrame(String line) {
+        try {
+            JsonElement element = JsonParser.parseString(line);
+            if (element.isJsonObject() && element.getAsJsonObject().has("type")) {
+                JsonObject frame = element.getAsJsonObject();
+                parseNumbers(frame, "particles");
+                parseNumbers(frame, "points");
+                return frame;
+            }
+            return null;
+        } catch (JsonParseException | IllegalStateException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 在读线程把逐粒子 / 逐点的数字从惰性解析（每次 getAsDouble 都要解析一遍字符串）换成已解析的 double，
+     * JavaFX 线程绘制时只剩拆箱，不再逐帧分配
+     */
+    private static void parseNumbers(JsonObject frame, String arrayKey) {
+        JsonElement array = frame.get(arrayKey);
+        if (array == null || !array.isJsonArray()) return;
+        for (JsonElement item : array.getAsJsonArray()) {
+            if (!item.isJsonObject()) continue;
+            for (Map.Entry<String, JsonElement> field : item.getAsJsonObject().entrySet()) {
+                JsonElement value = field.getValue();
+                if (value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber()) {
+                    field.setValue(new JsonPrimitive(value.getAsDouble()));
+                }
+            }
+        }
+    }
+
     /**
      * 进程监控与自动重启
      */
-    private void startProcessMonitorThread() {
+    private void startProcessMonitorThread(PythonSession session, PythonWorker worker) {
         Thread thread = new Thread(() -> {
             try {
-                if (pythonProcess != null) {
-                    int exitCode = pythonProcess.waitFor();
+                int exitCode = worker.process.waitFor();
 
-                    // 只有非手动停止，且异常退出时，才重启
-                    if (!isManualStop && exitCode != 0) {
-                        LOG.warn("Python 进程异常退出 (Code: {})，准备自动重启...", exitCode);
-                        restartProcessWithLimit();
-                    }
+                // 已被热重载替换的旧进程、未转正的备用进程退出都不需要处理
+                if (session != activeSession) return;
+
+                // 只有非手动停止，且异常退出时，才重启
+                if (!isManualStop && exitCode != 0) {
+                    LOG.warn("Python 进程异常退出 (Code: {})，准备自动重启...", exitCode);
+                    restartProcessWithLimit();
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
-        }, "PyMonitorThread");
+        }, "PyMonitorThread-" + worker.index);
         thread.setDaemon(true);
         thread.start();
     }
@@ -233,153 +774,308 @@ public class PythonProcessManager {
             try {
                 Thread.sleep(MIN_RESTART_INTERVAL);
                 if (!isManualStop) { // 双重检查
-                    startProcess();
+                    startProcess(PythonProcessEvent.RESTART);
                 }
             } catch (InterruptedException ignored) {}
         }).start();
     }
 
-    private void closeStreams() {
-        try {
-            if (pythonOutput != null) pythonOutput.close();
-            if (pythonInput != null) pythonInput.close();
-        } catch (IOException ignored) {}
-        finally {
-            pythonOutput = null;
-            pythonInput = null;
+    /**
+     * 一组运行同一份配置的 Python worker（一次启动 / 热重载对应一个 session）
+     */
+    private static final class PythonSession {
+        final PythonWorker[] workers;
+        // 每个 worker 最新的一帧；合并后交给渲染端
+        final AtomicReferenceArray<JsonObject> latestFrames;
+        final AtomicBoolean mergePending = new AtomicBoolean(false);
+        // 热重载校验：每个 worker 产出首帧（或退出）时计数
+        final CountDownLatch firstFrameLatch;
+
+        PythonSession(PythonWorker[] workers) {
+            this.workers = workers;
+            this.latestFrames = new AtomicReferenceArray<>(workers.length);
+            this.firstFrameLatch = new CountDownLatch(workers.length);
         }
-    }
 
-    private boolean isProcessAlive() {
-        return pythonProcess != null && pythonProcess.isAlive();
-    }
+        void send(String line) {
+            for (PythonWorker worker : workers) {
+                worker.send(line);
+            }
+        }
 
-    // --- 工具方法区域 ---
+        void sendControl(String line) {
+            for (PythonWorker worker : workers) {
+                worker.sendControl(line);
+            }
+        }
 
-    private static String getPythonScriptAbsolutePath() {
-        try {
-            // 1. IDE 环境: src/main/python/main.py
-            File dev = new File("src/main/python/main.py");
-            if (dev.exists()) return dev.getAbsolutePath();
+        void destroy() {
+            // 先通知所有 worker 退出再逐个等待，避免 N 个进程串行等待
+            for (PythonWorker worker : workers) {
+                worker.closeOutput();
+                worker.process.destroy();
+            }
+            for (PythonWorker worker : workers) {
+                worker.destroy();
+            }
+        }
 
-            // 2. 生产环境: {APP_DIR}/python/main.py
-            File prod = new File(System.getProperty("user.dir"), "python/main.py");
-            if (prod.exists()) return prod.getAbsolutePath();
+        boolean isSocketConnected() {
+            for (PythonWorker worker : workers) {
+                if (!worker.isSocketConnected()) return false;
+            }
+            return true;
+        }
 
-            return ""; // 将导致 startProcess 检测失败
-        } catch (Exception e) {
-            return "";
+        boolean hasAllFrames() {
+            for (int i = 0; i < workers.length; i++) {
+                if (latestFrames.get(i) == null) return false;
+            }
+            return true;
         }
 
+        long minEchoSeq() {
+            long min = Long.MAX_VALUE;
+            for (PythonWorker worker : workers) {
+                min = Math.min(min, worker.lastEchoSeq);
+            }
+            return min;
+        }
+
+        /**
+         * 合并各 worker 的最新帧：粒子指令拼接粒子数组，其他类型无法分片，直接使用首个 worker 的帧
+         * 合并后的 seq / t 取最旧的输入，延迟统计偏保守
+         */
+        JsonObject mergeLatest() {
+            if (workers.length == 1) return latestFrames.get(0);
+
+            JsonObject first = null;
+            JsonArray particles = new JsonArray();
+            JsonObject oldest = null;
+            for (int i = 0; i < workers.length; i++) {
+                JsonObject frame = latestFrames.get(i);
+                if (frame == null) continue;
+                if (first == null) first = frame;
+
+                if (frame.has("particles")) {
+                    particles.addAll(frame.getAsJsonArray("particles"));
+                }
+                if (frame.has("t") && (oldest == null || frame.get("t").getAsLong() < oldest.get("t").getAsLong())) {
+                    oldest = frame;
+                }
+            }
+            if (first == null || !"particle".equals(first.get("type").getAsString())) return first;
+
+            JsonObject merged = new JsonObject();
+            merged.addProperty("type", "particle");
+            merged.add("particles", particles);
+            if (oldest != null) {
+                merged.add("seq", oldest.get("seq"));
+                merged.add("t", oldest.get("t"));
+            }
+            return merged;
+        }
+
+        String pids() {
+            StringBuilder sb = new StringBuilder();
+            for (PythonWorker worker : workers) {
+                if (sb.length() > 0) sb.append(',');
+                sb.append(worker.process.pid());
+            }
+            return sb.toString();
+        }
     }
 
-    private String getPythonCommand() {
-        // 简单粗暴的探测逻辑
-        String[] commands;
-        if (System.getProperty("os.name").toLowerCase().contains("win")) {
-            commands = new String[]{"python.exe", "python"};
-        } else {
-            commands = new String[]{"python3", "python"};
+    /**
+     * 单个 Python 进程及其读写流
+     */
+    private static final class PythonWorker {
+        final int index;
+        final Process process;
+        final BufferedReader input;
+        private BufferedWriter output;
+        // 套接字传输；null 表示只用管道
+        final PythonSocketTransport socket;
+        // 该 worker 最近一次回传的序号
+        volatile long lastEchoSeq = 0;
+
+        PythonWorker(int index, Process process, PythonSocketTransport socket) {
+            this.index = index;
+            this.process = process;
+            this.socket = socket;
+            // 初始化流 (使用 UTF-8 防止中文乱码)
+            this.input = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            this.output = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        boolean isSocketConnected() {
+            return socket != null && socket.isConnected();
+        }
+
+        /**
+         * 发送坐标：套接字已连接时走数据通道（非阻塞），否则写 stdin
+         */
+        void send(String line) {
+            if (isSocketConnected()) {
+                socket.sendData(line);
+                return;
+            }
+            sendToStdin(line);
+        }
+
+        /**
+         * 控制消息只有套接字传输才有独立通道，管道模式下直接忽略
+         */
+        void sendControl(String line) {
+            if (isSocketConnected()) socket.sendControl(line);
         }
 
-        for (String cmd : commands) {
-            if (checkCommand(cmd)) return cmd;
+        private synchronized void sendToStdin(String line) {
+            if (output == null || !process.isAlive()) return;
+
+            try {
+                output.write(line);
+                output.flush();
+            } catch (IOException e) {
+                // 这是一个预期内的异常（如进程突然崩溃），只需记录 debug 级别
+                LOG.debug("发送坐标失败，等待监控线程重启进程");
+                closeOutput();
+            }
+        }
+
+        synchronized void closeOutput() {
+            // 关闭套接字后 Python 读到 EOF 即退出
+            if (socket != null) socket.close();
+            try {
+                if (output != null) output.close();
+            } catch (IOException ignored) {}
+            finally {
+                output = null;
+            }
+        }
+
+        /**
+         * 停止进程。输入流不在这里关闭：读线程可能正阻塞在 readLine 上持有锁，
+         * 进程退出后它会读到 EOF 并自行关闭
+         */
+        void destroy() {
+            closeOutput();
+
+            if (process.isAlive()) {
+                try {
+                    // 优雅关闭：先 destroy，等待 1秒，不行则强杀
+                    process.destroy();
+                    if (!process.waitFor(1000, TimeUnit.MILLISECONDS)) {
+                        process.destroyForcibly();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    process.destroyForcibly();
+                }
+            }
         }
-        return null;
     }
 
-    private boolean checkCommand(String cmd) {
+    /**
+     * 以 --dump-config 模式运行一次用户配置，提取其中的纯数据参数
+     * 用于判断配置能否交给 Java 原生引擎运行，不会启动渲染循环
+     * @return Python 输出的 JSON（type / params / custom_behavior），失败返回 null
+     */
+    public static JsonObject inspectConfig(String configFilePath) {
+        String pythonCmd = getPythonCommand();
+        if (pythonCmd == null || !new File(PYTHON_SCRIPT_ABSOLUTE_PATH).exists()) return null;
+
+        ProcessBuilder pb = new ProcessBuilder(pythonCmd, PYTHON_SCRIPT_ABSOLUTE_PATH,
+                "--dump-config", standardizeFilePath(configFilePath));
+        pb.environment().put("PYTHONIOENCODING", "utf-8");
+        pb.environment().put("PYTHONUTF8", "1");
+        pb.redirectErrorStream(true);
+        pb.directory(new File(PYTHON_SCRIPT_ABSOLUTE_PATH).getParentFile());
+
+        Process process = null;
         try {
-            Process p = new ProcessBuilder(cmd, "--version").start();
-            return p.waitFor() == 0;
-        } catch (Exception e) {
-            return false;
+            process = pb.start();
+            // 输出由读线程随产随读：先 waitFor 再读的话，输出塞满管道缓冲区时子进程会卡在写上
+            AtomicReference<String> output = new AtomicReference<>();
+            Thread reader = startInspectReader(process, output);
+            // 用户配置可能卡死，超时直接放弃（调用方会回退到 Python 进程模式）
+            if (!process.waitFor(INSPECT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                LOG.warn("解析配置超时: {}", configFilePath);
+                return null;
+            }
+            // 进程已退出，管道读到末尾后读线程随即结束
+            reader.join(INSPECT_TIMEOUT);
+            String result = output.get();
+
+            if (process.exitValue() != 0 || result == null) {
+                LOG.warn("解析配置失败 (Code: {}): {}", process.exitValue(), configFilePath);
+                return null;
+            }
+            return JsonParser.parseString(result).getAsJsonObject();
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            LOG.warn("解析配置失败: {}", configFilePath, e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            if (process != null && process.isAlive()) process.destroyForcibly();
         }
     }
 
     /**
-     * 初始化配置文件监听
-     * 当检测到 user_configs/*.py 修改时，自动重启进程
+     * 读取 --dump-config 的输出：以 { 开头的行是结果，其余是用户配置的打印
      */
-    private void initConfigFileWatcher() {
-        Thread watcherThread = new Thread(() -> {
-            try {
-                // 1. 获取要监听的目录
-                File configFile = new File(configFilePath);
-                File parentDir = configFile.getParentFile();
-
-                // 2. 校验目录是否存在
-                if (parentDir == null || !parentDir.exists()) {
-                    LOG.warn("配置文件的父目录不存在，跳过文件监听: {}", configFilePath);
-                    return;
-                }
-
-                // 3. 注册 WatchService
-                try (WatchService service = FileSystems.getDefault().newWatchService()) {
-                    Path path = parentDir.toPath();
-                    // 监听 修改(MODIFY) 和 创建(CREATE，部分编辑器保存机制是 删旧建新)
-                    path.register(service, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
-
-                    LOG.info("配置文件监听器已启动: {}", configFilePath);
-
-                    // 4. 循环等待事件
-                    while (!Thread.currentThread().isInterrupted()) {
-                        WatchKey key;
-                        try {
-                            key = service.take(); // 阻塞等待直到有事件发生
-                        } catch (InterruptedException x) {
-                            return; // 线程中断则退出
-                        }
-
-                        boolean needRestart = false;
-
-                        for (WatchEvent<?> event : key.pollEvents()) {
-                            WatchEvent.Kind<?> kind = event.kind();
-                            if (kind == StandardWatchEventKinds.OVERFLOW) continue;
-
-                            // 获取变动的文件名
-                            Path changedPath = (Path) event.context();
-
-                            // 判断变动的文件是否是我们关注的配置文件
-                            if (changedPath.toString().equals(configFile.getName())) {
-                                LOG.info("检测到配置文件变化: {}", changedPath);
-                                needRestart = true;
-                            }
-                        }
-
-                        if (needRestart) {
-                            // 等待 500ms，确保文件写入完成 (防止读到空文件)
-                            try { Thread.sleep(500); } catch (InterruptedException ignored) {}
-
-                            // 调用之前定义好的启动方法（它内部会自动 stop 旧进程）
-                            // 且不是手动停止，允许自动重启
-                            isManualStop = false;
-                            startProcess();
-                        }
-
-                        // 重置 Key，若失效则退出循环
-                        boolean valid = key.reset();
-                        if (!valid) {
-                            LOG.warn("监听 Key 失效 (目录可能被删除)，停止监听");
-                            break;
-                        }
+    private static Thread startInspectReader(Process process, AtomicReference<String> output) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.trim().startsWith("{")) {
+                        output.set(line);
+                    } else {
+                        LOG.debug("[Py]: {}", line);
                     }
                 }
             } catch (IOException e) {
-                LOG.error("配置文件监听异常", e);
+                // 超时后进程被强制结束，管道随之关闭
             }
-        }, "ConfigWatcher");
+        }, "PyInspectReader");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // --- 工具方法区域 ---
+
+    private static String getPythonScriptAbsolutePath() {
+        try {
+            // 1. IDE 环境: src/main/python/main.py
+            File dev = new File("src/main/python/main.py");
+            if (dev.exists()) return dev.getAbsolutePath();
+
+            // 2. 生产环境: {APP_DIR}/python/main.py
+            File prod = new File(System.getProperty("user.dir"), "python/main.py");
+            if (prod.exists()) return prod.getAbsolutePath();
+
+            return ""; // 将导致 startProcess 检测失败
+        } catch (Exception e) {
+            return "";
+        }
+
+    }
 
-        // 设置为守护线程：主程序退出时它会自动结束
-        watcherThread.setDaemon(true);
-        watcherThread.start();
+    private static String getPythonCommand() {
+        // 探测结果缓存在磁盘上，正常启动不再逐个运行 "python --version"
+        return PythonLocator.find();
     }
 
     /**
      * 标准化文件路径
      * 修复：防止对绝对路径重复拼接项目根目录
      */
-    private String standardizeFilePath(String path) {
+    private static String standardizeFilePath(String path) {
         File file = new File(path);
 
         // 如果已经是绝对路径，且文件存在，直接返回
@@ -0,0 +1,392 @@
+package com.cursorflow.core;
+
+import com.cursorflow.util.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 单个 Python worker 的 Unix 域套接字传输：数据、控制、日志三条独立通道
+ *
+ * Java 端在临时目录监听一个套接字文件，Python 依次连接三次，每条连接的第一个字节标明用途
+ * （D = 坐标输入与渲染帧，C = 控制消息与应答，L = 日志）。三条连接建立后监听套接字即关闭、文件删除。
+ * 所有通道都是非阻塞的：一个线程用 Selector 读取，读入复用的直接缓冲区并按换行拆成消息；
+ * 写入不会阻塞调用方（FX 线程），对端来不及读时未写完的字节由读线程在通道可写时继续写出，缓冲区满则丢弃整条消息。
+ *
+ * Python 端无法连接（如 Windows 上的旧版 Python 没有 AF_UNIX）时会自行退回 stdin/stdout，
+ * 此时 isConnected() 一直为 false，调用方继续使用管道。
+ */
+final class PythonSocketTransport {
+    private static final Logger LOG = LoggerFactory.getLogger(PythonSocketTransport.class);
+
+    // Python 启动并连上三条通道的最长等待时间
+    private static final long CONNECT_TIMEOUT_MS = 5000;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte CHANNEL_DATA = 'D';
+    private static final byte CHANNEL_CONTROL = 'C';
+    private static final byte CHANNEL_LOG = 'L';
+
+    /**
+     * 通道事件回调，都在传输线程上执行
+     */
+    interface Listener {
+        /** 三条通道全部建立 */
+        void onConnected();
+
+        /** 数据通道收到一行（渲染帧） */
+        void onData(String line);
+
+        /** 控制通道收到一行（控制消息的应答） */
+        void onControl(String line);
+
+        /** 日志通道收到一行 */
+        void onLog(String line);
+    }
+
+    private final Path directory;
+    private final Path socketPath;
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread thread;
+    private Listener listener;
+
+    private volatile SocketChannel data;
+    private volatile SocketChannel control;
+    private volatile SocketChannel log;
+    private volatile boolean closed = false;
+
+    // 写缓冲区保持写模式：position 之前是尚未写出的字节
+    private final ByteBuffer dataOut = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private final ByteBuffer controlOut = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    // 读缓冲区只在传输线程使用
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final byte[] scratch = new byte[READ_BUFFER_SIZE];
+
+    /**
+     * 创建并开始监听套接字文件（还未启动读线程）
+     * @param name 用于文件名与线程名，如 "w0"
+     */
+    PythonSocketTransport(String name) throws IOException {
+        this.directory = Files.createTempDirectory("cursorflow-");
+        this.socketPath = directory.resolve(name + ".sock");
+        ServerSocketChannel serverChannel = null;
+        Selector sel = null;
+        try {
+            serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+            serverChannel.configureBlocking(false);
+            sel = Selector.open();
+            serverChannel.register(sel, SelectionKey.OP_ACCEPT);
+        } catch (IOException | UnsupportedOperationException e) {
+            closeQuietly(serverChannel);
+            closeQuietly(sel);
+            deleteFiles();
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+        this.server = serverChannel;
+        this.selector = sel;
+        this.thread = new Thread(this::run, "PySocket-" + name);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * 交给 Python 的套接字路径（通过环境变量传递）
+     */
+    Path socketPath() {
+        return socketPath;
+    }
+
+    void start(Listener listener) {
+        this.listener = listener;
+        thread.start();
+    }
+
+    /**
+     * 三条通道是否都已建立
+     */
+    boolean isConnected() {
+        return data != null && control != null && log != null && !closed;
+    }
+
+    /**
+     * 在数据通道上发送一行（调用方负责末尾换行）
+     * @return false 表示尚未连接、已关闭或缓冲区已满而丢弃
+     */
+    boolean sendData(String line) {
+        return write(data, dataOut, line);
+    }
+
+    /**
+     * 在控制通道上发送一行（调用方负责末尾换行）
+     */
+    boolean sendControl(String line) {
+        return write(control, controlOut, line);
+    }
+
+    private boolean write(SocketChannel channel, ByteBuffer out, String line) {
+        if (channel == null || closed) return false;
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        synchronized (out) {
+            try {
+                if (out.position() > 0) flush(channel, out);
+                if (bytes.length > out.remaining()) {
+                    // 对端长时间不读：丢弃整条消息，不能写半行
+                    Metrics.increment("python.socket.dropped");
+                    return false;
+                }
+                out.put(bytes);
+                flush(channel, out);
+                if (out.position() > 0) awaitWritable(channel);
+                return true;
+            } catch (IOException e) {
+                // 进程退出时连接被对端关闭，由监控线程处理
+                LOG.debug("套接字写入失败: {}", e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 没写完（对端暂时读不动）：关注可写事件，由传输线程在可写时写出剩余字节，不必等到下一次发送
+     * 调用方持有 out 的锁
+     */
+    private void awaitWritable(SocketChannel channel) {
+        SelectionKey key = channel.keyFor(selector);
+        if (key == null) return;
+        try {
+            key.interestOpsOr(SelectionKey.OP_WRITE);
+            selector.wakeup();
+        } catch (CancelledKeyException e) {
+            // 通道已关闭
+        }
+    }
+
+    /**
+     * 传输线程：通道可写时写出积压的字节，写完后取消关注可写事件
+     */
+    private void flushPending(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer out = channel == data ? dataOut : channel == control ? controlOut : null;
+        if (out == null) {
+            key.interestOpsAnd(~SelectionKey.OP_WRITE);
+            return;
+        }
+        synchronized (out) {
+            if (out.position() > 0) flush(channel, out);
+            if (out.position() == 0) key.interestOpsAnd(~SelectionKey.OP_WRITE);
+        }
+    }
+
+    private static void flush(SocketChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        try {
+            channel.write(out);
+        } finally {
+            out.compact();
+        }
+    }
+
+    /**
+     * 关闭全部通道并删除套接字文件，读线程随之退出；Python 端会读到 EOF
+     */
+    void close() {
+        if (closed) return;
+        closed = true;
+        closeQuietly(data);
+        closeQuietly(control);
+        closeQuietly(log);
+        closeQuietly(server);
+        closeQuietly(selector);
+        deleteFiles();
+    }
+
+    private void run() {
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+        try {
+            while (!closed) {
+                long timeout = 0;
+                if (server.isOpen()) {
+                    timeout = deadline - System.currentTimeMillis();
+                    if (timeout <= 0) {
+                        // Python 已退回 stdio（或启动失败），不再等待连接
+                        LOG.info("Python 未在 {}ms 内连接套接字，继续使用标准输入输出", CONNECT_TIMEOUT_MS);
+                        Metrics.increment("python.socket.fallback");
+                        closeQuietly(server);
+                        deleteFiles();
+                        if (data == null && control == null && log == null) return;
+                        continue;
+                    }
+                }
+                selector.select(timeout);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    if (key.isWritable()) flushPending(key);
+                    if (key.isReadable() && !read(key)) {
+                        // 对端关闭：进程退出，由监控线程负责重启
+                        return;
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (!closed) LOG.debug("套接字读取结束: {}", e.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        // 附件为 null 表示还没收到通道标识字节
+        channel.register(selector, SelectionKey.OP_READ, null);
+    }
+
+    /**
+     * @return false 表示连接已被对端关闭
+     */
+    private boolean read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        readBuffer.clear();
+        int n = channel.read(readBuffer);
+        if (n < 0) return false;
+        if (n == 0) return true;
+        readBuffer.flip();
+
+        LineSplitter splitter = (LineSplitter) key.attachment();
+        if (splitter == null) {
+            splitter = identify(channel, readBuffer.get());
+            if (splitter == null) {
+                LOG.warn("未知的套接字通道标识，已关闭连接");
+                key.cancel();
+                channel.close();
+                return true;
+            }
+            key.attach(splitter);
+        }
+
+        int length = readBuffer.remaining();
+        readBuffer.get(scratch, 0, length);
+        splitter.feed(scratch, length);
+        return true;
+    }
+
+    private LineSplitter identify(SocketChannel channel, byte tag) {
+        LineSplitter splitter;
+        switch (tag) {
+            case CHANNEL_DATA:
+                data = channel;
+                splitter = new LineSplitter(CHANNEL_DATA);
+                break;
+            case CHANNEL_CONTROL:
+                control = channel;
+                splitter = new LineSplitter(CHANNEL_CONTROL);
+                break;
+            case CHANNEL_LOG:
+                log = channel;
+                splitter = new LineSplitter(CHANNEL_LOG);
+                break;
+            default:
+                return null;
+        }
+        if (data != null && control != null && log != null) {
+            // 三条通道齐全：监听套接字不再需要
+            closeQuietly(server);
+            deleteFiles();
+            Metrics.increment("python.socket.connected");
+            listener.onConnected();
+        }
+        return splitter;
+    }
+
+    private void deleteFiles() {
+        try {
+            Files.deleteIfExists(socketPath);
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            LOG.debug("删除套接字文件失败: {}", socketPath);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (Exception ignored) {}
+    }
+
+    /**
+     * 把字节流按换行拆成 UTF-8 字符串并分发；跨读取边界的半行暂存在 pending 中
+     */
+    private final class LineSplitter {
+        private final byte channel;
+        private byte[] pending = new byte[4096];
+        private int pendingLength = 0;
+
+        LineSplitter(byte channel) {
+            this.channel = channel;
+        }
+
+        void feed(byte[] bytes, int length) {
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != '\n') continue;
+                if (pendingLength > 0) {
+                    append(bytes, start, i - start);
+                    dispatch(pending, 0, pendingLength);
+                    pendingLength = 0;
+                } else {
+                    dispatch(bytes, start, i - start);
+                }
+                start = i + 1;
+            }
+            if (start < length) append(bytes, start, length - start);
+        }
+
+        private void append(byte[] bytes, int offset, int length) {
+            if (pendingLength + length > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+            }
+            System.arraycopy(bytes, offset, pending, pendingLength, length);
+            pendingLength += length;
+        }
+
+        private void dispatch(byte[] bytes, int offset, int length) {
+            if (length > 0 && bytes[offset + length - 1] == '\r') length--;
+            if (length == 0) return;
+            String line = new String(bytes, offset, length, StandardCharsets.UTF_8);
+            switch (channel) {
+                case CHANNEL_DATA:
+                    listener.onData(line);
+                    break;
+                case CHANNEL_CONTROL:
+                    listener.onControl(line);
+                    break;
+                default:
+                    listener.onLog(line);
+                    break;
+            }
+        }
+    }
+}
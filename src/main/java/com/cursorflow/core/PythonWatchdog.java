@@ -0,0 +1,247 @@
+package com.cursorflow.core;
+
+import com.cursorflow.util.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Python 卡顿看门狗：按帧到达时限判断进程是否卡死或过慢，并逐级升级处理
+ * HEALTHY → STALLED → RESTARTING（杀掉重启）→ 多次无效后进入 FALLBACK（改用 Java 内置特效），
+ * FALLBACK 状态下定期重试，Python 恢复出帧后回到 HEALTHY。
+ * 只有在持续收到输入时才期待帧，特效暂停或隐藏时不会误判。
+ */
+public class PythonWatchdog {
+    private static final Logger LOG = LoggerFactory.getLogger(PythonWatchdog.class);
+
+    public enum State { HEALTHY, STALLED, RESTARTING, FALLBACK }
+
+    /**
+     * 状态变化监听（在看门狗线程回调）
+     */
+    public interface StateListener {
+        void onStateChanged(State from, State to);
+    }
+
+    // 检查周期
+    private static final long TICK_MILLIS = 100;
+    // 有输入时，超过该时间没有任何帧视为卡死
+    private static final long FRAME_DEADLINE_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+    // 进程刚启动时的宽限期（解释器启动 + 导入配置）
+    private static final long STARTUP_GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(5000);
+    // 超过该时间没有输入，则不再期待帧
+    private static final long INPUT_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    // 帧率统计窗口
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // 低于该帧率视为过慢
+    private static final int MIN_FPS = 5;
+    // 连续多少个过慢窗口才判定卡顿
+    private static final int SLOW_WINDOWS_TO_STALL = 2;
+    // 重启窗口内最多重启次数，超出后进入 FALLBACK
+    private static final int MAX_RESTARTS = 2;
+    private static final long RESTART_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(60);
+    // FALLBACK 状态下的重试间隔
+    private static final long FALLBACK_RETRY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Runnable restartAction;
+    private final List<StateListener> listeners = new CopyOnWriteArrayList<>();
+    private final Supplier<Integer> stateGauge = () -> state().ordinal();
+    private ScheduledExecutorService scheduler;
+
+    // 由读线程 / 发送线程更新
+    private volatile long lastFrameNanos = System.nanoTime();
+    private volatile long lastInputNanos = 0;
+    private volatile long graceUntilNanos = System.nanoTime() + STARTUP_GRACE_NANOS;
+    private final AtomicInteger windowFrames = new AtomicInteger();
+    private final AtomicInteger windowInputs = new AtomicInteger();
+    // 恢复时刻（0 表示没有待处理的恢复），由看门狗线程在下一次检查时接手重置帧率窗口
+    private final AtomicLong resumedAtNanos = new AtomicLong();
+
+    // 以下字段只在看门狗线程读写
+    private volatile State state = State.HEALTHY;
+    private long stateSinceNanos = System.nanoTime();
+    private long windowStartNanos = System.nanoTime();
+    private int slowWindows = 0;
+    private int restartsInWindow = 0;
+    private long restartWindowStartNanos = System.nanoTime();
+    private long lastRetryNanos = 0;
+
+    /**
+     * @param restartAction 杀掉并立即重启 Python 进程
+     */
+    public PythonWatchdog(Runnable restartAction) {
+        this.restartAction = restartAction;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "PyWatchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        Metrics.registerGauge("python.watchdog.state", stateGauge);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        Metrics.unregisterGauge("python.watchdog.state", stateGauge);
+    }
+
+    public void addStateListener(StateListener listener) {
+        listeners.add(listener);
+    }
+
+    public State state() {
+        return state;
+    }
+
+    /**
+     * 收到当前进程的一帧
+     */
+    public void onFrame(long nowNanos) {
+        lastFrameNanos = nowNanos;
+        windowFrames.incrementAndGet();
+    }
+
+    /**
+     * 渲染端提交了一次输入（无论是否被节流跳过）
+     */
+    public void onInput(long nowNanos) {
+        lastInputNanos = nowNanos;
+        windowInputs.incrementAndGet();
+    }
+
+    /**
+     * 有新进程接管（冷启动、崩溃重启或热重载切换），重新给予启动宽限期
+     */
+    public void onProcessStarted(long nowNanos) {
+        lastFrameNanos = nowNanos;
+        graceUntilNanos = nowNanos + STARTUP_GRACE_NANOS;
+    }
+
+    /**
+     * 暂停后恢复：暂停期间没有输入也没有帧，从现在重新计算超时与帧率窗口
+     * 帧率窗口只在看门狗线程读写，这里只登记恢复时刻，由下一次检查重置
+     */
+    public void onResumed(long nowNanos) {
+        lastFrameNanos = nowNanos;
+        resumedAtNanos.set(nowNanos);
+    }
+
+    private void tick() {
+        try {
+            long now = System.nanoTime();
+
+            long resumed = resumedAtNanos.getAndSet(0);
+            if (resumed != 0) {
+                windowStartNanos = resumed;
+                windowFrames.set(0);
+                windowInputs.set(0);
+            }
+
+            // 1. 帧率窗口结算
+            int windowFps = -1;
+            if (now - windowStartNanos >= WINDOW_NANOS) {
+                windowFps = windowFrames.getAndSet(0);
+                int inputs = windowInputs.getAndSet(0);
+                windowStartNanos = now;
+                boolean slow = inputs >= MIN_FPS * 2 && windowFps < MIN_FPS;
+                slowWindows = slow ? slowWindows + 1 : 0;
+            }
+
+            boolean expecting = now - lastInputNanos < INPUT_IDLE_NANOS;
+            boolean inGrace = now < graceUntilNanos;
+            boolean overdue = expecting && !inGrace && now - lastFrameNanos > FRAME_DEADLINE_NANOS;
+            boolean stalled = overdue || (!inGrace && slowWindows >= SLOW_WINDOWS_TO_STALL);
+            boolean recovered = windowFps >= MIN_FPS && lastFrameNanos > stateSinceNanos && slowWindows == 0;
+
+            // 2. 状态机
+            switch (state) {
+                case HEALTHY -> {
+                    if (stalled) {
+                        LOG.warn("Python 帧超时或帧率过低，判定为卡顿");
+                        transition(State.STALLED, now);
+                        escalate(now);
+                    }
+                }
+                case RESTARTING -> {
+                    if (recovered) {
+                        transition(State.HEALTHY, now);
+                    } else if (stalled) {
+                        escalate(now);
+                    }
+                }
+                case FALLBACK -> {
+                    if (recovered) {
+                        LOG.info("Python 已恢复出帧，退出 Java 兜底特效");
+                        restartsInWindow = 0;
+                        transition(State.HEALTHY, now);
+                    } else if (expecting && now - lastRetryNanos >= FALLBACK_RETRY_NANOS) {
+                        LOG.info("兜底模式下重试启动 Python 进程");
+                        lastRetryNanos = now;
+                        Metrics.increment("python.watchdog.retries");
+                        restartAction.run();
+                    }
+                }
+                default -> {
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.error("看门狗检查异常", e);
+        }
+    }
+
+    /**
+     * 升级处理：重启次数未超限则杀掉重启，否则进入 FALLBACK
+     */
+    private void escalate(long now) {
+        if (now - restartWindowStartNanos > RESTART_WINDOW_NANOS) {
+            restartWindowStartNanos = now;
+            restartsInWindow = 0;
+        }
+
+        if (restartsInWindow < MAX_RESTARTS) {
+            restartsInWindow++;
+            transition(State.RESTARTING, now);
+            Metrics.increment("python.watchdog.restarts");
+            LOG.warn("看门狗重启 Python 进程 ({}/{})", restartsInWindow, MAX_RESTARTS);
+            restartAction.run();
+            // 重启本身可能耗时，从重启完成开始计时
+            stateSinceNanos = System.nanoTime();
+            slowWindows = 0;
+        } else {
+            LOG.warn("Python 多次重启仍无响应，切换到 Java 兜底特效");
+            lastRetryNanos = now;
+            slowWindows = 0;
+            transition(State.FALLBACK, now);
+        }
+    }
+
+    private void transition(State to, long now) {
+        State from = state;
+        if (from == to) return;
+
+        state = to;
+        stateSinceNanos = now;
+        Metrics.increment("python.watchdog.transition." + from + "_to_" + to);
+        LOG.info("看门狗状态: {} -> {}", from, to);
+        for (StateListener listener : listeners) {
+            try {
+                listener.onStateChanged(from, to);
+            } catch (RuntimeException e) {
+                LOG.error("看门狗状态回调异常", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.cursorflow.core;
+
+import com.cursorflow.effect.QualityLever;
+import com.cursorflow.util.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 自适应质量调节：盯住最近一段时间的单帧渲染耗时，超出目标就按特效声明的顺序逐档降低质量，
+ * 余量充足时再按相反顺序逐档恢复
+ *
+ * 迟滞：降档看 p90 是否超过目标；升档要求 p90 低于目标的 RESTORE_RATIO，且连续 RESTORE_WINDOWS 个窗口都满足；
+ * 每次调整后冷却一个窗口，让特效的新参数先生效再判断。只在 FX 线程调用。
+ */
+class QualityGovernor {
+    private static final Logger LOG = LoggerFactory.getLogger(QualityGovernor.class);
+
+    public static final String PROPERTY_TARGET = "cursorflow.quality.targetMs";
+
+    // 每个判断窗口的帧数（60 Hz 下约 0.5 秒）
+    private static final int WINDOW = 30;
+    private static final double RESTORE_RATIO = 0.6;
+    private static final int RESTORE_WINDOWS = 4;
+
+    private final long targetNanos;
+    private final long[] window = new long[WINDOW];
+    private final long[] sorted = new long[WINDOW];
+    private int filled = 0;
+    private int cooldownWindows = 0;
+    private int goodWindows = 0;
+
+    private List<QualityLever> levers = List.of();
+    private final List<String> gaugeNames = new ArrayList<>();
+    private final List<Supplier<Double>> gauges = new ArrayList<>();
+    private final Supplier<Integer> levelGauge = this::totalLevel;
+
+    QualityGovernor(long targetNanos) {
+        this.targetNanos = targetNanos;
+        Metrics.registerGauge("quality.level", levelGauge);
+    }
+
+    /**
+     * 按系统属性创建（cursorflow.quality.targetMs，默认 8 ms，0 表示关闭）
+     * @return 关闭时返回 null
+     */
+    static QualityGovernor fromSystemProperties() {
+        double targetMs = 8;
+        String value = System.getProperty(PROPERTY_TARGET);
+        if (value != null) {
+            try {
+                targetMs = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                LOG.warn("无效的质量目标帧时间: {}", value);
+            }
+        }
+        if (targetMs <= 0) return null;
+        return new QualityGovernor((long) (targetMs * 1_000_000));
+    }
+
+    /**
+     * 切换特效时调用：换上新特效的档位（满质量开始），旧档位的指标一并注销
+     */
+    void setLevers(List<QualityLever> newLevers) {
+        for (int i = 0; i < gaugeNames.size(); i++) {
+            Metrics.unregisterGauge(gaugeNames.get(i), gauges.get(i));
+        }
+        gaugeNames.clear();
+        gauges.clear();
+
+        levers = newLevers == null ? List.of() : List.copyOf(newLevers);
+        for (QualityLever lever : levers) {
+            lever.reset();
+            String name = "quality." + lever.getName();
+            Supplier<Double> gauge = lever::value;
+            Metrics.registerGauge(name, gauge);
+            gaugeNames.add(name);
+            gauges.add(gauge);
+        }
+        filled = 0;
+        cooldownWindows = 1;
+        goodWindows = 0;
+    }
+
+    /**
+     * 停止调节并注销全部指标
+     */
+    void shutdown() {
+        setLevers(null);
+        Metrics.unregisterGauge("quality.level", levelGauge);
+    }
+
+    /**
+     * 每帧渲染完成后调用
+     * @param renderNanos 本帧渲染耗时
+     */
+    void onFrame(long renderNanos) {
+        if (levers.isEmpty()) return;
+
+        window[filled++] = renderNanos;
+        if (filled < WINDOW) return;
+        filled = 0;
+
+        if (cooldownWindows > 0) {
+            cooldownWindows--;
+            return;
+        }
+
+        System.arraycopy(window, 0, sorted, 0, WINDOW);
+        Arrays.sort(sorted);
+        long p90 = sorted[(int) Math.ceil(WINDOW * 0.9) - 1];
+
+        if (p90 > targetNanos) {
+            goodWindows = 0;
+            if (degrade()) {
+                Metrics.increment("quality.degrade");
+                LOG.info("渲染耗时 p90 {} ms 超出目标 {} ms，降低质量（当前 {} 档）",
+                        String.format("%.2f", p90 / 1e6), String.format("%.2f", targetNanos / 1e6), totalLevel());
+                cooldownWindows = 1;
+            }
+        } else if (p90 < targetNanos * RESTORE_RATIO) {
+            if (++goodWindows >= RESTORE_WINDOWS) {
+                goodWindows = 0;
+                if (restore()) {
+                    Metrics.increment("quality.restore");
+                    LOG.info("渲染余量充足，恢复质量（当前 {} 档）", totalLevel());
+                    cooldownWindows = 1;
+                }
+            }
+        } else {
+            goodWindows = 0;
+        }
+    }
+
+    /**
+     * 按声明顺序找第一个还能降的档位
+     */
+    private boolean degrade() {
+        for (QualityLever lever : levers) {
+            if (lever.degrade()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 按相反顺序恢复：最后降的最先恢复
+     */
+    private boolean restore() {
+        for (int i = levers.size() - 1; i >= 0; i--) {
+            if (levers.get(i).restore()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 所有档位降级数之和（0 = 满质量）
+     */
+    int totalLevel() {
+        int total = 0;
+        for (QualityLever lever : levers) {
+            total += lever.getLevel();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,176 @@
+package com.cursorflow.core;
+
+import com.cursorflow.effect.SimulatedTrailEffect;
+import com.cursorflow.input.EmitterParams;
+import com.cursorflow.input.PointerSamples;
+import com.cursorflow.input.PointerSource;
+import com.cursorflow.input.PointerStreamHub;
+import com.cursorflow.input.PointerStreams;
+import com.cursorflow.input.PredictionStage;
+import com.cursorflow.util.Metrics;
+import com.cursorflow.util.TripleBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 模拟线程：按特效声明的频率取指针采样、推进模拟，并通过三缓冲发布快照
+ * 运行期间它是指针输入源（含附加指针流）的唯一消费者；FX 线程只通过 latest() 取快照，从不等待模拟。
+ *
+ * @param <F> 快照类型
+ */
+class SimulationLoop<F> {
+    private static final Logger LOG = LoggerFactory.getLogger(SimulationLoop.class);
+
+    private final SimulatedTrailEffect<F> effect;
+    private final PointerSource pointerSource;
+    private final PointerStreamHub streamHub;
+    private final PredictionStage predictionStage;
+    private final TripleBuffer<F> frames;
+    private final PointerStreams streams = new PointerStreams();
+    private final long periodNanos;
+    private final Thread thread;
+
+    private volatile boolean running = false;
+    private volatile int lastSampleCount = 0;
+    private volatile long lastStepNanos = 0;
+    // 最后的指针位置（模拟线程写，FX 线程在切换过渡期间读）
+    private volatile int lastX;
+    private volatile int lastY;
+
+    /**
+     * @param predictionStage 为 null 表示不预测
+     * @param lastX           输入源暂无采样时使用的初始位置
+     */
+    SimulationLoop(SimulatedTrailEffect<F> effect, PointerSource pointerSource, PointerStreamHub streamHub,
+                   PredictionStage predictionStage, int lastX, int lastY) {
+        this.effect = effect;
+        this.pointerSource = pointerSource;
+        this.streamHub = streamHub;
+        this.predictionStage = predictionStage;
+        this.frames = new TripleBuffer<>(effect::createFrame);
+        this.periodNanos = (long) (1_000_000_000L / Math.max(1, effect.simulationRateHz()));
+        this.lastX = lastX;
+        this.lastY = lastY;
+        this.thread = new Thread(this::run, "CursorFlow-Simulation");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * 停止并等待模拟线程退出（之后输入源交还给调用方）
+     * @return false 表示 1 秒内没有退出：线程可能仍在读输入源，调用方在 isStopped() 之前不能使用输入源
+     */
+    boolean stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            LOG.warn("模拟线程未能在 1 秒内退出，输入源暂不交还");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 模拟线程是否已经退出
+     */
+    boolean isStopped() {
+        return !thread.isAlive();
+    }
+
+    SimulatedTrailEffect<F> effect() {
+        return effect;
+    }
+
+    /**
+     * 最新发布的快照（FX 线程调用，无等待）
+     */
+    F latest() {
+        return frames.latest();
+    }
+
+    /**
+     * 最近一步使用的采样数（所有指针流，含预测采样）
+     */
+    int lastSampleCount() {
+        return lastSampleCount;
+    }
+
+    /**
+     * 最近一步 simulate 的耗时
+     */
+    long lastStepNanos() {
+        return lastStepNanos;
+    }
+
+    /**
+     * 最后的指针位置：停止后交还给 FX 线程继续使用，运行中读到的是最近一步的位置
+     */
+    int lastX() {
+        return lastX;
+    }
+
+    int lastY() {
+        return lastY;
+    }
+
+    private void run() {
+        LOG.info("模拟线程已启动: {} Hz", String.format("%.0f", 1e9 / periodNanos));
+        long next = System.nanoTime();
+        boolean errorLogged = false;
+        while (running) {
+            long stepNanos = System.nanoTime();
+            streams.clear();
+            PointerSamples samples = streams.add(PointerStreams.PRIMARY, EmitterParams.DEFAULT);
+            pointerSource.drainTo(samples);
+            if (samples.isEmpty()) {
+                samples.add(stepNanos, lastX, lastY);
+            } else {
+                lastX = samples.lastX();
+                lastY = samples.lastY();
+            }
+            if (predictionStage != null) {
+                predictionStage.apply(samples, stepNanos);
+            }
+            streamHub.drainTo(streams, stepNanos);
+
+            try {
+                long simulateStart = System.nanoTime();
+                effect.simulate(streams, frames.back());
+                frames.publish();
+                lastStepNanos = System.nanoTime() - simulateStart;
+                lastSampleCount = streams.totalSamples();
+            } catch (RuntimeException e) {
+                // 单步出错不终止线程，FX 线程继续画上一份快照
+                Metrics.increment("simulation.errors");
+                if (!errorLogged) {
+                    errorLogged = true;
+                    LOG.error("模拟步骤出错", e);
+                }
+            }
+            Metrics.increment("simulation.steps");
+
+            next += periodNanos;
+            long now = System.nanoTime();
+            if (now - next > periodNanos) {
+                // 落后超过一步：不追赶，从现在重新计时
+                Metrics.increment("simulation.overruns");
+                next = now;
+            }
+            while (running && (now = System.nanoTime()) < next) {
+                LockSupport.parkNanos(next - now);
+            }
+        }
+        LOG.info("模拟线程已停止");
+    }
+}
@@ -1,5 +1,7 @@
 package com.cursorflow.core;
 
+import com.cursorflow.effect.EffectProvider;
+import com.cursorflow.effect.EffectRegistry;
 import javafx.application.Platform;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
@@ -44,20 +46,17 @@ public class TrayIconManager {
         // 创建托盘菜单
         PopupMenu popupMenu = new PopupMenu();
 
-        // 切换特效菜单（示例：切换线条/粒子特效）
-        MenuItem snakeLineItem = new MenuItem("贪吃蛇线条");
-        snakeLineItem.addActionListener(e -> Platform.runLater(() -> {
-            var effect = com.cursorflow.effect.EffectFactory.createEffect("snake_line", null);
-            overlayManager.switchEffect(effect);
-            isEffectPaused = false;
-        }));
-
-        MenuItem particleItem = new MenuItem("粒子火花");
-        particleItem.addActionListener(e -> Platform.runLater(() -> {
-            var effect = com.cursorflow.effect.EffectFactory.createEffect("particle", null);
-            overlayManager.switchEffect(effect);
-            isEffectPaused = false;
-        }));
+        // 切换特效菜单：每个已注册的特效一项，切回最近用过的特效时直接从预热缓存取回
+        for (EffectProvider provider : EffectRegistry.providers()) {
+            if (provider.displayName() == null) continue;
+            String type = provider.type();
+            MenuItem effectItem = new MenuItem(provider.displayName());
+            effectItem.addActionListener(e -> Platform.runLater(() -> {
+                overlayManager.selectEffect(type);
+                isEffectPaused = false;
+            }));
+            popupMenu.add(effectItem);
+        }
 
         // 暂停/恢复菜单
         MenuItem pauseItem = new MenuItem("暂停特效");
@@ -76,8 +75,6 @@ public class TrayIconManager {
         exitItem.addActionListener(e -> Platform.runLater(overlayManager::exit));
 
         // 添加菜单到托盘
-        popupMenu.add(snakeLineItem);
-        popupMenu.add(particleItem);
         popupMenu.addSeparator();
         popupMenu.add(pauseItem);
         popupMenu.add(exitItem);
@@ -94,9 +91,10 @@ public class TrayIconManager {
         }
 
         // 主窗口关闭时隐藏到托盘（不退出程序）
-        primaryStage.setOnCloseRequest(e -> {
+        // 托盘可能在后台线程构建，Stage 相关操作交回 FX 线程
+        Platform.runLater(() -> primaryStage.setOnCloseRequest(e -> {
             e.consume(); // 取消默认关闭行为
             primaryStage.hide();
-        });
+        }));
     }
 }
\ No newline at end of file
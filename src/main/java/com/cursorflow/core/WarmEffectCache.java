@@ -0,0 +1,90 @@
+package com.cursorflow.core;
+
+import com.cursorflow.effect.ITrailEffect;
+import com.cursorflow.util.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 预热特效缓存：切走的特效先 suspend 后按 LRU 保留，切回时 resume 即可出帧（Python 特效不必重启进程）
+ * 超出容量时销毁最久未用的特效（交给 disposer，通常在后台线程销毁）。容量由 cursorflow.effect.warmCache 设置（默认 2，0 表示不缓存）。
+ * 只在 FX 线程使用。
+ */
+class WarmEffectCache {
+    private static final Logger LOG = LoggerFactory.getLogger(WarmEffectCache.class);
+
+    public static final String PROPERTY_CAPACITY = "cursorflow.effect.warmCache";
+
+    private final int capacity;
+    private final Consumer<ITrailEffect> disposer;
+    // 访问顺序的 LinkedHashMap，队首为最久未用
+    private final Map<String, ITrailEffect> suspended = new LinkedHashMap<>(8, 0.75f, true);
+
+    /**
+     * @param disposer 销毁被淘汰或不缓存的特效
+     */
+    WarmEffectCache(int capacity, Consumer<ITrailEffect> disposer) {
+        this.capacity = Math.max(0, capacity);
+        this.disposer = disposer;
+    }
+
+    static WarmEffectCache fromSystemProperties(Consumer<ITrailEffect> disposer) {
+        return new WarmEffectCache(Integer.getInteger(PROPERTY_CAPACITY, 2), disposer);
+    }
+
+    /**
+     * 取出并恢复缓存的特效
+     * @return 未命中时返回 null
+     */
+    ITrailEffect take(String key) {
+        ITrailEffect effect = suspended.remove(key);
+        if (effect == null) {
+            Metrics.increment("effect.cache.miss");
+            return null;
+        }
+        Metrics.increment("effect.cache.hit");
+        effect.resume();
+        LOG.info("从预热缓存切回特效: {}", key);
+        return effect;
+    }
+
+    /**
+     * 暂停并缓存特效；容量为 0 或同 key 已有缓存时直接销毁
+     */
+    void put(String key, ITrailEffect effect) {
+        if (capacity == 0 || suspended.containsKey(key)) {
+            disposer.accept(effect);
+            return;
+        }
+        effect.suspend();
+        suspended.put(key, effect);
+
+        Iterator<Map.Entry<String, ITrailEffect>> it = suspended.entrySet().iterator();
+        while (suspended.size() > capacity && it.hasNext()) {
+            Map.Entry<String, ITrailEffect> eldest = it.next();
+            it.remove();
+            disposer.accept(eldest.getValue());
+            Metrics.increment("effect.cache.evict");
+            LOG.info("预热缓存已满，销毁特效: {}", eldest.getKey());
+        }
+    }
+
+    int size() {
+        return suspended.size();
+    }
+
+    /**
+     * 销毁全部缓存的特效
+     */
+    void clear() {
+        for (ITrailEffect effect : suspended.values()) {
+            disposer.accept(effect);
+        }
+        suspended.clear();
+    }
+}
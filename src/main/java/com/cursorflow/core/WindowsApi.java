@@ -1,5 +1,6 @@
 package com.cursorflow.core;
 
+import com.sun.jna.Platform;
 import com.sun.jna.platform.win32.BaseTSD;
 import com.sun.jna.platform.win32.User32;
 import com.sun.jna.platform.win32.WinDef;
@@ -21,6 +22,9 @@ public class WindowsApi {
      * @param stageJavaFX JavaFX窗口
      */
     public static void enableMousePassthrough(javafx.stage.Stage stageJavaFX) {
+        // 非 Windows（如无头基准测试）直接跳过
+        if (!Platform.isWindows()) return;
+
         // 1. 获取窗口句柄
         WinDef.HWND hwnd = getHWND(stageJavaFX);
         if (hwnd == null) {
@@ -44,6 +48,8 @@ public class WindowsApi {
      * @param stageJavaFX JavaFX窗口
      */
     public static void disableMousePassthrough(javafx.stage.Stage stageJavaFX) {
+        if (!Platform.isWindows()) return;
+
         WinDef.HWND hwnd = getHWND(stageJavaFX);
         if (hwnd == null) return;
 
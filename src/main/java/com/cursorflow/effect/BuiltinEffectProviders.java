@@ -0,0 +1,153 @@
+package com.cursorflow.effect;
+
+import com.cursorflow.core.PythonProcessManager;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+
+/**
+ * 内置特效的提供者
+ */
+public final class BuiltinEffectProviders {
+    private BuiltinEffectProviders() {
+    }
+
+    public static final class SnakeLine implements EffectProvider {
+        @Override
+        public String type() {
+            return "snake_line";
+        }
+
+        @Override
+        public String displayName() {
+            return "贪吃蛇线条";
+        }
+
+        @Override
+        public ITrailEffect create(Map<String, Object> config) {
+            ITrailEffect effect = new SnakeLineEffect();
+            effect.init(config);
+            return effect;
+        }
+    }
+
+    public static final class Particle implements EffectProvider {
+        @Override
+        public String type() {
+            return "particle";
+        }
+
+        @Override
+        public String displayName() {
+            return "粒子火花";
+        }
+
+        @Override
+        public ITrailEffect create(Map<String, Object> config) {
+            ITrailEffect effect = new ParticleEffect();
+            effect.init(config);
+            return effect;
+        }
+    }
+
+    public static final class FlowField implements EffectProvider {
+        @Override
+        public String type() {
+            return "flow_field";
+        }
+
+        @Override
+        public String displayName() {
+            return "流场烟雾";
+        }
+
+        @Override
+        public ITrailEffect create(Map<String, Object> config) {
+            ITrailEffect effect = new FlowFieldEffect();
+            effect.init(config);
+            return effect;
+        }
+    }
+
+    public static final class PersistentInk implements EffectProvider {
+        @Override
+        public String type() {
+            return "persistent_ink";
+        }
+
+        @Override
+        public String displayName() {
+            return "持久墨迹";
+        }
+
+        @Override
+        public ITrailEffect create(Map<String, Object> config) {
+            ITrailEffect effect = new PersistentInkEffect();
+            effect.init(config);
+            return effect;
+        }
+    }
+
+    /**
+     * Java 脚本特效：配置可包含 scriptPath（缺省为默认示例脚本），其余键传给脚本的 init
+     */
+    public static final class JavaSource implements EffectProvider {
+        public static final String DEFAULT_SCRIPT_PATH = "src/main/python/user_configs/MyTrailEffect.java";
+
+        @Override
+        public String type() {
+            return "java_source";
+        }
+
+        @Override
+        public String displayName() {
+            return "Java 脚本特效";
+        }
+
+        @Override
+        public ITrailEffect create(Map<String, Object> config) {
+            Map<String, Object> options = config != null ? config : Map.of();
+            ITrailEffect effect = new JavaSourceEffect((String) options.getOrDefault("scriptPath", DEFAULT_SCRIPT_PATH));
+            effect.init(options);
+            return effect;
+        }
+    }
+
+    /**
+     * Python 驱动特效：配置需包含 configFilePath（缺省为默认用户配置），可选 preferNative、workers
+     */
+    public static final class PythonDriven implements EffectProvider {
+        public static final String DEFAULT_CONFIG_PATH = "src/main/python/user_configs/my_particle_effect.py";
+
+        @Override
+        public String type() {
+            return "python_driven";
+        }
+
+        @Override
+        public String displayName() {
+            return "Python 特效";
+        }
+
+        @Override
+        public ITrailEffect create(Map<String, Object> config) {
+            Map<String, Object> options = config != null ? config : Map.of();
+            String configFilePath = (String) options.getOrDefault("configFilePath", DEFAULT_CONFIG_PATH);
+
+            // 纯数据配置（没有自定义运动函数）交给 Java 原生引擎，省掉 Python 进程与逐帧 IPC
+            // 可通过 preferNative=false 强制使用 Python 进程
+            JsonObject inspected = null;
+            if (!Boolean.FALSE.equals(options.get("preferNative"))) {
+                inspected = PythonProcessManager.inspectConfig(configFilePath);
+                if (NativeParticleEffect.supports(inspected)) {
+                    ITrailEffect nativeEffect = new NativeParticleEffect(configFilePath);
+                    nativeEffect.init(NativeParticleEffect.toConfigMap(inspected));
+                    return nativeEffect;
+                }
+            }
+            // workers > 1 时启动多个 Python 进程分摊粒子计算；解析结果留给兜底特效，避免再解析一次
+            int workers = options.get("workers") instanceof Number ? ((Number) options.get("workers")).intValue() : 1;
+            return new PythonDrivenEffect(configFilePath, workers, inspected);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.cursorflow.effect;
+
+import java.util.Random;
+
+/**
+ * 预计算的可平铺旋度噪声（curl noise）速度场
+ *
+ * 先在 SIZE×SIZE 网格上生成周期性梯度噪声作为流函数 ψ，再用中心差分取旋度 (∂ψ/∂y, −∂ψ/∂x)，
+ * 得到无散度的速度场：粒子沿它运动会打旋、汇成细流，却不会聚成团或散开。
+ * 噪声在空间和时间上都是周期的：网格左右、上下首尾相接，SLICES 个时间切片也首尾相接，
+ * 因此场可以无限平铺，时间也能无缝循环。
+ *
+ * 切片表只读，所有实例共用一份（首次使用时生成）；每个粒子每步只在当前混合好的场上做一次双线性查表，
+ * 不再逐粒子计算噪声。
+ */
+final class CurlNoiseField {
+    // 每个切片的网格边长（2 的幂，便于取模）
+    private static final int SHIFT = 6;
+    static final int SIZE = 1 << SHIFT;
+    // 时间切片数
+    static final int SLICES = 8;
+
+    private static final int MASK = SIZE - 1;
+    // 各倍频程的晶格周期（必须整除 SIZE）与振幅
+    private static final int[] OCTAVE_PERIODS = {4, 8};
+    private static final double[] OCTAVE_AMPLITUDES = {1.0, 0.5};
+    // 时间方向的晶格周期：SLICES 个切片走完一个周期
+    private static final int TIME_PERIOD = 2;
+    private static final long SEED = 0x5EEDC0DEL;
+
+    // 所有切片的速度：[slice][y][x][vx, vy]，已归一化到最大速度 1
+    private static volatile float[] sharedSlices;
+
+    private final float[] slices;
+    // 当前时刻两个相邻切片混合后的场：[y][x][vx, vy]
+    private final float[] current = new float[SIZE * SIZE * 2];
+    private double blendedTime = Double.NaN;
+
+    // 最近一次 sample 的结果（实例只在模拟线程使用）
+    float vx;
+    float vy;
+
+    CurlNoiseField() {
+        this.slices = slices();
+    }
+
+    /**
+     * 把场推进到时刻 t（单位：切片，会自动取模），两个相邻切片线性混合
+     */
+    void setTime(double t) {
+        if (t == blendedTime) return;
+        blendedTime = t;
+
+        double wrapped = t - Math.floor(t / SLICES) * SLICES;
+        int s0 = (int) wrapped % SLICES;
+        int s1 = (s0 + 1) % SLICES;
+        float w = (float) (wrapped - Math.floor(wrapped));
+        int base0 = s0 * SIZE * SIZE * 2;
+        int base1 = s1 * SIZE * SIZE * 2;
+        for (int i = 0; i < current.length; i++) {
+            float a = slices[base0 + i];
+            current[i] = a + (slices[base1 + i] - a) * w;
+        }
+    }
+
+    /**
+     * 双线性采样当前场，结果写入 vx / vy
+     * @param gx 网格坐标（像素 / 单元尺寸），超出范围自动平铺
+     */
+    void sample(double gx, double gy) {
+        double fx = Math.floor(gx);
+        double fy = Math.floor(gy);
+        float tx = (float) (gx - fx);
+        float ty = (float) (gy - fy);
+        int x0 = (int) (long) fx & MASK;
+        int y0 = (int) (long) fy & MASK;
+        int x1 = (x0 + 1) & MASK;
+        int y1 = (y0 + 1) & MASK;
+
+        int i00 = ((y0 << SHIFT) + x0) * 2;
+        int i10 = ((y0 << SHIFT) + x1) * 2;
+        int i01 = ((y1 << SHIFT) + x0) * 2;
+        int i11 = ((y1 << SHIFT) + x1) * 2;
+        vx = bilinear(current[i00], current[i10], current[i01], current[i11], tx, ty);
+        vy = bilinear(current[i00 + 1], current[i10 + 1], current[i01 + 1], current[i11 + 1], tx, ty);
+    }
+
+    private static float bilinear(float v00, float v10, float v01, float v11, float tx, float ty) {
+        float top = v00 + (v10 - v00) * tx;
+        float bottom = v01 + (v11 - v01) * tx;
+        return top + (bottom - top) * ty;
+    }
+
+    private static float[] slices() {
+        float[] table = sharedSlices;
+        if (table == null) {
+            synchronized (CurlNoiseField.class) {
+                table = sharedSlices;
+                if (table == null) {
+                    table = generate(SEED);
+                    sharedSlices = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    // --- 预计算 ---
+
+    private static float[] generate(long seed) {
+        PeriodicNoise noise = new PeriodicNoise(seed);
+        float[] table = new float[SLICES * SIZE * SIZE * 2];
+        double[] potential = new double[SIZE * SIZE];
+        double maxSpeedSq = 0;
+
+        for (int s = 0; s < SLICES; s++) {
+            double z = (double) s * TIME_PERIOD / SLICES;
+            for (int y = 0; y < SIZE; y++) {
+                for (int x = 0; x < SIZE; x++) {
+                    double value = 0;
+                    for (int o = 0; o < OCTAVE_PERIODS.length; o++) {
+                        int period = OCTAVE_PERIODS[o];
+                        double scale = (double) period / SIZE;
+                        value += OCTAVE_AMPLITUDES[o] * noise.sample(x * scale, y * scale, z, period, TIME_PERIOD);
+                    }
+                    potential[y * SIZE + x] = value;
+                }
+            }
+
+            // 旋度：v = (∂ψ/∂y, −∂ψ/∂x)，边界按周期取邻居
+            int base = s * SIZE * SIZE * 2;
+            for (int y = 0; y < SIZE; y++) {
+                for (int x = 0; x < SIZE; x++) {
+                    double dpdx = (potential[y * SIZE + ((x + 1) & MASK)] - potential[y * SIZE + ((x - 1) & MASK)]) / 2;
+                    double dpdy = (potential[((y + 1) & MASK) * SIZE + x] - potential[((y - 1) & MASK) * SIZE + x]) / 2;
+                    int i = base + (y * SIZE + x) * 2;
+                    table[i] = (float) dpdy;
+                    table[i + 1] = (float) -dpdx;
+                    maxSpeedSq = Math.max(maxSpeedSq, dpdx * dpdx + dpdy * dpdy);
+                }
+            }
+        }
+
+        float inv = maxSpeedSq > 0 ? (float) (1 / Math.sqrt(maxSpeedSq)) : 0;
+        for (int i = 0; i < table.length; i++) {
+            table[i] *= inv;
+        }
+        return table;
+    }
+
+    /**
+     * 三维周期梯度噪声（Perlin），x/y 以 period、z 以 timePeriod 为周期
+     */
+    private static final class PeriodicNoise {
+        private static final int GRADIENTS = 256;
+
+        private final int[] perm = new int[GRADIENTS * 2];
+        private final double[] gx = new double[GRADIENTS];
+        private final double[] gy = new double[GRADIENTS];
+        private final double[] gz = new double[GRADIENTS];
+
+        PeriodicNoise(long seed) {
+            Random random = new Random(seed);
+            for (int i = 0; i < GRADIENTS; i++) {
+                // 单位球面上均匀分布的梯度
+                double z = random.nextDouble() * 2 - 1;
+                double angle = random.nextDouble() * Math.PI * 2;
+                double r = Math.sqrt(1 - z * z);
+                gx[i] = r * Math.cos(angle);
+                gy[i] = r * Math.sin(angle);
+                gz[i] = z;
+                perm[i] = i;
+            }
+            for (int i = GRADIENTS - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = perm[i];
+                perm[i] = perm[j];
+                perm[j] = tmp;
+            }
+            System.arraycopy(perm, 0, perm, GRADIENTS, GRADIENTS);
+        }
+
+        double sample(double x, double y, double z, int period, int timePeriod) {
+            int x0 = (int) Math.floor(x);
+            int y0 = (int) Math.floor(y);
+            int z0 = (int) Math.floor(z);
+            double fx = x - x0, fy = y - y0, fz = z - z0;
+            double u = fade(fx), v = fade(fy), w = fade(fz);
+
+            double result = 0;
+            for (int dz = 0; dz <= 1; dz++) {
+                for (int dy = 0; dy <= 1; dy++) {
+                    for (int dx = 0; dx <= 1; dx++) {
+                        int g = hash(Math.floorMod(x0 + dx, period), Math.floorMod(y0 + dy, period),
+                                Math.floorMod(z0 + dz, timePeriod));
+                        double dot = gx[g] * (fx - dx) + gy[g] * (fy - dy) + gz[g] * (fz - dz);
+                        double weight = (dx == 0 ? 1 - u : u) * (dy == 0 ? 1 - v : v) * (dz == 0 ? 1 - w : w);
+                        result += dot * weight;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private int hash(int x, int y, int z) {
+            return perm[perm[perm[x & 255] + (y & 255)] + (z & 255)];
+        }
+
+        private static double fade(double t) {
+            return t * t * t * (t * (t * 6 - 15) + 10);
+        }
+    }
+}
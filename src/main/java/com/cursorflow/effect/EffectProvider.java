@@ -0,0 +1,27 @@
+package com.cursorflow.effect;
+
+import java.util.Map;
+
+/**
+ * 特效提供者（ServiceLoader 服务接口）：在 META-INF/services 与 module-info 的 provides 中声明
+ * 提供者本身应当很轻，特效类只在 create 中引用，真正用到时才加载。
+ */
+public interface EffectProvider {
+    /**
+     * 特效类型（与服务端配置对应，如 snake_line）
+     */
+    String type();
+
+    /**
+     * 菜单中显示的名称，返回 null 表示不出现在托盘菜单中
+     */
+    default String displayName() {
+        return type();
+    }
+
+    /**
+     * 创建并初始化特效
+     * @param config 特效配置，可能为 null
+     */
+    ITrailEffect create(Map<String, Object> config) throws Exception;
+}
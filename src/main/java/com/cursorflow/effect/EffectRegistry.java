@@ -0,0 +1,53 @@
+package com.cursorflow.effect;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * 特效注册表：通过 ServiceLoader 发现所有 EffectProvider（第一次访问时才扫描）
+ * 同一类型出现多次时以先发现的为准，顺序即托盘菜单的顺序。
+ */
+public final class EffectRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(EffectRegistry.class);
+
+    private EffectRegistry() {
+    }
+
+    /**
+     * 按类型查找提供者
+     * @return 未注册时返回 null
+     */
+    public static EffectProvider find(String type) {
+        return type == null ? null : Holder.PROVIDERS.get(type);
+    }
+
+    /**
+     * 所有已注册的提供者（按发现顺序）
+     */
+    public static List<EffectProvider> providers() {
+        return Holder.LIST;
+    }
+
+    private static final class Holder {
+        static final Map<String, EffectProvider> PROVIDERS = load();
+        static final List<EffectProvider> LIST = Collections.unmodifiableList(new ArrayList<>(PROVIDERS.values()));
+
+        private static Map<String, EffectProvider> load() {
+            Map<String, EffectProvider> providers = new LinkedHashMap<>();
+            for (EffectProvider provider : ServiceLoader.load(EffectProvider.class, EffectRegistry.class.getClassLoader())) {
+                if (providers.putIfAbsent(provider.type(), provider) != null) {
+                    LOG.warn("特效类型重复注册，忽略: {} ({})", provider.type(), provider.getClass().getName());
+                }
+            }
+            LOG.info("已注册特效: {}", providers.keySet());
+            return providers;
+        }
+    }
+}
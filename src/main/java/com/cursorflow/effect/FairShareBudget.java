@@ -0,0 +1,110 @@
+package com.cursorflow.effect;
+
+import com.cursorflow.input.PointerStreams;
+
+import java.util.Arrays;
+
+/**
+ * 多个指针流共用一个定容粒子池时的配额分配：全局上限 + 公平份额淘汰
+ *
+ * 每步先把空闲槽位按存活数从少到多分给想生成粒子的流；池满后，存活数低于公平份额（容量 / 活跃流数）的流
+ * 可以从超出份额最多的流那里淘汰最旧的粒子来腾位置，已达份额的流只能用空闲槽位。
+ * 只有一个流时与原来“达到上限就不再生成”的行为一致。
+ *
+ * 数组以流 id 为下标（见 PointerStreams.MAX_STREAMS），只在模拟线程使用，不分配对象。
+ */
+final class FairShareBudget {
+    private final int[] grant = new int[PointerStreams.MAX_STREAMS];
+    private final int[] evict = new int[PointerStreams.MAX_STREAMS];
+    private final int[] order = new int[PointerStreams.MAX_STREAMS];
+
+    /**
+     * 计算本步各流可生成的数量与需要淘汰的数量
+     * @param live     各流当前存活数
+     * @param wanted   各流本步想生成的数量
+     * @param capacity 粒子池容量（全局上限）
+     * @return 需要淘汰的总数
+     */
+    int plan(int[] live, int[] wanted, int capacity) {
+        Arrays.fill(grant, 0);
+        Arrays.fill(evict, 0);
+
+        int total = 0;
+        int active = 0;
+        int n = 0;
+        for (int id = 0; id < PointerStreams.MAX_STREAMS; id++) {
+            total += live[id];
+            if (live[id] > 0 || wanted[id] > 0) active++;
+            if (wanted[id] > 0) order[n++] = id;
+        }
+        if (n == 0) return 0;
+
+        // 存活少的流先分空闲槽位（插入排序，最多 MAX_STREAMS 个）
+        for (int i = 1; i < n; i++) {
+            int id = order[i];
+            int j = i - 1;
+            while (j >= 0 && live[order[j]] > live[id]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = id;
+        }
+
+        int free = Math.max(0, capacity - total);
+        for (int i = 0; i < n && free > 0; i++) {
+            int id = order[i];
+            int take = Math.min(wanted[id], free);
+            grant[id] = take;
+            free -= take;
+        }
+
+        // 池满：低于份额的流从超额最多的流淘汰最旧粒子
+        int fairShare = capacity / Math.max(1, active);
+        int evicted = 0;
+        for (int i = 0; i < n; i++) {
+            int id = order[i];
+            int need = Math.min(wanted[id] - grant[id], fairShare - live[id] - grant[id]);
+            while (need > 0) {
+                int donor = largestExcess(live, fairShare, id);
+                if (donor < 0) break;
+                int take = Math.min(need, live[donor] - evict[donor] - fairShare);
+                evict[donor] += take;
+                grant[id] += take;
+                evicted += take;
+                need -= take;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * plan 之后：该流本步可生成的数量
+     */
+    int granted(int id) {
+        return grant[id];
+    }
+
+    /**
+     * plan 之后：该流需要淘汰的最旧粒子数量
+     */
+    int evictions(int id) {
+        return evict[id];
+    }
+
+    /**
+     * 淘汰后仍超出份额最多的流，没有时返回 -1
+     */
+    private int largestExcess(int[] live, int fairShare, int except) {
+        int best = -1;
+        int bestExcess = 0;
+        for (int id = 0; id < PointerStreams.MAX_STREAMS; id++) {
+            if (id == except) continue;
+            int excess = live[id] - evict[id] - fairShare;
+            if (excess > bestExcess) {
+                bestExcess = excess;
+                best = id;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,554 @@
+package com.cursorflow.effect;
+
+import com.cursorflow.input.EmitterParams;
+import com.cursorflow.input.PointerSamples;
+import com.cursorflow.input.PointerStreams;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 流场粒子特效：粒子从光标轨迹上出生，随后沿预计算的旋度噪声速度场漂移，形成烟雾 / 墨迹般的涡旋
+ *
+ * 速度场是查表得到的（见 CurlNoiseField），随时间在相邻切片之间缓慢混合；每个粒子每步只做一次双线性查表，
+ * 上万粒子时开销仍然平稳。粒子状态为 float 结构数组，稳定状态下不分配对象。
+ * 快照里的粒子按 (透明度档位, 颜色) 计数排序，绘制时每档只设置一次填充色和透明度。
+ * 多个指针流共用同一个粒子池，总数受 max_particles 限制，池满时按公平份额淘汰（见 FairShareBudget）。
+ *
+ * 配置键：particle_count（每步生成数）、max_particles、life_range、speed、inertia、scale（场单元像素）、
+ * evolve（每步推进的切片数）、spread（出生点抖动半径）、size、opacity、particle_color（颜色或颜色列表）
+ */
+public class FlowFieldEffect implements SimulatedTrailEffect<FlowFieldEffect.Frame> {
+    private static final Logger LOG = LoggerFactory.getLogger(FlowFieldEffect.class);
+    // 透明度档位数
+    private static final int ALPHA_LEVELS = 16;
+
+    private volatile Params params = Params.from(null);
+    // params 对应的原始配置，参数补丁在它的基础上合并
+    private volatile Map<String, Object> config = Map.of();
+    private final CurlNoiseField field = new CurlNoiseField();
+    private double fieldTime = 0;
+
+    // 粒子状态（结构数组，按需扩容）
+    private int count = 0;
+    private float[] x = new float[1024];
+    private float[] y = new float[1024];
+    private float[] vx = new float[1024];
+    private float[] vy = new float[1024];
+    private int[] life = new int[1024];
+    private int[] maxLife = new int[1024];
+    private byte[] colorIndex = new byte[1024];
+    // 快照排序用的键（透明度档位 × 调色板长度 + 颜色下标）
+    private short[] keys = new short[1024];
+    // 粒子所属的指针流 id
+    private byte[] stream = new byte[1024];
+
+    // 各指针流的存活数与本步想生成的数量（以流 id 为下标）
+    private final int[] streamLive = new int[PointerStreams.MAX_STREAMS];
+    private final int[] streamWanted = new int[PointerStreams.MAX_STREAMS];
+    private final int[] evictLeft = new int[PointerStreams.MAX_STREAMS];
+    private final FairShareBudget budget = new FairShareBudget();
+
+    // 实际使用的调色板：配置颜色，有流覆盖颜色时再追加 MAX_STREAMS 个按流 id 排列的槽位
+    private Color[] palette;
+    private Color[] paletteBase;
+    // 存活粒子的颜色下标所对应的配置颜色数（流颜色槽位从这里开始）
+    private int paletteColors = 0;
+    private final Color[] streamColors = new Color[PointerStreams.MAX_STREAMS];
+
+    // 质量档位（由 QualityGovernor 在 FX 线程调整，模拟线程读取）
+    private volatile double spawnScale = 1.0;
+    private volatile double maxParticlesFraction = 1.0;
+    private final List<QualityLever> qualityLevers = List.of(
+            new QualityLever("flow_field.spawn_scale", 1.0, 0.25, 3, v -> spawnScale = v),
+            new QualityLever("flow_field.max_particles", 1.0, 0.125, 3,
+                    v -> maxParticlesFraction = v));
+
+    // 未启用模拟线程时 render 直接使用的快照
+    private final Frame inlineFrame = new Frame();
+
+    private final Random random = new Random();
+
+    @Override
+    public void init(Map<String, Object> config) {
+        params = Params.from(config);
+        this.config = config != null ? new HashMap<>(config) : Map.of();
+    }
+
+    /**
+     * 合并到当前配置后整体替换参数快照，模拟线程下一步读到新值
+     */
+    @Override
+    public synchronized boolean applyParams(Map<String, Object> patch) {
+        Map<String, Object> merged = new HashMap<>(config);
+        merged.putAll(patch);
+        init(merged);
+        return true;
+    }
+
+    @Override
+    public void render(GraphicsContext gc, int mouseX, int mouseY) {
+        Params p = params;
+        updatePalette(p);
+        spawn(p, mouseX, mouseY, null, spawnLimit(p), PointerStreams.PRIMARY, EmitterParams.DEFAULT);
+        update(p);
+        snapshot(p, inlineFrame);
+        draw(gc, inlineFrame);
+    }
+
+    @Override
+    public void render(GraphicsContext gc, PointerSamples samples) {
+        simulate(samples, inlineFrame);
+        draw(gc, inlineFrame);
+    }
+
+    @Override
+    public void render(GraphicsContext gc, PointerStreams streams) {
+        simulate(streams, inlineFrame);
+        draw(gc, inlineFrame);
+    }
+
+    @Override
+    public Frame createFrame() {
+        return new Frame();
+    }
+
+    @Override
+    public void simulate(PointerSamples samples, Frame out) {
+        Params p = params;
+        updatePalette(p);
+        spawn(p, samples.lastX(), samples.lastY(), samples.size() > 1 ? samples : null,
+                spawnLimit(p), PointerStreams.PRIMARY, EmitterParams.DEFAULT);
+        update(p);
+        snapshot(p, out);
+    }
+
+    @Override
+    public void simulate(PointerStreams streams, Frame out) {
+        Params p = params;
+
+        Arrays.fill(streamWanted, 0);
+        boolean colorsChanged = false;
+        for (int i = 0; i < streams.size(); i++) {
+            int id = streams.id(i);
+            EmitterParams emitter = streams.emitter(i);
+            streamWanted[id] = (int) Math.round(p.particleCount * spawnScale * emitter.spawnScale());
+            if (emitter.color() != null && streamColors[id] != emitter.color()) {
+                streamColors[id] = emitter.color();
+                colorsChanged = true;
+            }
+        }
+        if (colorsChanged) paletteBase = null;
+        updatePalette(p);
+
+        // 先按公平份额分配本步的生成数量，池满时淘汰超额流最旧的粒子
+        if (budget.plan(streamLive, streamWanted, capacity(p)) > 0) {
+            evictOldest();
+        }
+        for (int i = 0; i < streams.size(); i++) {
+            PointerSamples samples = streams.samples(i);
+            int id = streams.id(i);
+            spawn(p, samples.lastX(), samples.lastY(), samples.size() > 1 ? samples : null,
+                    budget.granted(id), id, streams.emitter(i));
+        }
+        update(p);
+        snapshot(p, out);
+    }
+
+    @Override
+    public void draw(GraphicsContext gc, Frame frame) {
+        gc.clearRect(0, 0, gc.getCanvas().getWidth(), gc.getCanvas().getHeight());
+
+        double d = frame.size;
+        double r = d / 2;
+        int colors = frame.palette.length;
+        for (int bucket = 0; bucket < frame.bucketCount; bucket++) {
+            int start = frame.bucketStart[bucket];
+            int end = frame.bucketStart[bucket + 1];
+            if (start == end) continue;
+
+            gc.setFill(frame.palette[bucket % colors]);
+            gc.setGlobalAlpha(frame.opacity * (bucket / colors + 1) / ALPHA_LEVELS);
+            for (int i = start; i < end; i++) {
+                // 小粒子用方块，比 fillOval 便宜得多，视觉上几乎没有差别
+                gc.fillRect(frame.x[i] - r, frame.y[i] - r, d, d);
+            }
+        }
+        gc.setGlobalAlpha(1.0);
+    }
+
+    @Override
+    public boolean bounds(double[] out) {
+        return bounds(inlineFrame, out);
+    }
+
+    @Override
+    public boolean bounds(Frame frame, double[] out) {
+        out[0] = frame.minX;
+        out[1] = frame.minY;
+        out[2] = frame.maxX;
+        out[3] = frame.maxY;
+        return true;
+    }
+
+    @Override
+    public int liveCount() {
+        return inlineFrame.count;
+    }
+
+    @Override
+    public int liveCount(Frame frame) {
+        return frame.count;
+    }
+
+    @Override
+    public List<QualityLever> qualityLevers() {
+        return qualityLevers;
+    }
+
+    @Override
+    public void dispose() {
+        count = 0;
+        Arrays.fill(streamLive, 0);
+        Arrays.fill(streamColors, null);
+        paletteBase = null;
+        inlineFrame.clear();
+    }
+
+    /**
+     * 配置或流颜色变化时重建调色板（不变时不分配）
+     */
+    private void updatePalette(Params p) {
+        if (paletteBase == p.palette) return;
+        paletteBase = p.palette;
+        remapColors(p.palette.length);
+
+        boolean anyStreamColor = false;
+        for (Color c : streamColors) {
+            if (c != null) anyStreamColor = true;
+        }
+        if (!anyStreamColor) {
+            palette = p.palette;
+            return;
+        }
+        palette = Arrays.copyOf(p.palette, p.palette.length + PointerStreams.MAX_STREAMS);
+        for (int id = 0; id < PointerStreams.MAX_STREAMS; id++) {
+            palette[p.palette.length + id] = streamColors[id] != null ? streamColors[id] : p.palette[0];
+        }
+    }
+
+    /**
+     * 配置颜色数变化时改写存活粒子的颜色下标，保证下标不越出新调色板：
+     * 配置颜色取模落回新的颜色范围，流颜色槽位随配置颜色数整体平移
+     */
+    private void remapColors(int colors) {
+        int previous = paletteColors;
+        paletteColors = colors;
+        if (previous == colors) return;
+        for (int i = 0; i < count; i++) {
+            int c = colorIndex[i];
+            colorIndex[i] = (byte) (c >= previous ? colors + c - previous : c % colors);
+        }
+    }
+
+    /**
+     * 单指针时本步的生成数量：降档时按比例少生成，且不超过粒子上限
+     */
+    private int spawnLimit(Params p) {
+        return Math.min((int) Math.round(p.particleCount * spawnScale), capacity(p) - count);
+    }
+
+    /**
+     * 粒子上限：配置值按质量档位缩减
+     */
+    private int capacity(Params p) {
+        return (int) Math.max(1, p.maxParticles * maxParticlesFraction);
+    }
+
+    /**
+     * 沿本帧采样轨迹生成新粒子（带随机抖动），同一步生成的粒子共用一个颜色
+     * @param path       本帧的采样轨迹，为 null 时全部在 (mouseX, mouseY) 附近出生
+     * @param spawnCount 生成数量（已按配额限制）
+     * @param streamId   所属指针流
+     * @param emitter    该流的发射参数（颜色覆盖、额外抖动）
+     */
+    private void spawn(Params p, int mouseX, int mouseY, PointerSamples path, int spawnCount,
+                       int streamId, EmitterParams emitter) {
+        if (spawnCount <= 0) return;
+
+        byte frameColor = (byte) (emitter.color() != null
+                ? p.palette.length + streamId : random.nextInt(p.palette.length));
+        double spread = p.spread + emitter.spread();
+        ensureCapacity(count + spawnCount);
+        for (int n = 0; n < spawnCount; n++) {
+            int i = count++;
+            double px, py;
+            if (path != null) {
+                int s = path.size() - 1 - (int) ((long) (spawnCount - 1 - n) * path.size() / spawnCount);
+                px = path.x(s);
+                py = path.y(s);
+            } else {
+                px = mouseX;
+                py = mouseY;
+            }
+            double angle = random.nextDouble() * Math.PI * 2;
+            double radius = spread * Math.sqrt(random.nextDouble());
+            x[i] = (float) (px + Math.cos(angle) * radius);
+            y[i] = (float) (py + Math.sin(angle) * radius);
+            vx[i] = 0;
+            vy[i] = 0;
+            maxLife[i] = p.lifeMin + random.nextInt(p.lifeMax - p.lifeMin + 1);
+            life[i] = maxLife[i];
+            colorIndex[i] = frameColor;
+            stream[i] = (byte) streamId;
+        }
+        streamLive[streamId] += spawnCount;
+    }
+
+    /**
+     * 按 budget 的结果淘汰各流最旧的粒子（数组按出生顺序排列，压缩保持顺序，越靠前越旧）
+     */
+    private void evictOldest() {
+        for (int id = 0; id < evictLeft.length; id++) {
+            evictLeft[id] = budget.evictions(id);
+        }
+        int alive = 0;
+        for (int i = 0; i < count; i++) {
+            int id = stream[i];
+            if (evictLeft[id] > 0) {
+                evictLeft[id]--;
+                streamLive[id]--;
+                continue;
+            }
+            if (alive != i) moveParticle(i, alive);
+            alive++;
+        }
+        count = alive;
+    }
+
+    private void moveParticle(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        vx[to] = vx[from];
+        vy[to] = vy[from];
+        life[to] = life[from];
+        maxLife[to] = maxLife[from];
+        colorIndex[to] = colorIndex[from];
+        stream[to] = stream[from];
+    }
+
+    /**
+     * 推进速度场，粒子按惯性向场速度靠拢后移动，原地压缩掉死亡粒子
+     */
+    private void update(Params p) {
+        fieldTime += p.evolve;
+        fieldTime -= Math.floor(fieldTime / CurlNoiseField.SLICES) * CurlNoiseField.SLICES;
+        field.setTime(fieldTime);
+
+        float inertia = (float) p.inertia;
+        float pull = (float) ((1 - p.inertia) * p.speed);
+        float invScale = (float) (1 / p.scale);
+        Arrays.fill(streamLive, 0);
+        int alive = 0;
+        for (int i = 0; i < count; i++) {
+            if (--life[i] <= 0) continue;
+
+            field.sample(x[i] * invScale, y[i] * invScale);
+            float nvx = vx[i] * inertia + field.vx * pull;
+            float nvy = vy[i] * inertia + field.vy * pull;
+            x[alive] = x[i] + nvx;
+            y[alive] = y[i] + nvy;
+            vx[alive] = nvx;
+            vy[alive] = nvy;
+            life[alive] = life[i];
+            maxLife[alive] = maxLife[i];
+            colorIndex[alive] = colorIndex[i];
+            stream[alive] = stream[i];
+            streamLive[stream[alive]]++;
+            alive++;
+        }
+        count = alive;
+    }
+
+    /**
+     * 按 (透明度档位, 颜色) 计数排序写入快照，并计算包围盒
+     */
+    private void snapshot(Params p, Frame out) {
+        Color[] colorTable = palette;
+        int colors = colorTable.length;
+        int bucketCount = ALPHA_LEVELS * colors;
+        out.prepare(count, bucketCount);
+
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        int[] starts = out.bucketStart;
+        for (int i = 0; i < count; i++) {
+            // 淡入淡出：出生后很快变亮，临死前逐渐变暗
+            float ratio = (float) life[i] / maxLife[i];
+            float alpha = Math.min(1f, (1 - ratio) * 6) * ratio;
+            int level = Math.min(ALPHA_LEVELS - 1, (int) (alpha * ALPHA_LEVELS));
+            int key = level * colors + colorIndex[i];
+            keys[i] = (short) key;
+            starts[key + 1]++;
+
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            starts[b + 1] += starts[b];
+        }
+        // 第二遍按各档的写入位置放置粒子
+        int[] fill = out.bucketFill;
+        System.arraycopy(starts, 0, fill, 0, bucketCount);
+        for (int i = 0; i < count; i++) {
+            int slot = fill[keys[i]]++;
+            out.x[slot] = x[i];
+            out.y[slot] = y[i];
+        }
+
+        double pad = p.size / 2;
+        out.count = count;
+        out.bucketCount = bucketCount;
+        out.palette = colorTable;
+        out.opacity = p.opacity;
+        out.size = p.size;
+        if (count > 0) {
+            out.minX = minX - pad;
+            out.minY = minY - pad;
+            out.maxX = maxX + pad;
+            out.maxY = maxY + pad;
+        } else {
+            out.minX = out.minY = 1;
+            out.maxX = out.maxY = 0;
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= x.length) return;
+
+        int newCapacity = Math.max(required, x.length * 2);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        vx = Arrays.copyOf(vx, newCapacity);
+        vy = Arrays.copyOf(vy, newCapacity);
+        life = Arrays.copyOf(life, newCapacity);
+        maxLife = Arrays.copyOf(maxLife, newCapacity);
+        colorIndex = Arrays.copyOf(colorIndex, newCapacity);
+        keys = Arrays.copyOf(keys, newCapacity);
+        stream = Arrays.copyOf(stream, newCapacity);
+    }
+
+    /**
+     * 一步模拟的绘制快照：粒子位置按档位连续存放，第 b 档为 [bucketStart[b], bucketStart[b + 1])
+     * 没有粒子时 minX > maxX
+     */
+    public static final class Frame {
+        private int count = 0;
+        private float[] x = new float[1024];
+        private float[] y = new float[1024];
+        private int bucketCount = 0;
+        private int[] bucketStart = new int[ALPHA_LEVELS + 1];
+        private int[] bucketFill = new int[ALPHA_LEVELS + 1];
+        private Color[] palette = new Color[]{Color.WHITE};
+        private double opacity = 1;
+        private double size = 1;
+        private double minX = 1, minY = 1, maxX = 0, maxY = 0;
+
+        private void prepare(int required, int buckets) {
+            if (required > x.length) {
+                int newCapacity = Math.max(required, x.length * 2);
+                x = Arrays.copyOf(x, newCapacity);
+                y = Arrays.copyOf(y, newCapacity);
+            }
+            if (buckets + 1 > bucketStart.length) {
+                bucketStart = new int[buckets + 1];
+                bucketFill = new int[buckets + 1];
+            } else {
+                Arrays.fill(bucketStart, 0, buckets + 1, 0);
+            }
+        }
+
+        private void clear() {
+            count = 0;
+            bucketCount = 0;
+            minX = minY = 1;
+            maxX = maxY = 0;
+        }
+    }
+
+    /**
+     * 不可变参数快照
+     */
+    private static final class Params {
+        final int particleCount;
+        final int maxParticles;
+        final int lifeMin, lifeMax;
+        final double speed;
+        final double inertia;
+        final double scale;
+        final double evolve;
+        final double spread;
+        final double size;
+        final double opacity;
+        final Color[] palette;
+
+        private Params(Map<String, Object> config) {
+            particleCount = (int) number(config.get("particle_count"), 60);
+            maxParticles = Math.max(1, (int) number(config.get("max_particles"), 20000));
+            double[] lifeRange = range(config.get("life_range"), 90, 240);
+            lifeMin = Math.max(1, (int) lifeRange[0]);
+            lifeMax = Math.max(lifeMin, (int) lifeRange[1]);
+            speed = number(config.get("speed"), 2.5);
+            inertia = Math.max(0, Math.min(0.99, number(config.get("inertia"), 0.85)));
+            scale = Math.max(1, number(config.get("scale"), 16));
+            evolve = number(config.get("evolve"), 0.01);
+            spread = Math.max(0, number(config.get("spread"), 6));
+            size = Math.max(0.5, number(config.get("size"), 1.5));
+            opacity = Math.max(0, Math.min(1, number(config.get("opacity"), 0.6)));
+            palette = palette(config.get("particle_color"));
+        }
+
+        static Params from(Map<String, Object> config) {
+            return new Params(config != null ? config : Map.of());
+        }
+
+        private static double number(Object value, double defaultValue) {
+            return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+        }
+
+        private static double[] range(Object value, double defaultMin, double defaultMax) {
+            if (value instanceof List<?> list && list.size() >= 2) {
+                return new double[]{number(list.get(0), defaultMin), number(list.get(1), defaultMax)};
+            }
+            return new double[]{defaultMin, defaultMax};
+        }
+
+        private static Color[] palette(Object value) {
+            try {
+                if (value instanceof List<?> list && !list.isEmpty()) {
+                    // 排序键用 short 保存，调色板最多 64 色
+                    Color[] colors = new Color[Math.min(64, list.size())];
+                    for (int i = 0; i < colors.length; i++) {
+                        colors[i] = Color.web(String.valueOf(list.get(i)));
+                    }
+                    return colors;
+                }
+                if (value instanceof String str) {
+                    return new Color[]{Color.web(str)};
+                }
+            } catch (IllegalArgumentException e) {
+                LOG.warn("无法解析粒子颜色: {}", value);
+            }
+            return new Color[]{Color.web("#9ad1ff"), Color.web("#c7a6ff"), Color.web("#f0f4ff")};
+        }
+    }
+}
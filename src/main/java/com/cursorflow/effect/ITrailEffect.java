@@ -1,7 +1,10 @@
 package com.cursorflow.effect;
 
+import com.cursorflow.input.PointerSamples;
+import com.cursorflow.input.PointerStreams;
 import javafx.scene.canvas.GraphicsContext;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,6 +25,93 @@ public interface ITrailEffect {
      */
     void render(GraphicsContext gc, int mouseX, int mouseY);
 
+    /**
+     * 渲染特效（带上一帧以来的全部指针采样，至少包含一个当前位置）
+     * 默认只使用最新位置；需要连续轨迹的特效可覆盖此方法，利用帧间的高频采样
+     * @param gc Canvas绘图上下文
+     * @param samples 按时间排序的指针采样，仅在本次调用内有效
+     */
+    default void render(GraphicsContext gc, PointerSamples samples) {
+        render(gc, samples.lastX(), samples.lastY());
+    }
+
+    /**
+     * 渲染特效（多个指针流：主指针 + 笔、触摸点、回放光标等）
+     * 默认只使用主指针；支持多指针的特效覆盖此方法，所有流共用同一份粒子配额
+     * @param streams 本帧的指针流，第 0 个总是主指针，仅在本次调用内有效
+     */
+    default void render(GraphicsContext gc, PointerStreams streams) {
+        render(gc, streams.primary());
+    }
+
+    /**
+     * 运行中修改参数（配置面板推送的补丁），键名与 Python config 一致，未出现的键保持不变
+     * 在任意线程调用，最迟下一帧生效；不支持的特效返回 false
+     * @param patch 要覆盖的参数（值为 Gson 解析出的 Number / String / Boolean / List / Map）
+     */
+    default boolean applyParams(Map<String, Object> patch) {
+        return false;
+    }
+
+    /**
+     * 特效对应的用户配置文件（参数补丁可持久化到这里），没有时返回 null
+     */
+    default String configFilePath() {
+        return null;
+    }
+
+    /**
+     * 特效是否已经能画出内容（如 Python 特效收到第一帧之前返回 false）
+     */
+    default boolean isReady() {
+        return true;
+    }
+
+    /**
+     * 切换过渡期间（新特效已创建、尚未上屏，旧特效仍在绘制）每帧在 FX 线程调用，传入主指针位置
+     * 需要输入才能产生第一帧的特效（如 Python 特效）借此提前开始工作，以便尽快 isReady；默认什么都不做
+     */
+    default void warmUp(int mouseX, int mouseY) {
+    }
+
+    /**
+     * 上一帧绘制内容的包围盒（屏幕坐标），图层窗口据此缩小到内容附近
+     * 返回 true 的特效必须每帧完整重绘：此时图层会在渲染前自行清空画布，并把坐标系平移到窗口原点，
+     * 特效照常使用屏幕坐标绘制。没有内容时令 out[0] > out[2]。
+     * @param out 输出 {minX, minY, maxX, maxY}
+     * @return false 表示无法提供（图层保持整屏），默认 false
+     */
+    default boolean bounds(double[] out) {
+        return false;
+    }
+
+    /**
+     * 当前存活的粒子 / 轨迹点数量（诊断用），不提供时返回 -1
+     */
+    default int liveCount() {
+        return -1;
+    }
+
+    /**
+     * 特效可降低开销的质量档位，按降档优先级排列（最先降的在前）
+     * 渲染超出帧时间目标时由 QualityGovernor 逐档调整，默认没有档位
+     */
+    default List<QualityLever> qualityLevers() {
+        return List.of();
+    }
+
+    /**
+     * 切走但保留在预热缓存中：应停止后台计时类工作，但保留进程、资源与状态，以便 resume 后立即出帧
+     */
+    default void suspend() {
+    }
+
+    /**
+     * 从预热缓存中切回
+     */
+    default void resume() {
+    }
+
     /**
      * 销毁特效（释放资源）
      */
@@ -0,0 +1,190 @@
+package com.cursorflow.effect;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 在进程内编译用户的 Java 特效脚本（单个 .java 文件），并在一次性的类加载器中实例化
+ *
+ * 编译结果只保存在内存里，不落盘；每次编译使用新的类加载器，旧版本的特效销毁后整个加载器连同类一起被回收。
+ * 脚本可以引用程序自身与 JavaFX 的类（编译时使用当前进程的类路径 / 模块路径）。
+ * 需要在 JDK 上运行：只有 JRE 时没有系统编译器。
+ */
+final class JavaSourceCompiler {
+    private JavaSourceCompiler() {
+    }
+
+    /**
+     * 编译脚本并创建特效实例（未调用 init）
+     * 脚本中与文件同名的类必须实现 ITrailEffect，且有公开的无参构造器
+     * @throws CompileException 没有编译器、编译出错或找不到可用的特效类
+     */
+    static ITrailEffect compile(Path source) throws IOException, CompileException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new CompileException("当前运行环境没有 Java 编译器（需要 JDK 而不是 JRE）");
+        }
+        if (!Files.isRegularFile(source)) {
+            throw new IOException("脚本文件不存在: " + source);
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, ByteArrayOutputStream> output = new HashMap<>();
+        try (StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, Locale.getDefault(), StandardCharsets.UTF_8);
+             JavaFileManager memory = new MemoryFileManager(standard, output)) {
+            List<String> options = List.of("-classpath", classPath(), "-proc:none", "-encoding", "UTF-8", "-g");
+            JavaCompiler.CompilationTask task = compiler.getTask(null, memory, diagnostics, options, null,
+                    standard.getJavaFileObjects(source.toFile()));
+            if (!task.call()) {
+                throw new CompileException(format(diagnostics));
+            }
+        }
+
+        Map<String, byte[]> classes = new HashMap<>();
+        output.forEach((name, bytes) -> classes.put(name, bytes.toByteArray()));
+        return instantiate(source, new ScriptClassLoader(classes, ITrailEffect.class.getClassLoader()));
+    }
+
+    /**
+     * 找到与文件同名（可带包名）的类并用无参构造器创建
+     */
+    private static ITrailEffect instantiate(Path source, ScriptClassLoader loader) throws CompileException {
+        String fileName = source.getFileName().toString();
+        String simpleName = fileName.endsWith(".java") ? fileName.substring(0, fileName.length() - 5) : fileName;
+        String className = null;
+        for (String name : loader.classNames()) {
+            if (name.equals(simpleName) || name.endsWith("." + simpleName)) {
+                className = name;
+                break;
+            }
+        }
+        if (className == null) {
+            throw new CompileException("脚本中没有名为 " + simpleName + " 的类");
+        }
+
+        try {
+            Class<?> type = loader.loadClass(className);
+            if (!ITrailEffect.class.isAssignableFrom(type) || Modifier.isAbstract(type.getModifiers())) {
+                throw new CompileException(className + " 不是可实例化的 ITrailEffect 实现");
+            }
+            Constructor<?> constructor = type.getConstructor();
+            return (ITrailEffect) constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new CompileException("无法创建 " + className + ": " + e);
+        }
+    }
+
+    /**
+     * 编译用的类路径：当前进程的类路径加上模块路径（脚本本身按非模块代码编译）
+     */
+    private static String classPath() {
+        List<String> entries = new ArrayList<>();
+        for (String property : new String[]{"java.class.path", "jdk.module.path"}) {
+            String value = System.getProperty(property);
+            if (value != null && !value.isEmpty()) entries.add(value);
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static String format(DiagnosticCollector<JavaFileObject> diagnostics) {
+        StringBuilder sb = new StringBuilder();
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            if (d.getKind() != Diagnostic.Kind.ERROR) continue;
+            if (sb.length() > 0) sb.append('\n');
+            sb.append("  第 ").append(d.getLineNumber()).append(" 行: ").append(d.getMessage(Locale.getDefault()));
+        }
+        return sb.length() > 0 ? sb.toString() : "编译失败";
+    }
+
+    /**
+     * 编译错误（消息为整理后的错误列表）
+     */
+    static final class CompileException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        CompileException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 把编译输出的 class 写进内存
+     */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<String, ByteArrayOutputStream> output;
+
+        MemoryFileManager(StandardJavaFileManager fileManager, Map<String, ByteArrayOutputStream> output) {
+            super(fileManager);
+            this.output = output;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            URI uri = URI.create("mem:///" + className.replace('.', '/') + kind.extension);
+            return new SimpleJavaFileObject(uri, kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    output.put(className, out);
+                    return out;
+                }
+            };
+        }
+    }
+
+    /**
+     * 脚本类加载器：脚本自己的类优先从这里定义（同名类不会被父加载器里的旧版本遮住），其余委托给父加载器
+     */
+    private static final class ScriptClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        ScriptClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+            super("cursorflow-script", parent);
+            this.classes = classes;
+        }
+
+        Iterable<String> classNames() {
+            return classes.keySet();
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!classes.containsKey(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> type = findLoadedClass(name);
+                if (type == null) {
+                    byte[] bytes = classes.get(name);
+                    type = defineClass(name, bytes, 0, bytes.length);
+                }
+                if (resolve) resolveClass(type);
+                return type;
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.cursorflow.effect;
+
+import com.cursorflow.core.ConfigFileWatcher;
+import com.cursorflow.input.PointerSamples;
+import com.cursorflow.input.PointerStreams;
+import com.cursorflow.util.Metrics;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Java 脚本特效：用户在配置目录放一个实现 ITrailEffect 的 .java 文件，进程内编译后直接运行
+ * 与 Python 特效相比没有子进程和逐帧 IPC，脚本代码与内置特效一样被 JIT 编译。
+ *
+ * 编译在后台线程进行（首次编译完成前 isReady 为 false），保存文件后重新编译，成功则在下一帧换上新实例，
+ * 旧实例销毁后连同它的类加载器一起被回收；编译失败时记录错误并继续运行旧版本。
+ * 第一次编译就失败时使用贪吃蛇线条作为兜底，修好脚本保存后自动换成脚本特效。
+ *
+ * 配置中的 scriptPath 指定脚本文件，其余键原样传给脚本的 init。
+ * 热替换后实例会变，质量档位无法跨版本保持，因此不向 QualityGovernor 暴露档位。
+ */
+public class JavaSourceEffect implements ITrailEffect {
+    private static final Logger LOG = LoggerFactory.getLogger(JavaSourceEffect.class);
+    // 脚本保存事件的防抖时间 (毫秒)
+    private static final long RELOAD_DEBOUNCE_MS = 300;
+
+    private final String scriptPath;
+    private final ConfigFileWatcher scriptWatcher;
+    // 编译与实例化都在这个线程上串行进行
+    private final ExecutorService compileExecutor;
+
+    // 传给脚本 init 的配置（参数补丁会合并进来，重新编译后的实例沿用）
+    private volatile Map<String, Object> config = Map.of();
+    // 编译线程发布、尚未换上的实例
+    private final AtomicReference<ITrailEffect> pending = new AtomicReference<>();
+    // 正在绘制的实例（只在 FX 线程替换）
+    private volatile ITrailEffect delegate;
+    // 换上新实例后的第一帧先清空画布，避免残留旧版本的画面
+    private boolean clearPending = false;
+    private volatile boolean disposed = false;
+
+    public JavaSourceEffect(String scriptPath) {
+        this.scriptPath = scriptPath;
+        this.compileExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ScriptCompiler");
+            t.setDaemon(true);
+            // 编译很吃 CPU，让出给渲染线程
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        this.scriptWatcher = new ConfigFileWatcher(scriptPath, RELOAD_DEBOUNCE_MS, this::scheduleCompile);
+        this.scriptWatcher.start();
+    }
+
+    @Override
+    public void init(Map<String, Object> config) {
+        this.config = config != null ? new HashMap<>(config) : Map.of();
+        ITrailEffect current = delegate;
+        if (current != null) {
+            current.init(this.config);
+        }
+        if (current == null && pending.get() == null) {
+            scheduleCompile();
+        }
+    }
+
+    /**
+     * 转发给当前实例，同时合并进配置，之后重新编译出的实例同样生效
+     */
+    @Override
+    public synchronized boolean applyParams(Map<String, Object> patch) {
+        Map<String, Object> merged = new HashMap<>(config);
+        merged.putAll(patch);
+        config = merged;
+        ITrailEffect current = delegate;
+        return current == null || current.applyParams(patch);
+    }
+
+    private void scheduleCompile() {
+        try {
+            compileExecutor.execute(this::compile);
+        } catch (RejectedExecutionException e) {
+            // 已销毁
+        }
+    }
+
+    /**
+     * 编译线程：编译、实例化、init，然后发布给 FX 线程
+     */
+    private void compile() {
+        if (disposed) return;
+        long start = System.nanoTime();
+        try {
+            ITrailEffect effect = JavaSourceCompiler.compile(Path.of(scriptPath));
+            effect.init(config);
+            publish(effect);
+            Metrics.increment("script.compiled");
+            LOG.info("脚本特效已编译: {} ({} ms)", scriptPath, (System.nanoTime() - start) / 1_000_000);
+        } catch (JavaSourceCompiler.CompileException e) {
+            Metrics.increment("script.failed");
+            LOG.warn("脚本编译失败: {}\n{}", scriptPath, e.getMessage());
+            fallBackIfEmpty();
+        } catch (Exception | LinkageError e) {
+            // 脚本的构造器或 init 抛出异常、读文件失败
+            Metrics.increment("script.failed");
+            LOG.warn("脚本特效加载失败: {}", scriptPath, e);
+            fallBackIfEmpty();
+        }
+    }
+
+    /**
+     * 还没有任何可用实例时启用兜底特效
+     */
+    private void fallBackIfEmpty() {
+        if (delegate != null || pending.get() != null) return;
+        ITrailEffect fallback = new SnakeLineEffect();
+        fallback.init(config);
+        publish(fallback);
+        LOG.info("脚本不可用，暂时使用兜底特效，修改脚本后自动切换");
+    }
+
+    private void publish(ITrailEffect effect) {
+        ITrailEffect superseded = pending.getAndSet(effect);
+        if (superseded != null) {
+            superseded.dispose();
+        }
+        // 与 dispose 竞争：销毁之后发布的实例由这里释放
+        if (disposed) {
+            ITrailEffect orphan = pending.getAndSet(null);
+            if (orphan != null) orphan.dispose();
+        }
+    }
+
+    /**
+     * FX 线程：有新编译好的实例时换上，旧实例立即销毁
+     */
+    private ITrailEffect current() {
+        ITrailEffect next = pending.getAndSet(null);
+        if (next != null) {
+            ITrailEffect previous = delegate;
+            delegate = next;
+            clearPending = true;
+            if (previous != null) {
+                previous.dispose();
+            }
+        }
+        return delegate;
+    }
+
+    private ITrailEffect beginFrame(GraphicsContext gc) {
+        ITrailEffect effect = current();
+        if (clearPending) {
+            clearPending = false;
+            Canvas canvas = gc.getCanvas();
+            gc.save();
+            gc.setTransform(1, 0, 0, 1, 0, 0);
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            gc.restore();
+        }
+        return effect;
+    }
+
+    @Override
+    public void render(GraphicsContext gc, int mouseX, int mouseY) {
+        ITrailEffect effect = beginFrame(gc);
+        if (effect != null) effect.render(gc, mouseX, mouseY);
+    }
+
+    @Override
+    public void render(GraphicsContext gc, PointerSamples samples) {
+        ITrailEffect effect = beginFrame(gc);
+        if (effect != null) effect.render(gc, samples);
+    }
+
+    @Override
+    public void render(GraphicsContext gc, PointerStreams streams) {
+        ITrailEffect effect = beginFrame(gc);
+        if (effect != null) effect.render(gc, streams);
+    }
+
+    /**
+     * 图层在 render 之前询问包围盒，这里同样先换上新实例，保证包围盒与随后绘制的是同一个实例
+     */
+    @Override
+    public boolean bounds(double[] out) {
+        ITrailEffect effect = current();
+        return effect != null && effect.bounds(out);
+    }
+
+    @Override
+    public boolean isReady() {
+        ITrailEffect effect = delegate;
+        if (effect == null) effect = pending.get();
+        return effect != null && effect.isReady();
+    }
+
+    @Override
+    public int liveCount() {
+        ITrailEffect effect = delegate;
+        return effect != null ? effect.liveCount() : -1;
+    }
+
+    @Override
+    public void suspend() {
+        ITrailEffect effect = delegate;
+        if (effect != null) effect.suspend();
+    }
+
+    @Override
+    public void resume() {
+        ITrailEffect effect = delegate;
+        if (effect != null) effect.resume();
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        scriptWatcher.stop();
+        compileExecutor.shutdownNow();
+        ITrailEffect orphan = pending.getAndSet(null);
+        if (orphan != null) orphan.dispose();
+        ITrailEffect effect = delegate;
+        delegate = null;
+        if (effect != null) effect.dispose();
+    }
+}
@@ -0,0 +1,511 @@
+package com.cursorflow.effect;
+
+import com.cursorflow.core.ConfigFileWatcher;
+import com.cursorflow.core.PythonProcessManager;
+import com.cursorflow.input.EmitterParams;
+import com.cursorflow.input.PointerSamples;
+import com.cursorflow.input.PointerStreams;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Java 原生粒子引擎：直接运行纯数据的 Python 粒子配置（没有自定义运动函数）
+ * 物理与渐隐规则和 main.py 的 EffectProcessor.process_line 保持一致，
+ * 省去 Python 进程与逐帧 IPC。粒子状态用基本类型数组保存，渲染时不产生新对象。
+ * 物理在模拟线程推进（粒子状态只由模拟线程访问），每步把位置、尺寸、透明度写入 Frame 快照交给 FX 线程绘制。
+ * 多个指针流共用同一个粒子池：总数受 max_live 限制，池满时按公平份额淘汰（见 FairShareBudget）。
+ */
+public class NativeParticleEffect implements SimulatedTrailEffect<NativeParticleEffect.Frame> {
+    private static final Logger LOG = LoggerFactory.getLogger(NativeParticleEffect.class);
+    // 配置保存事件的防抖时间 (毫秒)
+    private static final long RELOAD_DEBOUNCE_MS = 300;
+
+    // 当前参数（热重载时整体替换，渲染线程每帧读取一次）
+    private volatile Params params = Params.from(null);
+    // params 对应的原始配置，参数补丁在它的基础上合并
+    private volatile Map<String, Object> config = Map.of();
+
+    // 粒子状态（结构数组，按需扩容）
+    private int count = 0;
+    private double[] x = new double[256];
+    private double[] y = new double[256];
+    private double[] vx = new double[256];
+    private double[] vy = new double[256];
+    private double[] size = new double[256];
+    private double[] maxLife = new double[256];
+    private int[] life = new int[256];
+    private Color[] color = new Color[256];
+    // 粒子所属的指针流 id
+    private byte[] stream = new byte[256];
+
+    // 各指针流的存活数与本步想生成的数量（以流 id 为下标）
+    private final int[] streamLive = new int[PointerStreams.MAX_STREAMS];
+    private final int[] streamWanted = new int[PointerStreams.MAX_STREAMS];
+    private final int[] evictLeft = new int[PointerStreams.MAX_STREAMS];
+    private final FairShareBudget budget = new FairShareBudget();
+
+    // 质量档位：每帧生成数量的缩放与同屏粒子上限（由 QualityGovernor 在 FX 线程调整，模拟线程读取）
+    private volatile double spawnScale = 1.0;
+    private volatile int maxLive = 4096;
+    private final List<QualityLever> qualityLevers = List.of(
+            new QualityLever("native_particle.spawn_scale", 1.0, 0.25, 3, v -> spawnScale = v),
+            new QualityLever("native_particle.max_live", 4096, 512, 3, v -> maxLive = (int) v));
+
+    // 未启用模拟线程时 render 直接使用的快照
+    private final Frame inlineFrame = new Frame();
+
+    private final Random random = new Random();
+    private final String configFilePath;
+    private final ConfigFileWatcher configWatcher;
+
+    /**
+     * @param configFilePath 用户配置文件路径，为 null 时不监听文件变化
+     */
+    public NativeParticleEffect(String configFilePath) {
+        this.configFilePath = configFilePath;
+        if (configFilePath != null) {
+            this.configWatcher = new ConfigFileWatcher(configFilePath, RELOAD_DEBOUNCE_MS, this::reloadConfig);
+            this.configWatcher.start();
+        } else {
+            this.configWatcher = null;
+        }
+    }
+
+    /**
+     * 判断 Python 解析出的配置能否由原生引擎运行
+     * @param inspected {@link PythonProcessManager#inspectConfig(String)} 的结果
+     */
+    public static boolean supports(JsonObject inspected) {
+        return inspected != null
+                && inspected.has("type") && "particle".equals(inspected.get("type").getAsString())
+                && inspected.has("params") && inspected.get("params").isJsonObject()
+                && !(inspected.has("custom_behavior") && inspected.get("custom_behavior").getAsBoolean());
+    }
+
+    /**
+     * 把解析结果中的 params 转为 init 使用的配置 Map（键名与 Python config 一致）
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> toConfigMap(JsonObject inspected) {
+        return new Gson().fromJson(inspected.get("params"), Map.class);
+    }
+
+    @Override
+    public void init(Map<String, Object> config) {
+        params = Params.from(config);
+        this.config = config != null ? new HashMap<>(config) : Map.of();
+    }
+
+    /**
+     * 合并到当前配置后整体替换参数快照，下一帧生效（与文件热重载走同一条路径）
+     */
+    @Override
+    public synchronized boolean applyParams(Map<String, Object> patch) {
+        Map<String, Object> merged = new HashMap<>(config);
+        merged.putAll(patch);
+        init(merged);
+        return true;
+    }
+
+    @Override
+    public String configFilePath() {
+        return configFilePath;
+    }
+
+    @Override
+    public void render(GraphicsContext gc, int mouseX, int mouseY) {
+        Params p = params;
+
+        spawn(p, mouseX, mouseY, null, spawnLimit(p), PointerStreams.PRIMARY, EmitterParams.DEFAULT);
+        update(p);
+        snapshot(p, inlineFrame);
+
+        draw(gc, inlineFrame);
+    }
+
+    @Override
+    public void render(GraphicsContext gc, PointerSamples samples) {
+        simulate(samples, inlineFrame);
+        draw(gc, inlineFrame);
+    }
+
+    @Override
+    public void render(GraphicsContext gc, PointerStreams streams) {
+        simulate(streams, inlineFrame);
+        draw(gc, inlineFrame);
+    }
+
+    @Override
+    public Frame createFrame() {
+        return new Frame();
+    }
+
+    @Override
+    public void simulate(PointerSamples samples, Frame out) {
+        Params p = params;
+
+        // 每帧生成数量不变，只是把出生点沿本帧的采样轨迹均匀铺开
+        spawn(p, samples.lastX(), samples.lastY(), samples.size() > 1 ? samples : null,
+                spawnLimit(p), PointerStreams.PRIMARY, EmitterParams.DEFAULT);
+        update(p);
+        snapshot(p, out);
+    }
+
+    @Override
+    public void simulate(PointerStreams streams, Frame out) {
+        Params p = params;
+
+        // 先按公平份额分配本步的生成数量，池满时淘汰超额流最旧的粒子
+        Arrays.fill(streamWanted, 0);
+        for (int i = 0; i < streams.size(); i++) {
+            streamWanted[streams.id(i)] = (int) Math.round(p.particleCount * spawnScale * streams.emitter(i).spawnScale());
+        }
+        if (budget.plan(streamLive, streamWanted, maxLive) > 0) {
+            evictOldest();
+        }
+        for (int i = 0; i < streams.size(); i++) {
+            PointerSamples samples = streams.samples(i);
+            int id = streams.id(i);
+            spawn(p, samples.lastX(), samples.lastY(), samples.size() > 1 ? samples : null,
+                    budget.granted(id), id, streams.emitter(i));
+        }
+        update(p);
+        snapshot(p, out);
+    }
+
+    @Override
+    public void draw(GraphicsContext gc, Frame frame) {
+        gc.clearRect(0, 0, gc.getCanvas().getWidth(), gc.getCanvas().getHeight());
+
+        Color currentFill = null;
+        for (int i = 0; i < frame.count; i++) {
+            // 用全局透明度代替 Color.web(color, alpha)，避免每个粒子创建颜色对象
+            if (frame.color[i] != currentFill) {
+                currentFill = frame.color[i];
+                gc.setFill(currentFill);
+            }
+            gc.setGlobalAlpha(frame.alpha[i]);
+            double d = frame.size[i];
+            gc.fillOval(frame.x[i] - d / 2, frame.y[i] - d / 2, d, d);
+        }
+        gc.setGlobalAlpha(1.0);
+    }
+
+    @Override
+    public boolean bounds(double[] out) {
+        return bounds(inlineFrame, out);
+    }
+
+    @Override
+    public boolean bounds(Frame frame, double[] out) {
+        out[0] = frame.minX;
+        out[1] = frame.minY;
+        out[2] = frame.maxX;
+        out[3] = frame.maxY;
+        return true;
+    }
+
+    @Override
+    public int liveCount() {
+        return inlineFrame.count;
+    }
+
+    @Override
+    public int liveCount(Frame frame) {
+        return frame.count;
+    }
+
+    @Override
+    public List<QualityLever> qualityLevers() {
+        return qualityLevers;
+    }
+
+    @Override
+    public void dispose() {
+        if (configWatcher != null) {
+            configWatcher.stop();
+        }
+        count = 0;
+        Arrays.fill(color, null);
+        Arrays.fill(streamLive, 0);
+        inlineFrame.clear();
+    }
+
+    /**
+     * 单指针时本帧的生成数量：降档时按比例少生成，且不超过同屏上限
+     */
+    private int spawnLimit(Params p) {
+        return Math.min((int) Math.round(p.particleCount * spawnScale), maxLive - count);
+    }
+
+    /**
+     * 生成新粒子：同一帧生成的粒子共用一个颜色，形成“一簇”的感觉
+     * @param path       本帧的采样轨迹，为 null 时全部在 (mouseX, mouseY) 出生
+     * @param spawnCount 生成数量（已按配额限制）
+     * @param streamId   所属指针流
+     * @param emitter    该流的发射参数（颜色覆盖、出生点抖动）
+     */
+    private void spawn(Params p, int mouseX, int mouseY, PointerSamples path, int spawnCount,
+                       int streamId, EmitterParams emitter) {
+        if (spawnCount <= 0) return;
+
+        Color frameColor = emitter.color() != null ? emitter.color() : p.palette[random.nextInt(p.palette.length)];
+        ensureCapacity(count + spawnCount);
+
+        for (int n = 0; n < spawnCount; n++) {
+            double rad = Math.toRadians(uniform(0, 360));
+            double speed = uniform(p.speedMin, p.speedMax);
+
+            int i = count++;
+            if (path != null) {
+                // 最后一个粒子总落在最新位置，和单点模式保持一致
+                int s = path.size() - 1 - (int) ((long) (spawnCount - 1 - n) * path.size() / spawnCount);
+                x[i] = path.x(s);
+                y[i] = path.y(s);
+            } else {
+                x[i] = mouseX;
+                y[i] = mouseY;
+            }
+            if (emitter.spread() > 0) {
+                double jitter = emitter.spread() * Math.sqrt(random.nextDouble());
+                double jitterAngle = random.nextDouble() * Math.PI * 2;
+                x[i] += Math.cos(jitterAngle) * jitter;
+                y[i] += Math.sin(jitterAngle) * jitter;
+            }
+            vx[i] = Math.cos(rad) * speed;
+            vy[i] = Math.sin(rad) * speed;
+            size[i] = uniform(p.sizeMin, p.sizeMax);
+            life[i] = p.lifeMin + random.nextInt(p.lifeMax - p.lifeMin + 1);
+            maxLife[i] = p.lifeMax;
+            color[i] = frameColor;
+            stream[i] = (byte) streamId;
+        }
+        streamLive[streamId] += spawnCount;
+    }
+
+    /**
+     * 按 budget 的结果淘汰各流最旧的粒子（数组按出生顺序排列，压缩保持顺序，越靠前越旧）
+     */
+    private void evictOldest() {
+        for (int id = 0; id < evictLeft.length; id++) {
+            evictLeft[id] = budget.evictions(id);
+        }
+        int alive = 0;
+        for (int i = 0; i < count; i++) {
+            int id = stream[i];
+            if (evictLeft[id] > 0) {
+                evictLeft[id]--;
+                streamLive[id]--;
+                continue;
+            }
+            if (alive != i) moveParticle(i, alive);
+            alive++;
+        }
+        Arrays.fill(color, alive, count, null);
+        count = alive;
+    }
+
+    /**
+     * 物理更新并原地压缩掉死亡粒子
+     */
+    private void update(Params p) {
+        Arrays.fill(streamLive, 0);
+        int alive = 0;
+        for (int i = 0; i < count; i++) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+            vy[i] += p.gravity;
+            life[i]--;
+
+            if (life[i] > 0) {
+                if (alive != i) moveParticle(i, alive);
+                streamLive[stream[alive]]++;
+                alive++;
+            }
+        }
+        // 释放已死亡粒子对颜色的引用
+        Arrays.fill(color, alive, count, null);
+        count = alive;
+    }
+
+    private void moveParticle(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        vx[to] = vx[from];
+        vy[to] = vy[from];
+        size[to] = size[from];
+        life[to] = life[from];
+        maxLife[to] = maxLife[from];
+        color[to] = color[from];
+        stream[to] = stream[from];
+    }
+
+    /**
+     * 把当前粒子的绘制数据（位置、尺寸、透明度、颜色）和包围盒写入快照
+     */
+    private void snapshot(Params p, Frame out) {
+        out.ensureCapacity(count);
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double lifeRatio = life[i] / maxLife[i];
+            double currentSize = Math.max(0.1, size[i] * lifeRatio);
+            double radius = currentSize / 2;
+            minX = Math.min(minX, x[i] - radius);
+            minY = Math.min(minY, y[i] - radius);
+            maxX = Math.max(maxX, x[i] + radius);
+            maxY = Math.max(maxY, y[i] + radius);
+
+            out.x[i] = x[i];
+            out.y[i] = y[i];
+            out.size[i] = currentSize;
+            // 平方渐隐，避免结束时还有灰蒙蒙的影子
+            out.alpha[i] = Math.max(0, Math.min(1, p.opacity * lifeRatio * lifeRatio));
+            out.color[i] = color[i];
+        }
+        // 释放快照里已不存在的粒子对颜色的引用
+        if (out.count > count) Arrays.fill(out.color, count, out.count, null);
+        out.count = count;
+        out.minX = minX;
+        out.minY = minY;
+        out.maxX = maxX;
+        out.maxY = maxY;
+    }
+
+    /**
+     * 配置文件保存后重新解析：仍是纯数据配置则直接替换参数，下一帧生效
+     */
+    private void reloadConfig() {
+        JsonObject inspected = PythonProcessManager.inspectConfig(configFilePath);
+        if (inspected == null) {
+            LOG.warn("配置解析失败，继续使用旧参数");
+        } else if (!supports(inspected)) {
+            LOG.warn("配置已包含自定义运动函数，原生引擎无法运行，请重新选择特效以切换到 Python 模式");
+        } else {
+            init(toConfigMap(inspected));
+            LOG.info("原生粒子参数已更新");
+        }
+    }
+
+    private double uniform(double min, double max) {
+        return min + (max - min) * random.nextDouble();
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= x.length) return;
+
+        int newCapacity = Math.max(required, x.length * 2);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        vx = Arrays.copyOf(vx, newCapacity);
+        vy = Arrays.copyOf(vy, newCapacity);
+        size = Arrays.copyOf(size, newCapacity);
+        maxLife = Arrays.copyOf(maxLife, newCapacity);
+        life = Arrays.copyOf(life, newCapacity);
+        color = Arrays.copyOf(color, newCapacity);
+        stream = Arrays.copyOf(stream, newCapacity);
+    }
+
+    /**
+     * 一步模拟的绘制快照（数组按需扩容、循环复用；没有粒子时 minX > maxX）
+     */
+    public static final class Frame {
+        private int count = 0;
+        private double[] x = new double[256];
+        private double[] y = new double[256];
+        private double[] size = new double[256];
+        private double[] alpha = new double[256];
+        private Color[] color = new Color[256];
+        private double minX = 1, minY = 1, maxX = 0, maxY = 0;
+
+        private void ensureCapacity(int required) {
+            if (required <= x.length) return;
+
+            int newCapacity = Math.max(required, x.length * 2);
+            x = Arrays.copyOf(x, newCapacity);
+            y = Arrays.copyOf(y, newCapacity);
+            size = Arrays.copyOf(size, newCapacity);
+            alpha = Arrays.copyOf(alpha, newCapacity);
+            color = Arrays.copyOf(color, newCapacity);
+        }
+
+        private void clear() {
+            Arrays.fill(color, 0, count, null);
+            count = 0;
+            minX = minY = 1;
+            maxX = maxY = 0;
+        }
+    }
+
+    /**
+     * 不可变参数快照，缺省值与 main.py 保持一致
+     */
+    private static final class Params {
+        final int particleCount;
+        final int lifeMin, lifeMax;
+        final double sizeMin, sizeMax;
+        final double speedMin, speedMax;
+        final Color[] palette;
+        final double gravity;
+        final double opacity;
+
+        private Params(Map<String, Object> config) {
+            particleCount = (int) number(config.get("particle_count"), 5);
+            double[] lifeRange = range(config.get("life_range"), 20, 50);
+            lifeMin = (int) lifeRange[0];
+            lifeMax = Math.max(lifeMin, (int) lifeRange[1]);
+            double[] sizeRange = range(config.get("size_range"), 2, 6);
+            sizeMin = sizeRange[0];
+            sizeMax = sizeRange[1];
+            double[] speedRange = range(config.get("speed_range"), 1, 3);
+            speedMin = speedRange[0];
+            speedMax = speedRange[1];
+            palette = palette(config.get("particle_color"));
+            gravity = number(config.get("gravity"), 0.5);
+            opacity = number(config.get("opacity"), 1.0);
+        }
+
+        static Params from(Map<String, Object> config) {
+            return new Params(config != null ? config : Map.of());
+        }
+
+        private static double number(Object value, double defaultValue) {
+            return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+        }
+
+        private static double[] range(Object value, double defaultMin, double defaultMax) {
+            if (value instanceof List<?> list && list.size() >= 2) {
+                return new double[]{number(list.get(0), defaultMin), number(list.get(1), defaultMax)};
+            }
+            return new double[]{defaultMin, defaultMax};
+        }
+
+        private static Color[] palette(Object value) {
+            try {
+                if (value instanceof List<?> list && !list.isEmpty()) {
+                    Color[] colors = new Color[list.size()];
+                    for (int i = 0; i < colors.length; i++) {
+                        colors[i] = Color.web(String.valueOf(list.get(i)));
+                    }
+                    return colors;
+                }
+                if (value instanceof String str) {
+                    return new Color[]{Color.web(str)};
+                }
+            } catch (IllegalArgumentException e) {
+                LOG.warn("无法解析粒子颜色: {}", value);
+            }
+            return new Color[]{Color.web("#ff0000")};
+        }
+    }
+}
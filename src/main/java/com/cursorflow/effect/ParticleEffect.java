@@ -10,16 +10,23 @@ import java.util.Random;
 
 /**
  * 粒子特效：鼠标移动时生成粒子（火花效果）
+ * 死亡的粒子回收到空闲列表，新粒子优先复用，稳定状态下逐帧不分配对象。
  */
 public class ParticleEffect implements ITrailEffect {
     // 粒子列表
     private List<Particle> particles = new ArrayList<>();
+    // 已死亡、可复用的粒子
+    private final List<Particle> freeParticles = new ArrayList<>();
     // 粒子数量
     private int particleCount = 15;
     // 粒子颜色
     private Color particleColor = Color.ORANGE;
     // 粒子最大生命周期
     private int maxLife = 60;
+    // 质量档位：每帧生成数量的缩放
+    private double spawnScale = 1.0;
+    private final List<QualityLever> qualityLevers = List.of(
+            new QualityLever("particle.spawn_scale", 1.0, 0.2, 4, v -> spawnScale = v));
     // 随机数生成器
     private Random random = new Random();
 
@@ -35,7 +42,8 @@ public class ParticleEffect implements ITrailEffect {
     @Override
     public void render(GraphicsContext gc, int mouseX, int mouseY) {
         // 生成新粒子
-        for (int i = 0; i < particleCount; i++) {
+        int spawnCount = (int) Math.round(particleCount * spawnScale);
+        for (int i = 0; i < spawnCount; i++) {
             particles.add(createParticle(mouseX, mouseY));
         }
 
@@ -48,25 +56,42 @@ public class ParticleEffect implements ITrailEffect {
             // 绘制粒子（圆形）
             gc.fillOval(p.x, p.y, p.size, p.size);
 
-            // 移除死亡粒子
+            // 移除死亡粒子，留给之后生成的粒子复用
             if (p.life <= 0) {
                 particles.remove(i);
+                freeParticles.add(p);
             }
         }
     }
 
+    @Override
+    public int liveCount() {
+        return particles.size();
+    }
+
+    @Override
+    public List<QualityLever> qualityLevers() {
+        return qualityLevers;
+    }
+
     @Override
     public void dispose() {
         particles.clear();
+        freeParticles.clear();
     }
 
-    // 创建单个粒子
+    // 创建单个粒子（优先复用已死亡的粒子）
     private Particle createParticle(int x, int y) {
         double dx = (random.nextDouble() - 0.5) * 4; // X方向速度（-2 ~ 2）
         double dy = (random.nextDouble() - 0.5) * 4; // Y方向速度
         double size = random.nextDouble() * 3 + 1; // 粒子大小（1 ~ 4）
         int life = random.nextInt(maxLife) + 30; // 生命周期（30 ~ 90帧）
-        return new Particle(x, y, dx, dy, size, life);
+        if (freeParticles.isEmpty()) {
+            return new Particle(x, y, dx, dy, size, life);
+        }
+        Particle p = freeParticles.remove(freeParticles.size() - 1);
+        p.set(x, y, dx, dy, size, life);
+        return p;
     }
 
     // 粒子内部类
@@ -77,6 +102,10 @@ public class ParticleEffect implements ITrailEffect {
         int life; // 生命周期
 
         Particle(double x, double y, double dx, double dy, double size, int life) {
+            set(x, y, dx, dy, size, life);
+        }
+
+        void set(double x, double y, double dx, double dy, double size, int life) {
             this.x = x;
             this.y = y;
             this.dx = dx;
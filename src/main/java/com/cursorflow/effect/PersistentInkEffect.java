@@ -0,0 +1,300 @@
+package com.cursorflow.effect;
+
+import com.cursorflow.input.PointerSamples;
+import com.cursorflow.render.InkTileCache;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 持久墨迹特效：轨迹保留数分钟，适合演示时做标注
+ *
+ * 画完的线段栅格化进分块缓存（InkTileCache），每帧只用矢量重画最近 tail_points 个采样组成的“活动尾巴”
+ * （以及预测线头）：先清掉上一帧尾巴所在的矩形、从缓存补回底下的墨迹，再把超出尾巴长度的线段印进缓存。
+ * 因此每帧开销只和尾巴长度、新增线段有关，与累计画了多少无关；光标静止一段时间后尾巴整体落入缓存，不再重画。
+ * 缓存占用受 memory_mb 限制，超出时淘汰最久没有写入的块；lifetime 秒没有再写入的块整块消失（0 表示一直保留）。
+ *
+ * 缓存中的墨迹按不透明绘制、整体乘 opacity 上屏，相邻线段的圆头重叠处不会变深。
+ * 图层保持整屏（不提供包围盒），只在 FX 线程使用。
+ *
+ * 配置键：color、line_width、opacity、tail_points、memory_mb、lifetime
+ */
+public class PersistentInkEffect implements ITrailEffect {
+    private static final Logger LOG = LoggerFactory.getLogger(PersistentInkEffect.class);
+    // 光标静止多少帧后把尾巴整体落入缓存
+    private static final int IDLE_COMMIT_FRAMES = 30;
+
+    private volatile Params params = Params.from(null);
+    // params 对应的原始配置，参数补丁在它的基础上合并
+    private Map<String, Object> config = Map.of();
+
+    private InkTileCache cache;
+    // 画布被外部清空过（切回、首次使用），下一帧从缓存重画全部墨迹
+    private boolean repaintAll = true;
+
+    // 活动尾巴：anchor 是最后一个已栅格化的点，之后是尚未栅格化的采样
+    private boolean hasAnchor = false;
+    private double anchorX, anchorY;
+    private double[] tailX = new double[0];
+    private double[] tailY = new double[0];
+    private int tailCount = 0;
+    private int idleFrames = 0;
+
+    // 上一帧矢量尾巴覆盖的矩形（整数像素，不含右下边界），下一帧先清掉
+    private boolean hasTailRect = false;
+    private int tailMinX, tailMinY, tailMaxX, tailMaxY;
+
+    @Override
+    public void init(Map<String, Object> config) {
+        params = Params.from(config);
+        this.config = config != null ? new HashMap<>(config) : Map.of();
+    }
+
+    /**
+     * 新的颜色、线宽只影响之后画的墨迹，opacity 作用于全部墨迹；memory_mb 立即按新上限淘汰
+     */
+    @Override
+    public boolean applyParams(Map<String, Object> patch) {
+        Map<String, Object> merged = new HashMap<>(config);
+        merged.putAll(patch);
+        init(merged);
+        return true;
+    }
+
+    @Override
+    public void render(GraphicsContext gc, int mouseX, int mouseY) {
+        Params p = beginFrame(gc);
+        long now = System.nanoTime();
+        if (append(p, mouseX, mouseY, now)) idleFrames = 0; else idle(p, now);
+        endFrame(gc, p, now, null);
+    }
+
+    @Override
+    public void render(GraphicsContext gc, PointerSamples samples) {
+        Params p = beginFrame(gc);
+        long now = System.nanoTime();
+        boolean moved = false;
+        // 预测采样只画在矢量线头上，不落入缓存
+        int observed = samples.observedSize();
+        for (int i = 0; i < observed; i++) {
+            moved |= append(p, samples.x(i), samples.y(i), now);
+        }
+        if (moved) idleFrames = 0; else idle(p, now);
+        endFrame(gc, p, now, samples.isLastPredicted() ? samples : null);
+    }
+
+    /**
+     * 准备缓存，并擦掉上一帧的矢量尾巴（从缓存补回底下的墨迹）
+     */
+    private Params beginFrame(GraphicsContext gc) {
+        Params p = params;
+        Canvas canvas = gc.getCanvas();
+        int w = (int) Math.ceil(canvas.getWidth());
+        int h = (int) Math.ceil(canvas.getHeight());
+        if (cache == null || cache.getWidth() != w || cache.getHeight() != h) {
+            // 首次使用或画布尺寸变化：重建缓存并清掉旧画面
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            cache = new InkTileCache(w, h, p.maxTiles);
+            hasAnchor = false;
+            tailCount = 0;
+            hasTailRect = false;
+            repaintAll = false;
+        } else {
+            cache.setMaxTiles(p.maxTiles);
+        }
+        if (tailX.length != p.tailPoints) {
+            commitTail(p, System.nanoTime());
+            tailX = new double[p.tailPoints];
+            tailY = new double[p.tailPoints];
+        }
+
+        if (repaintAll) {
+            repaintAll = false;
+            hasTailRect = false;
+            cache.invalidate();
+        } else if (hasTailRect) {
+            hasTailRect = false;
+            gc.clearRect(tailMinX, tailMinY, tailMaxX - tailMinX, tailMaxY - tailMinY);
+            gc.setGlobalAlpha(p.opacity);
+            cache.repaint(gc, tailMinX, tailMinY, tailMaxX, tailMaxY);
+            gc.setGlobalAlpha(1.0);
+        }
+        return p;
+    }
+
+    /**
+     * 过期淘汰、上传变化的块，再用矢量画活动尾巴
+     */
+    private void endFrame(GraphicsContext gc, Params p, long now, PointerSamples predictedHead) {
+        if (p.lifetimeNanos > 0) {
+            cache.expire(now, p.lifetimeNanos);
+        }
+        gc.setGlobalAlpha(p.opacity);
+        cache.present(gc);
+        gc.setGlobalAlpha(1.0);
+        drawTail(gc, p, predictedHead);
+    }
+
+    /**
+     * 新采样进入尾巴，尾巴已满时把最旧的一段印进缓存
+     * @return false 表示与上一个点重合（光标没动）
+     */
+    private boolean append(Params p, double x, double y, long now) {
+        if (!hasAnchor) {
+            hasAnchor = true;
+            anchorX = x;
+            anchorY = y;
+            cache.stampDisc(x, y, p.lineWidth / 2, p.color, 1.0, now);
+            return true;
+        }
+        double lastX = tailCount > 0 ? tailX[tailCount - 1] : anchorX;
+        double lastY = tailCount > 0 ? tailY[tailCount - 1] : anchorY;
+        if (x == lastX && y == lastY) return false;
+
+        if (tailX.length == 0) {
+            // 不保留尾巴：直接栅格化
+            cache.stampLine(anchorX, anchorY, x, y, p.lineWidth, p.color, 1.0, now);
+            anchorX = x;
+            anchorY = y;
+            return true;
+        }
+        if (tailCount == tailX.length) {
+            commitOldest(p, now);
+        }
+        tailX[tailCount] = x;
+        tailY[tailCount] = y;
+        tailCount++;
+        return true;
+    }
+
+    private void idle(Params p, long now) {
+        if (++idleFrames >= IDLE_COMMIT_FRAMES) {
+            commitTail(p, now);
+        }
+    }
+
+    private void commitOldest(Params p, long now) {
+        cache.stampLine(anchorX, anchorY, tailX[0], tailY[0], p.lineWidth, p.color, 1.0, now);
+        anchorX = tailX[0];
+        anchorY = tailY[0];
+        tailCount--;
+        System.arraycopy(tailX, 1, tailX, 0, tailCount);
+        System.arraycopy(tailY, 1, tailY, 0, tailCount);
+    }
+
+    private void commitTail(Params p, long now) {
+        while (tailCount > 0) {
+            commitOldest(p, now);
+        }
+    }
+
+    private void drawTail(GraphicsContext gc, Params p, PointerSamples predictedHead) {
+        if (!hasAnchor || (tailCount == 0 && predictedHead == null)) return;
+
+        double minX = anchorX, minY = anchorY, maxX = anchorX, maxY = anchorY;
+        gc.beginPath();
+        gc.moveTo(anchorX, anchorY);
+        for (int i = 0; i < tailCount; i++) {
+            gc.lineTo(tailX[i], tailY[i]);
+            minX = Math.min(minX, tailX[i]);
+            minY = Math.min(minY, tailY[i]);
+            maxX = Math.max(maxX, tailX[i]);
+            maxY = Math.max(maxY, tailY[i]);
+        }
+        if (predictedHead != null) {
+            double hx = predictedHead.lastX();
+            double hy = predictedHead.lastY();
+            gc.lineTo(hx, hy);
+            minX = Math.min(minX, hx);
+            minY = Math.min(minY, hy);
+            maxX = Math.max(maxX, hx);
+            maxY = Math.max(maxY, hy);
+        }
+        gc.setStroke(p.color);
+        gc.setLineWidth(p.lineWidth);
+        gc.setLineCap(StrokeLineCap.ROUND);
+        gc.setLineJoin(StrokeLineJoin.ROUND);
+        gc.setGlobalAlpha(p.opacity);
+        gc.stroke();
+        gc.setGlobalAlpha(1.0);
+
+        double pad = p.lineWidth / 2 + 2;
+        tailMinX = (int) Math.floor(minX - pad);
+        tailMinY = (int) Math.floor(minY - pad);
+        tailMaxX = (int) Math.ceil(maxX + pad);
+        tailMaxY = (int) Math.ceil(maxY + pad);
+        hasTailRect = true;
+    }
+
+    /**
+     * 缓存中的块数
+     */
+    @Override
+    public int liveCount() {
+        return cache != null ? cache.tileCount() : 0;
+    }
+
+    /**
+     * 切走时图层会被清空，墨迹留在缓存里，切回后整屏重画
+     */
+    @Override
+    public void resume() {
+        repaintAll = true;
+    }
+
+    @Override
+    public void dispose() {
+        cache = null;
+        hasAnchor = false;
+        tailCount = 0;
+        hasTailRect = false;
+        repaintAll = true;
+    }
+
+    /**
+     * 不可变参数快照
+     */
+    private static final class Params {
+        final Color color;
+        final double lineWidth;
+        final double opacity;
+        final int tailPoints;
+        final int maxTiles;
+        final long lifetimeNanos;
+
+        private Params(Map<String, Object> config) {
+            color = color(config.get("color"));
+            lineWidth = Math.max(0.5, number(config.get("line_width"), 4));
+            opacity = Math.max(0, Math.min(1, number(config.get("opacity"), 1.0)));
+            tailPoints = (int) Math.max(0, Math.min(256, number(config.get("tail_points"), 12)));
+            maxTiles = InkTileCache.tilesForBytes((long) (Math.max(1, number(config.get("memory_mb"), 32)) * 1024 * 1024));
+            lifetimeNanos = (long) (Math.max(0, number(config.get("lifetime"), 300)) * 1_000_000_000L);
+        }
+
+        static Params from(Map<String, Object> config) {
+            return new Params(config != null ? config : Map.of());
+        }
+
+        private static double number(Object value, double defaultValue) {
+            return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+        }
+
+        private static Color color(Object value) {
+            if (value instanceof String str) {
+                try {
+                    return Color.web(str);
+                } catch (IllegalArgumentException e) {
+                    LOG.warn("无法解析墨迹颜色: {}", value);
+                }
+            }
+            return Color.web("#ff3b30");
+        }
+    }
+}
@@ -1,33 +1,105 @@
 package com.cursorflow.effect;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.cursorflow.core.PythonProcessManager;
+import com.cursorflow.core.PythonWatchdog;
+import com.cursorflow.render.SnakeLineRenderer;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.StrokeLineCap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Python 驱动的特效：解析 Python 渲染指令并绘制
+ * Python 卡死或反复重启无效时，看门狗会切到 Java 兜底特效，恢复后自动切回
  */
 public class PythonDrivenEffect implements ITrailEffect {
-    private final Gson gson = new Gson();
-    private String lastRenderCommand; // 缓存最后一条渲染指令
+    private static final Logger LOG = LoggerFactory.getLogger(PythonDrivenEffect.class);
+
+    private static final int COLOR_CACHE_LIMIT = 256;
+
+    // 线条特效渲染器（缓冲区复用，只在 FX 线程访问）
+    private final SnakeLineRenderer snakeLineRenderer = new SnakeLineRenderer();
+    // 质量档位：先通过控制通道让 Python 少生成粒子（仅套接字传输），再降低实际绘制的粒子比例
+    private double drawFraction = 1.0;
+    private final List<QualityLever> qualityLevers = List.of(
+            new QualityLever("python.spawn_scale", 1.0, 0.25, 3, this::applySpawnScale),
+            new QualityLever("python.draw_fraction", 1.0, 0.25, 3, v -> drawFraction = v));
+    // 颜色解析缓存（只在 FX 线程访问）
+    private final Map<String, Color> colorCache = new HashMap<>();
+    private volatile JsonObject lastRenderCommand; // 缓存最后一条渲染指令（已在读线程解析）
+    private JsonObject lastDrawnCommand; // 上一次绘制的指令，用于识别新帧
+    // 上一帧绘制的粒子 / 轨迹点数量
+    private int drawnCount = -1;
+    // 上一帧绘制内容的包围盒（没有内容时 minX > maxX）
+    private double drawnMinX, drawnMinY, drawnMaxX, drawnMaxY;
     private final PythonProcessManager pythonManager;
+    private final String configFilePath;
+
+    // 配置解析结果，决定兜底特效的类型与参数：由创建方给出或在后台解析，看门狗线程只读取
+    private volatile JsonObject inspectedConfig;
+    // 兜底特效：首次进入 FALLBACK 时创建，之后复用；activeFallback 非空时由它负责绘制
+    // volatile：applyParams 在 FX 线程上不取锁直接读取
+    private volatile ITrailEffect fallbackEffect;
+    private volatile ITrailEffect activeFallback;
+    // dispose 之后看门狗回调不再创建兜底特效
+    private boolean disposed = false;
 
     public PythonDrivenEffect(String configFilePath) {
+        this(configFilePath, 1);
+    }
+
+    /**
+     * @param workerCount 并行运行的 Python 进程数（自定义运动函数较重时可利用多核）
+     */
+    public PythonDrivenEffect(String configFilePath, int workerCount) {
+        this(configFilePath, workerCount, null);
+    }
+
+    /**
+     * @param inspected 创建方已取得的 {@link PythonProcessManager#inspectConfig(String)} 结果，为 null 时在后台解析
+     */
+    public PythonDrivenEffect(String configFilePath, int workerCount, JsonObject inspected) {
         // 初始化 Python 进程管理器
-        this.pythonManager = new PythonProcessManager(configFilePath);
-        // 设置渲染指令回调
-        this.pythonManager.setRenderListener(command -> lastRenderCommand = command);
+        this(configFilePath, new PythonProcessManager(configFilePath, workerCount), inspected);
         // 启动 Python 进程
         this.pythonManager.startProcess();
     }
 
+    /**
+     * 接上已创建的进程管理器，不启动进程（测试直接调用 onRenderCommand 喂帧）
+     */
+    PythonDrivenEffect(String configFilePath, PythonProcessManager pythonManager, JsonObject inspected) {
+        this.configFilePath = configFilePath;
+        this.pythonManager = pythonManager;
+        this.inspectedConfig = inspected;
+        if (inspected == null) {
+            // 解析要启动一次 Python（最长等待解析超时），提前在后台完成，不留到看门狗切换兜底时
+            CompletableFuture.supplyAsync(() -> PythonProcessManager.inspectConfig(configFilePath))
+                    .thenAccept(result -> {
+                        if (result != null) inspectedConfig = result;
+                    });
+        }
+        // 设置渲染指令回调
+        this.pythonManager.setRenderListener(this::onRenderCommand);
+        // 看门狗状态变化时切换兜底特效
+        this.pythonManager.getWatchdog().addStateListener((from, to) -> onWatchdogStateChanged(to));
+    }
+
+    /**
+     * 收到一条渲染指令（FX 线程），下一次 render 时绘制
+     */
+    void onRenderCommand(JsonObject command) {
+        lastRenderCommand = command;
+    }
+
     @Override
     public void init(Map<String, Object> config) {
         // 配置由 Python 读取，此处无需处理
@@ -35,25 +107,28 @@ public class PythonDrivenEffect implements ITrailEffect {
 
     @Override
     public void render(GraphicsContext gc, int mouseX, int mouseY) {
-        // 向 Python 发送当前鼠标坐标
+        // 向 Python 发送当前鼠标坐标（兜底期间也继续发送，以便发现 Python 恢复）
         pythonManager.sendMousePosition(mouseX, mouseY);
 
-        // 如果没有渲染指令，直接返回
-        if (lastRenderCommand == null || lastRenderCommand.isEmpty()) return;
+        ITrailEffect fallback = activeFallback;
+        if (fallback != null) {
+            fallback.render(gc, mouseX, mouseY);
+            return;
+        }
 
-        try {
-            // 解析 Python 发送的渲染指令
-            JsonObject commandJson = gson.fromJson(lastRenderCommand, JsonObject.class);
-
-            // --- 核心修复开始：防御性检查 ---
-            // 检查 JSON 是否为空，或者是否缺少关键的 "type" 字段
-            if (commandJson == null || !commandJson.has("type")) {
-                // 如果收到的数据不合法，暂时忽略本次渲染（防止 NPE 崩溃）
-                return;
-            }
-            // --- 核心修复结束 ---
+        // 如果没有渲染指令，直接返回（指令已在读线程校验过 type 字段）
+        JsonObject commandJson = lastRenderCommand;
+        if (commandJson == null) return;
 
+        // 新帧第一次绘制时记录 输入 → 绘制 延迟
+        if (commandJson != lastDrawnCommand) {
+            lastDrawnCommand = commandJson;
+            pythonManager.markFrameDrawn(commandJson);
+        }
+
+        try {
             String effectType = commandJson.get("type").getAsString();
+            resetDrawnBounds();
 
             // 根据特效类型绘制
             switch (effectType) {
@@ -94,10 +169,18 @@ public class PythonDrivenEffect implements ITrailEffect {
         if (!commandJson.has("particles")) return;
 
         var particlesArray = commandJson.get("particles").getAsJsonArray();
-
-        // 绘制每个粒子
-        for (var pElement : particlesArray) {
-            JsonObject particle = pElement.getAsJsonObject();
+        drawnCount = particlesArray.size();
+
+        // 颜色按字符串缓存，透明度走 globalAlpha：逐粒子不再解析颜色、创建 Color 对象
+        String currentColor = null;
+        // 降档时按比例抽取粒子：累加器越过 1 时画一个，保证分布均匀
+        double drawAccumulator = 0;
+        // 绘制每个粒子（按下标遍历，不创建迭代器）
+        for (int i = 0; i < drawnCount; i++) {
+            drawAccumulator += drawFraction;
+            if (drawAccumulator < 1.0) continue;
+            drawAccumulator -= 1.0;
+            JsonObject particle = particlesArray.get(i).getAsJsonObject();
 
             double x = particle.get("x").getAsDouble();
             double y = particle.get("y").getAsDouble();
@@ -114,16 +197,35 @@ public class PythonDrivenEffect implements ITrailEffect {
             // 确保 alpha 在 0.0 - 1.0 之间
             alpha = Math.max(0, Math.min(1, alpha));
 
-            Color color = Color.web(colorStr, alpha); // 第二个参数就是 Opacity
-            gc.setFill(color);
+            if (!colorStr.equals(currentColor)) {
+                currentColor = colorStr;
+                gc.setFill(parseColor(colorStr));
+            }
+            gc.setGlobalAlpha(alpha);
 
             // 绘制
             gc.fillOval(x - size / 2, y - size / 2, size, size);
+            includeDrawnBounds(x - size / 2, y - size / 2, x + size / 2, y + size / 2);
         }
+        gc.setGlobalAlpha(1.0);
     }
 
     /**
-     * 绘制线条特效
+     * 解析颜色字符串（带缓存，Python 端的调色板通常只有几种颜色）
+     */
+    private Color parseColor(String colorStr) {
+        Color color = colorCache.get(colorStr);
+        if (color == null) {
+            color = Color.web(colorStr);
+            // 防止异常配置（如逐帧随机颜色）让缓存无限增长
+            if (colorCache.size() >= COLOR_CACHE_LIMIT) colorCache.clear();
+            colorCache.put(colorStr, color);
+        }
+        return color;
+    }
+
+    /**
+     * 绘制线条特效：简化折线后按透明度分档描边，渐隐尾巴每档只描边一次
      */
     private void renderSnakeLine(GraphicsContext gc, JsonObject commandJson) {
         // 清除画布
@@ -135,42 +237,21 @@ public class PythonDrivenEffect implements ITrailEffect {
         double width = commandJson.get("width").getAsDouble();
         boolean roundCap = commandJson.get("round_cap").getAsBoolean();
         boolean fadeOut = commandJson.get("fade_out").getAsBoolean();
-        List<Map<String, Object>> points = gson.fromJson(
-                commandJson.get("points"),
-                List.class
-        );
 
-        // 设置线条样式
-        Color color = Color.web(colorStr, opacity);
-        gc.setStroke(color);
-        gc.setLineWidth(width);
-        gc.setLineCap(roundCap ? StrokeLineCap.ROUND : StrokeLineCap.BUTT);
-
-        // 绘制线条
-        if (points.size() >= 2) {
-            gc.beginPath();
-            Map<String, Object> firstPoint = points.get(0);
-            gc.moveTo(
-                    ((Number) firstPoint.get("x")).doubleValue(),
-                    ((Number) firstPoint.get("y")).doubleValue()
-            );
-
-            // 渐变透明度（如果启用）
-            double totalPoints = points.size();
-            for (int i = 1; i < points.size(); i++) {
-                Map<String, Object> point = points.get(i);
-                if (fadeOut) {
-                    // 后面的点透明度逐渐降低
-                    double alpha = opacity * (i / totalPoints);
-                    gc.setStroke(Color.web(colorStr, alpha));
-                }
-                gc.lineTo(
-                        ((Number) point.get("x")).doubleValue(),
-                        ((Number) point.get("y")).doubleValue()
-                );
-            }
-            gc.stroke();
+        // 直接读 JsonArray，不再经 Gson 转成 List<Map>
+        var pointsArray = commandJson.get("points").getAsJsonArray();
+        drawnCount = pointsArray.size();
+        snakeLineRenderer.clear();
+        for (int i = 0; i < drawnCount; i++) {
+            JsonObject point = pointsArray.get(i).getAsJsonObject();
+            double x = point.get("x").getAsDouble();
+            double y = point.get("y").getAsDouble();
+            snakeLineRenderer.add(x, y);
+            includeDrawnBounds(x - width / 2, y - width / 2, x + width / 2, y + width / 2);
         }
+
+        snakeLineRenderer.render(gc, parseColor(colorStr), opacity, width,
+                roundCap ? StrokeLineCap.ROUND : StrokeLineCap.BUTT, fadeOut);
     }
 
     /**
@@ -197,6 +278,10 @@ public class PythonDrivenEffect implements ITrailEffect {
 
         // 设置透明度
         gc.setGlobalAlpha(opacity);
+        // 旋转后的贴图不会超出以中心为圆心、对角线为直径的圆
+        double halfDiagonal = Math.hypot(width, height) / 2;
+        includeDrawnBounds(x + width / 2 - halfDiagonal, y + height / 2 - halfDiagonal,
+                x + width / 2 + halfDiagonal, y + height / 2 + halfDiagonal);
 
         // 绘制贴图（支持旋转）
         if (rotate != 0) {
@@ -213,10 +298,174 @@ public class PythonDrivenEffect implements ITrailEffect {
         gc.setGlobalAlpha(1.0);
     }
 
+    /**
+     * 看门狗线程回调：进入 FALLBACK 时启用兜底特效，回到 HEALTHY 时停用
+     * 兜底特效在锁外创建，锁内只交换引用
+     */
+    private void onWatchdogStateChanged(PythonWatchdog.State state) {
+        if (state == PythonWatchdog.State.FALLBACK) {
+            ITrailEffect created = null;
+            if (fallbackEffect == null) {
+                created = createFallbackEffect();
+            }
+            ITrailEffect unused = null;
+            synchronized (this) {
+                if (disposed) {
+                    unused = created;
+                } else {
+                    if (fallbackEffect == null) {
+                        fallbackEffect = created;
+                    } else {
+                        unused = created;
+                    }
+                    activeFallback = fallbackEffect;
+                }
+            }
+            if (unused != null) {
+                unused.dispose();
+            }
+        } else if (state == PythonWatchdog.State.HEALTHY) {
+            synchronized (this) {
+                activeFallback = null;
+            }
+            // 丢弃卡顿前的旧帧，等待新进程的指令
+            lastRenderCommand = null;
+        }
+    }
+
+    /**
+     * 兜底特效：按配置类型选择（线条配置用 SnakeLineEffect，其余用原生粒子引擎），
+     * 尽量沿用用户配置中的纯数据参数（颜色、数量、重力等），只是不执行自定义运动函数；
+     * 解析失败或尚未解析完时使用默认粒子参数。只用已备好的解析结果，不在看门狗线程上启动 Python
+     */
+    private ITrailEffect createFallbackEffect() {
+        JsonObject inspected = inspectedConfig;
+        boolean hasParams = inspected != null && inspected.has("params") && inspected.get("params").isJsonObject();
+        if (hasParams && inspected.has("type") && "snake_line".equals(inspected.get("type").getAsString())) {
+            SnakeLineEffect effect = new SnakeLineEffect();
+            effect.init(SnakeLineEffect.toConfigMap(inspected));
+            LOG.info("已创建 Java 兜底特效（线条）");
+            return effect;
+        }
+        NativeParticleEffect effect = new NativeParticleEffect(null);
+        effect.init(hasParams ? NativeParticleEffect.toConfigMap(inspected) : null);
+        LOG.info("已创建 Java 兜底特效（粒子）");
+        return effect;
+    }
+
+    @Override
+    public boolean bounds(double[] out) {
+        ITrailEffect fallback = activeFallback;
+        if (fallback != null) {
+            return fallback.bounds(out);
+        }
+        if (lastDrawnCommand == null) {
+            // 还没有画过任何内容
+            out[0] = 1;
+            out[1] = 1;
+            out[2] = 0;
+            out[3] = 0;
+            return true;
+        }
+        out[0] = drawnMinX;
+        out[1] = drawnMinY;
+        out[2] = drawnMaxX;
+        out[3] = drawnMaxY;
+        return true;
+    }
+
+    @Override
+    public int liveCount() {
+        ITrailEffect fallback = activeFallback;
+        return fallback != null ? fallback.liveCount() : drawnCount;
+    }
+
+    private void resetDrawnBounds() {
+        drawnMinX = Double.POSITIVE_INFINITY;
+        drawnMinY = Double.POSITIVE_INFINITY;
+        drawnMaxX = Double.NEGATIVE_INFINITY;
+        drawnMaxY = Double.NEGATIVE_INFINITY;
+    }
+
+    private void includeDrawnBounds(double minX, double minY, double maxX, double maxY) {
+        drawnMinX = Math.min(drawnMinX, minX);
+        drawnMinY = Math.min(drawnMinY, minY);
+        drawnMaxX = Math.max(drawnMaxX, maxX);
+        drawnMaxY = Math.max(drawnMaxY, maxY);
+    }
+
+    @Override
+    public List<QualityLever> qualityLevers() {
+        return qualityLevers;
+    }
+
+    private void applySpawnScale(double scale) {
+        pythonManager.setSpawnScale(scale);
+    }
+
+    /**
+     * 通过控制通道下发给 Python；兜底特效存在时同步更新，切回 Python 前后参数一致
+     * 在 FX 线程上调用，不取特效的锁（看门狗回调持锁期间可能在启动进程）
+     */
+    @Override
+    public boolean applyParams(Map<String, Object> patch) {
+        boolean applied = pythonManager.applyParams(patch);
+        ITrailEffect fallback = fallbackEffect;
+        if (fallback != null) {
+            applied |= fallback.applyParams(patch);
+        }
+        return applied;
+    }
+
+    @Override
+    public String configFilePath() {
+        return configFilePath;
+    }
+
+    /**
+     * 切走时不杀进程：不再发送坐标后 Python 阻塞在读 stdin 上，只需暂停看门狗
+     */
+    @Override
+    public void suspend() {
+        pythonManager.suspend();
+    }
+
+    @Override
+    public void resume() {
+        pythonManager.resume();
+    }
+
+    /**
+     * 只发送指针位置，让 Python 在上屏之前就开始出帧
+     */
+    @Override
+    public void warmUp(int mouseX, int mouseY) {
+        pythonManager.sendMousePosition(mouseX, mouseY);
+    }
+
+    /**
+     * 收到（或已画出）第一帧即就绪：切换过渡期间还没有绘制过，只能看读线程收到的指令
+     */
+    @Override
+    public boolean isReady() {
+        return lastDrawnCommand != null || lastRenderCommand != null || activeFallback != null;
+    }
+
     @Override
     public void dispose() {
-        // 停止 Python 进程
-        pythonManager.stopProcess();
+        // 停止 Python 进程与配置监听
+        pythonManager.shutdown();
         lastRenderCommand = null;
+        lastDrawnCommand = null;
+        ITrailEffect fallback;
+        synchronized (this) {
+            disposed = true;
+            activeFallback = null;
+            fallback = fallbackEffect;
+            fallbackEffect = null;
+        }
+        if (fallback != null) {
+            fallback.dispose();
+        }
     }
 }
\ No newline at end of file
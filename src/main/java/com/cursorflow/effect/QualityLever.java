@@ -0,0 +1,85 @@
+package com.cursorflow.effect;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * 质量档位：特效声明的一个可调开销参数（如生成数量、最大粒子数、平滑程度）
+ * 档位 0 为满质量，steps 为最低质量，中间按线性插值。
+ * 由 QualityGovernor 在 FX 线程上调整，apply 回调同样在 FX 线程执行。
+ */
+public final class QualityLever {
+    private final String name;
+    private final double full;
+    private final double floor;
+    private final int steps;
+    private final DoubleConsumer apply;
+    private int level = 0;
+
+    /**
+     * @param name  名称（作为指标名的一部分）
+     * @param full  满质量时的取值
+     * @param floor 最低质量时的取值
+     * @param steps 从满质量到最低质量分几档
+     * @param apply 取值变化时的回调
+     */
+    public QualityLever(String name, double full, double floor, int steps, DoubleConsumer apply) {
+        this.name = name;
+        this.full = full;
+        this.floor = floor;
+        this.steps = Math.max(1, steps);
+        this.apply = apply;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 当前取值
+     */
+    public double value() {
+        return full + (floor - full) * level / steps;
+    }
+
+    /**
+     * 当前档位（0 = 满质量）
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * 降一档
+     * @return 已是最低档时返回 false
+     */
+    public boolean degrade() {
+        if (level >= steps) return false;
+        level++;
+        apply.accept(value());
+        return true;
+    }
+
+    /**
+     * 升一档
+     * @return 已是满质量时返回 false
+     */
+    public boolean restore() {
+        if (level <= 0) return false;
+        level--;
+        apply.accept(value());
+        return true;
+    }
+
+    /**
+     * 回到满质量
+     */
+    public void reset() {
+        if (level == 0) return;
+        level = 0;
+        apply.accept(value());
+    }
+}
@@ -0,0 +1,60 @@
+package com.cursorflow.effect;
+
+import com.cursorflow.input.PointerSamples;
+import com.cursorflow.input.PointerStreams;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * 模拟与绘制分离的特效：simulate 在独立的模拟线程按固定频率推进状态，并把绘制所需的数据写进快照；
+ * draw 在 FX 线程只画最新的快照。物理计算再慢也不会拖住 FX 线程的绘制和托盘菜单等界面操作。
+ *
+ * 快照由调用方通过 createFrame 预先分配、循环复用（见 TripleBuffer），实现不应在 simulate 中保存对快照的引用。
+ * 未启用模拟线程时（如基准测试），render 会在 FX 线程上依次调用 simulate 与 draw。
+ *
+ * @param <F> 快照类型
+ */
+public interface SimulatedTrailEffect<F> extends ITrailEffect {
+    /**
+     * 分配一个空快照
+     */
+    F createFrame();
+
+    /**
+     * 推进一步模拟并把结果写入快照（模拟线程调用）
+     * @param samples 上一步以来的指针采样，至少包含一个当前位置
+     * @param out     要写入的快照，里面是更早的某一帧内容
+     */
+    void simulate(PointerSamples samples, F out);
+
+    /**
+     * 多指针流版本的 simulate，默认只使用主指针
+     * @param streams 本步的指针流，第 0 个总是主指针
+     */
+    default void simulate(PointerStreams streams, F out) {
+        simulate(streams.primary(), out);
+    }
+
+    /**
+     * 绘制快照（FX 线程调用），需要完整重绘
+     */
+    void draw(GraphicsContext gc, F frame);
+
+    /**
+     * 快照的内容包围盒，语义同 {@link #bounds(double[])}
+     */
+    boolean bounds(F frame, double[] out);
+
+    /**
+     * 快照中的粒子 / 图元数量（诊断用），不提供时返回 -1
+     */
+    default int liveCount(F frame) {
+        return -1;
+    }
+
+    /**
+     * 模拟频率（每秒步数）；物理参数按每步计算的特效应与原来的帧率一致
+     */
+    default double simulationRateHz() {
+        return 60;
+    }
+}
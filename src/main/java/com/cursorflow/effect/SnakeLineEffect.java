@@ -1,75 +1,301 @@
 package com.cursorflow.effect;
 
+import com.cursorflow.core.PythonProcessManager;
+import com.cursorflow.input.PointerSamples;
+import com.cursorflow.render.AccumulationBuffer;
+import com.cursorflow.render.SnakeLineRenderer;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import javafx.scene.paint.Color;
 
-import java.util.LinkedList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 
 /**
  * 贪吃蛇线条特效：鼠标轨迹为连续线条（定长队列实现）
+ * 长度按帧数计算：每帧可能带入多个高频采样，但线条保留的时间跨度不变。
+ * 轨迹点存放在基本类型的环形数组里，稳定状态下逐帧不分配对象。
+ *
+ * accumulate=true 时改用渐隐累积缓冲：每帧只把新增线段印到离屏缓冲上，旧内容整体衰减，
+ * 不再重绘历史点，适合很长、很密的轨迹（fadeFrames 控制渐隐帧数，默认等于 maxLength）。
  */
 public class SnakeLineEffect implements ITrailEffect {
-    // 轨迹点队列（定长，保证线条长度）
-    private Queue<Point> trailPoints = new LinkedList<>();
-    // 最大轨迹长度
+    // 轨迹点环形队列（按帧号淘汰，保证线条长度）：trailHead 是最旧的点，容量不够时翻倍
+    private int[] trailXs = new int[256];
+    private int[] trailYs = new int[256];
+    private long[] trailFrames = new long[256];
+    private int trailHead = 0;
+    private int trailSize = 0;
+    // 最大轨迹长度（帧数）
     private int maxLength = 30;
+    // 当前帧号
+    private long frameIndex = 0;
     // 线条颜色
     private Color lineColor = Color.PURPLE;
     // 线条宽度
     private double lineWidth = 3.0;
+    // 尾部渐隐（按透明度分档描边）
+    private boolean fadeOut = false;
+    private final SnakeLineRenderer lineRenderer = new SnakeLineRenderer();
+
+    // 质量档位：帧内采样间隔（1 = 使用全部高频采样，降档时隔几个取一个，始终保留最新一个）
+    private int sampleStride = 1;
+    private final List<QualityLever> qualityLevers = List.of(
+            new QualityLever("snake_line.sample_stride", 1, 4, 3, v -> sampleStride = (int) Math.round(v)));
+
+    // 累积缓冲模式
+    private boolean accumulate = false;
+    private int fadeFrames = 0;
+    private AccumulationBuffer accumulationBuffer;
+    private boolean hasStamp = false;
+    private int stampX, stampY;
+    // 上一帧矢量绘制的预测线头范围，下一帧先清掉
+    private double headMinX, headMinY, headMaxX, headMaxY;
+    private boolean hasHead = false;
+
+    // 矢量模式上一帧线条（含预测线头）覆盖的范围：画布不由图层清空，重绘前先清掉，
+    // 否则淘汰的旧点、预测线头和渐隐的尾部都会叠在之前不透明的线条上
+    private double drawnMinX, drawnMinY, drawnMaxX, drawnMaxY;
+    private boolean hasDrawn = false;
 
     @Override
     public void init(Map<String, Object> config) {
         // 从配置中读取参数（默认值兜底）
         if (config != null) {
-            maxLength = config.getOrDefault("maxLength", 30) instanceof Integer ? (Integer) config.get("maxLength") : 30;
-            lineWidth = config.getOrDefault("lineWidth", 3.0) instanceof Double ? (Double) config.get("lineWidth") : 3.0;
-            lineColor = config.getOrDefault("color", "#9C27B0") instanceof String ? Color.web((String) config.get("color")) : Color.PURPLE;
+            // 缺省的键直接用默认值（getOrDefault 后再 get 会在键缺失时拆箱 null）
+            maxLength = config.get("maxLength") instanceof Number ? ((Number) config.get("maxLength")).intValue() : 30;
+            lineWidth = config.get("lineWidth") instanceof Number ? ((Number) config.get("lineWidth")).doubleValue() : 3.0;
+            lineColor = config.get("color") instanceof String ? Color.web((String) config.get("color")) : Color.PURPLE;
+            fadeOut = Boolean.TRUE.equals(config.get("fadeOut"));
+            accumulate = Boolean.TRUE.equals(config.get("accumulate"));
+            fadeFrames = config.get("fadeFrames") instanceof Number ? ((Number) config.get("fadeFrames")).intValue() : 0;
+        }
+    }
+
+    /**
+     * 把 Python 线条配置的 params 转为 init 使用的配置 Map（max_length、width、color、fade_out），
+     * 无法解析的颜色忽略，使用默认颜色
+     * @param inspected {@link PythonProcessManager#inspectConfig(String)} 的结果
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> toConfigMap(JsonObject inspected) {
+        Map<String, Object> params = new Gson().fromJson(inspected.get("params"), Map.class);
+        Map<String, Object> config = new HashMap<>();
+        if (params.get("max_length") instanceof Number) config.put("maxLength", params.get("max_length"));
+        if (params.get("width") instanceof Number) config.put("lineWidth", params.get("width"));
+        if (params.get("color") instanceof String color) {
+            try {
+                Color.web(color);
+                config.put("color", color);
+            } catch (IllegalArgumentException e) {
+                // 保持默认颜色
+            }
         }
+        if (params.get("fade_out") instanceof Boolean fade) config.put("fadeOut", fade);
+        return config;
     }
 
     @Override
     public void render(GraphicsContext gc, int mouseX, int mouseY) {
+        if (accumulate) {
+            beginAccumulate(gc);
+            stampTo(mouseX, mouseY);
+            accumulationBuffer.present(gc);
+            return;
+        }
+
+        frameIndex++;
         // 添加当前鼠标位置到队列
-        trailPoints.add(new Point(mouseX, mouseY));
+        addPoint(mouseX, mouseY);
+        drawTrail(gc, null);
+    }
 
-        // 超过最大长度则移除最早的点
-        if (trailPoints.size() > maxLength) {
-            trailPoints.poll();
+    @Override
+    public void render(GraphicsContext gc, PointerSamples samples) {
+        if (accumulate) {
+            renderAccumulated(gc, samples);
+            return;
         }
 
-        // 绘制线条
-        gc.setStroke(lineColor);
-        gc.setLineWidth(lineWidth);
-        gc.setLineCap(javafx.scene.shape.StrokeLineCap.ROUND); // 线条端点圆润
+        frameIndex++;
+        // 两帧之间的所有采样都加入轨迹，快速甩动时线条不再是折线
+        // 预测采样只画在本帧的线头上，不进入历史，避免预测偏差留在轨迹里
+        int observed = samples.observedSize();
+        for (int i = 0; i < observed; i++) {
+            if ((observed - 1 - i) % sampleStride != 0) continue;
+            int x = samples.x(i);
+            int y = samples.y(i);
+            int last = trailSize > 0 ? slot(trailSize - 1) : -1;
+            if (last >= 0 && trailXs[last] == x && trailYs[last] == y) {
+                // 静止时不重复堆积相同的点，只刷新帧号
+                trailFrames[last] = frameIndex;
+                continue;
+            }
+            addPoint(x, y);
+        }
+        drawTrail(gc, samples.isLastPredicted() ? samples : null);
+    }
+
+    /**
+     * 第 i 个点（0 为最旧）在环形数组中的下标
+     */
+    private int slot(int i) {
+        return (trailHead + i) % trailXs.length;
+    }
 
-        gc.beginPath();
-        Point first = trailPoints.peek();
-        if (first != null) {
-            gc.moveTo(first.x, first.y);
-            // 连接所有轨迹点
-            for (Point p : trailPoints) {
-                gc.lineTo(p.x, p.y);
+    private void addPoint(int x, int y) {
+        if (trailSize == trailXs.length) {
+            // 按从旧到新的顺序搬到两倍大小的数组
+            int capacity = trailXs.length * 2;
+            int[] xs = new int[capacity];
+            int[] ys = new int[capacity];
+            long[] frames = new long[capacity];
+            for (int i = 0; i < trailSize; i++) {
+                int s = slot(i);
+                xs[i] = trailXs[s];
+                ys[i] = trailYs[s];
+                frames[i] = trailFrames[s];
             }
-            gc.stroke();
+            trailXs = xs;
+            trailYs = ys;
+            trailFrames = frames;
+            trailHead = 0;
         }
+        int s = slot(trailSize);
+        trailXs[s] = x;
+        trailYs[s] = y;
+        trailFrames[s] = frameIndex;
+        trailSize++;
     }
 
-    @Override
-    public void dispose() {
-        trailPoints.clear(); // 释放资源
+    /**
+     * @param predictedHead 非 null 时把其最后一个采样作为线头追加绘制
+     */
+    private void drawTrail(GraphicsContext gc, PointerSamples predictedHead) {
+        if (hasDrawn) {
+            gc.clearRect(drawnMinX, drawnMinY, drawnMaxX - drawnMinX, drawnMaxY - drawnMinY);
+            hasDrawn = false;
+        }
+
+        // 超过最大帧数的点从队首移除（至少保留最新的一个点）
+        while (trailSize > 1 && trailFrames[trailHead] <= frameIndex - maxLength) {
+            trailHead = slot(1);
+            trailSize--;
+        }
+
+        // 绘制线条：高频采样让点很密，交给渲染器简化后再描边（线条端点圆润）
+        lineRenderer.clear();
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < trailSize; i++) {
+            int s = slot(i);
+            lineRenderer.add(trailXs[s], trailYs[s]);
+            minX = Math.min(minX, trailXs[s]);
+            minY = Math.min(minY, trailYs[s]);
+            maxX = Math.max(maxX, trailXs[s]);
+            maxY = Math.max(maxY, trailYs[s]);
+        }
+        if (predictedHead != null) {
+            lineRenderer.add(predictedHead.lastX(), predictedHead.lastY());
+            minX = Math.min(minX, predictedHead.lastX());
+            minY = Math.min(minY, predictedHead.lastY());
+            maxX = Math.max(maxX, predictedHead.lastX());
+            maxY = Math.max(maxY, predictedHead.lastY());
+        }
+        if (minX <= maxX) {
+            double pad = lineWidth / 2 + 1;
+            drawnMinX = minX - pad;
+            drawnMinY = minY - pad;
+            drawnMaxX = maxX + pad;
+            drawnMaxY = maxY + pad;
+            hasDrawn = true;
+        }
+        lineRenderer.render(gc, lineColor, 1.0, lineWidth, javafx.scene.shape.StrokeLineCap.ROUND, fadeOut);
     }
 
-    // 内部点坐标类
-    private static class Point {
-        int x;
-        int y;
+    /**
+     * 累积模式：衰减旧内容，只印本帧新增的线段；预测线头用矢量画在缓冲之外
+     */
+    private void renderAccumulated(GraphicsContext gc, PointerSamples samples) {
+        beginAccumulate(gc);
+        int observed = samples.observedSize();
+        for (int i = 0; i < observed; i++) {
+            if ((observed - 1 - i) % sampleStride != 0) continue;
+            stampTo(samples.x(i), samples.y(i));
+        }
+        accumulationBuffer.present(gc);
+
+        if (samples.isLastPredicted() && hasStamp) {
+            double px = samples.lastX();
+            double py = samples.lastY();
+            gc.setStroke(lineColor);
+            gc.setLineWidth(lineWidth);
+            gc.setLineCap(javafx.scene.shape.StrokeLineCap.ROUND);
+            gc.strokeLine(stampX, stampY, px, py);
+
+            double pad = lineWidth / 2 + 1;
+            headMinX = Math.min(stampX, px) - pad;
+            headMinY = Math.min(stampY, py) - pad;
+            headMaxX = Math.max(stampX, px) + pad;
+            headMaxY = Math.max(stampY, py) + pad;
+            hasHead = true;
+        }
+    }
+
+    private void beginAccumulate(GraphicsContext gc) {
+        Canvas canvas = gc.getCanvas();
+        int w = (int) Math.ceil(canvas.getWidth());
+        int h = (int) Math.ceil(canvas.getHeight());
+        if (accumulationBuffer == null || accumulationBuffer.getWidth() != w || accumulationBuffer.getHeight() != h) {
+            // 首次使用或画布尺寸变化：重建缓冲并清掉旧画面
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            accumulationBuffer = new AccumulationBuffer(w, h);
+            accumulationBuffer.setFadeFrames(fadeFrames > 0 ? fadeFrames : maxLength);
+            hasStamp = false;
+            hasHead = false;
+        }
+
+        if (hasHead) {
+            gc.clearRect(headMinX, headMinY, headMaxX - headMinX, headMaxY - headMinY);
+            hasHead = false;
+        }
+        accumulationBuffer.decay();
+    }
 
-        Point(int x, int y) {
-            this.x = x;
-            this.y = y;
+    private void stampTo(int x, int y) {
+        if (!hasStamp) {
+            accumulationBuffer.stampDisc(x, y, lineWidth / 2, lineColor, 1.0);
+        } else if (x != stampX || y != stampY) {
+            accumulationBuffer.stampLine(stampX, stampY, x, y, lineWidth, lineColor, 1.0);
+        } else {
+            return;
         }
+        hasStamp = true;
+        stampX = x;
+        stampY = y;
+    }
+
+    @Override
+    public int liveCount() {
+        return trailSize;
+    }
+
+    @Override
+    public List<QualityLever> qualityLevers() {
+        return qualityLevers;
+    }
+
+    @Override
+    public void dispose() {
+        trailHead = 0; // 释放资源
+        trailSize = 0;
+        frameIndex = 0;
+        accumulationBuffer = null;
+        hasStamp = false;
+        hasHead = false;
+        hasDrawn = false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.cursorflow.input;
+
+/**
+ * 匀速模型预测器：用最近一段时间窗口内的首尾采样估计速度，然后线性外推
+ * 窗口太短会放大回报率抖动，太长在转弯时会滞后，默认 12 ms。
+ */
+public class ConstantVelocityPredictor implements CursorPredictor {
+    private static final int HISTORY = 64;
+
+    private final long windowNanos;
+    private final long[] t = new long[HISTORY];
+    private final double[] hx = new double[HISTORY];
+    private final double[] hy = new double[HISTORY];
+    private int head = 0;
+    private int count = 0;
+
+    public ConstantVelocityPredictor() {
+        this(12_000_000L);
+    }
+
+    /**
+     * @param windowNanos 估计速度用的时间窗口
+     */
+    public ConstantVelocityPredictor(long windowNanos) {
+        this.windowNanos = Math.max(1, windowNanos);
+    }
+
+    @Override
+    public void observe(long nanos, double x, double y) {
+        head = (head + 1) % HISTORY;
+        t[head] = nanos;
+        hx[head] = x;
+        hy[head] = y;
+        if (count < HISTORY) count++;
+    }
+
+    @Override
+    public boolean predict(long targetNanos, double[] out) {
+        if (count == 0) return false;
+
+        // 从最新采样往回找，直到覆盖整个窗口
+        int oldest = head;
+        for (int n = 1; n < count; n++) {
+            int idx = (head - n + HISTORY) % HISTORY;
+            oldest = idx;
+            if (t[head] - t[idx] >= windowNanos) break;
+        }
+
+        long span = t[head] - t[oldest];
+        double vx = 0, vy = 0;
+        if (span > 0) {
+            vx = (hx[head] - hx[oldest]) / span;
+            vy = (hy[head] - hy[oldest]) / span;
+        }
+
+        long dt = targetNanos - t[head];
+        out[0] = hx[head] + vx * dt;
+        out[1] = hy[head] + vy * dt;
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+    }
+
+    @Override
+    public String name() {
+        return "constant-velocity";
+    }
+}
@@ -0,0 +1,28 @@
+package com.cursorflow.input;
+
+/**
+ * 光标运动预测器：输入带时间戳的真实采样，外推到指定时刻的位置
+ * 实现类只在渲染线程（或离线评估器）中使用，无需线程安全。
+ */
+public interface CursorPredictor {
+    /**
+     * 喂入一个真实采样（时间戳需单调不减）
+     */
+    void observe(long nanos, double x, double y);
+
+    /**
+     * 外推到 targetNanos 时刻，结果写入 out[0]、out[1]
+     * @return 尚未收到足够采样时返回 false（out 不变）
+     */
+    boolean predict(long targetNanos, double[] out);
+
+    /**
+     * 清空内部状态（例如切换输入源或长时间静止后）
+     */
+    void reset();
+
+    /**
+     * 预测器名称（用于日志和评估报告）
+     */
+    String name();
+}
@@ -0,0 +1,22 @@
+package com.cursorflow.input;
+
+import javafx.scene.paint.Color;
+
+/**
+ * 单个指针流的发射参数：在特效配置的基础上按流调整
+ *
+ * @param spawnScale 生成数量倍数（1 = 特效配置值）
+ * @param spread     出生点额外抖动半径（像素），如触摸点比鼠标更粗
+ * @param color      覆盖特效配置的颜色，为 null 时使用特效自己的颜色
+ */
+public record EmitterParams(double spawnScale, double spread, Color color) {
+    /**
+     * 主指针（鼠标）使用的默认参数：完全按特效配置
+     */
+    public static final EmitterParams DEFAULT = new EmitterParams(1.0, 0, null);
+
+    public EmitterParams {
+        spawnScale = Math.max(0, spawnScale);
+        spread = Math.max(0, spread);
+    }
+}
@@ -0,0 +1,101 @@
+package com.cursorflow.input;
+
+/**
+ * 卡尔曼滤波预测器：X、Y 轴各自独立的匀速模型（状态为位置 + 速度）
+ * 过程噪声按白噪声加速度建模，能平滑回报率抖动，又比固定窗口更快跟上加减速。
+ */
+public class KalmanPredictor implements CursorPredictor {
+    // 加速度噪声谱密度（px²/ms³），越大越信任新采样
+    private final double accelNoise;
+    // 测量噪声方差（px²），鼠标坐标为整数，量化误差约 1/12
+    private final double measurementNoise;
+
+    private final Axis ax = new Axis();
+    private final Axis ay = new Axis();
+    private long lastNanos;
+    private boolean initialized = false;
+
+    public KalmanPredictor() {
+        this(2.0, 0.5);
+    }
+
+    public KalmanPredictor(double accelNoise, double measurementNoise) {
+        this.accelNoise = accelNoise;
+        this.measurementNoise = measurementNoise;
+    }
+
+    @Override
+    public void observe(long nanos, double x, double y) {
+        if (!initialized) {
+            ax.reset(x);
+            ay.reset(y);
+            lastNanos = nanos;
+            initialized = true;
+            return;
+        }
+
+        // 内部以毫秒为时间单位，避免纳秒平方后数值过大
+        double dt = Math.max(0, nanos - lastNanos) / 1e6;
+        lastNanos = nanos;
+
+        ax.step(dt, x, accelNoise, measurementNoise);
+        ay.step(dt, y, accelNoise, measurementNoise);
+    }
+
+    @Override
+    public boolean predict(long targetNanos, double[] out) {
+        if (!initialized) return false;
+
+        double dt = (targetNanos - lastNanos) / 1e6;
+        out[0] = ax.p + ax.v * dt;
+        out[1] = ay.p + ay.v * dt;
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        initialized = false;
+    }
+
+    @Override
+    public String name() {
+        return "kalman";
+    }
+
+    /**
+     * 单轴状态 [p, v] 及协方差矩阵 [[p00, p01], [p01, p11]]
+     */
+    private static final class Axis {
+        double p, v;
+        double p00, p01, p11;
+
+        void reset(double position) {
+            p = position;
+            v = 0;
+            p00 = 1;
+            p01 = 0;
+            p11 = 1;
+        }
+
+        void step(double dt, double z, double q, double r) {
+            // 预测：x = F·x，P = F·P·Fᵀ + Q
+            p += v * dt;
+            double dt2 = dt * dt;
+            double n00 = p00 + 2 * dt * p01 + dt2 * p11 + q * dt2 * dt2 / 4;
+            double n01 = p01 + dt * p11 + q * dt2 * dt / 2;
+            double n11 = p11 + q * dt2;
+
+            // 更新：只观测位置，H = [1, 0]
+            double s = n00 + r;
+            double k0 = n00 / s;
+            double k1 = n01 / s;
+            double residual = z - p;
+            p += k0 * residual;
+            v += k1 * residual;
+
+            p00 = (1 - k0) * n00;
+            p01 = (1 - k0) * n01;
+            p11 = n11 - k1 * n01;
+        }
+    }
+}
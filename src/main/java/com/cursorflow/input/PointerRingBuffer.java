@@ -0,0 +1,84 @@
+package com.cursorflow.input;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单生产者 / 单消费者无锁环形缓冲区（基本类型数组，无装箱）
+ * 生产者：钩子回调或合成输入线程；消费者：每帧取数的渲染线程。
+ * 缓冲区满时丢弃新采样并计数，绝不阻塞生产者（钩子回调阻塞会拖慢整个系统的鼠标）。
+ */
+public final class PointerRingBuffer {
+    private final int mask;
+    private final long[] timeNanos;
+    private final int[] xs;
+    private final int[] ys;
+
+    // 下一个写入位置（只由生产者推进）
+    private final AtomicLong head = new AtomicLong();
+    // 下一个读取位置（只由消费者推进）
+    private final AtomicLong tail = new AtomicLong();
+    // 生产者本地缓存的读取位置，减少对 tail 的跨线程读取
+    private long cachedTail = 0;
+    private volatile long droppedCount = 0;
+
+    /**
+     * @param capacity 容量，会向上取整到 2 的幂
+     */
+    public PointerRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        timeNanos = new long[size];
+        xs = new int[size];
+        ys = new int[size];
+    }
+
+    /**
+     * 生产者写入一个采样
+     * @return 缓冲区已满时返回 false（采样被丢弃）
+     */
+    public boolean offer(long nanos, int x, int y) {
+        long h = head.getPlain();
+        if (h - cachedTail > mask) {
+            cachedTail = tail.getAcquire();
+            if (h - cachedTail > mask) {
+                droppedCount++;
+                return false;
+            }
+        }
+
+        int index = (int) h & mask;
+        timeNanos[index] = nanos;
+        xs[index] = x;
+        ys[index] = y;
+        head.setRelease(h + 1);
+        return true;
+    }
+
+    /**
+     * 消费者取出所有已写入的采样，追加到 out
+     * @return 取出的采样数
+     */
+    public int drainTo(PointerSamples out) {
+        long t = tail.getPlain();
+        long h = head.getAcquire();
+        int count = (int) (h - t);
+
+        for (; t < h; t++) {
+            int index = (int) t & mask;
+            out.add(timeNanos[index], xs[index], ys[index]);
+        }
+        tail.setRelease(t);
+        return count;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * 因缓冲区满而丢弃的采样数
+     */
+    public long droppedCount() {
+        return droppedCount;
+    }
+}
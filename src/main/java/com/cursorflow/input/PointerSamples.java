@@ -0,0 +1,111 @@
+package com.cursorflow.input;
+
+import java.util.Arrays;
+
+/**
+ * 一帧内的指针采样批次（可复用，按需扩容）
+ * 按时间顺序保存上一帧以来的所有采样，最后一个即当前位置。
+ */
+public final class PointerSamples {
+    private long[] timeNanos;
+    private int[] x;
+    private int[] y;
+    private int size = 0;
+    // 最后一个采样是否为预测值（而非真实输入）
+    private boolean lastPredicted = false;
+
+    public PointerSamples() {
+        this(64);
+    }
+
+    public PointerSamples(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        timeNanos = new long[capacity];
+        x = new int[capacity];
+        y = new int[capacity];
+    }
+
+    /**
+     * 追加一个采样
+     * @param nanos System.nanoTime() 时间戳
+     */
+    public void add(long nanos, int px, int py) {
+        lastPredicted = false;
+        if (size == x.length) {
+            int newCapacity = size * 2;
+            timeNanos = Arrays.copyOf(timeNanos, newCapacity);
+            x = Arrays.copyOf(x, newCapacity);
+            y = Arrays.copyOf(y, newCapacity);
+        }
+        timeNanos[size] = nanos;
+        x[size] = px;
+        y[size] = py;
+        size++;
+    }
+
+    /**
+     * 追加一个预测采样（由 PredictionStage 调用，总是批次的最后一个）
+     * 需要保存历史的特效应跳过它，只用于绘制当前帧的头部。
+     */
+    public void addPredicted(long nanos, int px, int py) {
+        add(nanos, px, py);
+        lastPredicted = true;
+    }
+
+    /**
+     * 最后一个采样是否为预测值
+     */
+    public boolean isLastPredicted() {
+        return lastPredicted;
+    }
+
+    /**
+     * 真实采样数量（不含预测采样）
+     */
+    public int observedSize() {
+        return lastPredicted ? size - 1 : size;
+    }
+
+    public void clear() {
+        size = 0;
+        lastPredicted = false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long timeNanos(int index) {
+        return timeNanos[index];
+    }
+
+    public int x(int index) {
+        return x[index];
+    }
+
+    public int y(int index) {
+        return y[index];
+    }
+
+    /**
+     * 最新采样的 X 坐标（调用前需保证非空）
+     */
+    public int lastX() {
+        return x[size - 1];
+    }
+
+    /**
+     * 最新采样的 Y 坐标（调用前需保证非空）
+     */
+    public int lastY() {
+        return y[size - 1];
+    }
+
+    public long lastTimeNanos() {
+        return timeNanos[size - 1];
+    }
+}
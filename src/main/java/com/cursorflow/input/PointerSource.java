@@ -0,0 +1,29 @@
+package com.cursorflow.input;
+
+/**
+ * 指针输入源：钩子、轮询、合成轨迹等都实现此接口
+ * 渲染线程每帧调用一次 drainTo 取走上一帧以来的全部采样。
+ */
+public interface PointerSource {
+    /**
+     * 启动输入源
+     * @return 启动失败（如当前平台不支持）返回 false
+     */
+    boolean start();
+
+    /**
+     * 把上一次调用以来的采样按时间顺序追加到 out（没有新采样时可以不追加）
+     * 只允许单一消费线程调用
+     */
+    void drainTo(PointerSamples out);
+
+    /**
+     * 停止输入源并释放资源
+     */
+    void stop();
+
+    /**
+     * 输入源名称（用于日志）
+     */
+    String name();
+}
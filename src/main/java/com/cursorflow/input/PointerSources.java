@@ -0,0 +1,80 @@
+package com.cursorflow.input;
+
+import com.cursorflow.input.ReplayPointerSource.Pacing;
+import javafx.geometry.Rectangle2D;
+import javafx.stage.Screen;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+
+/**
+ * 输入源工厂：通过系统属性 cursorflow.pointer 选择（hook / poll / synthetic）
+ * 默认优先使用鼠标钩子，安装失败（非 Windows 等）时回退到轮询。
+ * 回放轨迹打不开时直接报错，不会悄悄换成真实鼠标。
+ *
+ * 回放与录制：
+ * -Dcursorflow.replay=trace.cftrace 使用录制的轨迹代替真实鼠标
+ *   （cursorflow.replay.pacing=realtime|asap，cursorflow.replay.loop=true 循环回放）；
+ * -Dcursorflow.record=trace.cftrace 把实际使用的输入源采样录制下来。
+ */
+public final class PointerSources {
+    private static final Logger LOG = LoggerFactory.getLogger(PointerSources.class);
+
+    public static final String PROPERTY = "cursorflow.pointer";
+    public static final String PROPERTY_REPLAY = "cursorflow.replay";
+    public static final String PROPERTY_REPLAY_PACING = "cursorflow.replay.pacing";
+    public static final String PROPERTY_REPLAY_LOOP = "cursorflow.replay.loop";
+    public static final String PROPERTY_RECORD = "cursorflow.record";
+
+    private PointerSources() {
+    }
+
+    /**
+     * 创建并启动输入源
+     *
+     * @throws IllegalStateException 指定了回放轨迹但无法打开
+     */
+    public static PointerSource createDefault() {
+        String replayPath = System.getProperty(PROPERTY_REPLAY);
+        boolean replay = replayPath != null && !replayPath.isBlank();
+
+        PointerSource source = withRecording(replay ? createReplay(Path.of(replayPath)) : createLive());
+        if (!source.start()) {
+            if (replay) {
+                throw new IllegalStateException("无法打开指针回放轨迹: " + replayPath);
+            }
+            // 回退的轮询源同样要录制
+            source = withRecording(new PollingPointerSource());
+            source.start();
+        }
+        LOG.info("指针输入源: {}", source.name());
+        return source;
+    }
+
+    private static PointerSource withRecording(PointerSource source) {
+        String recordPath = System.getProperty(PROPERTY_RECORD);
+        if (recordPath == null || recordPath.isBlank()) return source;
+        return new RecordingPointerSource(source, Path.of(recordPath));
+    }
+
+    private static PointerSource createReplay(Path path) {
+        Pacing pacing = "asap".equalsIgnoreCase(System.getProperty(PROPERTY_REPLAY_PACING))
+                ? Pacing.ASAP : Pacing.REALTIME;
+        return new ReplayPointerSource(path, pacing, Boolean.getBoolean(PROPERTY_REPLAY_LOOP));
+    }
+
+    private static PointerSource createLive() {
+        String mode = System.getProperty(PROPERTY, "hook");
+        return switch (mode) {
+            case "poll" -> new PollingPointerSource();
+            case "synthetic" -> {
+                Rectangle2D bounds = Screen.getPrimary().getVisualBounds();
+                yield new SyntheticPointerSource(1000,
+                        bounds.getWidth() / 2, bounds.getHeight() / 2,
+                        bounds.getWidth() / 3, bounds.getHeight() / 3);
+            }
+            default -> new HookPointerSource();
+        };
+    }
+}
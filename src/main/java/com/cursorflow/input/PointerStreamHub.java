@@ -0,0 +1,121 @@
+package com.cursorflow.input;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 附加指针流的注册表：笔、触摸点、回放光标等输入源在这里登记，由渲染端每帧和主指针一起取走
+ *
+ * 注册与注销可在任意线程调用；drainTo 同一时间只允许一个消费线程（FX 线程或模拟线程）。
+ * 超过 ACTIVE_WINDOW 没有新采样的流视为抬起 / 离开，不再参与本帧（它已有的粒子照常演化直到消失），
+ * 这样空闲的流不会占用粒子配额。
+ */
+public final class PointerStreamHub {
+    private static final Logger LOG = LoggerFactory.getLogger(PointerStreamHub.class);
+    private static final long ACTIVE_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final CopyOnWriteArrayList<Stream> streams = new CopyOnWriteArrayList<>();
+
+    /**
+     * 启动并登记一个附加输入源
+     * @return 流 id（1 ~ MAX_STREAMS-1）；输入源启动失败或已满时返回 -1
+     */
+    public synchronized int register(PointerSource source, EmitterParams emitter) {
+        int id = freeId();
+        if (id < 0) {
+            LOG.warn("指针流已达上限 {}，忽略输入源 {}", PointerStreams.MAX_STREAMS, source.name());
+            return -1;
+        }
+        if (!source.start()) {
+            LOG.warn("附加输入源启动失败: {}", source.name());
+            return -1;
+        }
+        streams.add(new Stream(id, source, emitter != null ? emitter : EmitterParams.DEFAULT));
+        LOG.info("已添加指针流 #{}: {}", id, source.name());
+        return id;
+    }
+
+    /**
+     * 注销并停止输入源
+     */
+    public synchronized void unregister(int id) {
+        for (Stream stream : streams) {
+            if (stream.id == id) {
+                streams.remove(stream);
+                stream.source.stop();
+                LOG.info("已移除指针流 #{}: {}", id, stream.source.name());
+                return;
+            }
+        }
+    }
+
+    /**
+     * 注销并停止全部附加输入源
+     */
+    public synchronized void clear() {
+        for (Stream stream : streams) {
+            stream.source.stop();
+        }
+        streams.clear();
+    }
+
+    /**
+     * 已登记的附加流数量
+     */
+    public int size() {
+        return streams.size();
+    }
+
+    /**
+     * 取走各附加流上一次以来的采样，活跃的流追加到 out（静止但仍在活跃窗口内的流补一个最后位置）
+     */
+    public void drainTo(PointerStreams out, long nowNanos) {
+        for (Stream stream : streams) {
+            PointerSamples batch = out.add(stream.id, stream.emitter);
+            if (batch == null) return;
+            stream.source.drainTo(batch);
+            if (!batch.isEmpty()) {
+                stream.lastX = batch.lastX();
+                stream.lastY = batch.lastY();
+                stream.lastSampleNanos = nowNanos;
+            } else if (stream.lastSampleNanos != 0 && nowNanos - stream.lastSampleNanos < ACTIVE_WINDOW_NANOS) {
+                batch.add(nowNanos, stream.lastX, stream.lastY);
+            } else {
+                // 不活跃：撤回刚追加的流
+                out.removeLast();
+            }
+        }
+    }
+
+    private int freeId() {
+        for (int id = 1; id < PointerStreams.MAX_STREAMS; id++) {
+            boolean used = false;
+            for (Stream stream : streams) {
+                if (stream.id == id) {
+                    used = true;
+                    break;
+                }
+            }
+            if (!used) return id;
+        }
+        return -1;
+    }
+
+    private static final class Stream {
+        final int id;
+        final PointerSource source;
+        final EmitterParams emitter;
+        // 只由当前消费线程访问
+        int lastX, lastY;
+        long lastSampleNanos = 0;
+
+        Stream(int id, PointerSource source, EmitterParams emitter) {
+            this.id = id;
+            this.source = source;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.cursorflow.input;
+
+import java.util.Arrays;
+
+/**
+ * 一帧内多个指针流的采样批次（可复用）
+ * 第 0 个总是主指针（鼠标），其余为笔、触摸点、屏幕共享回放的光标等附加流。
+ * 流 id 在 [0, MAX_STREAMS) 内，特效可以直接用它作数组下标记录每个流的状态。
+ */
+public final class PointerStreams {
+    /**
+     * 最多同时存在的指针流数（含主指针）
+     */
+    public static final int MAX_STREAMS = 16;
+    public static final int PRIMARY = 0;
+
+    private final PointerSamples[] samples = new PointerSamples[MAX_STREAMS];
+    private final int[] ids = new int[MAX_STREAMS];
+    private final EmitterParams[] emitters = new EmitterParams[MAX_STREAMS];
+    private int size = 0;
+
+    public PointerStreams() {
+        for (int i = 0; i < MAX_STREAMS; i++) {
+            samples[i] = new PointerSamples(i == 0 ? 256 : 64);
+        }
+    }
+
+    /**
+     * 清空全部流（保留缓冲区）
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            samples[i].clear();
+        }
+        Arrays.fill(emitters, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * 追加一个流
+     * @return 该流本帧的采样批次（已清空），由调用方填充；超出 MAX_STREAMS 时返回 null
+     */
+    public PointerSamples add(int id, EmitterParams emitter) {
+        if (size == MAX_STREAMS) return null;
+        ids[size] = id;
+        emitters[size] = emitter;
+        PointerSamples batch = samples[size++];
+        batch.clear();
+        return batch;
+    }
+
+    /**
+     * 撤回最后追加的流
+     */
+    public void removeLast() {
+        if (size == 0) return;
+        size--;
+        samples[size].clear();
+        emitters[size] = null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int id(int index) {
+        return ids[index];
+    }
+
+    public EmitterParams emitter(int index) {
+        return emitters[index];
+    }
+
+    public PointerSamples samples(int index) {
+        return samples[index];
+    }
+
+    /**
+     * 主指针的采样（调用前需保证已 add 过主指针）
+     */
+    public PointerSamples primary() {
+        return samples[0];
+    }
+
+    /**
+     * 所有流的采样总数
+     */
+    public int totalSamples() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += samples[i].size();
+        }
+        return total;
+    }
+}
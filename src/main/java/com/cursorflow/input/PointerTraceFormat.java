@@ -0,0 +1,26 @@
+package com.cursorflow.input;
+
+/**
+ * 指针轨迹二进制格式（.cftrace）
+ *
+ * 文件头：魔数 "CFTR"（4 字节）+ 版本（1 字节）+ 起始时间戳（8 字节，大端）。
+ * 之后每个采样依次是 dt、dx、dy 三个 ZigZag 编码的变长整数（LEB128），
+ * 均为相对上一个采样的差值（第一个采样相对文件头时间戳和原点）。
+ * 1000 Hz 鼠标的典型采样只占 4~6 字节。
+ */
+final class PointerTraceFormat {
+    static final byte[] MAGIC = {'C', 'F', 'T', 'R'};
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = MAGIC.length + 1 + Long.BYTES;
+
+    private PointerTraceFormat() {
+    }
+
+    static long zigZagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,135 @@
+package com.cursorflow.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 轨迹读取器：通过内存映射的 FileChannel 顺序解码二进制轨迹
+ * 大文件不需要整体读入堆内存，页面由操作系统按需换入。非线程安全。
+ */
+public class PointerTraceReader implements Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long baseNanos;
+
+    private long timeNanos;
+    private int x;
+    private int y;
+
+    public PointerTraceReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("轨迹文件过大（超过 2GB）: " + path);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (!isTrace(buffer)) {
+                throw new IOException("不是有效的指针轨迹文件: " + path);
+            }
+            int version = buffer.get(PointerTraceFormat.MAGIC.length);
+            if (version != PointerTraceFormat.VERSION) {
+                throw new IOException("不支持的轨迹版本 " + version + ": " + path);
+            }
+            this.baseNanos = buffer.getLong(PointerTraceFormat.MAGIC.length + 1);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        rewind();
+    }
+
+    /**
+     * 判断文件是否以轨迹魔数开头（不校验版本）
+     */
+    public static boolean isTrace(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() < PointerTraceFormat.HEADER_SIZE) return false;
+            return isTrace(ch.map(FileChannel.MapMode.READ_ONLY, 0, PointerTraceFormat.HEADER_SIZE));
+        }
+    }
+
+    private static boolean isTrace(MappedByteBuffer buf) {
+        if (buf.limit() < PointerTraceFormat.HEADER_SIZE) return false;
+        byte[] magic = new byte[PointerTraceFormat.MAGIC.length];
+        buf.get(0, magic);
+        return Arrays.equals(magic, PointerTraceFormat.MAGIC);
+    }
+
+    /**
+     * 解码下一个采样
+     * @return 已到文件末尾（或末尾记录不完整）时返回 false
+     */
+    public boolean next() {
+        if (!buffer.hasRemaining()) return false;
+
+        int mark = buffer.position();
+        long dt = readVarLong();
+        long dx = readVarLong();
+        long dy = readVarLong();
+        if (dt == Long.MIN_VALUE || dx == Long.MIN_VALUE || dy == Long.MIN_VALUE) {
+            // 录制进程被强杀时最后一条记录可能被截断
+            buffer.position(mark);
+            return false;
+        }
+
+        timeNanos += PointerTraceFormat.zigZagDecode(dt);
+        x += (int) PointerTraceFormat.zigZagDecode(dx);
+        y += (int) PointerTraceFormat.zigZagDecode(dy);
+        return true;
+    }
+
+    /**
+     * 回到第一个采样之前
+     */
+    public void rewind() {
+        buffer.position(PointerTraceFormat.HEADER_SIZE);
+        timeNanos = baseNanos;
+        x = 0;
+        y = 0;
+    }
+
+    /**
+     * 当前采样的原始时间戳（录制时的 System.nanoTime()）
+     */
+    public long timeNanos() {
+        return timeNanos;
+    }
+
+    public int x() {
+        return x;
+    }
+
+    public int y() {
+        return y;
+    }
+
+    public long getBaseNanos() {
+        return baseNanos;
+    }
+
+    /**
+     * 读取一个变长整数；数据不完整时返回 Long.MIN_VALUE
+     */
+    private long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!buffer.hasRemaining()) return Long.MIN_VALUE;
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        return Long.MIN_VALUE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
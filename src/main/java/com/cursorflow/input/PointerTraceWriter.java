@@ -0,0 +1,81 @@
+package com.cursorflow.input;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 轨迹录制器：把带时间戳的指针采样写成紧凑的二进制轨迹（格式见 PointerTraceFormat）
+ * 非线程安全，只应由单一线程写入。
+ */
+public class PointerTraceWriter implements Closeable {
+    private final OutputStream out;
+    private final long baseNanos;
+    private long lastNanos;
+    private int lastX = 0;
+    private int lastY = 0;
+    private long sampleCount = 0;
+
+    /**
+     * @param baseNanos 起始时间戳，通常取录制开始时的 System.nanoTime()
+     */
+    public PointerTraceWriter(Path path, long baseNanos) throws IOException {
+        this.out = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024);
+        this.baseNanos = baseNanos;
+        this.lastNanos = baseNanos;
+
+        out.write(PointerTraceFormat.MAGIC);
+        out.write(PointerTraceFormat.VERSION);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (baseNanos >>> shift));
+        }
+    }
+
+    /**
+     * 追加一个采样（时间戳应单调不减，倒退的时间戳按 0 间隔写入）
+     */
+    public void write(long nanos, int x, int y) throws IOException {
+        long dt = Math.max(0, nanos - lastNanos);
+        writeVarLong(PointerTraceFormat.zigZagEncode(dt));
+        writeVarLong(PointerTraceFormat.zigZagEncode(x - lastX));
+        writeVarLong(PointerTraceFormat.zigZagEncode(y - lastY));
+
+        lastNanos += dt;
+        lastX = x;
+        lastY = y;
+        sampleCount++;
+    }
+
+    /**
+     * 追加一个批次中的全部真实采样（预测采样不录制）
+     */
+    public void write(PointerSamples samples) throws IOException {
+        for (int i = 0; i < samples.observedSize(); i++) {
+            write(samples.timeNanos(i), samples.x(i), samples.y(i));
+        }
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getBaseNanos() {
+        return baseNanos;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,34 @@
+package com.cursorflow.input;
+
+import java.awt.MouseInfo;
+import java.awt.PointerInfo;
+
+/**
+ * 轮询输入源：每次取数时用 MouseInfo 读取一次当前位置
+ * 钩子不可用时的兜底方案，每帧只有一个采样。
+ */
+public class PollingPointerSource implements PointerSource {
+
+    @Override
+    public boolean start() {
+        return true;
+    }
+
+    @Override
+    public void drainTo(PointerSamples out) {
+        // 无鼠标设备或锁屏时可能返回 null
+        PointerInfo info = MouseInfo.getPointerInfo();
+        if (info == null) return;
+
+        out.add(System.nanoTime(), info.getLocation().x, info.getLocation().y);
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public String name() {
+        return "polling";
+    }
+}
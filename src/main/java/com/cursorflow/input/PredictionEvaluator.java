@@ -0,0 +1,253 @@
+package com.cursorflow.input;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * 离线预测评估器：用录制的指针轨迹回放渲染循环，给各预测器在不同提前量下的误差打分
+ *
+ * 用法：java -cp target/classes com.cursorflow.input.PredictionEvaluator &lt;trace | --synthetic&gt; [提前量ms ...]
+ * 轨迹可以是 -Dcursorflow.record 录制的二进制文件，也可以是每行 "nanos,x,y" 的 CSV
+ * （# 开头的行和无法解析的表头会被跳过）。
+ * 误差 = 预测点与该时刻真实位置（轨迹线性插值）的距离，预测点经过与线上相同的过冲截断
+ * （-Dcursorflow.predict.maxOvershootPx，默认 24）。
+ */
+public final class PredictionEvaluator {
+    private static final long FRAME_NANOS = 16_666_667L;
+    private static final double MAX_OVERSHOOT_PX =
+            Double.parseDouble(System.getProperty(PredictionStage.PROPERTY_OVERSHOOT, "24"));
+
+    private PredictionEvaluator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("用法: PredictionEvaluator <trace | --synthetic> [lookaheadMs ...]");
+            System.exit(1);
+        }
+
+        Trace trace = "--synthetic".equals(args[0]) ? Trace.synthetic(20, 1000, 42) : Trace.read(Path.of(args[0]));
+        long[] lookaheadsMs = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToLong(Long::parseLong).toArray()
+                : new long[]{8, 16, 33};
+
+        System.out.printf(Locale.ROOT, "轨迹: %d 个采样，时长 %.1f s，最大过冲 %.0f px%n",
+                trace.size(), trace.durationNanos() / 1e9, MAX_OVERSHOOT_PX);
+        System.out.printf(Locale.ROOT, "%-18s %10s %10s %10s %10s%n", "predictor", "lookahead", "mean(px)", "p95(px)", "max(px)");
+
+        List<Supplier<CursorPredictor>> predictors = List.of(
+                () -> null,
+                ConstantVelocityPredictor::new,
+                KalmanPredictor::new);
+
+        for (long ms : lookaheadsMs) {
+            for (Supplier<CursorPredictor> factory : predictors) {
+                Score score = evaluate(trace, factory.get(), ms * 1_000_000L);
+                System.out.printf(Locale.ROOT, "%-18s %8d ms %10.2f %10.2f %10.2f%n",
+                        score.name, ms, score.mean, score.p95, score.max);
+            }
+        }
+    }
+
+    /**
+     * 按 60 fps 模拟渲染循环：每帧取走之前的采样，预测 lookahead 之后的位置
+     * @param predictor 为 null 时表示不做预测（直接使用最新位置），作为基线
+     */
+    public static Score evaluate(Trace trace, CursorPredictor predictor, long lookaheadNanos) {
+        PredictionStage stage = predictor == null ? null : new PredictionStage(predictor, lookaheadNanos, MAX_OVERSHOOT_PX);
+        PointerSamples batch = new PointerSamples(256);
+        List<Double> errors = new ArrayList<>();
+
+        long start = trace.timeNanos(0);
+        long end = trace.timeNanos(trace.size() - 1) - lookaheadNanos;
+        int next = 0;
+        int lastX = trace.x(0), lastY = trace.y(0);
+
+        for (long frame = start + FRAME_NANOS; frame <= end; frame += FRAME_NANOS) {
+            batch.clear();
+            while (next < trace.size() && trace.timeNanos(next) <= frame) {
+                batch.add(trace.timeNanos(next), trace.x(next), trace.y(next));
+                next++;
+            }
+            // 与 OverlayManager 一致：没有新采样时补一个静止采样
+            if (batch.isEmpty()) {
+                batch.add(frame, lastX, lastY);
+            } else {
+                lastX = batch.lastX();
+                lastY = batch.lastY();
+            }
+            if (stage != null) {
+                stage.apply(batch, frame);
+            }
+
+            double[] truth = trace.positionAt(frame + lookaheadNanos);
+            errors.add(Math.hypot(batch.lastX() - truth[0], batch.lastY() - truth[1]));
+        }
+
+        return Score.of(predictor == null ? "none" : predictor.name(), errors);
+    }
+
+    /**
+     * 评估结果
+     */
+    public record Score(String name, double mean, double p95, double max) {
+        static Score of(String name, List<Double> errors) {
+            if (errors.isEmpty()) return new Score(name, 0, 0, 0);
+            double[] sorted = errors.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+            double sum = 0;
+            for (double e : sorted) sum += e;
+            int p95 = Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.95) - 1);
+            return new Score(name, sum / sorted.length, sorted[p95], sorted[sorted.length - 1]);
+        }
+    }
+
+    /**
+     * 按时间排序的指针轨迹
+     */
+    public static final class Trace {
+        private final long[] t;
+        private final int[] x;
+        private final int[] y;
+
+        public Trace(long[] t, int[] x, int[] y) {
+            if (t.length == 0) throw new IllegalArgumentException("轨迹为空");
+            this.t = t;
+            this.x = x;
+            this.y = y;
+        }
+
+        public int size() {
+            return t.length;
+        }
+
+        public long timeNanos(int i) {
+            return t[i];
+        }
+
+        public int x(int i) {
+            return x[i];
+        }
+
+        public int y(int i) {
+            return y[i];
+        }
+
+        public long durationNanos() {
+            return t[t.length - 1] - t[0];
+        }
+
+        /**
+         * 某一时刻的真实位置（相邻采样间线性插值）
+         */
+        public double[] positionAt(long nanos) {
+            int idx = Arrays.binarySearch(t, nanos);
+            if (idx >= 0) return new double[]{x[idx], y[idx]};
+
+            int hi = -idx - 1;
+            if (hi <= 0) return new double[]{x[0], y[0]};
+            if (hi >= t.length) return new double[]{x[t.length - 1], y[t.length - 1]};
+
+            int lo = hi - 1;
+            double f = (double) (nanos - t[lo]) / (t[hi] - t[lo]);
+            return new double[]{x[lo] + (x[hi] - x[lo]) * f, y[lo] + (y[hi] - y[lo]) * f};
+        }
+
+        /**
+         * 读取轨迹文件：按魔数识别二进制格式，否则按 CSV 解析
+         */
+        public static Trace read(Path path) throws IOException {
+            return PointerTraceReader.isTrace(path) ? readBinary(path) : readCsv(path);
+        }
+
+        public static Trace readBinary(Path path) throws IOException {
+            PointerSamples samples = new PointerSamples(4096);
+            try (PointerTraceReader reader = new PointerTraceReader(path)) {
+                while (reader.next()) {
+                    samples.add(reader.timeNanos(), reader.x(), reader.y());
+                }
+            }
+            return of(samples);
+        }
+
+        public static Trace readCsv(Path path) throws IOException {
+            PointerSamples samples = new PointerSamples(4096);
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) continue;
+                    String[] parts = line.split("[,\\s]+");
+                    if (parts.length < 3) continue;
+                    try {
+                        samples.add(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                    } catch (NumberFormatException ignored) {
+                        // 表头等非数据行
+                    }
+                }
+            }
+            return of(samples);
+        }
+
+        /**
+         * 由采样批次构造（复制数据）
+         */
+        public static Trace of(PointerSamples samples) {
+            int n = samples.size();
+            long[] t = new long[n];
+            int[] x = new int[n];
+            int[] y = new int[n];
+            for (int i = 0; i < n; i++) {
+                t[i] = samples.timeNanos(i);
+                x[i] = samples.x(i);
+                y[i] = samples.y(i);
+            }
+            return new Trace(t, x, y);
+        }
+
+        /**
+         * 生成合成轨迹：快速甩动、急停、慢速拖动交替，带 1 px 量化与少量回报率抖动
+         */
+        public static Trace synthetic(int seconds, int rateHz, long seed) {
+            Random random = new Random(seed);
+            PointerSamples samples = new PointerSamples(seconds * rateHz);
+            long period = 1_000_000_000L / rateHz;
+            double px = 960, py = 540;
+            double vx = 0, vy = 0;
+            long now = 0;
+            long segmentEnd = 0;
+            double ax = 0, ay = 0;
+
+            while (now < seconds * 1_000_000_000L) {
+                if (now >= segmentEnd) {
+                    // 每段 100~600 ms：随机加速度，或者急停
+                    segmentEnd = now + (100 + random.nextInt(500)) * 1_000_000L;
+                    if (random.nextInt(4) == 0) {
+                        vx = vy = ax = ay = 0;
+                    } else {
+                        ax = random.nextGaussian() * 0.02;
+                        ay = random.nextGaussian() * 0.02;
+                    }
+                }
+
+                double dtMs = period / 1e6;
+                vx = Math.max(-6, Math.min(6, vx + ax * dtMs));
+                vy = Math.max(-6, Math.min(6, vy + ay * dtMs));
+                px = Math.max(0, Math.min(1919, px + vx * dtMs));
+                py = Math.max(0, Math.min(1079, py + vy * dtMs));
+
+                samples.add(now, (int) Math.round(px), (int) Math.round(py));
+                now += period + (long) (random.nextGaussian() * period * 0.05);
+            }
+            return of(samples);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.cursorflow.input;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 预测阶段：位于指针采样与 ITrailEffect.render 之间
+ * 把本帧采样喂给预测器，再把光标外推到预计上屏时刻，作为批次的最后一个采样追加进去，
+ * 用来抵消渲染管线的一到两帧延迟。外推位移受过冲上限约束，鼠标静止时不做外推。
+ */
+public class PredictionStage {
+    private static final Logger LOG = LoggerFactory.getLogger(PredictionStage.class);
+
+    public static final String PROPERTY_MODE = "cursorflow.predict";
+    public static final String PROPERTY_LOOKAHEAD = "cursorflow.predict.lookaheadMs";
+    public static final String PROPERTY_OVERSHOOT = "cursorflow.predict.maxOvershootPx";
+
+    // 超过该时长没有真实采样即认为鼠标已停下
+    private static final long IDLE_NANOS = 40_000_000L;
+
+    private final CursorPredictor predictor;
+    private final long lookaheadNanos;
+    private final double maxOvershootPx;
+    private final double[] predicted = new double[2];
+    private long lastObservedNanos = Long.MIN_VALUE;
+    private int lastObservedX, lastObservedY;
+
+    /**
+     * @param lookaheadNanos 外推时长（约等于采样到上屏的延迟）
+     * @param maxOvershootPx 预测点相对最新真实位置的最大偏移
+     */
+    public PredictionStage(CursorPredictor predictor, long lookaheadNanos, double maxOvershootPx) {
+        this.predictor = predictor;
+        this.lookaheadNanos = Math.max(0, lookaheadNanos);
+        this.maxOvershootPx = Math.max(0, maxOvershootPx);
+    }
+
+    /**
+     * 按系统属性创建：cursorflow.predict = kalman（默认）/ cv / off
+     * @return 关闭预测时返回 null
+     */
+    public static PredictionStage fromSystemProperties() {
+        String mode = System.getProperty(PROPERTY_MODE, "kalman");
+        long lookaheadMs = Long.getLong(PROPERTY_LOOKAHEAD, 16);
+        double overshoot = parseDouble(System.getProperty(PROPERTY_OVERSHOOT), 24);
+
+        CursorPredictor predictor = switch (mode) {
+            case "off", "none" -> null;
+            case "cv" -> new ConstantVelocityPredictor();
+            default -> new KalmanPredictor();
+        };
+        if (predictor == null) {
+            LOG.info("光标预测已关闭");
+            return null;
+        }
+
+        LOG.info("光标预测: {}，提前 {} ms，最大过冲 {} px", predictor.name(), lookaheadMs, overshoot);
+        return new PredictionStage(predictor, lookaheadMs * 1_000_000L, overshoot);
+    }
+
+    /**
+     * 喂入本帧采样，并在末尾追加预测位置
+     * @param frameNanos 本帧开始时刻（System.nanoTime()）
+     */
+    public void apply(PointerSamples samples, long frameNanos) {
+        if (samples.isEmpty() || samples.isLastPredicted()) return;
+
+        boolean moved = false;
+        for (int i = 0; i < samples.size(); i++) {
+            long t = samples.timeNanos(i);
+            // 同一时间戳的重复采样不再喂入，避免 dt=0 干扰速度估计
+            if (t <= lastObservedNanos) continue;
+            int x = samples.x(i);
+            int y = samples.y(i);
+            moved |= x != lastObservedX || y != lastObservedY;
+            predictor.observe(t, x, y);
+            lastObservedNanos = t;
+            lastObservedX = x;
+            lastObservedY = y;
+        }
+
+        int lastX = samples.lastX();
+        int lastY = samples.lastY();
+        // 本帧光标没动，或者已经很久没有新采样，外推只会画出不存在的位移
+        if (!moved || lookaheadNanos == 0 || frameNanos - samples.lastTimeNanos() > IDLE_NANOS) return;
+        if (!predictor.predict(frameNanos + lookaheadNanos, predicted)) return;
+
+        double dx = predicted[0] - lastX;
+        double dy = predicted[1] - lastY;
+        double dist = Math.hypot(dx, dy);
+        if (dist > maxOvershootPx) {
+            double scale = maxOvershootPx / dist;
+            dx *= scale;
+            dy *= scale;
+        }
+
+        int px = (int) Math.round(lastX + dx);
+        int py = (int) Math.round(lastY + dy);
+        if (px != lastX || py != lastY) {
+            samples.addPredicted(frameNanos + lookaheadNanos, px, py);
+        }
+    }
+
+    /**
+     * 清空预测器状态
+     */
+    public void reset() {
+        predictor.reset();
+        lastObservedNanos = Long.MIN_VALUE;
+    }
+
+    public CursorPredictor getPredictor() {
+        return predictor;
+    }
+
+    private static double parseDouble(String value, double defaultValue) {
+        if (value == null) return defaultValue;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
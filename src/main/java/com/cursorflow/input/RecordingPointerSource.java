@@ -0,0 +1,75 @@
+package com.cursorflow.input;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 录制装饰器：透传内部输入源的采样，同时写入二进制轨迹文件
+ * 写入发生在渲染线程的 drainTo 中（带缓冲，每帧只是几十字节），不会影响钩子线程。
+ */
+public class RecordingPointerSource implements PointerSource {
+    private static final Logger LOG = LoggerFactory.getLogger(RecordingPointerSource.class);
+
+    private final PointerSource delegate;
+    private final Path path;
+    private PointerTraceWriter writer;
+
+    public RecordingPointerSource(PointerSource delegate, Path path) {
+        this.delegate = delegate;
+        this.path = path;
+    }
+
+    @Override
+    public boolean start() {
+        if (!delegate.start()) return false;
+
+        try {
+            writer = new PointerTraceWriter(path, System.nanoTime());
+            LOG.info("开始录制指针轨迹: {}", path);
+        } catch (IOException e) {
+            LOG.error("无法创建轨迹文件，录制已关闭: {}", path, e);
+        }
+        return true;
+    }
+
+    @Override
+    public void drainTo(PointerSamples out) {
+        int from = out.size();
+        delegate.drainTo(out);
+
+        if (writer == null) return;
+        try {
+            for (int i = from; i < out.size(); i++) {
+                writer.write(out.timeNanos(i), out.x(i), out.y(i));
+            }
+        } catch (IOException e) {
+            LOG.error("写入轨迹失败，录制已停止", e);
+            closeWriter();
+        }
+    }
+
+    @Override
+    public void stop() {
+        delegate.stop();
+        closeWriter();
+    }
+
+    private void closeWriter() {
+        if (writer == null) return;
+        try {
+            writer.close();
+            LOG.info("指针轨迹录制结束: {}（{} 个采样）", path, writer.getSampleCount());
+        } catch (IOException e) {
+            LOG.warn("关闭轨迹文件失败: {}", path, e);
+        }
+        writer = null;
+    }
+
+    @Override
+    public String name() {
+        return "record(" + delegate.name() + ")";
+    }
+}
@@ -0,0 +1,129 @@
+package com.cursorflow.input;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 回放输入源：从二进制轨迹读取采样，代替真实鼠标驱动 OverlayManager
+ *
+ * REALTIME：按录制时的时间间隔回放，每帧取出到当前墙钟时刻为止的采样；
+ * ASAP：忽略墙钟，每次 drainTo 推进固定的一帧轨迹时间，渲染循环跑多快回放就多快。
+ * 输出的时间戳都会平移到当前 System.nanoTime()，下游的预测等逻辑无需区分回放与实时输入。
+ */
+public class ReplayPointerSource implements PointerSource {
+    private static final Logger LOG = LoggerFactory.getLogger(ReplayPointerSource.class);
+
+    public enum Pacing {
+        REALTIME,
+        ASAP
+    }
+
+    // ASAP 模式下每次 drainTo 推进的轨迹时间
+    private static final long ASAP_STEP_NANOS = 16_666_667L;
+
+    private final Path path;
+    private final Pacing pacing;
+    private final boolean loop;
+
+    private PointerTraceReader reader;
+    // 轨迹时间到墙钟时间的偏移（REALTIME 下固定，每次循环重新对齐）
+    private long offsetNanos;
+    // ASAP 模式下已经回放到的轨迹时刻
+    private long cursorNanos;
+    private boolean pending = false;
+    private volatile boolean finished = false;
+    private long loops = 0;
+
+    /**
+     * @param loop 回放结束后是否从头循环（基准测试常用）
+     */
+    public ReplayPointerSource(Path path, Pacing pacing, boolean loop) {
+        this.path = path;
+        this.pacing = pacing;
+        this.loop = loop;
+    }
+
+    @Override
+    public boolean start() {
+        try {
+            reader = new PointerTraceReader(path);
+        } catch (IOException e) {
+            LOG.error("无法打开指针轨迹: {}", path, e);
+            return false;
+        }
+        restart(System.nanoTime());
+        LOG.info("回放指针轨迹: {}（{}{}）", path, pacing, loop ? "，循环" : "");
+        return true;
+    }
+
+    private void restart(long now) {
+        reader.rewind();
+        pending = reader.next();
+        offsetNanos = now - (pending ? reader.timeNanos() : reader.getBaseNanos());
+        cursorNanos = pending ? reader.timeNanos() : reader.getBaseNanos();
+    }
+
+    @Override
+    public void drainTo(PointerSamples out) {
+        if (reader == null || finished) return;
+
+        long now = System.nanoTime();
+        long limit;
+        if (pacing == Pacing.REALTIME) {
+            limit = now - offsetNanos;
+        } else {
+            cursorNanos += ASAP_STEP_NANOS;
+            limit = cursorNanos;
+            // 让本批最后一个采样落在“现在”
+            offsetNanos = now - limit;
+        }
+
+        while (pending && reader.timeNanos() <= limit) {
+            out.add(reader.timeNanos() + offsetNanos, reader.x(), reader.y());
+            pending = reader.next();
+        }
+
+        if (!pending) {
+            if (loop) {
+                loops++;
+                restart(now);
+            } else {
+                finished = true;
+                LOG.info("指针轨迹回放结束: {}", path);
+            }
+        }
+    }
+
+    /**
+     * 非循环模式下是否已回放完毕
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * 已完成的循环次数
+     */
+    public long getLoopCount() {
+        return loops;
+    }
+
+    @Override
+    public void stop() {
+        if (reader == null) return;
+        try {
+            reader.close();
+        } catch (IOException e) {
+            LOG.warn("关闭轨迹文件失败: {}", path, e);
+        }
+        reader = null;
+    }
+
+    @Override
+    public String name() {
+        return "replay(" + pacing.name().toLowerCase() + ")";
+    }
+}
@@ -0,0 +1,81 @@
+package com.cursorflow.input;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 合成输入源：后台线程按固定频率生成李萨如曲线轨迹
+ * 用于在没有鼠标钩子的平台（如 Linux）上测试高频采样链路。
+ */
+public class SyntheticPointerSource implements PointerSource {
+    private final PointerRingBuffer ring = new PointerRingBuffer(4096);
+    private final int sampleRateHz;
+    private final double centerX, centerY, radiusX, radiusY;
+    private volatile boolean running = false;
+    private Thread producer;
+
+    /**
+     * @param sampleRateHz 采样频率（如 1000 模拟高回报率鼠标）
+     */
+    public SyntheticPointerSource(int sampleRateHz, double centerX, double centerY, double radiusX, double radiusY) {
+        this.sampleRateHz = Math.max(1, sampleRateHz);
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.radiusX = radiusX;
+        this.radiusY = radiusY;
+    }
+
+    @Override
+    public synchronized boolean start() {
+        if (running) return true;
+
+        running = true;
+        producer = new Thread(this::produce, "SyntheticPointer");
+        producer.setDaemon(true);
+        producer.start();
+        return true;
+    }
+
+    private void produce() {
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / sampleRateHz;
+        long startNanos = System.nanoTime();
+        long next = startNanos;
+
+        while (running) {
+            long now = System.nanoTime();
+            double t = (now - startNanos) / 1e9;
+            // 3:2 李萨如曲线，速度有快有慢，能覆盖急转弯
+            int x = (int) (centerX + radiusX * Math.sin(3 * t));
+            int y = (int) (centerY + radiusY * Math.sin(2 * t + Math.PI / 4));
+            ring.offer(now, x, y);
+
+            next += periodNanos;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+            } else {
+                // 落后太多时不追赶，避免突发大量采样
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    @Override
+    public void drainTo(PointerSamples out) {
+        ring.drainTo(out);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (producer != null) {
+            producer.interrupt();
+            producer = null;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "synthetic";
+    }
+}
@@ -0,0 +1,37 @@
+package com.cursorflow.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * OverlayManager 切换特效：事件持续时间从开始创建或取回新特效到新特效换上屏幕
+ * （包含后台创建与等待就绪期间旧特效继续绘制的时间；旧特效在后台销毁，不计入）
+ */
+@Name("com.cursorflow.EffectSwitch")
+@Label("Effect Switch")
+@Category({"CursorFlow", "Render"})
+@Description("特效切换")
+@Enabled(false)
+@StackTrace(false)
+public class EffectSwitchEvent extends jdk.jfr.Event {
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    @Label("Key")
+    @Description("预热缓存 key，为空表示外部创建的特效")
+    public String key;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+
+    @Label("Ready Timed Out")
+    @Description("新特效在超时前没有就绪，未等就绪直接换上")
+    public boolean readyTimedOut;
+}
@@ -0,0 +1,47 @@
+package com.cursorflow.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 一帧渲染（FX 线程）：事件持续时间即整帧耗时，分段耗时见各字段
+ */
+@Name("com.cursorflow.Frame")
+@Label("Frame")
+@Category({"CursorFlow", "Render"})
+@Description("一帧渲染：取采样、模拟、绘制的耗时与图元数量")
+@Enabled(false)
+@StackTrace(false)
+public class FrameEvent extends jdk.jfr.Event {
+    @Label("Effect")
+    public String effect;
+
+    @Label("Poll Time")
+    @Description("取指针采样与预测")
+    @Timespan(Timespan.NANOSECONDS)
+    public long pollTime;
+
+    @Label("Simulate Time")
+    @Description("模拟线程上对应快照那一步的耗时；未拆分模拟与绘制的特效为 0，全部计入绘制")
+    @Timespan(Timespan.NANOSECONDS)
+    public long simulateTime;
+
+    @Label("Draw Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long drawTime;
+
+    @Label("Sample Count")
+    public int sampleCount;
+
+    @Label("Live Count")
+    @Description("存活的粒子 / 轨迹点数量，特效不提供时为 -1")
+    public int liveCount;
+
+    @Label("Simulation Thread")
+    public boolean simulationThread;
+}
@@ -0,0 +1,55 @@
+package com.cursorflow.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * JFR 事件开关
+ *
+ * 所有 CursorFlow 事件默认关闭，关闭时只剩一次 isEnabled 判断。两种打开方式：
+ * 1. -Dcursorflow.jfr=trail.jfr：程序内按 JDK 的 default 配置开始录制并打开全部 CursorFlow 事件，
+ *    退出时写入该文件（cursorflow.jfr.settings=profile 可改用 profile 配置）；
+ * 2. 外部录制（-XX:StartFlightRecording、jcmd JFR.start）时在 .jfc 中把 com.cursorflow.* 设为 enabled。
+ */
+public final class JfrSupport {
+    private static final Logger LOG = LoggerFactory.getLogger(JfrSupport.class);
+
+    public static final String PROPERTY = "cursorflow.jfr";
+    public static final String PROPERTY_SETTINGS = "cursorflow.jfr.settings";
+
+    private static final List<Class<? extends jdk.jfr.Event>> EVENTS = List.of(
+            FrameEvent.class, PythonMessageEvent.class, PythonProcessEvent.class, EffectSwitchEvent.class);
+
+    private JfrSupport() {
+    }
+
+    /**
+     * 按系统属性开始录制（未设置时什么都不做，也不会初始化 JFR）
+     */
+    public static void startFromSystemProperties() {
+        String path = System.getProperty(PROPERTY);
+        if (path == null || path.isBlank()) return;
+
+        try {
+            Configuration configuration = Configuration.getConfiguration(System.getProperty(PROPERTY_SETTINGS, "default"));
+            Recording recording = new Recording(configuration);
+            recording.setName("CursorFlow");
+            for (Class<? extends jdk.jfr.Event> event : EVENTS) {
+                recording.enable(event);
+            }
+            recording.setDestination(Path.of(path));
+            recording.setDumpOnExit(true);
+            recording.start();
+            LOG.info("JFR 录制已开始，退出时写入: {}", path);
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            LOG.warn("JFR 录制启动失败", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.cursorflow.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 读线程收到的一条 Python 渲染指令
+ */
+@Name("com.cursorflow.PythonMessage")
+@Label("Python Message")
+@Category({"CursorFlow", "Python"})
+@Description("Python 渲染指令：大小、解析耗时与排队延迟")
+@Enabled(false)
+@StackTrace(false)
+public class PythonMessageEvent extends jdk.jfr.Event {
+    @Label("Worker")
+    public int worker;
+
+    @Label("Sequence")
+    public long seq;
+
+    @Label("Size")
+    @DataAmount(DataAmount.BYTES)
+    public int bytes;
+
+    @Label("Parse Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long parseTime;
+
+    @Label("Python Time")
+    @Description("Python 端计算这一帧的耗时")
+    @Timespan(Timespan.NANOSECONDS)
+    public long pythonTime;
+
+    @Label("Queue Delay")
+    @Description("输入发出到指令读回的时间减去 Python 计算耗时，即在管道与缓冲区中排队的时间")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueDelay;
+
+    @Label("Standby")
+    @Description("来自热重载的备用进程")
+    public boolean standby;
+}
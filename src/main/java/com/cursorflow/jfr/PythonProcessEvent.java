@@ -0,0 +1,36 @@
+package com.cursorflow.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Python 进程生命周期：事件持续时间为该操作的耗时
+ */
+@Name("com.cursorflow.PythonProcess")
+@Label("Python Process")
+@Category({"CursorFlow", "Python"})
+@Description("Python 进程启动、停止、重启与热重载切换")
+@Enabled(false)
+@StackTrace(false)
+public class PythonProcessEvent extends jdk.jfr.Event {
+    public static final String START = "start";
+    public static final String STOP = "stop";
+    public static final String RESTART = "restart";
+    public static final String HOT_RELOAD = "hot_reload";
+
+    @Label("Action")
+    public String action;
+
+    @Label("PIDs")
+    public String pids;
+
+    @Label("Workers")
+    public int workers;
+
+    @Label("Success")
+    public boolean success;
+}
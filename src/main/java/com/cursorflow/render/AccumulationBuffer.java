@@ -0,0 +1,227 @@
+package com.cursorflow.render;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * 渐隐累积缓冲区：常驻的离屏像素缓冲（预乘 ARGB），每帧整体按比例衰减，只把新增几何体印上去
+ *
+ * 与网页预览里用半透明黑色覆盖上一帧的做法等价，但在透明图层上保持正确：
+ * 预乘格式下四个通道同乘一个系数，颜色与透明度一起衰减，不会在桌面上留下黑边。
+ * 缓冲区按 TILE×TILE 分块，只有存在非零像素的块参与衰减、上传和绘制，
+ * 因此长而密的轨迹每帧开销与新增几何体和可见面积相关，而不是与历史点数相关。
+ *
+ * 只能在 FX 线程使用。
+ */
+public class AccumulationBuffer {
+    public static final int TILE = 128;
+
+    private static final PixelFormat<IntBuffer> FORMAT = PixelFormat.getIntArgbPreInstance();
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private final int tilesX;
+    private final int tilesY;
+    // 块内存在非零像素
+    private final boolean[] tileLive;
+    // 块内容自上次 present 以来有变化（需要重新上传、清空并绘制）
+    private final boolean[] tileDirty;
+    private final WritableImage[] tileImages;
+
+    // 每帧保留比例（定点数，256 = 不衰减）
+    private int retain = 243;
+
+    public AccumulationBuffer(int width, int height) {
+        this.width = Math.max(1, width);
+        this.height = Math.max(1, height);
+        this.pixels = new int[this.width * this.height];
+        this.tilesX = (this.width + TILE - 1) / TILE;
+        this.tilesY = (this.height + TILE - 1) / TILE;
+        this.tileLive = new boolean[tilesX * tilesY];
+        this.tileDirty = new boolean[tilesX * tilesY];
+        this.tileImages = new WritableImage[tilesX * tilesY];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * 每帧保留比例
+     * @param perFrame 0 ~ 1，例如 0.95 表示每帧剩下 95%
+     */
+    public void setRetain(double perFrame) {
+        // 最多保留 255/256：保证每帧都会衰减，存活块始终会被重新上传
+        retain = (int) Math.min(255, Math.round(Math.max(0, Math.min(1, perFrame)) * 256));
+    }
+
+    /**
+     * 让内容在约 frames 帧内衰减到不可见（alpha &lt; 1/255）
+     */
+    public void setFadeFrames(int frames) {
+        setRetain(Math.pow(1.0 / 255, 1.0 / Math.max(1, frames)));
+    }
+
+    /**
+     * 所有存活块按保留比例衰减一次；衰减到全零的块标记为不再存活
+     */
+    public void decay() {
+        if (retain >= 256) return;
+
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                int tile = ty * tilesX + tx;
+                if (!tileLive[tile]) continue;
+
+                tileLive[tile] = decayTile(tx, ty);
+                tileDirty[tile] = true;
+            }
+        }
+    }
+
+    private boolean decayTile(int tx, int ty) {
+        int x0 = tx * TILE;
+        int y0 = ty * TILE;
+        int x1 = Math.min(width, x0 + TILE);
+        int y1 = Math.min(height, y0 + TILE);
+        int f = retain;
+        int any = 0;
+
+        for (int y = y0; y < y1; y++) {
+            int row = y * width;
+            for (int i = row + x0, end = row + x1; i < end; i++) {
+                int p = pixels[i];
+                if (p == 0) continue;
+                // 预乘格式：四个通道同比例缩放，整数截断保证最终归零
+                int a = ((p >>> 24) * f) >> 8;
+                int r = (((p >> 16) & 0xFF) * f) >> 8;
+                int g = (((p >> 8) & 0xFF) * f) >> 8;
+                int b = ((p & 0xFF) * f) >> 8;
+                p = (a << 24) | (r << 16) | (g << 8) | b;
+                pixels[i] = p;
+                any |= p;
+            }
+        }
+        return any != 0;
+    }
+
+    /**
+     * 印一个实心圆（边缘 1px 抗锯齿，source-over 混合）
+     */
+    public void stampDisc(double cx, double cy, double radius, Color color, double opacity) {
+        stampCapsule(cx, cy, cx, cy, radius, color, opacity);
+    }
+
+    /**
+     * 印一条圆头线段
+     * @param lineWidth 线宽（像素）
+     */
+    public void stampLine(double x0, double y0, double x1, double y1, double lineWidth, Color color, double opacity) {
+        stampCapsule(x0, y0, x1, y1, lineWidth / 2, color, opacity);
+    }
+
+    /**
+     * 胶囊体（线段按半径膨胀），光栅化见 CapsuleRaster
+     */
+    private void stampCapsule(double x0, double y0, double x1, double y1, double radius, Color color, double opacity) {
+        if (color.getOpacity() * opacity <= 0 || radius <= 0) return;
+
+        double pad = radius + 1;
+        int minX = Math.max(0, (int) Math.floor(Math.min(x0, x1) - pad));
+        int minY = Math.max(0, (int) Math.floor(Math.min(y0, y1) - pad));
+        int maxX = Math.min(width - 1, (int) Math.ceil(Math.max(x0, x1) + pad));
+        int maxY = Math.min(height - 1, (int) Math.ceil(Math.max(y0, y1) + pad));
+        if (minX > maxX || minY > maxY) return;
+
+        CapsuleRaster.stamp(pixels, width, 0, 0, minX, minY, maxX, maxY, x0, y0, x1, y1, radius, color, opacity);
+        markTiles(minX, minY, maxX, maxY);
+    }
+
+    private void markTiles(int minX, int minY, int maxX, int maxY) {
+        for (int ty = minY / TILE; ty <= maxY / TILE; ty++) {
+            for (int tx = minX / TILE; tx <= maxX / TILE; tx++) {
+                int tile = ty * tilesX + tx;
+                tileLive[tile] = true;
+                tileDirty[tile] = true;
+            }
+        }
+    }
+
+    /**
+     * 把有变化的块画到 Canvas 上：先清空该块区域，再绘制块图像（已衰减为全零的块只清空）
+     * 其余区域不动，因此调用方不应再整屏 clearRect。
+     */
+    public void present(GraphicsContext gc) {
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                int tile = ty * tilesX + tx;
+                if (!tileDirty[tile]) continue;
+                tileDirty[tile] = false;
+
+                int x0 = tx * TILE;
+                int y0 = ty * TILE;
+                int w = Math.min(TILE, width - x0);
+                int h = Math.min(TILE, height - y0);
+                gc.clearRect(x0, y0, w, h);
+                if (!tileLive[tile]) continue;
+
+                WritableImage image = tileImages[tile];
+                if (image == null) {
+                    image = new WritableImage(w, h);
+                    tileImages[tile] = image;
+                }
+                image.getPixelWriter().setPixels(0, 0, w, h, FORMAT, pixels, y0 * width + x0, width);
+                gc.drawImage(image, x0, y0);
+            }
+        }
+    }
+
+    /**
+     * 清空全部内容（下一次 present 会清掉画布上对应的区域）
+     */
+    public void clear() {
+        for (int tile = 0; tile < tileLive.length; tile++) {
+            if (!tileLive[tile]) continue;
+            int tx = tile % tilesX;
+            int ty = tile / tilesX;
+            int x1 = Math.min(width, tx * TILE + TILE);
+            int y1 = Math.min(height, ty * TILE + TILE);
+            for (int y = ty * TILE; y < y1; y++) {
+                Arrays.fill(pixels, y * width + tx * TILE, y * width + x1, 0);
+            }
+            tileLive[tile] = false;
+            tileDirty[tile] = true;
+        }
+    }
+
+    /**
+     * 是否没有任何可见内容
+     */
+    public boolean isEmpty() {
+        for (boolean live : tileLive) {
+            if (live) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 当前存活的块数（用于统计与调试）
+     */
+    public int liveTileCount() {
+        int n = 0;
+        for (boolean live : tileLive) {
+            if (live) n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,145 @@
+package com.cursorflow.render;
+
+import javafx.scene.paint.Color;
+
+/**
+ * 软件光栅化：把胶囊体（线段按半径膨胀，圆点是长度为零的胶囊）以 source-over 混合印到预乘 ARGB 像素上
+ * 边缘按像素中心到线段的距离做 1px 抗锯齿。AccumulationBuffer 与 InkTileCache 共用。
+ */
+final class CapsuleRaster {
+    private CapsuleRaster() {
+    }
+
+    /**
+     * 在裁剪矩形内印一个胶囊体
+     * @param pixels  像素数组，屏幕坐标 (x, y) 位于 (y - originY) * stride + (x - originX)
+     * @param clipX0  裁剪矩形（屏幕像素坐标，含两端），调用方保证位于数组范围内
+     */
+    static void stamp(int[] pixels, int stride, int originX, int originY,
+                      int clipX0, int clipY0, int clipX1, int clipY1,
+                      double x0, double y0, double x1, double y1, double radius, Color color, double opacity) {
+        double alpha = color.getOpacity() * Math.max(0, Math.min(1, opacity));
+        if (alpha <= 0 || radius <= 0) return;
+
+        double pad = radius + 1;
+        int minX = Math.max(clipX0, (int) Math.floor(Math.min(x0, x1) - pad));
+        int minY = Math.max(clipY0, (int) Math.floor(Math.min(y0, y1) - pad));
+        int maxX = Math.min(clipX1, (int) Math.ceil(Math.max(x0, x1) + pad));
+        int maxY = Math.min(clipY1, (int) Math.ceil(Math.max(y0, y1) + pad));
+        if (minX > maxX || minY > maxY) return;
+
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double lenSq = dx * dx + dy * dy;
+        double sr = color.getRed();
+        double sg = color.getGreen();
+        double sb = color.getBlue();
+
+        for (int y = minY; y <= maxY; y++) {
+            double py = y + 0.5;
+            int row = (y - originY) * stride - originX;
+            for (int x = minX; x <= maxX; x++) {
+                double px = x + 0.5;
+                // 点到线段的最近点参数 t ∈ [0, 1]
+                double t = lenSq == 0 ? 0 : ((px - x0) * dx + (py - y0) * dy) / lenSq;
+                t = t < 0 ? 0 : (t > 1 ? 1 : t);
+                double ex = px - (x0 + t * dx);
+                double ey = py - (y0 + t * dy);
+                double coverage = radius + 0.5 - Math.sqrt(ex * ex + ey * ey);
+                if (coverage <= 0) continue;
+                if (coverage > 1) coverage = 1;
+
+                double a = alpha * coverage;
+                blend(pixels, row + x, a, sr * a, sg * a, sb * a);
+            }
+        }
+    }
+
+    /**
+     * 胶囊体是否覆盖裁剪矩形内的任一像素（与 stamp 的判定一致：像素中心到线段的距离小于 radius + 0.5）
+     * 线段与像素中心围成的矩形不相交时，最近距离出现在线段端点到矩形或矩形顶点到线段之间
+     */
+    static boolean touches(int clipX0, int clipY0, int clipX1, int clipY1,
+                           double x0, double y0, double x1, double y1, double radius) {
+        double left = clipX0 + 0.5;
+        double top = clipY0 + 0.5;
+        double right = clipX1 + 0.5;
+        double bottom = clipY1 + 0.5;
+        if (crosses(left, top, right, bottom, x0, y0, x1, y1)) return true;
+
+        double reach = radius + 0.5;
+        double reachSq = reach * reach;
+        return pointRectDistanceSq(x0, y0, left, top, right, bottom) < reachSq
+                || pointRectDistanceSq(x1, y1, left, top, right, bottom) < reachSq
+                || pointSegmentDistanceSq(left, top, x0, y0, x1, y1) < reachSq
+                || pointSegmentDistanceSq(right, top, x0, y0, x1, y1) < reachSq
+                || pointSegmentDistanceSq(left, bottom, x0, y0, x1, y1) < reachSq
+                || pointSegmentDistanceSq(right, bottom, x0, y0, x1, y1) < reachSq;
+    }
+
+    /**
+     * 线段与矩形是否相交（Liang–Barsky 裁剪后仍有剩余）
+     */
+    private static boolean crosses(double left, double top, double right, double bottom,
+                                   double x0, double y0, double x1, double y1) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double t0 = 0;
+        double t1 = 1;
+        for (int edge = 0; edge < 4; edge++) {
+            double p, q;
+            if (edge == 0) {
+                p = -dx;
+                q = x0 - left;
+            } else if (edge == 1) {
+                p = dx;
+                q = right - x0;
+            } else if (edge == 2) {
+                p = -dy;
+                q = y0 - top;
+            } else {
+                p = dy;
+                q = bottom - y0;
+            }
+            if (p == 0) {
+                if (q < 0) return false;
+            } else if (p < 0) {
+                t0 = Math.max(t0, q / p);
+            } else {
+                t1 = Math.min(t1, q / p);
+            }
+            if (t0 > t1) return false;
+        }
+        return true;
+    }
+
+    private static double pointRectDistanceSq(double px, double py, double left, double top, double right, double bottom) {
+        double ex = px < left ? left - px : (px > right ? px - right : 0);
+        double ey = py < top ? top - py : (py > bottom ? py - bottom : 0);
+        return ex * ex + ey * ey;
+    }
+
+    private static double pointSegmentDistanceSq(double px, double py, double x0, double y0, double x1, double y1) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double lenSq = dx * dx + dy * dy;
+        double t = lenSq == 0 ? 0 : ((px - x0) * dx + (py - y0) * dy) / lenSq;
+        t = t < 0 ? 0 : (t > 1 ? 1 : t);
+        double ex = px - (x0 + t * dx);
+        double ey = py - (y0 + t * dy);
+        return ex * ex + ey * ey;
+    }
+
+    /**
+     * 预乘 source-over：dst = src + dst × (1 − srcA)
+     */
+    private static void blend(int[] pixels, int index, double a, double r, double g, double b) {
+        int d = pixels[index];
+        double inv = 1 - a;
+        int na = (int) (a * 255 + (d >>> 24) * inv + 0.5);
+        int nr = (int) (r * 255 + ((d >> 16) & 0xFF) * inv + 0.5);
+        int ng = (int) (g * 255 + ((d >> 8) & 0xFF) * inv + 0.5);
+        int nb = (int) (b * 255 + (d & 0xFF) * inv + 0.5);
+        pixels[index] = (Math.min(255, na) << 24) | (Math.min(255, nr) << 16) | (Math.min(255, ng) << 8) | Math.min(255, nb);
+    }
+}
@@ -0,0 +1,321 @@
+package com.cursorflow.render;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * 墨迹分块缓存：已经画完的笔画栅格化到 TILE×TILE 的离屏块中（预乘 ARGB），块只在内容变化时上传、重画
+ *
+ * 与 AccumulationBuffer 不同，这里的内容不衰减，因此只为真正有墨迹的块分配像素和图像，
+ * 块数受内存上限约束：超出时按最近写入时间淘汰最旧的块（LRU），也可以按存活时间整体过期。
+ * 每帧开销只与新画的线段和变化的块数有关，与累计画了多少无关。
+ * 画布区域被外部清掉时（切换特效、尾巴重画），用 invalidate / repaint 从缓存补回。
+ *
+ * 只能在 FX 线程使用；块数组与 LRU 链表预分配，淘汰的块像素和图像回收复用。
+ */
+public class InkTileCache {
+    public static final int TILE = 128;
+    // 每个块的内存：像素数组 + 图像（同尺寸）
+    public static final long TILE_BYTES = (long) TILE * TILE * 4 * 2;
+
+    private static final PixelFormat<IntBuffer> FORMAT = PixelFormat.getIntArgbPreInstance();
+
+    private final int width;
+    private final int height;
+    private final int tilesX;
+    private final int tilesY;
+    private int maxTiles;
+
+    // 以块下标索引，没有墨迹的块为 null；像素行宽固定为 TILE
+    private final int[][] tilePixels;
+    private final WritableImage[] tileImages;
+    private final long[] lastWrite;
+    private final boolean[] dirty;
+    // 被淘汰、画布上还留着旧内容的块
+    private final boolean[] evicted;
+    // 按最近写入排序的双向链表：head 最旧，tail 最新
+    private final int[] prev;
+    private final int[] next;
+    private int head = -1;
+    private int tail = -1;
+    private int tileCount = 0;
+    // 回收的像素数组与整块尺寸的图像
+    private final int[][] spare;
+    private int spareCount = 0;
+    private final WritableImage[] spareImages;
+    private int spareImageCount = 0;
+    // 画布被整体清空过，下次 present 重画所有块
+    private boolean invalidated = false;
+
+    /**
+     * @param maxTiles 块数上限（至少 4）
+     */
+    public InkTileCache(int width, int height, int maxTiles) {
+        this.width = Math.max(1, width);
+        this.height = Math.max(1, height);
+        this.tilesX = (this.width + TILE - 1) / TILE;
+        this.tilesY = (this.height + TILE - 1) / TILE;
+        int total = tilesX * tilesY;
+        this.tilePixels = new int[total][];
+        this.tileImages = new WritableImage[total];
+        this.lastWrite = new long[total];
+        this.dirty = new boolean[total];
+        this.evicted = new boolean[total];
+        this.prev = new int[total];
+        this.next = new int[total];
+        this.spare = new int[total][];
+        this.spareImages = new WritableImage[total];
+        setMaxTiles(maxTiles);
+    }
+
+    /**
+     * 按内存上限换算块数
+     */
+    public static int tilesForBytes(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, bytes / TILE_BYTES);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * 调整块数上限，超出部分立即按 LRU 淘汰
+     */
+    public void setMaxTiles(int maxTiles) {
+        this.maxTiles = Math.max(4, maxTiles);
+        while (tileCount > this.maxTiles) {
+            evict(head);
+        }
+    }
+
+    /**
+     * 印一个实心圆
+     * @param nowNanos 写入时刻（用于 LRU 与过期）
+     */
+    public void stampDisc(double cx, double cy, double radius, Color color, double opacity, long nowNanos) {
+        stampCapsule(cx, cy, cx, cy, radius, color, opacity, nowNanos);
+    }
+
+    /**
+     * 印一条圆头线段
+     */
+    public void stampLine(double x0, double y0, double x1, double y1, double lineWidth, Color color, double opacity,
+                          long nowNanos) {
+        stampCapsule(x0, y0, x1, y1, lineWidth / 2, color, opacity, nowNanos);
+    }
+
+    private void stampCapsule(double x0, double y0, double x1, double y1, double radius, Color color, double opacity,
+                              long nowNanos) {
+        if (color.getOpacity() * opacity <= 0 || radius <= 0) return;
+
+        double pad = radius + 1;
+        int minX = Math.max(0, (int) Math.floor(Math.min(x0, x1) - pad));
+        int minY = Math.max(0, (int) Math.floor(Math.min(y0, y1) - pad));
+        int maxX = Math.min(width - 1, (int) Math.ceil(Math.max(x0, x1) + pad));
+        int maxY = Math.min(height - 1, (int) Math.ceil(Math.max(y0, y1) + pad));
+        if (minX > maxX || minY > maxY) return;
+
+        for (int ty = minY / TILE; ty <= maxY / TILE; ty++) {
+            for (int tx = minX / TILE; tx <= maxX / TILE; tx++) {
+                int tile = ty * tilesX + tx;
+                int ox = tx * TILE;
+                int oy = ty * TILE;
+                int clipX0 = Math.max(minX, ox);
+                int clipY0 = Math.max(minY, oy);
+                int clipX1 = Math.min(maxX, ox + TILE - 1);
+                int clipY1 = Math.min(maxY, oy + TILE - 1);
+                // 斜线的包围盒里大部分块离线段很远：碰不到的块不分配、不标脏，也不挤占 LRU
+                if (!CapsuleRaster.touches(clipX0, clipY0, clipX1, clipY1, x0, y0, x1, y1, radius)) continue;
+                CapsuleRaster.stamp(acquire(tile), TILE, ox, oy, clipX0, clipY0, clipX1, clipY1,
+                        x0, y0, x1, y1, radius, color, opacity);
+                dirty[tile] = true;
+                lastWrite[tile] = nowNanos;
+                moveToTail(tile);
+            }
+        }
+    }
+
+    /**
+     * 取块的像素，没有时分配（必要时先淘汰最旧的块）
+     */
+    private int[] acquire(int tile) {
+        int[] pixels = tilePixels[tile];
+        if (pixels != null) return pixels;
+
+        if (tileCount >= maxTiles) {
+            evict(head);
+        }
+        if (spareCount > 0) {
+            pixels = spare[--spareCount];
+            spare[spareCount] = null;
+            Arrays.fill(pixels, 0);
+        } else {
+            pixels = new int[TILE * TILE];
+        }
+        tilePixels[tile] = pixels;
+        evicted[tile] = false;
+        tileCount++;
+        // 新块先挂到链表尾部
+        prev[tile] = tail;
+        next[tile] = -1;
+        if (tail >= 0) next[tail] = tile; else head = tile;
+        tail = tile;
+        return pixels;
+    }
+
+    private void moveToTail(int tile) {
+        if (tile == tail) return;
+        unlink(tile);
+        prev[tile] = tail;
+        next[tile] = -1;
+        if (tail >= 0) next[tail] = tile; else head = tile;
+        tail = tile;
+    }
+
+    private void unlink(int tile) {
+        int p = prev[tile];
+        int n = next[tile];
+        if (p >= 0) next[p] = n; else head = n;
+        if (n >= 0) prev[n] = p; else tail = p;
+        prev[tile] = next[tile] = -1;
+    }
+
+    private void evict(int tile) {
+        if (tile < 0 || tilePixels[tile] == null) return;
+        unlink(tile);
+        spare[spareCount++] = tilePixels[tile];
+        tilePixels[tile] = null;
+        WritableImage image = tileImages[tile];
+        if (image != null && image.getWidth() == TILE && image.getHeight() == TILE) {
+            spareImages[spareImageCount++] = image;
+        }
+        tileImages[tile] = null;
+        dirty[tile] = false;
+        evicted[tile] = true;
+        tileCount--;
+    }
+
+    /**
+     * 淘汰最近写入早于 lifetimeNanos 的块（墨迹按块整体消失）
+     */
+    public void expire(long nowNanos, long lifetimeNanos) {
+        while (head >= 0 && nowNanos - lastWrite[head] > lifetimeNanos) {
+            evict(head);
+        }
+    }
+
+    /**
+     * 画布已被整体清空（如切换特效），下次 present 重画全部块
+     */
+    public void invalidate() {
+        invalidated = true;
+    }
+
+    /**
+     * 用缓存补回画布上被清掉的一块矩形（整数像素坐标）
+     * 有变化或待重画的块跳过，由随后的 present 整块重画，避免同一像素被混合两次
+     */
+    public void repaint(GraphicsContext gc, int x0, int y0, int x1, int y1) {
+        if (invalidated) return;
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(width, x1);
+        y1 = Math.min(height, y1);
+        if (x0 >= x1 || y0 >= y1) return;
+
+        for (int ty = y0 / TILE; ty <= (y1 - 1) / TILE; ty++) {
+            for (int tx = x0 / TILE; tx <= (x1 - 1) / TILE; tx++) {
+                int tile = ty * tilesX + tx;
+                if (tilePixels[tile] == null || dirty[tile] || tileImages[tile] == null) continue;
+
+                int ox = tx * TILE;
+                int oy = ty * TILE;
+                int sx = Math.max(x0, ox);
+                int sy = Math.max(y0, oy);
+                int sw = Math.min(x1, ox + TILE) - sx;
+                int sh = Math.min(y1, oy + TILE) - sy;
+                gc.drawImage(tileImages[tile], sx - ox, sy - oy, sw, sh, sx, sy, sw, sh);
+            }
+        }
+    }
+
+    /**
+     * 把变化的块画到画布上：淘汰的块清掉，有变化的块先清空该块区域再上传、绘制
+     */
+    public void present(GraphicsContext gc) {
+        boolean all = invalidated;
+        invalidated = false;
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                int tile = ty * tilesX + tx;
+                int[] pixels = tilePixels[tile];
+                if (pixels == null) {
+                    if (evicted[tile]) {
+                        evicted[tile] = false;
+                        clearTile(gc, tx, ty);
+                    }
+                    continue;
+                }
+                if (!dirty[tile] && !all) continue;
+                dirty[tile] = false;
+
+                int ox = tx * TILE;
+                int oy = ty * TILE;
+                int w = Math.min(TILE, width - ox);
+                int h = Math.min(TILE, height - oy);
+                WritableImage image = tileImages[tile];
+                if (image == null) {
+                    if (w == TILE && h == TILE && spareImageCount > 0) {
+                        image = spareImages[--spareImageCount];
+                        spareImages[spareImageCount] = null;
+                    } else {
+                        image = new WritableImage(w, h);
+                    }
+                    tileImages[tile] = image;
+                }
+                image.getPixelWriter().setPixels(0, 0, w, h, FORMAT, pixels, 0, TILE);
+                gc.clearRect(ox, oy, w, h);
+                gc.drawImage(image, ox, oy);
+            }
+        }
+    }
+
+    private void clearTile(GraphicsContext gc, int tx, int ty) {
+        int ox = tx * TILE;
+        int oy = ty * TILE;
+        gc.clearRect(ox, oy, Math.min(TILE, width - ox), Math.min(TILE, height - oy));
+    }
+
+    /**
+     * 清空全部墨迹（下一次 present 会清掉画布上对应的区域）
+     */
+    public void clear() {
+        while (head >= 0) {
+            evict(head);
+        }
+    }
+
+    /**
+     * 当前持有的块数
+     */
+    public int tileCount() {
+        return tileCount;
+    }
+
+    /**
+     * 当前占用的内存（字节，按块估算）
+     */
+    public long memoryBytes() {
+        return tileCount * TILE_BYTES;
+    }
+}
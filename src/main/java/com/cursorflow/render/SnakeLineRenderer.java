@@ -0,0 +1,222 @@
+package com.cursorflow.render;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+
+import java.util.Arrays;
+
+/**
+ * 折线轨迹渲染器：先用 Ramer–Douglas–Peucker 按像素容差简化折线，再把线段按透明度分成少量档位，
+ * 每档合成一条路径、用缓存的颜色描边一次
+ *
+ * 逐点 setStroke 在同一条路径里并不生效（stroke() 只用最后设置的颜色），还要逐点解析颜色；
+ * 分档后渐隐尾巴是真正的渐变，绘制调用数只和档位数有关，与轨迹长度无关。
+ * 点按从尾到头的顺序添加，渐隐时越靠近头部越不透明。
+ *
+ * 只能在 FX 线程使用；缓冲区复用，稳定状态下不分配对象。
+ */
+public class SnakeLineRenderer {
+    public static final int DEFAULT_BUCKETS = 8;
+    public static final double DEFAULT_TOLERANCE = 0.75;
+
+    private final int buckets;
+    private double tolerance = DEFAULT_TOLERANCE;
+
+    private double[] xs = new double[256];
+    private double[] ys = new double[256];
+    private boolean[] keep = new boolean[256];
+    private int[] stack = new int[512];
+    private int size = 0;
+
+    // 各档颜色缓存：底色或透明度变化时才重建
+    private final Color[] bucketColors;
+    private Color cachedBase;
+    private double cachedOpacity = Double.NaN;
+
+    public SnakeLineRenderer() {
+        this(DEFAULT_BUCKETS);
+    }
+
+    /**
+     * @param buckets 渐隐时的透明度档位数
+     */
+    public SnakeLineRenderer(int buckets) {
+        this.buckets = Math.max(1, buckets);
+        this.bucketColors = new Color[this.buckets];
+    }
+
+    /**
+     * 简化容差（像素），0 表示不简化
+     */
+    public void setTolerance(double tolerance) {
+        this.tolerance = Math.max(0, tolerance);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 追加一个点（按从尾到头的顺序）
+     */
+    public void add(double x, double y) {
+        if (size == xs.length) {
+            int newCapacity = size * 2;
+            xs = Arrays.copyOf(xs, newCapacity);
+            ys = Arrays.copyOf(ys, newCapacity);
+            keep = Arrays.copyOf(keep, newCapacity);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+    }
+
+    /**
+     * 绘制当前折线（不清空画布）
+     * @param base    线条底色
+     * @param opacity 整体不透明度
+     * @param width   线宽
+     * @param cap     端点样式
+     * @param fadeOut 是否从尾到头渐变（false 时整条线一次描边）
+     * @return 实际描边次数
+     */
+    public int render(GraphicsContext gc, Color base, double opacity, double width, StrokeLineCap cap, boolean fadeOut) {
+        if (size == 0) return 0;
+        // 只有一个点时画成零长度线段，圆头端点下是一个圆点
+        if (size == 1) add(xs[0], ys[0]);
+
+        simplify();
+
+        gc.setLineWidth(width);
+        gc.setLineCap(cap);
+        gc.setLineJoin(StrokeLineJoin.ROUND);
+
+        if (!fadeOut) {
+            gc.setStroke(colorFor(base, opacity, buckets - 1));
+            gc.beginPath();
+            gc.moveTo(xs[0], ys[0]);
+            for (int i = 1; i < size; i++) {
+                if (keep[i]) gc.lineTo(xs[i], ys[i]);
+            }
+            gc.stroke();
+            return 1;
+        }
+
+        // 线段透明度取终点在原始折线中的位置（与原来的逐点渐隐一致：opacity * i / n），
+        // 位置单调递增，所以同一档的线段总是连续的一段，每档一条路径
+        int strokes = 0;
+        int currentBucket = -1;
+        int prev = 0;
+        for (int i = 1; i < size; i++) {
+            if (!keep[i]) continue;
+            int bucket = Math.min(buckets - 1, (int) ((double) i / size * buckets));
+            if (bucket != currentBucket) {
+                if (currentBucket >= 0) {
+                    gc.stroke();
+                    strokes++;
+                }
+                currentBucket = bucket;
+                gc.setStroke(colorFor(base, opacity, bucket));
+                gc.beginPath();
+                gc.moveTo(xs[prev], ys[prev]);
+            }
+            gc.lineTo(xs[i], ys[i]);
+            prev = i;
+        }
+        gc.stroke();
+        return strokes + 1;
+    }
+
+    /**
+     * 迭代版 RDP：标记需要保留的点（首尾总是保留），结果见 {@link #kept(int)}
+     */
+    void simplify() {
+        int last = size - 1;
+        if (tolerance <= 0 || size < 3) {
+            Arrays.fill(keep, 0, size, true);
+            return;
+        }
+        Arrays.fill(keep, 0, size, false);
+        keep[0] = true;
+        keep[last] = true;
+
+        double tolSq = tolerance * tolerance;
+        int top = 0;
+        top = push(top, 0, last);
+        while (top > 0) {
+            int end = stack[--top];
+            int start = stack[--top];
+
+            double ax = xs[start], ay = ys[start];
+            double dx = xs[end] - ax, dy = ys[end] - ay;
+            double lenSq = dx * dx + dy * dy;
+
+            double maxDistSq = -1;
+            int index = -1;
+            for (int i = start + 1; i < end; i++) {
+                double distSq = distanceSq(xs[i] - ax, ys[i] - ay, dx, dy, lenSq);
+                if (distSq > maxDistSq) {
+                    maxDistSq = distSq;
+                    index = i;
+                }
+            }
+
+            if (index >= 0 && maxDistSq > tolSq) {
+                keep[index] = true;
+                if (index - start > 1) top = push(top, start, index);
+                if (end - index > 1) top = push(top, index, end);
+            }
+        }
+    }
+
+    /**
+     * simplify 之后：第 i 个点是否保留
+     */
+    boolean kept(int i) {
+        return keep[i];
+    }
+
+    private int push(int top, int start, int end) {
+        if (top + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top] = start;
+        stack[top + 1] = end;
+        return top + 2;
+    }
+
+    /**
+     * 点 (px, py)（相对线段起点）到线段的距离平方
+     */
+    private static double distanceSq(double px, double py, double dx, double dy, double lenSq) {
+        if (lenSq == 0) return px * px + py * py;
+        double t = Math.max(0, Math.min(1, (px * dx + py * dy) / lenSq));
+        double ex = px - t * dx;
+        double ey = py - t * dy;
+        return ex * ex + ey * ey;
+    }
+
+    /**
+     * 第 bucket 档的颜色：最后一档为 opacity，其余按 (bucket + 1) / buckets 线性递减
+     */
+    private Color colorFor(Color base, double opacity, int bucket) {
+        if (base != cachedBase || opacity != cachedOpacity) {
+            Arrays.fill(bucketColors, null);
+            cachedBase = base;
+            cachedOpacity = opacity;
+        }
+        Color color = bucketColors[bucket];
+        if (color == null) {
+            double alpha = Math.max(0, Math.min(1, base.getOpacity() * opacity * (bucket + 1) / buckets));
+            color = new Color(base.getRed(), base.getGreen(), base.getBlue(), alpha);
+            bucketColors[bucket] = color;
+        }
+        return color;
+    }
+}
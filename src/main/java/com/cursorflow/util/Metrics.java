@@ -0,0 +1,64 @@
+package com.cursorflow.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 运行指标登记表：计数器 + 实时读取的仪表值
+ * 各模块按 "模块.指标" 命名登记，snapshot() 统一导出，供日志、调试与基准报告使用。
+ */
+public final class Metrics {
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Supplier<? extends Number>> GAUGES = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * 计数器加一
+     */
+    public static void increment(String name) {
+        COUNTERS.computeIfAbsent(name, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * 读取计数器当前值，不存在时返回 0
+     */
+    public static long counter(String name) {
+        LongAdder adder = COUNTERS.get(name);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * 登记仪表值（同名覆盖），读取时才调用 supplier
+     */
+    public static void registerGauge(String name, Supplier<? extends Number> gauge) {
+        GAUGES.put(name, gauge);
+    }
+
+    /**
+     * 注销仪表值：只有仍是同一个 supplier 时才移除，避免误删后来者的登记
+     */
+    public static void unregisterGauge(String name, Supplier<? extends Number> gauge) {
+        GAUGES.remove(name, gauge);
+    }
+
+    /**
+     * 导出所有指标（按名称排序）
+     */
+    public static Map<String, Number> snapshot() {
+        Map<String, Number> result = new TreeMap<>();
+        COUNTERS.forEach((name, adder) -> result.put(name, adder.sum()));
+        GAUGES.forEach((name, gauge) -> {
+            try {
+                result.put(name, gauge.get());
+            } catch (RuntimeException ignored) {
+                // 仪表读取失败不影响其他指标
+            }
+        });
+        return result;
+    }
+}
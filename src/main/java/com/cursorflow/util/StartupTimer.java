@@ -0,0 +1,79 @@
+package com.cursorflow.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 启动耗时分解：各阶段调用 mark 打点，第一次画出轨迹时以 debug 级别输出
+ * 时间以进程启动时刻为零点（取不到时以本类加载时刻为零点）。
+ */
+public final class StartupTimer {
+    private static final Logger LOG = LoggerFactory.getLogger(StartupTimer.class);
+
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    // 进程启动到本类加载之间的耗时（JVM 启动 + 类加载）
+    private static final long JVM_NANOS = ProcessHandle.current().info().startInstant()
+            .map(start -> Math.max(0, Duration.between(start, Instant.now()).toNanos()))
+            .orElse(0L);
+
+    private static final List<String> PHASES = new ArrayList<>();
+    private static final List<Long> TIMES = new ArrayList<>();
+    private static final AtomicBoolean FINISHED = new AtomicBoolean(false);
+    private static volatile Runnable firstTrailCallback;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * 记录一个阶段完成（线程安全，首帧之后的打点忽略）
+     */
+    public static void mark(String phase) {
+        if (FINISHED.get()) return;
+        long elapsed = System.nanoTime() - ORIGIN_NANOS;
+        synchronized (PHASES) {
+            PHASES.add(phase);
+            TIMES.add(elapsed);
+        }
+    }
+
+    /**
+     * 第一次画出轨迹：输出耗时分解（只生效一次）
+     */
+    public static void firstTrail() {
+        if (!FINISHED.compareAndSet(false, true)) return;
+
+        long total = JVM_NANOS + System.nanoTime() - ORIGIN_NANOS;
+        if (LOG.isDebugEnabled()) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("启动耗时 %.1f ms（到第一帧轨迹）%n", total / 1e6));
+            sb.append(String.format("  %-28s +%7.1f ms%n", "JVM 启动", JVM_NANOS / 1e6));
+            synchronized (PHASES) {
+                long prev = 0;
+                for (int i = 0; i < PHASES.size(); i++) {
+                    long t = TIMES.get(i);
+                    // 并行阶段的完成时间可能早于上一行，此时增量记为 0
+                    sb.append(String.format("  %-28s +%7.1f ms  @%7.1f ms%n",
+                            PHASES.get(i), Math.max(0, t - prev) / 1e6, (JVM_NANOS + t) / 1e6));
+                    prev = Math.max(prev, t);
+                }
+            }
+            LOG.debug(sb.toString().stripTrailing());
+        }
+
+        Runnable callback = firstTrailCallback;
+        if (callback != null) callback.run();
+    }
+
+    /**
+     * 注册第一次画出轨迹时的回调（如 AppCDS 训练运行在此时退出）
+     */
+    public static void onFirstTrail(Runnable callback) {
+        firstTrailCallback = callback;
+    }
+}
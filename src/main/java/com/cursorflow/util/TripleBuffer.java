@@ -0,0 +1,65 @@
+package com.cursorflow.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 单生产者 / 单消费者无锁三缓冲
+ * 生产者写后台槽，写完 publish 与中间槽交换；消费者 latest 时若中间槽有新内容就与前台槽交换。
+ * 双方各自独占一个槽，交换只是一次原子操作，任何一方都不会等待另一方；
+ * 消费者跟不上时中间的旧快照直接被覆盖，总能拿到最新的一份。
+ *
+ * 槽对象会被反复复用：消费者只能在下一次 latest 之前读取拿到的快照，生产者 publish 之后不能再碰它。
+ */
+public final class TripleBuffer<T> {
+    private static final int INDEX_MASK = 0b011;
+    // 中间槽里是生产者发布后还没被取走的新快照
+    private static final int FRESH = 0b100;
+
+    private final Object[] slots = new Object[3];
+    // 中间槽下标 | FRESH
+    private final AtomicInteger middle = new AtomicInteger(1);
+    // 只由生产者访问
+    private int back = 2;
+    // 只由消费者访问
+    private int front = 0;
+
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = factory.get();
+        }
+    }
+
+    /**
+     * 生产者：当前可写的后台槽
+     */
+    @SuppressWarnings("unchecked")
+    public T back() {
+        return (T) slots[back];
+    }
+
+    /**
+     * 生产者：发布后台槽，并换到一个空闲槽继续写
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * 消费者：是否有尚未取走的新快照
+     */
+    public boolean hasFresh() {
+        return (middle.get() & FRESH) != 0;
+    }
+
+    /**
+     * 消费者：取最新发布的快照（没有新快照时返回上一次取到的那份）
+     */
+    @SuppressWarnings("unchecked")
+    public T latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) slots[front];
+    }
+}
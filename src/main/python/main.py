@@ -1,24 +1,117 @@
 import sys
 import os
+import io
 import time
 import json
+import socket
+import selectors
 import traceback
 import importlib.util
 import random # 粒子随机生成需要
 
+
+def _identity_behavior(particle, *args):
+    return particle
+
+
+def _is_identity_function(fn):
+    """判断用户函数是否只是原样返回第一个参数（即空操作）"""
+    code = getattr(fn, "__code__", None)
+    return code is not None and code.co_code == _identity_behavior.__code__.co_code
+
+
+class SocketTransport:
+    """
+    与 Java 端的 Unix 域套接字连接：数据（坐标输入 / 渲染帧）、控制（暂停、质量档位）、日志三条通道
+    依次连接同一个套接字文件，每条连接先发一个字节标明用途（D / C / L）
+    """
+
+    def __init__(self, path):
+        connected = []
+        try:
+            for tag in (b"D", b"C", b"L"):
+                connected.append(self._connect(path, tag))
+        except OSError:
+            # 只连上了部分通道：关掉已建立的连接再退回 stdio，Java 端不会留着半套通道
+            for sock in connected:
+                sock.close()
+            raise
+        self.data, self.control, self.log = connected
+
+    @staticmethod
+    def _connect(path, tag):
+        sock = socket.socket(socket.AF_UNIX, socket.SOCK_STREAM)
+        try:
+            sock.connect(path)
+            sock.sendall(tag)
+        except OSError:
+            sock.close()
+            raise
+        return sock
+
+    @staticmethod
+    def open_from_env():
+        """按环境变量 CURSORFLOW_SOCKET 连接；未设置或平台不支持时返回 None（使用 stdin/stdout）"""
+        path = os.environ.get("CURSORFLOW_SOCKET")
+        if not path:
+            return None
+        if not hasattr(socket, "AF_UNIX"):
+            print("[Py] AF_UNIX not supported, falling back to stdio")
+            return None
+        try:
+            return SocketTransport(path)
+        except OSError as e:
+            print(f"[Py] Socket connect failed, falling back to stdio: {e}")
+            return None
+
+    def log_stream(self):
+        """日志通道包装成文本流，用来替换 sys.stdout（print 自动走日志通道）"""
+        return io.TextIOWrapper(self.log.makefile("wb"), encoding="utf-8",
+                                line_buffering=True, write_through=True)
+
+
+# config 中粒子更新函数的键名
+BEHAVIOR_KEY = "update_behavior"
+
+
+def _find_custom_behavior(config):
+    """取 config 中 update_behavior 指定的粒子更新函数，空操作函数视为不存在；其他键上的函数不当作粒子行为"""
+    value = config.get(BEHAVIOR_KEY)
+    if callable(value) and not _is_identity_function(value):
+        return value
+    return None
+
+
 # -----------------------------------------------------
 # CursorFlow 核心逻辑 (完整版)
 # -----------------------------------------------------
 class EffectProcessor:
-    def __init__(self, config_path):
+    def __init__(self, config_path, worker_index=0, worker_count=1, seed=None):
         self.config_path = config_path.strip()
         self.config = {}
         self.effect_type = "unknown"
+        self.config_loaded = False
+        # 用户自定义的粒子运动函数（空操作函数会被忽略，不参与每帧计算）
+        self.behavior = None
 
         # [状态管理] 存储当前屏幕上所有活着的粒子
         self.active_particles = []
         self.running = True
 
+        # [控制通道] 暂停时只回空帧；spawn_scale 为 Java 端质量档位下发的生成比例
+        self.paused = False
+        self.spawn_scale = 1.0
+        # 渲染帧的输出方式：默认打印到 stdout，套接字传输下改为写数据通道
+        self.emit = self._emit_stdout
+
+        # [多进程分片] 每个 worker 只负责生成一部分粒子
+        # frame_rng 用同一个种子，保证各 worker 每帧选到相同的颜色；rng 按 worker 区分
+        self.worker_index = worker_index
+        self.worker_count = max(1, worker_count)
+        self.frame_index = 0
+        self.frame_rng = random.Random(seed)
+        self.rng = random.Random(None if seed is None else seed * 1000003 + worker_index)
+
         print(f"[Py] Init Processor with config: {self.config_path}")
         self._load_user_config()
 
@@ -26,6 +119,7 @@ class EffectProcessor:
         """加载用户配置文件"""
         if not os.path.exists(self.config_path):
             print(f"[Py Error] File not found: {self.config_path}")
+            self._fail_if_strict()
             return
 
         try:
@@ -33,6 +127,7 @@ class EffectProcessor:
             spec = importlib.util.spec_from_file_location("user_effect_module", self.config_path)
             if spec is None or spec.loader is None:
                 print(f"[Py Error] Cannot load spec from: {self.config_path}")
+                self._fail_if_strict()
                 return
 
             user_module = importlib.util.module_from_spec(spec)
@@ -42,27 +137,49 @@ class EffectProcessor:
             if hasattr(user_module, "config"):
                 self.config = user_module.config
                 self.effect_type = self.config.get("type", "unknown")
+                self.behavior = _find_custom_behavior(self.config)
+                self.config_loaded = True
                 print(f"[Py Success] Config loaded! Type: {self.effect_type}")
                 # Debug
                 keys = list(self.config.keys())
                 print(f"[Py Debug] Config keys: {keys}")
             else:
                 print(f"[Py Error] Variable 'config' MISSING in {os.path.basename(self.config_path)}")
+                self._fail_if_strict()
 
         except Exception:
             print("[Py Fatal Error] Exception during import:")
             traceback.print_exc()
             sys.stdout.flush()
+            self._fail_if_strict()
+
+    def _fail_if_strict(self):
+        """热重载校验模式：配置加载失败直接退出，Java 端会保留旧进程"""
+        if os.environ.get("CURSORFLOW_STRICT_CONFIG") == "1":
+            sys.stdout.flush()
+            sys.exit(2)
 
     def process_line(self, line):
         try:
             if not line or not line.startswith("{"): return
+            start_ns = time.perf_counter_ns()
             data = json.loads(line)
+            if self.paused:
+                # 暂停期间不计算，只回传序号，Java 端的在途帧统计保持正确
+                response = {"type": "particle", "particles": []}
+                if "seq" in data:
+                    response["seq"] = data["seq"]
+                    response["t"] = data["t"]
+                    response["py_ns"] = 0
+                self.emit(json.dumps(response))
+                return
             mouse_x = data.get("x", 0)
             mouse_y = data.get("y", 0)
 
             # 获取参数
             p_count = self.config.get("particle_count", 5)
+            if self.spawn_scale < 1.0:
+                p_count = int(round(p_count * self.spawn_scale))
             life_min, life_max = self.config.get("life_range", [20, 50])
             size_min, size_max = self.config.get("size_range", [2, 6])
             speed_min, speed_max = self.config.get("speed_range", [1, 3])
@@ -77,7 +194,7 @@ class EffectProcessor:
 
             # 方案 A：完全随机（每帧变一个色，像霓虹灯闪烁）
             if isinstance(color_config, list):
-                current_frame_color = random.choice(color_config)
+                current_frame_color = self.frame_rng.choice(color_config)
             else:
                 current_frame_color = color_config
 
@@ -90,9 +207,15 @@ class EffectProcessor:
             # ============================================================
 
             # --- 生成新粒子 ---
-            for _ in range(p_count):
-                angle = random.uniform(0, 360)
-                speed = random.uniform(speed_min, speed_max)
+            # 多 worker 时按帧轮转分配余数，保证所有 worker 合计恰好 p_count 个
+            share = p_count // self.worker_count
+            if (self.worker_index - self.frame_index) % self.worker_count < p_count % self.worker_count:
+                share += 1
+            self.frame_index += 1
+
+            for _ in range(share):
+                angle = self.rng.uniform(0, 360)
+                speed = self.rng.uniform(speed_min, speed_max)
 
                 # 计算向量
                 import math
@@ -105,8 +228,8 @@ class EffectProcessor:
                     "y": mouse_y,
                     "vx": vx,
                     "vy": vy,
-                    "size": random.uniform(size_min, size_max),
-                    "life": random.randint(life_min, life_max),
+                    "size": self.rng.uniform(size_min, size_max),
+                    "life": self.rng.randint(life_min, life_max),
                     "max_life": float(life_max),
                     # 【使用刚才外面决定好的统一颜色】
                     "color": current_frame_color
@@ -118,6 +241,11 @@ class EffectProcessor:
             global_opacity = self.config.get("opacity", 1.0)
 
             for p in self.active_particles:
+                # 只有 config 显式写了 update_behavior 且不是空操作函数时才调用（与 --dump-config 的 custom_behavior 判定相同）
+                # 这类配置也正是 Java 端不交给原生引擎、必须走 Python 的配置；空操作函数与纯数据配置的每帧计算不变
+                if self.behavior is not None:
+                    p = self.behavior(p, mouse_x, mouse_y) or p
+
                 p["x"] += p["vx"]
                 p["y"] += p["vy"]
                 p["vy"] += gravity
@@ -140,17 +268,87 @@ class EffectProcessor:
 
             self.active_particles = alive_particles
 
-            if alive_particles:
-                response = {
-                    "type": "particle",
-                    "particles": output_particles
-                }
-                print(json.dumps(response))
-                sys.stdout.flush()
+            # 每条输入都回一帧（即使没有粒子），Java 端据此统计延迟并控制在途帧数
+            response = {
+                "type": "particle",
+                "particles": output_particles
+            }
+            # 原样回传序号与时间戳，并附上本帧计算耗时
+            if "seq" in data:
+                response["seq"] = data["seq"]
+                response["t"] = data["t"]
+                response["py_ns"] = time.perf_counter_ns() - start_ns
+            self.emit(json.dumps(response))
 
         except Exception:
             pass
 
+    def _emit_stdout(self, text):
+        print(text)
+        sys.stdout.flush()
+
+    def handle_control(self, line, reply):
+        """处理一条控制消息：pause / resume / quality / params，处理后在控制通道上应答"""
+        try:
+            message = json.loads(line)
+        except ValueError:
+            return
+        cmd = message.get("cmd")
+        if cmd == "pause":
+            self.paused = True
+        elif cmd == "resume":
+            self.paused = False
+        elif cmd == "quality":
+            self.spawn_scale = max(0.0, min(1.0, float(message.get("spawn_scale", 1.0))))
+        elif cmd == "params":
+            params = message.get("params")
+            if not isinstance(params, dict):
+                reply(json.dumps({"ack": cmd, "ok": False}))
+                return
+            self.apply_params(params)
+        else:
+            reply(json.dumps({"ack": cmd, "ok": False}))
+            return
+        reply(json.dumps({"ack": cmd, "ok": True}))
+
+    def apply_params(self, params):
+        """
+        配置面板推送的参数补丁：直接覆盖 config 中的纯数据项，下一帧生效
+        type 与自定义函数不能在运行中替换；Java 端转发的数字都是浮点数，整数值转回 int（如 particle_count）
+        """
+        def restore_int(v):
+            return int(v) if isinstance(v, float) and v.is_integer() else v
+
+        for key, value in params.items():
+            if key == "type" or callable(self.config.get(key)):
+                continue
+            if isinstance(value, list):
+                value = [restore_int(v) for v in value]
+            self.config[key] = restore_int(value)
+        print(f"[Py] Params updated: {sorted(params.keys())}")
+
+    def dump_config(self):
+        """
+        输出配置的纯数据部分（一行 JSON），供 Java 端判断能否用原生引擎运行
+        函数等无法序列化的值会被剔除，custom_behavior 表示是否存在真正的自定义行为
+        """
+        params = {}
+        for key, value in self.config.items():
+            if callable(value):
+                continue
+            try:
+                json.dumps(value)
+                params[key] = value
+            except (TypeError, ValueError):
+                continue
+
+        print(json.dumps({
+            "type": self.effect_type,
+            "params": params,
+            "custom_behavior": self.behavior is not None
+        }))
+        sys.stdout.flush()
+
     def start(self):
         """
         这就是你之前缺失的方法
@@ -168,6 +366,57 @@ class EffectProcessor:
             except Exception:
                 break
 
+    def start_socket(self, transport):
+        """
+        套接字传输的主循环：同时等待数据与控制通道，按换行拆分消息
+        数据通道被 Java 关闭时退出
+        """
+        def send_data(text):
+            transport.data.sendall((text + "\n").encode("utf-8"))
+
+        def send_control(text):
+            transport.control.sendall((text + "\n").encode("utf-8"))
+
+        self.emit = send_data
+        selector = selectors.DefaultSelector()
+        selector.register(transport.data, selectors.EVENT_READ, b"D")
+        selector.register(transport.control, selectors.EVENT_READ, b"C")
+        pending = {b"D": b"", b"C": b""}
+
+        print("[Py] Loop started on socket transport. Waiting for input...")
+        try:
+            while self.running:
+                for key, _ in selector.select():
+                    chunk = key.fileobj.recv(65536)
+                    if not chunk:
+                        self.running = False
+                        break
+                    buffer = pending[key.data] + chunk
+                    *lines, pending[key.data] = buffer.split(b"\n")
+                    for raw in lines:
+                        text = raw.decode("utf-8").strip()
+                        if key.data == b"D":
+                            self.process_line(text)
+                        elif text:
+                            self.handle_control(text, send_control)
+        except (KeyboardInterrupt, OSError):
+            pass
+        finally:
+            selector.close()
+
+def _parse_worker_args(argv):
+    """解析 --worker-index / --worker-count / --seed（均为整数，可省略）"""
+    options = {"--worker-index": 0, "--worker-count": 1, "--seed": None}
+    i = 0
+    while i < len(argv) - 1:
+        if argv[i] in options:
+            options[argv[i]] = int(argv[i + 1])
+            i += 2
+        else:
+            i += 1
+    return options["--worker-index"], options["--worker-count"], options["--seed"]
+
+
 if __name__ == "__main__":
     # 强制 UTF-8 输出
     sys.stdout.reconfigure(encoding='utf-8')
@@ -176,7 +425,24 @@ if __name__ == "__main__":
         print("[Py] Missing config path argument.")
         sys.exit(1)
 
+    # 只解析配置并输出参数，不进入渲染循环
+    if sys.argv[1] == "--dump-config":
+        if len(sys.argv) < 3:
+            print("[Py] Missing config path argument.")
+            sys.exit(1)
+        processor = EffectProcessor(sys.argv[2])
+        processor.dump_config()
+        sys.exit(0 if processor.config_loaded else 2)
+
     config_file_path = sys.argv[1]
-    processor = EffectProcessor(config_file_path)
-    # 这行代码调用 start()，如果你没有 start 方法就会报错
-    processor.start()
\ No newline at end of file
+    worker_index, worker_count, seed = _parse_worker_args(sys.argv[2:])
+    # 先连接套接字，之后的 print 都走日志通道；连接失败时沿用 stdin/stdout
+    transport = SocketTransport.open_from_env()
+    if transport is not None:
+        sys.stdout = transport.log_stream()
+    processor = EffectProcessor(config_file_path, worker_index, worker_count, seed)
+    if transport is not None:
+        processor.start_socket(transport)
+    else:
+        # 这行代码调用 start()，如果你没有 start 方法就会报错
+        processor.start()
\ No newline at end of file
@@ -0,0 +1,101 @@
+import com.cursorflow.effect.ITrailEffect;
+import com.cursorflow.input.PointerSamples;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+import java.util.Map;
+
+/**
+ * Java 脚本特效示例（特效类型 java_source）：光标后面拖一串逐渐变小、变淡的圆点
+ *
+ * 程序启动后在进程内编译这个文件，保存后自动重新编译并替换正在运行的特效，不需要重启。
+ * 规则：类名与文件名相同，实现 ITrailEffect，有公开的无参构造器；可以使用程序自身与 JavaFX 的类。
+ * 编译错误会打印在日志中，此时继续运行上一个能编译通过的版本。
+ *
+ * 配置键（托盘菜单创建时为空，使用下面的缺省值）：color、length、size
+ */
+public class MyTrailEffect implements ITrailEffect {
+    private Color color = Color.web("#00c8ff");
+    private double size = 14;
+
+    // 最近 length 个位置的环形缓冲
+    private double[] xs = new double[32];
+    private double[] ys = new double[32];
+    private int head = 0;
+    private int count = 0;
+
+    @Override
+    public void init(Map<String, Object> config) {
+        if (config.get("color") instanceof String value) {
+            color = Color.web(value);
+        }
+        if (config.get("size") instanceof Number value) {
+            size = value.doubleValue();
+        }
+        if (config.get("length") instanceof Number value) {
+            int length = Math.max(2, value.intValue());
+            xs = new double[length];
+            ys = new double[length];
+            head = 0;
+            count = 0;
+        }
+    }
+
+    @Override
+    public void render(GraphicsContext gc, PointerSamples samples) {
+        for (int i = 0; i < samples.observedSize(); i++) {
+            push(samples.x(i), samples.y(i));
+        }
+        draw(gc);
+    }
+
+    @Override
+    public void render(GraphicsContext gc, int mouseX, int mouseY) {
+        push(mouseX, mouseY);
+        draw(gc);
+    }
+
+    private void push(double x, double y) {
+        head = (head + 1) % xs.length;
+        xs[head] = x;
+        ys[head] = y;
+        count = Math.min(count + 1, xs.length);
+    }
+
+    private void draw(GraphicsContext gc) {
+        // 每帧完整重绘：先清掉上一帧（关闭窗口跟随时图层不会替我们清空）
+        gc.clearRect(0, 0, gc.getCanvas().getWidth(), gc.getCanvas().getHeight());
+        gc.setFill(color);
+        // 从最旧的点画到最新的点
+        for (int i = count - 1; i >= 0; i--) {
+            int index = (head - i + xs.length) % xs.length;
+            double t = 1 - (double) i / xs.length;
+            double r = size * t / 2;
+            gc.setGlobalAlpha(t * t);
+            gc.fillOval(xs[index] - r, ys[index] - r, r * 2, r * 2);
+        }
+        gc.setGlobalAlpha(1.0);
+    }
+
+    /**
+     * 提供包围盒：图层据此把窗口缩小到轨迹附近（-Dcursorflow.overlay.fit=false 时不调用）
+     */
+    @Override
+    public boolean bounds(double[] out) {
+        out[0] = out[1] = Double.POSITIVE_INFINITY;
+        out[2] = out[3] = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            int index = (head - i + xs.length) % xs.length;
+            out[0] = Math.min(out[0], xs[index] - size);
+            out[1] = Math.min(out[1], ys[index] - size);
+            out[2] = Math.max(out[2], xs[index] + size);
+            out[3] = Math.max(out[3], ys[index] + size);
+        }
+        return true;
+    }
+
+    @Override
+    public void dispose() {
+        count = 0;
+    }
+}
@@ -41,6 +41,8 @@ PARTICLE_CONFIG = {
     "wind": 0
 }
 
+# update_behavior：每帧对每个粒子调用一次（在位移和重力之前），返回修改后的粒子
+# 原样返回粒子的函数视为没有自定义行为，配置会交给 Java 原生引擎运行
 def custom_particle_move(particle, mouse_x, mouse_y):
     # 这里不需要额外逻辑，直线飞溅最像烟花
     return particle
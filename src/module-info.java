@@ -2,6 +2,10 @@ module com.cursorflow {
     requires javafx.controls;
     requires javafx.graphics;
     requires javafx.base;
+    requires jdk.management;
+    requires jdk.jfr;
+    requires jdk.httpserver;
+    requires java.compiler;
     requires jna;
     requires jna.platform;
     requires slf4j.api;
@@ -10,4 +14,15 @@ module com.cursorflow {
     exports com.cursorflow;
     exports com.cursorflow.core;
     exports com.cursorflow.effect;
+    exports com.cursorflow.input;
+    exports com.cursorflow.render;
+
+    uses com.cursorflow.effect.EffectProvider;
+    provides com.cursorflow.effect.EffectProvider with
+            com.cursorflow.effect.BuiltinEffectProviders.SnakeLine,
+            com.cursorflow.effect.BuiltinEffectProviders.Particle,
+            com.cursorflow.effect.BuiltinEffectProviders.FlowField,
+            com.cursorflow.effect.BuiltinEffectProviders.PersistentInk,
+            com.cursorflow.effect.BuiltinEffectProviders.JavaSource,
+            com.cursorflow.effect.BuiltinEffectProviders.PythonDriven;
 }
\ No newline at end of file
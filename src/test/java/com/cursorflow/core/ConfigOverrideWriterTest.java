@@ -0,0 +1,120 @@
+package com.cursorflow.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ConfigOverrideWriterTest {
+    private static final String CONFIG = """
+            # user config
+            config = {
+                "type": "particle",
+                "particle_count": 12,
+            }
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendsAnOverrideBlock() throws IOException {
+        Path file = config();
+        ConfigOverrideWriter.write(file, Map.of("particle_count", 20.0));
+
+        assertEquals(List.of(
+                "# user config",
+                "config = {",
+                "    \"type\": \"particle\",",
+                "    \"particle_count\": 12,",
+                "}",
+                "",
+                ConfigOverrideWriter.BEGIN,
+                "config[\"particle_count\"] = 20",
+                ConfigOverrideWriter.END), lines(file));
+    }
+
+    @Test
+    void replacesAKeyInPlaceAndKeepsTheOthers() throws IOException {
+        Path file = config();
+        ConfigOverrideWriter.write(file, Map.of("gravity", 0.5));
+        ConfigOverrideWriter.write(file, Map.of("opacity", 0.8));
+        ConfigOverrideWriter.write(file, Map.of("gravity", 1.25));
+
+        List<String> lines = lines(file);
+        int begin = lines.indexOf(ConfigOverrideWriter.BEGIN);
+        assertEquals(lines.lastIndexOf(ConfigOverrideWriter.BEGIN), begin);
+        assertEquals(List.of(
+                ConfigOverrideWriter.BEGIN,
+                "config[\"gravity\"] = 1.25",
+                "config[\"opacity\"] = 0.8",
+                ConfigOverrideWriter.END), lines.subList(begin, lines.size()));
+    }
+
+    @Test
+    void keepsLinesOutsideTheBlock() throws IOException {
+        Path file = config();
+        ConfigOverrideWriter.write(file, Map.of("gravity", 0.5));
+        Files.writeString(file, "print(\"after\")\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        // 块内手写的其他行也原样保留
+        List<String> edited = lines(file);
+        edited.add(edited.indexOf(ConfigOverrideWriter.END), "# note");
+        Files.write(file, edited, StandardCharsets.UTF_8);
+
+        ConfigOverrideWriter.write(file, Map.of("gravity", 0.75));
+
+        List<String> lines = lines(file);
+        assertEquals("print(\"after\")", lines.get(lines.size() - 1));
+        assertEquals(ConfigOverrideWriter.END, lines.get(lines.size() - 2));
+        assertEquals("# note", lines.get(lines.size() - 3));
+        assertEquals("config[\"gravity\"] = 0.75", lines.get(lines.size() - 4));
+        assertFalse(Files.exists(dir.resolve("config.py.tmp")));
+    }
+
+    @Test
+    void writesPythonLiterals() {
+        assertEquals("None", ConfigOverrideWriter.pythonLiteral(null));
+        assertEquals("True", ConfigOverrideWriter.pythonLiteral(true));
+        assertEquals("False", ConfigOverrideWriter.pythonLiteral(false));
+        assertEquals("12", ConfigOverrideWriter.pythonLiteral(12.0));
+        assertEquals("-3", ConfigOverrideWriter.pythonLiteral(-3.0));
+        assertEquals("0.5", ConfigOverrideWriter.pythonLiteral(0.5));
+        assertEquals("\"#FF0000\"", ConfigOverrideWriter.pythonLiteral("#FF0000"));
+        assertEquals("\"say \\\"hi\\\"\\n\"", ConfigOverrideWriter.pythonLiteral("say \"hi\"\n"));
+        assertEquals("[2, 7.5, \"a\"]", ConfigOverrideWriter.pythonLiteral(List.of(2.0, 7.5, "a")));
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("min", 1.0);
+        map.put("tags", List.of(true));
+        assertEquals("{\"min\": 1, \"tags\": [True]}", ConfigOverrideWriter.pythonLiteral(map));
+    }
+
+    @Test
+    void quotesKeysSafely() throws IOException {
+        Path file = config();
+        ConfigOverrideWriter.write(file, Map.of("odd\"key", 1.0));
+        ConfigOverrideWriter.write(file, Map.of("odd\"key", 2.0));
+
+        List<String> lines = lines(file);
+        int begin = lines.indexOf(ConfigOverrideWriter.BEGIN);
+        assertEquals(List.of("config[\"odd\\\"key\"] = 2"), lines.subList(begin + 1, lines.size() - 1));
+    }
+
+    private Path config() throws IOException {
+        return Files.writeString(dir.resolve("config.py"), CONFIG, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> lines(Path file) throws IOException {
+        return Files.readAllLines(file, StandardCharsets.UTF_8);
+    }
+}
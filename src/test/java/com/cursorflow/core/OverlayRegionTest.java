@@ -0,0 +1,114 @@
+package com.cursorflow.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OverlayRegionTest {
+    private static final double SCREEN_W = 1920;
+    private static final double SCREEN_H = 1080;
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void pooledSizeSteps() {
+        assertEquals(256, OverlayRegion.pooledSize(0, SCREEN_W));
+        assertEquals(256, OverlayRegion.pooledSize(256, SCREEN_W));
+        assertEquals(384, OverlayRegion.pooledSize(257, SCREEN_W));
+        assertEquals(512, OverlayRegion.pooledSize(400, SCREEN_W));
+        assertEquals(768, OverlayRegion.pooledSize(600, SCREEN_W));
+        assertEquals(1024, OverlayRegion.pooledSize(1000, SCREEN_W));
+        assertEquals(1536, OverlayRegion.pooledSize(1500, SCREEN_W));
+    }
+
+    @Test
+    void pooledSizeNeverExceedsTheLimit() {
+        assertEquals(SCREEN_W, OverlayRegion.pooledSize(1600, SCREEN_W));
+        assertEquals(SCREEN_W, OverlayRegion.pooledSize(5000, SCREEN_W));
+        assertEquals(200, OverlayRegion.pooledSize(100, 200));
+    }
+
+    @Test
+    void startsFullScreen() {
+        OverlayRegion region = new OverlayRegion(0, 0, SCREEN_W, SCREEN_H, 0);
+        assertTrue(region.isFullScreen());
+        assertFalse(region.setFullScreen());
+    }
+
+    /**
+     * 内容缩小后要持续一段时间才缩小窗口，避免来回重建画布
+     */
+    @Test
+    void shrinksOnlyAfterTheDelay() {
+        OverlayRegion region = new OverlayRegion(0, 0, SCREEN_W, SCREEN_H, 0);
+        assertFalse(region.fit(100, 100, 200, 200, 0));
+        assertFalse(region.fit(100, 100, 200, 200, 100 * MS));
+        assertTrue(region.isFullScreen());
+
+        assertTrue(region.fit(100, 100, 200, 200, 600 * MS));
+        assertEquals(256, region.getWidth());
+        assertEquals(256, region.getHeight());
+        // 以内容为中心
+        assertEquals(150 - 128, region.getX());
+        assertEquals(150 - 128, region.getY());
+    }
+
+    @Test
+    void growsImmediately() {
+        OverlayRegion region = shrunkTo256();
+        assertTrue(region.fit(100, 100, 600, 200, 700 * MS));
+        assertEquals(512, region.getWidth());
+        // 另一维不需要缩小时保持不变
+        assertEquals(256, region.getHeight());
+    }
+
+    @Test
+    void movesWithoutResizingWhenContentLeavesTheWindow() {
+        OverlayRegion region = shrunkTo256();
+        assertTrue(region.fit(1000, 500, 1100, 600, 700 * MS));
+        assertEquals(256, region.getWidth());
+        assertEquals(1050 - 128, region.getX());
+        assertEquals(550 - 128, region.getY());
+    }
+
+    @Test
+    void contentInsideTheWindowDoesNotMoveIt() {
+        OverlayRegion region = shrunkTo256();
+        assertFalse(region.fit(110, 110, 190, 190, 700 * MS));
+    }
+
+    @Test
+    void staysOnScreen() {
+        OverlayRegion region = shrunkTo256();
+        assertTrue(region.fit(1890, 1050, 1919, 1079, 700 * MS));
+        assertEquals(SCREEN_W - 256, region.getX());
+        assertEquals(SCREEN_H - 256, region.getY());
+    }
+
+    @Test
+    void marginIsAddedAroundTheContent() {
+        OverlayRegion region = new OverlayRegion(0, 0, SCREEN_W, SCREEN_H, 64);
+        region.fit(500, 500, 700, 700, 0);
+        region.fit(500, 500, 700, 700, 600 * MS);
+        // 200 + 2 × 64 = 328，落到 384 一档
+        assertEquals(384, region.getWidth());
+        assertEquals(384, region.getHeight());
+    }
+
+    @Test
+    void backToFullScreen() {
+        OverlayRegion region = shrunkTo256();
+        assertTrue(region.setFullScreen());
+        assertTrue(region.isFullScreen());
+        assertEquals(0, region.getX());
+    }
+
+    private static OverlayRegion shrunkTo256() {
+        OverlayRegion region = new OverlayRegion(0, 0, SCREEN_W, SCREEN_H, 0);
+        region.fit(100, 100, 200, 200, 0);
+        region.fit(100, 100, 200, 200, 600 * MS);
+        assertEquals(256, region.getWidth());
+        return region;
+    }
+}
@@ -0,0 +1,104 @@
+package com.cursorflow.effect;
+
+import com.cursorflow.input.PointerStreams;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FairShareBudgetTest {
+    private static final int CAPACITY = 100;
+
+    private final FairShareBudget budget = new FairShareBudget();
+    private final int[] live = new int[PointerStreams.MAX_STREAMS];
+    private final int[] wanted = new int[PointerStreams.MAX_STREAMS];
+
+    @Test
+    void nothingWantedGrantsNothing() {
+        live[0] = 40;
+        assertEquals(0, budget.plan(live, wanted, CAPACITY));
+        assertEquals(0, budget.granted(0));
+        assertEquals(0, budget.evictions(0));
+    }
+
+    @Test
+    void singleStreamUsesFreeSlots() {
+        live[0] = 95;
+        wanted[0] = 10;
+        assertEquals(0, budget.plan(live, wanted, CAPACITY));
+        assertEquals(5, budget.granted(0));
+    }
+
+    /**
+     * 只有一个流时与原来的行为一致：池满就不再生成，也不淘汰自己的粒子
+     */
+    @Test
+    void singleStreamStopsWhenFull() {
+        live[0] = CAPACITY;
+        wanted[0] = 10;
+        assertEquals(0, budget.plan(live, wanted, CAPACITY));
+        assertEquals(0, budget.granted(0));
+        assertEquals(0, budget.evictions(0));
+    }
+
+    @Test
+    void freeSlotsGoToTheStreamWithFewestLive() {
+        live[0] = 60;
+        live[1] = 20;
+        wanted[0] = 20;
+        wanted[1] = 20;
+        // 空闲 20 个全部给存活少的流 1，流 0 已超份额（50），不能淘汰别人
+        assertEquals(0, budget.plan(live, wanted, CAPACITY));
+        assertEquals(0, budget.granted(0));
+        assertEquals(20, budget.granted(1));
+    }
+
+    @Test
+    void streamBelowFairShareEvictsFromTheLargestExcess() {
+        live[0] = 70;
+        live[1] = 20;
+        live[2] = 10;
+        wanted[2] = 30;
+        // 份额 33：空闲 0，流 2 还差 23 才到份额，只能从超额 37 的流 0 淘汰
+        assertEquals(23, budget.plan(live, wanted, CAPACITY));
+        assertEquals(23, budget.granted(2));
+        assertEquals(23, budget.evictions(0));
+        assertEquals(0, budget.evictions(1));
+    }
+
+    @Test
+    void streamAtFairShareOnlyUsesFreeSlots() {
+        live[0] = 50;
+        live[1] = 50;
+        wanted[0] = 10;
+        wanted[1] = 10;
+        assertEquals(0, budget.plan(live, wanted, CAPACITY));
+        assertEquals(0, budget.granted(0));
+        assertEquals(0, budget.granted(1));
+    }
+
+    @Test
+    void evictionsNeverPushADonorBelowFairShare() {
+        live[0] = 60;
+        live[1] = 40;
+        wanted[1] = 100;
+        // 份额 50：流 0 只有 10 个超额可让
+        assertEquals(10, budget.plan(live, wanted, CAPACITY));
+        assertEquals(10, budget.granted(1));
+        assertEquals(10, budget.evictions(0));
+    }
+
+    @Test
+    void planResetsThePreviousResult() {
+        live[0] = 70;
+        live[1] = 10;
+        wanted[1] = 30;
+        budget.plan(live, wanted, CAPACITY);
+
+        live[0] = 0;
+        live[1] = 0;
+        wanted[1] = 5;
+        assertEquals(0, budget.plan(live, wanted, CAPACITY));
+        assertEquals(5, budget.granted(1));
+        assertEquals(0, budget.evictions(0));
+    }
+}
@@ -0,0 +1,219 @@
+package com.cursorflow.effect;
+
+import com.cursorflow.core.PythonProcessManager;
+import com.cursorflow.input.PointerSamples;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 渲染热路径的逐帧分配预算：每个特效先预热，再逐帧测量 render 在当前线程上分配的字节数。
+ * 逐帧比较而不是比较均值：超出预算的帧超过 1% 即失败。偶尔一帧的分配（粒子数创新高时对象池扩容、
+ * 缓冲区翻倍）允许存在，逐帧都有的分配一定会被发现。
+ *
+ * 绘制目标是一个不挂到场景上的 Canvas：GraphicsContext 只把命令记录进 Canvas 的命令缓冲区，
+ * 没有脉冲就不会光栅化，因此不需要显示器，也不启动 JavaFX 平台。每帧开始时整块 clearRect 让缓冲区复位，
+ * 与图层每帧清屏时一样，命令缓冲区不会无限增长。
+ *
+ * 预算按"稳态零分配"设置：回到逐帧 new 粒子 / 轨迹点（每个 32~56 字节，每帧十几个）都会超出。
+ */
+class RenderAllocationBudgetTest {
+    private static final double WIDTH = 1280;
+    private static final double HEIGHT = 800;
+    private static final int SAMPLES_PER_FRAME = 16;
+    // 预热覆盖轨迹的一个完整周期（约 400 帧），首次经过某处时才创建的缓存都在预热中建好
+    private static final int WARMUP_FRAMES = 3000;
+    private static final int MEASURED_FRAMES = 1000;
+    // 单帧允许的分配（字节）：小于任何一个粒子或轨迹点对象
+    private static final long FRAME_BUDGET = 16;
+    // 允许超出预算的帧数（测量帧数的 1%）
+    private static final int MAX_FRAMES_OVER_BUDGET = MEASURED_FRAMES / 100;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    private final Canvas canvas = new Canvas(WIDTH, HEIGHT);
+    private final GraphicsContext gc = canvas.getGraphicsContext2D();
+    private final PointerSamples samples = new PointerSamples(64);
+
+    @BeforeAll
+    static void enableAllocationCounting() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void particleEffect() {
+        ParticleEffect effect = new ParticleEffect();
+        effect.init(null);
+        assertWithinBudget("particle", effect, null);
+    }
+
+    @Test
+    void snakeLineEffect() {
+        SnakeLineEffect effect = new SnakeLineEffect();
+        effect.init(null);
+        assertWithinBudget("snake_line", effect, null);
+    }
+
+    @Test
+    void snakeLineEffectWithFadeOut() {
+        SnakeLineEffect effect = new SnakeLineEffect();
+        effect.init(Map.of("fadeOut", true));
+        assertWithinBudget("snake_line fadeOut", effect, null);
+    }
+
+    @Test
+    void nativeParticleEffect() {
+        NativeParticleEffect effect = new NativeParticleEffect(null);
+        effect.init(Map.of());
+        assertWithinBudget("native_particle", effect, null);
+    }
+
+    @Test
+    void flowFieldEffect() {
+        FlowFieldEffect effect = new FlowFieldEffect();
+        effect.init(null);
+        assertWithinBudget("flow_field", effect, null);
+    }
+
+    @Test
+    void pythonDrivenParticles(@TempDir Path dir) throws IOException {
+        JsonObject[] frames = new JsonObject[4];
+        for (int i = 0; i < frames.length; i++) frames[i] = particleFrame(i, 300);
+        assertPythonWithinBudget("python_driven particle", dir, frames);
+    }
+
+    @Test
+    void pythonDrivenSnakeLine(@TempDir Path dir) throws IOException {
+        JsonObject[] frames = new JsonObject[4];
+        for (int i = 0; i < frames.length; i++) frames[i] = snakeLineFrame(i, 120);
+        assertPythonWithinBudget("python_driven snake_line", dir, frames);
+    }
+
+    /**
+     * Python 特效不启动进程：每帧先喂一条读线程已解析好的指令（数字已是 double），再 render
+     * 同时告知看门狗收到了帧，否则启动宽限期过后它会判定卡死并切到兜底特效
+     * 配置解析结果直接给一个空对象，不在后台启动 Python 解析
+     */
+    private void assertPythonWithinBudget(String name, Path dir, JsonObject[] frames) throws IOException {
+        Path config = Files.writeString(dir.resolve("config.py"), "config = {}\n");
+        PythonProcessManager manager = new PythonProcessManager(config.toString());
+        PythonDrivenEffect effect = new PythonDrivenEffect(config.toString(), manager, new JsonObject());
+        try {
+            assertWithinBudget(name, effect, frame -> {
+                manager.getWatchdog().onFrame(System.nanoTime());
+                effect.onRenderCommand(frames[(int) (frame % frames.length)]);
+            });
+        } finally {
+            effect.dispose();
+        }
+    }
+
+    /**
+     * @param beforeFrame 每帧 render 之前调用（不计入测量），可为 null
+     */
+    private void assertWithinBudget(String name, ITrailEffect effect, Consumer<Long> beforeFrame) {
+        long overhead = measureOverhead();
+        int overBudget = 0;
+        long worst = 0;
+        long worstFrame = -1;
+        for (long frame = 0; frame < WARMUP_FRAMES + MEASURED_FRAMES; frame++) {
+            fillSamples(frame);
+            if (beforeFrame != null) beforeFrame.accept(frame);
+            gc.clearRect(0, 0, WIDTH, HEIGHT);
+
+            long before = threads.getCurrentThreadAllocatedBytes();
+            effect.render(gc, samples);
+            long bytes = threads.getCurrentThreadAllocatedBytes() - before - overhead;
+
+            if (frame < WARMUP_FRAMES) continue;
+            if (bytes > FRAME_BUDGET) overBudget++;
+            if (bytes > worst) {
+                worst = bytes;
+                worstFrame = frame - WARMUP_FRAMES;
+            }
+        }
+        effect.dispose();
+        assertTrue(overBudget <= MAX_FRAMES_OVER_BUDGET, String.format(
+                "%s: %d/%d 帧超出每帧预算 %d 字节（最多允许 %d 帧），最坏的第 %d 帧分配了 %d 字节",
+                name, overBudget, MEASURED_FRAMES, FRAME_BUDGET, MAX_FRAMES_OVER_BUDGET, worstFrame, worst));
+    }
+
+    /**
+     * 两次连续读取之间的固有差值
+     */
+    private static long measureOverhead() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < 16; i++) {
+            long a = threads.getCurrentThreadAllocatedBytes();
+            long b = threads.getCurrentThreadAllocatedBytes();
+            min = Math.min(min, b - a);
+        }
+        return min;
+    }
+
+    /**
+     * 一帧内的采样沿李萨如曲线移动（纯计算，不分配）
+     */
+    private void fillSamples(long frame) {
+        samples.clear();
+        long base = frame * SAMPLES_PER_FRAME;
+        for (int i = 0; i < SAMPLES_PER_FRAME; i++) {
+            double t = (base + i) / 1000.0;
+            int x = (int) (640 + 400 * Math.sin(3 * t));
+            int y = (int) (400 + 250 * Math.sin(2 * t + Math.PI / 4));
+            samples.add(base + i, x, y);
+        }
+    }
+
+    private static JsonObject particleFrame(int seed, int count) {
+        String[] palette = {"#FF0000", "#FFD700", "#00FF00", "#00FFFF"};
+        JsonArray particles = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            JsonObject p = new JsonObject();
+            p.add("x", new JsonPrimitive(100.0 + (i * 7 + seed * 13) % 1000));
+            p.add("y", new JsonPrimitive(100.0 + (i * 11 + seed * 5) % 600));
+            p.add("size", new JsonPrimitive(2.0 + i % 5));
+            p.add("alpha", new JsonPrimitive((i % 10) / 10.0));
+            p.addProperty("color", palette[i % palette.length]);
+            particles.add(p);
+        }
+        JsonObject frame = new JsonObject();
+        frame.addProperty("type", "particle");
+        frame.add("particles", particles);
+        return frame;
+    }
+
+    private static JsonObject snakeLineFrame(int seed, int count) {
+        JsonArray points = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            JsonObject p = new JsonObject();
+            p.add("x", new JsonPrimitive(200.0 + i * 5 + seed));
+            p.add("y", new JsonPrimitive(300.0 + 80 * Math.sin(i / 10.0 + seed)));
+            points.add(p);
+        }
+        JsonObject frame = new JsonObject();
+        frame.addProperty("type", "snake_line");
+        frame.add("opacity", new JsonPrimitive(1.0));
+        frame.addProperty("color", "#8A2BE2");
+        frame.add("width", new JsonPrimitive(4.0));
+        frame.addProperty("round_cap", true);
+        frame.addProperty("fade_out", true);
+        frame.add("points", points);
+        return frame;
+    }
+}
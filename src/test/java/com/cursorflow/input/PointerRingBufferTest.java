@@ -0,0 +1,114 @@
+package com.cursorflow.input;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PointerRingBufferTest {
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        int tiny = new PointerRingBuffer(1).capacity();
+        assertTrue(tiny >= 2 && Integer.bitCount(tiny) == 1);
+        assertEquals(128, new PointerRingBuffer(100).capacity());
+        assertEquals(128, new PointerRingBuffer(128).capacity());
+        assertEquals(256, new PointerRingBuffer(129).capacity());
+    }
+
+    @Test
+    void drainsSamplesInOrder() {
+        PointerRingBuffer ring = new PointerRingBuffer(8);
+        ring.offer(10, 1, 2);
+        ring.offer(20, 3, 4);
+        ring.offer(30, 5, 6);
+
+        PointerSamples out = new PointerSamples();
+        assertEquals(3, ring.drainTo(out));
+        assertEquals(3, out.size());
+        assertEquals(10, out.timeNanos(0));
+        assertEquals(3, out.x(1));
+        assertEquals(6, out.y(2));
+
+        assertEquals(0, ring.drainTo(out));
+        assertEquals(3, out.size());
+    }
+
+    @Test
+    void dropsNewSamplesWhenFull() {
+        PointerRingBuffer ring = new PointerRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i, i, i));
+        }
+        assertFalse(ring.offer(4, 4, 4));
+        assertEquals(1, ring.droppedCount());
+
+        // 丢弃的是新采样，已写入的保持不变
+        PointerSamples out = new PointerSamples();
+        assertEquals(4, ring.drainTo(out));
+        assertEquals(3, out.x(3));
+        assertTrue(ring.offer(5, 5, 5));
+    }
+
+    @Test
+    void wrapsAroundAfterManyDrains() {
+        PointerRingBuffer ring = new PointerRingBuffer(4);
+        PointerSamples out = new PointerSamples();
+        int next = 0;
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(ring.offer(next, next, -next));
+                next++;
+            }
+            out.clear();
+            assertEquals(3, ring.drainTo(out));
+            for (int i = 0; i < 3; i++) {
+                int expected = next - 3 + i;
+                assertEquals(expected, out.x(i));
+                assertEquals(-expected, out.y(i));
+            }
+        }
+        assertEquals(0, ring.droppedCount());
+    }
+
+    /**
+     * 生产者线程持续写入，缓冲区满时让出 CPU 后重试；消费者按顺序收到全部采样，不重复也不丢失
+     * 两边都用 yield 而不是纯自旋：单核机器上纯自旋要等调度时间片才能交替，测试会跑得极慢
+     */
+    @Test
+    void producerAndConsumerOnDifferentThreads() throws InterruptedException {
+        int total = 200_000;
+        PointerRingBuffer ring = new PointerRingBuffer(64);
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < total && !stop.get(); i++) {
+                while (!ring.offer(i, i, i + 1) && !stop.get()) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        PointerSamples out = new PointerSamples(64);
+        int received = 0;
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (received < total && System.nanoTime() < deadline) {
+            out.clear();
+            if (ring.drainTo(out) == 0) {
+                Thread.yield();
+            }
+            for (int i = 0; i < out.size(); i++) {
+                assertEquals(received, out.x(i));
+                assertEquals(received + 1, out.y(i));
+                assertEquals(received, out.timeNanos(i));
+                received++;
+            }
+        }
+        stop.set(true);
+        producer.join();
+        assertEquals(total, received);
+    }
+}
@@ -0,0 +1,119 @@
+package com.cursorflow.input;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PointerTraceWriter / PointerTraceReader 往返与截断
+ */
+class PointerTraceTest {
+    private static final long BASE = 1_000_000_000L;
+    // 时间戳、x、y：含负坐标、大跨度跳变与静止
+    private static final long[][] SAMPLES = {
+            {BASE, 0, 0},
+            {BASE + 1_000_000, 5, -3},
+            {BASE + 1_000_000, 5, -3},
+            {BASE + 2_000_000, -1920, 1080},
+            {BASE + 10_000_000_000L, 3840, -2160},
+            {BASE + 10_000_500_000L, 3841, -2159},
+    };
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTrip() throws IOException {
+        Path file = write(dir.resolve("trace.cftrace"));
+        assertTrue(PointerTraceReader.isTrace(file));
+
+        try (PointerTraceReader reader = new PointerTraceReader(file)) {
+            assertEquals(BASE, reader.getBaseNanos());
+            assertReadsAll(reader, SAMPLES.length);
+            assertFalse(reader.next());
+
+            // rewind 之后从头再读一遍，结果相同
+            reader.rewind();
+            assertReadsAll(reader, SAMPLES.length);
+        }
+    }
+
+    @Test
+    void backwardTimestampIsWrittenAsZeroGap() throws IOException {
+        Path file = dir.resolve("backward.cftrace");
+        try (PointerTraceWriter writer = new PointerTraceWriter(file, BASE)) {
+            writer.write(BASE + 500, 1, 1);
+            writer.write(BASE + 100, 2, 2);
+        }
+        try (PointerTraceReader reader = new PointerTraceReader(file)) {
+            assertTrue(reader.next());
+            assertTrue(reader.next());
+            assertEquals(BASE + 500, reader.timeNanos());
+            assertEquals(2, reader.x());
+        }
+    }
+
+    /**
+     * 录制进程被强杀时最后一条记录不完整：读取器读完完整的记录后停止，不抛异常
+     */
+    @Test
+    void truncatedTailStopsAtTheLastCompleteSample() throws IOException {
+        Path file = write(dir.resolve("truncated.cftrace"));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        try (PointerTraceReader reader = new PointerTraceReader(file)) {
+            assertReadsAll(reader, SAMPLES.length - 1);
+            assertFalse(reader.next());
+            // 停在最后一个完整采样上，反复调用结果不变
+            assertFalse(reader.next());
+            assertEquals(SAMPLES[SAMPLES.length - 2][1], reader.x());
+        }
+    }
+
+    @Test
+    void headerOnlyTraceHasNoSamples() throws IOException {
+        Path file = dir.resolve("empty.cftrace");
+        new PointerTraceWriter(file, BASE).close();
+        try (PointerTraceReader reader = new PointerTraceReader(file)) {
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void rejectsFilesWithoutTheMagic() throws IOException {
+        Path file = Files.writeString(dir.resolve("not-a-trace.cftrace"), "hello, this is not a trace");
+        assertFalse(PointerTraceReader.isTrace(file));
+        assertThrows(IOException.class, () -> new PointerTraceReader(file));
+    }
+
+    private static Path write(Path file) throws IOException {
+        try (PointerTraceWriter writer = new PointerTraceWriter(file, BASE)) {
+            for (long[] s : SAMPLES) {
+                writer.write(s[0], (int) s[1], (int) s[2]);
+            }
+            assertEquals(SAMPLES.length, writer.getSampleCount());
+        }
+        return file;
+    }
+
+    private static void assertReadsAll(PointerTraceReader reader, int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(reader.next(), "第 " + i + " 个采样");
+            assertEquals(SAMPLES[i][0], reader.timeNanos());
+            assertEquals(SAMPLES[i][1], reader.x());
+            assertEquals(SAMPLES[i][2], reader.y());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.cursorflow.render;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SnakeLineRenderer.simplify（RDP 简化）
+ */
+class SnakeLineRendererTest {
+    private final SnakeLineRenderer renderer = new SnakeLineRenderer();
+
+    @Test
+    void collinearPointsCollapseToTheEndpoints() {
+        for (int i = 0; i <= 10; i++) {
+            renderer.add(i * 3, i * 2);
+        }
+        renderer.simplify();
+        assertEquals(2, keptCount());
+        assertTrue(renderer.kept(0));
+        assertTrue(renderer.kept(10));
+    }
+
+    @Test
+    void cornersAreKept() {
+        add(0, 0, 5, 0, 10, 0, 10, 5, 10, 10);
+        renderer.simplify();
+        assertKept(true, false, true, false, true);
+    }
+
+    @Test
+    void jitterWithinToleranceIsDropped() {
+        add(0, 0, 5, 0.5, 10, 0);
+        renderer.simplify();
+        assertKept(true, false, true);
+
+        renderer.setTolerance(0.4);
+        renderer.simplify();
+        assertKept(true, true, true);
+    }
+
+    @Test
+    void zeroToleranceKeepsEveryPoint() {
+        renderer.setTolerance(0);
+        add(0, 0, 1, 0, 2, 0, 3, 0);
+        renderer.simplify();
+        assertKept(true, true, true, true);
+    }
+
+    @Test
+    void shortLinesAreKeptAsIs() {
+        add(0, 0, 4, 4);
+        renderer.simplify();
+        assertKept(true, true);
+    }
+
+    /**
+     * 来回折返的点落在首尾连线上，但离线段端点很远：按到线段（不是直线）的距离判断，折返点必须保留
+     */
+    @Test
+    void backtrackingBeyondTheEndpointsIsKept() {
+        add(0, 0, 20, 0, 10, 0);
+        renderer.simplify();
+        assertKept(true, true, true);
+    }
+
+    @Test
+    void longWigglyLineKeepsPeaks() {
+        // 锯齿：每个峰和谷都偏离直线 5 像素，远超容差
+        int n = 401;
+        for (int i = 0; i < n; i++) {
+            renderer.add(i, i % 2 == 0 ? 0 : 5);
+        }
+        renderer.simplify();
+        assertEquals(n, keptCount());
+
+        renderer.clear();
+        // 一段直线上加一个凸起：除端点外只保留凸起附近的点
+        for (int i = 0; i < n; i++) {
+            renderer.add(i, i == 200 ? 30 : 0);
+        }
+        renderer.simplify();
+        assertTrue(renderer.kept(200));
+        assertTrue(renderer.kept(199));
+        assertTrue(renderer.kept(201));
+        assertFalse(renderer.kept(100));
+        assertFalse(renderer.kept(300));
+        assertEquals(5, keptCount());
+    }
+
+    private void add(double... coords) {
+        renderer.clear();
+        for (int i = 0; i < coords.length; i += 2) {
+            renderer.add(coords[i], coords[i + 1]);
+        }
+    }
+
+    private int keptCount() {
+        int count = 0;
+        for (int i = 0; i < renderer.size(); i++) {
+            if (renderer.kept(i)) count++;
+        }
+        return count;
+    }
+
+    private void assertKept(boolean... expected) {
+        assertEquals(expected.length, renderer.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], renderer.kept(i), "第 " + i + " 个点");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.cursorflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TripleBufferTest {
+
+    /**
+     * 生产者写入的快照：两个字段总是写成同一个序号，读到不相等说明读到了写了一半的槽
+     */
+    private static final class Snapshot {
+        long first;
+        long second;
+    }
+
+    @Test
+    void latestWithoutPublishReturnsTheSameSlot() {
+        TripleBuffer<Snapshot> buffer = new TripleBuffer<>(Snapshot::new);
+        assertFalse(buffer.hasFresh());
+        Snapshot initial = buffer.latest();
+        assertSame(initial, buffer.latest());
+        assertNotSame(initial, buffer.back());
+    }
+
+    @Test
+    void publishedSlotBecomesLatest() {
+        TripleBuffer<Snapshot> buffer = new TripleBuffer<>(Snapshot::new);
+        Snapshot written = buffer.back();
+        written.first = 7;
+        buffer.publish();
+
+        assertTrue(buffer.hasFresh());
+        assertSame(written, buffer.latest());
+        assertFalse(buffer.hasFresh());
+        // 没有新快照时重复返回上一份
+        assertSame(written, buffer.latest());
+    }
+
+    @Test
+    void consumerSkipsOverwrittenSnapshots() {
+        TripleBuffer<Snapshot> buffer = new TripleBuffer<>(Snapshot::new);
+        for (int i = 1; i <= 3; i++) {
+            buffer.back().first = i;
+            buffer.publish();
+        }
+        assertEquals(3, buffer.latest().first);
+    }
+
+    @Test
+    void producerNeverWritesTheSlotTheConsumerHolds() {
+        TripleBuffer<Snapshot> buffer = new TripleBuffer<>(Snapshot::new);
+        Map<Snapshot, Boolean> seen = new IdentityHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            buffer.back().first = i;
+            buffer.publish();
+            if (i % 3 == 0) {
+                Snapshot held = buffer.latest();
+                seen.put(held, true);
+                assertNotSame(held, buffer.back());
+            }
+        }
+        assertTrue(seen.size() <= 3);
+    }
+
+    @Test
+    void concurrentReadsSeeWholeSnapshotsInOrder() throws InterruptedException {
+        int total = 200_000;
+        TripleBuffer<Snapshot> buffer = new TripleBuffer<>(Snapshot::new);
+        Thread producer = new Thread(() -> {
+            for (long seq = 1; seq <= total; seq++) {
+                Snapshot back = buffer.back();
+                back.first = seq;
+                back.second = seq;
+                buffer.publish();
+            }
+        });
+        producer.start();
+
+        long last = 0;
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (last < total && System.nanoTime() < deadline) {
+            Snapshot snapshot = buffer.latest();
+            long first = snapshot.first;
+            long second = snapshot.second;
+            assertEquals(first, second);
+            assertTrue(first >= last, "快照序号倒退: " + first + " < " + last);
+            last = first;
+            Thread.yield();
+        }
+        producer.join();
+        assertEquals(total, buffer.latest().first);
+    }
+}